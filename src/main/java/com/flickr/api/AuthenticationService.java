@@ -33,13 +33,13 @@ import com.flickr.api.entities.LoginResponse;
 final class AuthenticationService extends FlickrService {
 
 
-    AuthenticationService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    AuthenticationService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     public BaseUser authenticate() throws FlickrException {
         CommandArguments args = new CommandArguments("flickr.test.login");
-        LoginResponse response = doGet(args, LoginResponse.class);
+        LoginResponse response = await(doGetAsync(args, LoginResponse.class));
         return response.getIdentifier();
 
     }
@@ -0,0 +1,384 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Upload many files with a bounded number of uploads in flight, and resume an interrupted upload without sending the
+ * files again:
+ * <pre>
+ * try (BulkUpload upload = new BulkUpload(flickr.getUploadService(), new File("upload.journal"), 8)) {
+ *     upload.start(directory).get();
+ * }
+ * </pre>
+ * <p>
+ * Each uploaded file is recorded with its photo identifier in an append-only journal, forced to the disk before the
+ * upload is reported. Started again with the same journal, a bulk upload skips the files it records. A file that
+ * cannot be recorded is reported as failed, and the bulk upload is cancelled.</p>
+ *
+ * <p>
+ * The uploads are sent by the service like any other call, so they take the tokens of the {@link RateLimiter}, are
+ * retried by the {@link RetryPolicy} (the uploads are posts, see {@link RetryPolicy#setRetryPosts(boolean)}) and are
+ * queued as background calls by the {@link RequestScheduler}. A failed upload does not stop the others, it is reported
+ * to the listener and in {@link #getFailures()}, and is tried again by the next run.</p>
+ */
+public final class BulkUpload implements AutoCloseable {
+
+    private final UploadService service;
+    private final File journalFile;
+    private final UploadJournal journal;
+    private final int maxConcurrentUploads;
+    private final CompletableFuture<Void> result = new CompletableFuture<Void>();
+    private final AtomicInteger workers = new AtomicInteger();
+    private final LongAdder uploaded = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder uploadedBytes = new LongAdder();
+    private final Map<File, FlickrException> failures = new ConcurrentHashMap<File, FlickrException>();
+    private volatile Listener listener;
+    private volatile Priority priority = Priority.BACKGROUND;
+    private volatile boolean cancelled;
+    private volatile IOException journalError;
+    private volatile long startTime;
+    private volatile long endTime;
+    private Iterator<File> pending;
+    private int total = -1;
+
+    /**
+     * Create a bulk upload.
+     *
+     * @param service The service sending the uploads
+     * @param journal The journal of the uploaded files, created if it does not exist
+     * @param maxConcurrentUploads The maximum number of uploads in flight
+     * @throws FlickrException Error reading the journal
+     */
+    public BulkUpload(UploadService service, File journal, int maxConcurrentUploads) throws FlickrException {
+        if (maxConcurrentUploads <= 0) {
+            throw new IllegalArgumentException("The maximum number of uploads must be positive");
+        }
+        this.service = service;
+        this.maxConcurrentUploads = maxConcurrentUploads;
+        journalFile = journal.getAbsoluteFile();
+        try {
+            this.journal = new UploadJournal(journal);
+        } catch (IOException ex) {
+            throw new FlickrException("Error reading the upload journal", ex);
+        }
+    }
+
+    /**
+     * Set the listener notified when each file is uploaded or failed. The listener is called by the threads completing
+     * the uploads, it must not throw.
+     *
+     * @param listener The listener, or null
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Set the priority of the uploads in the {@link RequestScheduler}. The uploads are background calls by default.
+     *
+     * @param priority The priority
+     */
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Upload the files of a directory and of its sub directories, in the order of their paths.
+     *
+     * @param directory The directory
+     * @return A future completed when all the files are uploaded or failed, or failed if the journal cannot be written
+     * @throws FlickrException Error listing the files
+     */
+    public CompletableFuture<Void> start(File directory) throws FlickrException {
+        List<File> files;
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            files = paths.filter(Files::isRegularFile)
+                    .map(Path::toFile)
+                    .filter(file -> !file.getAbsoluteFile().equals(journalFile))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException ex) {
+            throw new FlickrException("Error listing the files of " + directory, ex);
+        }
+        return start(files);
+    }
+
+    /**
+     * Upload a list of files.
+     *
+     * @param files The files
+     * @return A future completed when all the files are uploaded or failed, or failed if the journal cannot be written
+     */
+    public CompletableFuture<Void> start(List<File> files) {
+        synchronized (this) {
+            if (pending != null) {
+                throw new IllegalStateException("The upload is already started");
+            }
+            pending = new ArrayList<File>(files).iterator();
+            total = files.size();
+            workers.set(Math.max(1, Math.min(maxConcurrentUploads, files.size())));
+        }
+        startTime = System.nanoTime();
+        int count = workers.get();
+        for (int i = 0; i < count; i++) {
+            next();
+        }
+        return result;
+    }
+
+    /**
+     * Stop starting new uploads. The future returned by <code>start</code> is completed once the uploads in flight
+     * are done.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Get the number of files to upload, the files skipped included.
+     *
+     * @return The number of files, or -1 if the upload is not started
+     */
+    public synchronized int getTotalCount() {
+        return total;
+    }
+
+    /**
+     * Get the number of files uploaded.
+     *
+     * @return The number of files
+     */
+    public long getUploadedCount() {
+        return uploaded.sum();
+    }
+
+    /**
+     * Get the number of files skipped, because the journal records them as already uploaded.
+     *
+     * @return The number of files
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * Get the number of files failed.
+     *
+     * @return The number of files
+     */
+    public int getFailedCount() {
+        return failures.size();
+    }
+
+    /**
+     * Get the files failed, with their error.
+     *
+     * @return The failed files
+     */
+    public Map<File, FlickrException> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Get the size of the files uploaded.
+     *
+     * @return The number of bytes
+     */
+    public long getUploadedBytes() {
+        return uploadedBytes.sum();
+    }
+
+    /**
+     * Get the throughput of the upload since it started.
+     *
+     * @return The number of bytes uploaded per second
+     */
+    public double getThroughput() {
+        long start = startTime;
+        if (start == 0) {
+            return 0;
+        }
+        long end = endTime;
+        long elapsed = (end == 0 ? System.nanoTime() : end) - start;
+        return elapsed <= 0 ? 0 : getUploadedBytes() / (elapsed / 1e9);
+    }
+
+    /**
+     * Get the photo identifier of a file uploaded by this run or by a previous run with the same journal.
+     *
+     * @param file The file
+     * @return The photo identifier, or null if the file is not uploaded
+     */
+    public String getPhotoId(File file) {
+        return journal.getPhotoId(file);
+    }
+
+    /**
+     * Cancel the upload, wait until the uploads in flight are done and recorded, then close the journal. This method
+     * must not be called by the listener, it would wait for its own upload.
+     *
+     * @throws FlickrException Error closing the journal, or interrupted while waiting for the uploads
+     */
+    @Override
+    public void close() throws FlickrException {
+        cancel();
+        try {
+            synchronized (this) {
+                while (workers.get() > 0) {
+                    wait();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new FlickrException("Interrupted while waiting for the uploads in flight", ex);
+        } finally {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+                throw new FlickrException("Error closing the upload journal", ex);
+            }
+        }
+    }
+
+    private synchronized File take() {
+        return !cancelled && pending.hasNext() ? pending.next() : null;
+    }
+
+    private void next() {
+        File file;
+        while ((file = take()) != null) {
+            if (journal.getPhotoId(file) != null) {
+                skipped.increment();
+                continue;
+            }
+            CompletableFuture<String> upload;
+            Priority.Scope scope = priority.apply();
+            try {
+                upload = service.uploadPhotoAsync(file, null, null);
+            } finally {
+                scope.close();
+            }
+            if (!upload.isDone()) {
+                // Continued by the thread completing the upload
+                File current = file;
+                upload.whenComplete((photoId, error) -> {
+                    complete(current, photoId, error);
+                    next();
+                });
+                return;
+            }
+            // Completed at once, loop rather than nesting the calls
+            try {
+                complete(file, upload.join(), null);
+            } catch (CompletionException ex) {
+                complete(file, null, ex);
+            }
+        }
+        if (workers.decrementAndGet() == 0) {
+            endTime = System.nanoTime();
+            IOException error = journalError;
+            if (error == null) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(new FlickrException("Error writing the upload journal", error));
+            }
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private void complete(File file, String photoId, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            failed(file, cause instanceof FlickrException
+                    ? (FlickrException) cause : new FlickrException("Error uploading " + file, cause));
+            return;
+        }
+        try {
+            journal.record(file, photoId);
+        } catch (IOException ex) {
+            // Without a journal, a new run would upload the files again
+            journalError = ex;
+            cancel();
+            failed(file, new FlickrException("Error recording " + file + " in the upload journal", ex));
+            return;
+        }
+        Listener current = listener;
+        uploaded.increment();
+        uploadedBytes.add(file.length());
+        if (current != null) {
+            current.uploaded(file, photoId);
+        }
+    }
+
+    private void failed(File file, FlickrException error) {
+        failures.put(file, error);
+        Listener current = listener;
+        if (current != null) {
+            current.failed(file, error);
+        }
+    }
+
+    /**
+     * Notified of the progress of a bulk upload.
+     */
+    public interface Listener {
+
+        /**
+         * Called when a file is uploaded and recorded in the journal.
+         *
+         * @param file The file
+         * @param photoId The new photo identifier
+         */
+        void uploaded(File file, String photoId);
+
+        /**
+         * Called when a file failed to upload.
+         *
+         * @param file The file
+         * @param error The error
+         */
+        void failed(File file, FlickrException error);
+    }
+
+}
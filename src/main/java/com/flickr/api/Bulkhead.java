@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Limit of the calls running at the same time for a service, see {@link Bulkheads}.
+ *
+ * <p>
+ * Past the limit, the calls wait in a bounded queue and start in their arrival order when the running ones complete.
+ * The waiting calls do not hold any thread. Once the queue is full, the calls fail at once with a
+ * {@link BulkheadFullException}.</p>
+ */
+public final class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final int maxQueueDepth;
+    private final Queue<Runnable> queue = new ArrayDeque<Runnable>();
+    private int running;
+    private long rejected;
+
+    /**
+     * Create a bulkhead.
+     *
+     * @param maxConcurrentCalls The maximum number of calls running at the same time
+     * @param maxQueueDepth The maximum number of calls waiting, 0 to fail the calls past the limit at once
+     */
+    public Bulkhead(int maxConcurrentCalls, int maxQueueDepth) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("The maximum number of concurrent calls must be positive");
+        }
+        if (maxQueueDepth < 0) {
+            throw new IllegalArgumentException("The maximum queue depth cannot be negative");
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxQueueDepth = maxQueueDepth;
+    }
+
+    /**
+     * Run a call when the bulkhead has room for it.
+     *
+     * @param <T> The result type
+     * @param method The method called
+     * @param call Starts the call
+     * @return The result of the call
+     */
+    <T> CompletableFuture<T> execute(String method, final Supplier<CompletableFuture<T>> call) {
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        Runnable task = () -> start(call, result);
+        synchronized (this) {
+            if (running < maxConcurrentCalls) {
+                running++;
+            } else if (queue.size() < maxQueueDepth) {
+                queue.add(task);
+                result.whenComplete((value, error) -> {
+                    if (result.isCancelled()) {
+                        synchronized (this) {
+                            queue.remove(task);
+                        }
+                    }
+                });
+                return result;
+            } else {
+                rejected++;
+                result.completeExceptionally(new BulkheadFullException("Too many concurrent calls, method '"
+                        + method + "'"));
+                return result;
+            }
+        }
+        task.run();
+        return result;
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> call, final CompletableFuture<T> result) {
+        if (result.isDone()) {
+            // Cancelled while waiting
+            release();
+            return;
+        }
+        final CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException ex) {
+            release();
+            result.completeExceptionally(ex);
+            return;
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        future.whenComplete((value, error) -> {
+            release();
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * Start the next waiting call, or free the slot of the completed call.
+     */
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = queue.poll();
+            if (next == null) {
+                running--;
+                return;
+            }
+        }
+        next.run();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Get the number of calls running.
+     *
+     * @return The number of calls
+     */
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * Get the number of calls waiting in the queue.
+     *
+     * @return The queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of calls failed because the queue was full.
+     *
+     * @return The number of calls
+     */
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The concurrency limits of the services, given when the {@link Flickr} instance is created:
+ * <pre>
+ * Bulkheads bulkheads = new Bulkheads();
+ * bulkheads.setDefault(16, 64);
+ * bulkheads.set(GroupsService.class, 4, 16);
+ * Flickr flickr = new Flickr(apiKey, apiSecret, callbackUrl, "read", props, bulkheads);
+ * </pre>
+ * <p>
+ * Each service gets its own {@link Bulkhead}, a slow or runaway service then cannot take the connections and threads
+ * of the other ones. The services without a limit are not bounded.</p>
+ */
+public final class Bulkheads {
+
+    private final Map<Class<? extends FlickrService>, int[]> limits = new HashMap<Class<? extends FlickrService>, int[]>();
+    private int[] defaults;
+
+    /**
+     * Set the limit of the services without their own limit.
+     *
+     * @param maxConcurrentCalls The maximum number of calls running at the same time
+     * @param maxQueueDepth The maximum number of calls waiting
+     */
+    public synchronized void setDefault(int maxConcurrentCalls, int maxQueueDepth) {
+        defaults = check(maxConcurrentCalls, maxQueueDepth);
+    }
+
+    /**
+     * Set the limit of a service.
+     *
+     * @param service The service class (for instance <code>GroupsService.class</code>)
+     * @param maxConcurrentCalls The maximum number of calls running at the same time
+     * @param maxQueueDepth The maximum number of calls waiting
+     */
+    public synchronized void set(Class<? extends FlickrService> service, int maxConcurrentCalls, int maxQueueDepth) {
+        limits.put(service, check(maxConcurrentCalls, maxQueueDepth));
+    }
+
+    /**
+     * Create the bulkhead of a service.
+     *
+     * @param service The service class
+     * @return The bulkhead, or null if the service is not bounded
+     */
+    synchronized Bulkhead create(Class<? extends FlickrService> service) {
+        int[] limit = limits.get(service);
+        if (limit == null) {
+            limit = defaults;
+        }
+        return limit == null ? null : new Bulkhead(limit[0], limit[1]);
+    }
+
+    /**
+     * Create a copy of the limits, the changes of one are not seen by the other.
+     *
+     * @return The copy
+     */
+    synchronized Bulkheads copy() {
+        Bulkheads copy = new Bulkheads();
+        copy.limits.putAll(limits);
+        copy.defaults = defaults;
+        return copy;
+    }
+
+    private static int[] check(int maxConcurrentCalls, int maxQueueDepth) {
+        // Fails on the invalid values before the Flickr instance is created
+        new Bulkhead(maxConcurrentCalls, maxQueueDepth);
+        return new int[]{maxConcurrentCalls, maxQueueDepth};
+    }
+
+}
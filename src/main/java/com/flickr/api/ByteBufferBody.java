@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+/**
+ * A part of a multipart body sending the remaining bytes of a buffer, a heap buffer or a direct (possibly memory
+ * mapped) one. The buffer is never copied in another array: a heap buffer is written from its array, and a direct
+ * buffer is written to the channel of the connection when the transport gives it (see {@link DirectTransfer}).
+ * The position of the buffer is not changed, so the part can be sent again.
+ */
+final class ByteBufferBody extends AbstractContentBody {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final ByteBuffer buffer;
+    private final String filename;
+
+    ByteBufferBody(ByteBuffer buffer, String filename) {
+        super("application/octet-stream");
+        this.buffer = buffer;
+        this.filename = filename;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        ByteBuffer data = buffer.duplicate();
+        DirectTransfer target = DirectTransfer.current();
+        if (data.hasArray()) {
+            // A channel would copy a heap buffer to a temporary direct buffer of the same size
+            out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        } else if (target != null) {
+            // The headers and the previous parts are buffered by the client, they are sent first
+            out.flush();
+            while (data.hasRemaining()) {
+                target.addTransferred(target.getChannel().write(data));
+            }
+        } else {
+            // Encrypted by the JVM anyway, the bytes are copied through a small buffer
+            byte[] chunk = new byte[Math.min(BUFFER_SIZE, data.remaining())];
+            while (data.hasRemaining()) {
+                int count = Math.min(chunk.length, data.remaining());
+                data.get(chunk, 0, count);
+                out.write(chunk, 0, count);
+            }
+        }
+        out.flush();
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getCharset() {
+        return null;
+    }
+
+    @Override
+    public String getTransferEncoding() {
+        return MIME.ENC_BINARY;
+    }
+
+    @Override
+    public long getContentLength() {
+        return buffer.remaining();
+    }
+
+}
@@ -26,6 +26,7 @@ import com.flickr.api.entities.CameraBrandModel;
 import com.flickr.api.entities.CameraBrandModelsResponse;
 import com.flickr.api.entities.CameraBrandsResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -33,8 +34,8 @@ import java.util.List;
  */
 public class CameraService extends FlickrService {
 
-    CameraService(OAuthHandler oauth) {
-        super(oauth);
+    CameraService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -44,8 +45,17 @@ public class CameraService extends FlickrService {
      * @throws FlickrException Error getting the brands
      */
     public List<CameraBrand> getBrands() throws FlickrException {
+        return await(getBrandsAsync());
+    }
+
+    /**
+     * Asynchronous version of {@link #getBrands()}.
+     *
+     * @return A future completed with the brands
+     */
+    public CompletableFuture<List<CameraBrand>> getBrandsAsync() {
         CommandArguments args = new CommandArguments("flickr.cameras.getBrands");
-        return doGet(args, CameraBrandsResponse.class).getList();
+        return doGetAsync(args, CameraBrandsResponse.class).thenApply(CameraBrandsResponse::getList);
     }
 
     /**
@@ -56,9 +66,19 @@ public class CameraService extends FlickrService {
      * @throws FlickrException Error getting the models
      */
     public List<CameraBrandModel> getBrandModels(CameraBrand brand) throws FlickrException {
+        return await(getBrandModelsAsync(brand));
+    }
+
+    /**
+     * Asynchronous version of {@link #getBrandModels(CameraBrand)}.
+     *
+     * @param brand The requested brand
+     * @return A future completed with the models
+     */
+    public CompletableFuture<List<CameraBrandModel>> getBrandModelsAsync(CameraBrand brand) {
         CommandArguments args = new CommandArguments("flickr.cameras.getBrandModels");
         args.addParam("brand", brand.getId());
-        return doGet(args, CameraBrandModelsResponse.class).getList();
+        return doGetAsync(args, CameraBrandModelsResponse.class).thenApply(CameraBrandModelsResponse::getList);
     }
 
 }
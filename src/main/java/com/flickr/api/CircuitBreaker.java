@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breakers isolating the methods of a degraded endpoint, see {@link Flickr#setCircuitBreaker(CircuitBreaker)}.
+ *
+ * <p>
+ * A breaker is kept for each method, over the outcome of its last calls. A call is bad when it failed with an I/O or
+ * server error, or when it was slower than the slow call threshold. When the rate of bad calls reaches the threshold,
+ * the breaker opens: the calls of the method fail at once with a {@link CircuitOpenException}, without holding a
+ * connection or waiting for the server. After the open duration, a single probe call is let through (half-open):
+ * the breaker closes if it succeeds, and opens again otherwise.</p>
+ *
+ * <p>
+ * The errors answered by the API (photo not found, invalid signature ...) show a healthy endpoint and are counted as
+ * good calls.</p>
+ */
+public final class CircuitBreaker {
+
+    /**
+     * The state of the breaker of a method.
+     */
+    public enum State {
+
+        /**
+         * The calls are sent.
+         */
+        CLOSED,
+        /**
+         * The calls fail without being sent.
+         */
+        OPEN,
+        /**
+         * A probe call is sent, the other calls fail without being sent.
+         */
+        HALF_OPEN
+    }
+    //
+    private final int windowSize;
+    private final double failureRateThreshold;
+    private final long openDuration;
+    private volatile long slowCallThreshold;
+    private final ConcurrentMap<String, MethodBreaker> breakers = new ConcurrentHashMap<String, MethodBreaker>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    /**
+     * Create new circuit breakers
+     *
+     * @param windowSize The number of last calls of a method considered, the breaker cannot open before
+     * @param failureRateThreshold The rate of bad calls opening the breaker (0.5 for half of the calls)
+     * @param openDuration The time during which the calls fail before a probe is sent
+     * @param unit The open duration unit
+     */
+    public CircuitBreaker(int windowSize, double failureRateThreshold, long openDuration, TimeUnit unit) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("The window size must be positive");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("The failure rate threshold must be in ]0, 1]");
+        }
+        this.windowSize = windowSize;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = unit.toNanos(openDuration);
+    }
+
+    /**
+     * Set the duration above which a successful call is counted as a bad call.
+     *
+     * @param threshold The duration, 0 to ignore the durations
+     * @param unit The duration unit
+     */
+    public void setSlowCallThreshold(long threshold, TimeUnit unit) {
+        this.slowCallThreshold = unit.toNanos(threshold);
+    }
+
+    /**
+     * Get the state of the breaker of a method.
+     *
+     * @param method The method name
+     * @return The state
+     */
+    public State getState(String method) {
+        MethodBreaker breaker = breakers.get(method);
+        return breaker == null ? State.CLOSED : breaker.getState();
+    }
+
+    /**
+     * Close all the breakers and forget the past calls.
+     */
+    public void reset() {
+        breakers.clear();
+    }
+
+    /**
+     * Get the number of calls which failed because their breaker was open.
+     *
+     * @return The number of calls
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Get the number of times a breaker opened.
+     *
+     * @return The number of times
+     */
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    /**
+     * Let a call through or refuse it.
+     *
+     * @param method The method called
+     * @return The permit of the call, to give back to {@link #record(String, long, Throwable, long)}
+     * @throws CircuitOpenException The breaker of the method is open
+     */
+    long permit(String method) throws CircuitOpenException {
+        long permit = getBreaker(method).permit();
+        if (permit < 0) {
+            rejected.increment();
+            throw new CircuitOpenException("Circuit open for method '" + method + "'");
+        }
+        return permit;
+    }
+
+    /**
+     * Record the outcome of a call let through.
+     *
+     * @param method The method called
+     * @param permit The permit of the call
+     * @param error The error of the call, or null
+     * @param duration The duration of the call in nanoseconds, or -1 if no request was sent
+     */
+    void record(String method, long permit, Throwable error, long duration) {
+        MethodBreaker breaker = getBreaker(method);
+        if (duration < 0) {
+            breaker.release(permit);
+        } else {
+            breaker.record(permit, !isFailure(error) && (slowCallThreshold <= 0 || duration <= slowCallThreshold));
+        }
+    }
+
+    private static boolean isFailure(Throwable error) {
+        if (error == null) {
+            return false;
+        }
+        if (error instanceof FlickrException) {
+            FlickrErrorCode code = ((FlickrException) error).getErrorCode();
+            return code == null || code == FlickrErrorCode.service_currently_unavailable;
+        }
+        return true;
+    }
+
+    private MethodBreaker getBreaker(String method) {
+        MethodBreaker breaker = breakers.get(method);
+        if (breaker == null) {
+            MethodBreaker created = new MethodBreaker();
+            breaker = breakers.putIfAbsent(method, created);
+            if (breaker == null) {
+                breaker = created;
+            }
+        }
+        return breaker;
+    }
+
+    private final class MethodBreaker {
+
+        private final boolean[] outcomes = new boolean[windowSize];
+        private int count;
+        private int index;
+        private int failures;
+        private State state = State.CLOSED;
+        private long openedAt;
+        // The permit of the probe in flight, 0 if there is none
+        private long probe;
+        private long lastProbe;
+
+        private synchronized State getState() {
+            return state;
+        }
+
+        /**
+         * @return -1 if the call is refused, 0 for a call of a closed breaker, or the number of the probe
+         */
+        private synchronized long permit() {
+            switch (state) {
+                case CLOSED:
+                    return 0;
+                case OPEN:
+                    if (System.nanoTime() - openedAt < openDuration) {
+                        return -1;
+                    }
+                    state = State.HALF_OPEN;
+                    probe = ++lastProbe;
+                    return probe;
+                default:
+                    if (probe != 0) {
+                        return -1;
+                    }
+                    probe = ++lastProbe;
+                    return probe;
+            }
+        }
+
+        /**
+         * The call let through was not sent, if it was the probe another one can probe.
+         */
+        private synchronized void release(long permit) {
+            if (permit != 0 && permit == probe) {
+                probe = 0;
+            }
+        }
+
+        private synchronized void record(long permit, boolean success) {
+            if (state == State.HALF_OPEN) {
+                if (permit == 0 || permit != probe) {
+                    // Call let through before the breaker opened, only the probe decides
+                    return;
+                }
+                probe = 0;
+                if (success) {
+                    state = State.CLOSED;
+                    count = index = failures = 0;
+                } else {
+                    open();
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                // Call let through before the breaker opened
+                return;
+            }
+
+            if (count == windowSize) {
+                if (!outcomes[index]) {
+                    failures--;
+                }
+            } else {
+                count++;
+            }
+            outcomes[index] = success;
+            if (!success) {
+                failures++;
+            }
+            index = (index + 1) % windowSize;
+
+            if (count == windowSize && failures >= failureRateThreshold * windowSize) {
+                open();
+            }
+        }
+
+        private void open() {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            opened.increment();
+        }
+    }
+
+}
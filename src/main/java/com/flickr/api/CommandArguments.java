@@ -23,12 +23,14 @@ package com.flickr.api;
 
 import java.io.File;
 import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.TreeMap;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntity;
-import org.apache.http.entity.mime.content.FileBody;
+import org.apache.http.entity.mime.content.ByteArrayBody;
 import org.apache.http.entity.mime.content.StringBody;
 
 /**
@@ -39,9 +41,19 @@ import org.apache.http.entity.mime.content.StringBody;
  */
 final class CommandArguments {
 
+    /**
+     * The name of the upload calls, which have no API method.
+     */
+    static final String UPLOAD_METHOD = "upload";
+    /**
+     * The file name of the uploaded data which are not read from a file.
+     */
+    static final String UPLOAD_FILENAME = "photo";
     private static final Charset UTF8 = Charset.forName("UTF-8");
     private final Map<String, Object> params = new TreeMap<String, Object>();
     private final String method;
+    private Deadline deadline;
+    private Priority priority;
 
     /**
      * Create a new command
@@ -62,7 +74,33 @@ final class CommandArguments {
     }
 
     public String getMethod() {
-        return method;
+        return method != null ? method : UPLOAD_METHOD;
+    }
+
+    /**
+     * Get the deadline of the call.
+     *
+     * @return The deadline or null
+     */
+    Deadline getDeadline() {
+        return deadline;
+    }
+
+    void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Get the priority of the call in the scheduler.
+     *
+     * @return The priority, or null for the priority of the method
+     */
+    Priority getPriority() {
+        return priority;
+    }
+
+    void setPriority(Priority priority) {
+        this.priority = priority;
     }
 
     public void addParam(String key, Object value) {
@@ -81,6 +119,43 @@ final class CommandArguments {
         return params;
     }
 
+    /**
+     * Get if the request can be sent again, to retry it. The streams can only be sent once.
+     *
+     * @return true if the request can be sent again
+     */
+    boolean isRepeatable() {
+        for (Object value : params.values()) {
+            if (value instanceof StreamBody) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get a key identifying the request: the parameters sorted by name and encoded like a query string. Two commands
+     * with the same key send the same request.
+     *
+     * @return The key
+     */
+    String getCanonicalKey() {
+        try {
+            StringBuilder builder = new StringBuilder();
+            for (Map.Entry<String, Object> entry : params.entrySet()) {
+                if (builder.length() > 0) {
+                    builder.append('&');
+                }
+                builder.append(URLEncoder.encode(entry.getKey(), "UTF-8")).append('=')
+                        .append(URLEncoder.encode(String.valueOf(entry.getValue()), "UTF-8"));
+            }
+            return builder.toString();
+
+        } catch (UnsupportedEncodingException ex) {
+            throw new UnsupportedOperationException(ex.getMessage(), ex);
+        }
+    }
+
     public MultipartEntity getBody(Map<String,String> additionalParameters) {
         try {
             MultipartEntity entity = new MultipartEntity(HttpMultipartMode.STRICT);
@@ -88,8 +163,15 @@ final class CommandArguments {
             Object value;
             for (Map.Entry<String, Object> entry : params.entrySet()) {
                 value = entry.getValue();
+                // The data are written as they are to the body, never copied before
                 if (value instanceof File) {
-                    entity.addPart(entry.getKey(), new FileBody((File) value));
+                    entity.addPart(entry.getKey(), new FileTransferBody((File) value));
+                } else if (value instanceof byte[]) {
+                    entity.addPart(entry.getKey(), new ByteArrayBody((byte[]) value, UPLOAD_FILENAME));
+                } else if (value instanceof ByteBuffer) {
+                    entity.addPart(entry.getKey(), new ByteBufferBody((ByteBuffer) value, UPLOAD_FILENAME));
+                } else if (value instanceof StreamBody) {
+                    entity.addPart(entry.getKey(), (StreamBody) value);
                 }
             }
             for(Map.Entry<String, String> entry : additionalParameters.entrySet()) {
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive limit of the requests in flight, shared by all the services, see
+ * {@link Flickr#setConcurrencyLimiter(ConcurrencyLimiter)}.
+ *
+ * <p>
+ * The limit follows an AIMD scheme: it grows by one request per round trip while the requests succeed quickly, and is
+ * multiplied by the backoff ratio on each overload signal. A request is an overload signal when it failed with an I/O
+ * error or a {@link FlickrErrorCode#service_currently_unavailable} error, or when its round trip time is above the
+ * baseline of its method multiplied by the latency tolerance. The baseline of a method is the lowest round trip time
+ * measured over its last {@value #BASELINE_WINDOW} requests, it follows the server when it gets slower for all the
+ * requests. Each method has its own baseline, so the long requests such as the uploads are only compared to
+ * themselves.</p>
+ *
+ * <p>
+ * Past the limit, the requests wait for a request in flight to complete.</p>
+ */
+public final class ConcurrencyLimiter {
+
+    static final int BASELINE_WINDOW = 1000;
+    //
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double latencyTolerance = 2;
+    private double backoffRatio = 0.9;
+    private int inFlight;
+    private final Map<String, Baseline> baselines = new HashMap<String, Baseline>();
+    private long decreases;
+    private long throttled;
+
+    /**
+     * Create a limiter.
+     *
+     * @param initialLimit The limit before the first measures
+     * @param minLimit The lowest limit
+     * @param maxLimit The highest limit
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits: " + minLimit + " - " + maxLimit);
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The initial limit must be between the minimum and maximum limits");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Set the ratio of the baseline round trip time above which a request is an overload signal. 2 by default.
+     *
+     * @param latencyTolerance The ratio, greater than 1
+     */
+    public synchronized void setLatencyTolerance(double latencyTolerance) {
+        if (latencyTolerance <= 1) {
+            throw new IllegalArgumentException("The latency tolerance must be greater than 1");
+        }
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    /**
+     * Set the ratio applied to the limit on an overload signal. 0.9 by default.
+     *
+     * @param backoffRatio The ratio, between 0 and 1
+     */
+    public synchronized void setBackoffRatio(double backoffRatio) {
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("The backoff ratio must be between 0 and 1");
+        }
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * Wait until the request can be sent.
+     *
+     * @param method The method called
+     * @param deadline The deadline of the call, or null
+     * @throws FlickrException The deadline passed, or the wait was interrupted
+     */
+    synchronized void acquire(String method, Deadline deadline) throws FlickrException {
+        if (inFlight >= (int) limit) {
+            throttled++;
+        }
+        try {
+            while (inFlight >= (int) limit) {
+                if (deadline == null) {
+                    wait();
+                } else {
+                    long remaining = deadline.remaining(TimeUnit.MILLISECONDS);
+                    if (remaining <= 0) {
+                        throw new DeadlineExceededException("Deadline exceeded waiting for the concurrency limiter, "
+                                + "method '" + method + "'");
+                    }
+                    wait(remaining);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new FlickrException("Interrupted while waiting for the concurrency limiter", ex);
+        }
+        inFlight++;
+    }
+
+    /**
+     * Release a request and adjust the limit.
+     *
+     * @param method The method called
+     * @param error The error of the request, or null
+     * @param rtt The round trip time of the request in nanoseconds, negative if the request was not sent or was
+     * cancelled
+     */
+    synchronized void release(String method, Throwable error, long rtt) {
+        inFlight--;
+        if (rtt >= 0) {
+            sample(method, error, rtt);
+        }
+        notifyAll();
+    }
+
+    private void sample(String method, Throwable error, long rtt) {
+        Baseline baseline = baselines.get(method);
+        if (baseline == null) {
+            baseline = new Baseline();
+            baselines.put(method, baseline);
+        }
+        baseline.add(rtt);
+
+        if (isOverload(error) || rtt > baseline.value * latencyTolerance) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            decreases++;
+        } else if (inFlight + 1 >= (int) limit / 2) {
+            // Only grows when the limit is used, an idle client says nothing about the server capacity
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private static boolean isOverload(Throwable error) {
+        if (error == null) {
+            return false;
+        }
+        if (error instanceof FlickrException) {
+            FlickrErrorCode code = ((FlickrException) error).getErrorCode();
+            return code == null || code == FlickrErrorCode.service_currently_unavailable;
+        }
+        return true;
+    }
+
+    /**
+     * Get the current limit.
+     *
+     * @return The maximum number of requests in flight
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Get the number of requests in flight.
+     *
+     * @return The number of requests
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    /**
+     * Get the baseline round trip time of a method.
+     *
+     * @param method The method
+     * @param unit The time unit
+     * @return The round trip time, 0 before the first measure of the method
+     */
+    public synchronized long getBaselineRtt(String method, TimeUnit unit) {
+        Baseline baseline = baselines.get(method);
+        return baseline == null ? 0 : unit.convert(baseline.value, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the number of times the limit was decreased.
+     *
+     * @return The number of overload signals
+     */
+    public synchronized long getDecreaseCount() {
+        return decreases;
+    }
+
+    /**
+     * Get the number of requests which waited for the limit.
+     *
+     * @return The number of requests
+     */
+    public synchronized long getThrottledCount() {
+        return throttled;
+    }
+
+    /**
+     * The lowest round trip time of a method, renewed every {@value #BASELINE_WINDOW} requests.
+     */
+    private static final class Baseline {
+
+        private long value;
+        private long windowMin = Long.MAX_VALUE;
+        private int windowCount;
+
+        private void add(long rtt) {
+            windowMin = Math.min(windowMin, rtt);
+            if (++windowCount >= BASELINE_WINDOW) {
+                value = windowMin;
+                windowMin = Long.MAX_VALUE;
+                windowCount = 0;
+            } else if (value == 0 || rtt < value) {
+                value = rtt;
+            }
+        }
+    }
+
+}
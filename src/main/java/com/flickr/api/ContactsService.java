@@ -25,6 +25,7 @@ import com.flickr.api.entities.Contact;
 import com.flickr.api.entities.BaseUser;
 import com.flickr.api.entities.Paginated;
 import com.flickr.api.entities.ContactsResponse;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service used to get the contacts informations.
@@ -33,8 +34,8 @@ import com.flickr.api.entities.ContactsResponse;
  */
 public final class ContactsService extends FlickrService {
 
-    ContactsService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    ContactsService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -46,10 +47,21 @@ public final class ContactsService extends FlickrService {
      * @throws FlickrException Error getting the contacts
      */
     public Paginated<Contact> getContacts(int perPage, int page) throws FlickrException {
+        return await(getContactsAsync(perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getContacts(int, int)}.
+     *
+     * @param perPage Number of photos to return per page. The maximum allowed value is 1000
+     * @param page The page of results to return
+     * @return A future completed with the contacts
+     */
+    public CompletableFuture<Paginated<Contact>> getContactsAsync(int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.contacts.getList");
         args.addParam("per_page", perPage);
         args.addParam("page", page);
-        return doGet(args, ContactsResponse.class).getPaginated();
+        return doGetAsync(args, ContactsResponse.class).thenApply(ContactsResponse::getPaginated);
     }
 
     /**
@@ -62,10 +74,22 @@ public final class ContactsService extends FlickrService {
      * @throws FlickrException Error getting the contacts
      */
     public Paginated<Contact> getPublicContacts(BaseUser user, int perPage, int page) throws FlickrException {
+        return await(getPublicContactsAsync(user, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getPublicContacts(BaseUser, int, int)}.
+     *
+     * @param user The user to fetch the contact list for
+     * @param perPage Number of photos to return per page. The maximum allowed value is 1000
+     * @param page The page of results to return
+     * @return A future completed with the contacts
+     */
+    public CompletableFuture<Paginated<Contact>> getPublicContactsAsync(BaseUser user, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.contacts.getPublicList");
         args.addParam("per_page", perPage);
         args.addParam("page", page);
         args.addParam("user_id", user.getId());
-        return doGet(args, ContactsResponse.class).getPaginated();
+        return doGetAsync(args, ContactsResponse.class).thenApply(ContactsResponse::getPaginated);
     }
 }
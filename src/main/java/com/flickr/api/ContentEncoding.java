@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Negotiation and decoding of the compressed response bodies. The bodies are decompressed while they are read.
+ */
+final class ContentEncoding {
+
+    /**
+     * Value of the Accept-Encoding header sent with the requests.
+     */
+    static final String ACCEPTED = "gzip, deflate";
+    private static final int BUFFER_SIZE = 4096;
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * Decode a response body.
+     *
+     * @param encoding The Content-Encoding header of the response, may be null
+     * @param body The body as received
+     * @return The decoded body, or the body itself if it is not compressed
+     * @throws IOException Invalid compressed stream
+     */
+    static InputStream decode(String encoding, InputStream body) throws IOException {
+        if (encoding == null) {
+            return body;
+        }
+        encoding = encoding.trim();
+        boolean gzip = "gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding);
+        if (!gzip && !"deflate".equalsIgnoreCase(encoding)) {
+            return body;
+        }
+
+        // An empty body (error responses of some proxies) is not a valid compressed stream
+        PushbackInputStream pushback = new PushbackInputStream(body, 2);
+        byte[] header = new byte[2];
+        int count = 0;
+        while (count < 2) {
+            int n = pushback.read(header, count, 2 - count);
+            if (n == -1) {
+                break;
+            }
+            count += n;
+        }
+        pushback.unread(header, 0, count);
+        if (count == 0) {
+            return pushback;
+        }
+
+        if (gzip) {
+            return new GZIPInputStream(pushback, BUFFER_SIZE);
+        }
+        // The deflate encoding should be a zlib stream, but some servers send the raw deflate data
+        boolean zlib = count == 2 && (header[0] & 0x0f) == 8
+                && (((header[0] & 0xff) << 8) | (header[1] & 0xff)) % 31 == 0;
+        return new EndingInflaterInputStream(pushback, new Inflater(!zlib));
+    }
+
+    /**
+     * An {@link InflaterInputStream} does not release the native memory of an inflater given to its constructor.
+     */
+    private static final class EndingInflaterInputStream extends InflaterInputStream {
+
+        private boolean closed;
+
+        EndingInflaterInputStream(InputStream in, Inflater inflater) {
+            super(in, inflater, BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                inf.end();
+                super.close();
+            }
+        }
+    }
+
+}
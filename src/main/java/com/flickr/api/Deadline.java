@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time limit of the calls, retries and rate limiter waits included.
+ *
+ * <p>
+ * A deadline applies to the calls made by the current thread while it is in scope:</p>
+ * <pre>
+ * try (Deadline.Scope scope = Deadline.after(2, TimeUnit.SECONDS).apply()) {
+ *     infos = flickr.getPhotosService().getInfos(photo);
+ *     sizes = flickr.getPhotosService().getSizes(photo);
+ * }
+ * </pre>
+ * <p>
+ * The calls made out of a scope get the default timeout of {@link Flickr#setCallTimeout(long, TimeUnit)}. A call
+ * still running at its deadline fails with a {@link DeadlineExceededException}; no retry is done and no rate limiter
+ * token is awaited past the deadline, and the read timeout of the requests is cut to the remaining time.</p>
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<Deadline>();
+    //
+    private final long expiration;
+
+    private Deadline(long expiration) {
+        this.expiration = expiration;
+    }
+
+    /**
+     * Create a deadline.
+     *
+     * @param timeout The time from now
+     * @param unit The time unit
+     * @return The deadline
+     */
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Get the deadline applied to the calls of the current thread.
+     *
+     * @return The deadline or null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Apply this deadline to the calls made by the current thread, until the returned scope is closed.
+     *
+     * @return The scope
+     */
+    public Scope apply() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(this);
+        return scope;
+    }
+
+    /**
+     * Get the time left before the deadline.
+     *
+     * @param unit The time unit
+     * @return The time left, negative once the deadline is passed
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(expiration - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Check if the deadline is passed.
+     *
+     * @return true if the deadline is passed
+     */
+    public boolean isExpired() {
+        return expiration - System.nanoTime() <= 0;
+    }
+
+    /**
+     * The scope of a deadline, closing it restores the previous deadline of the thread.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+}
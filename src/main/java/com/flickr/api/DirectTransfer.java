@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The channel of the connection a transport is writing a request body to, in the current thread. The upload bodies
+ * write their content straight to this channel rather than copying it through the connection stream.
+ */
+final class DirectTransfer {
+
+    private static final ThreadLocal<DirectTransfer> CURRENT = new ThreadLocal<DirectTransfer>();
+    //
+    private final WritableByteChannel channel;
+    private long transferred;
+
+    private DirectTransfer(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Set the channel of the connection the bodies are written to by the current thread.
+     *
+     * @param channel The channel
+     */
+    static void begin(WritableByteChannel channel) {
+        CURRENT.set(new DirectTransfer(channel));
+    }
+
+    /**
+     * Remove the channel of the connection the bodies are written to by the current thread.
+     *
+     * @return The number of bytes written to the channel
+     */
+    static long end() {
+        DirectTransfer transfer = CURRENT.get();
+        CURRENT.remove();
+        return transfer == null ? 0 : transfer.transferred;
+    }
+
+    /**
+     * Get the channel the bodies are written to by the current thread.
+     *
+     * @return The transfer, or null if the bodies must be written to the connection stream
+     */
+    static DirectTransfer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Get the channel of the connection. The data buffered by the connection stream must be flushed before writing
+     * to it.
+     *
+     * @return The channel
+     */
+    WritableByteChannel getChannel() {
+        return channel;
+    }
+
+    void addTransferred(long count) {
+        transferred += count;
+    }
+
+}
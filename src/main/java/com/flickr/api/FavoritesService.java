@@ -26,6 +26,7 @@ import com.flickr.api.entities.Paginated;
 import com.flickr.api.entities.PhotosResponse;
 import com.flickr.api.entities.Photo;
 import com.flickr.api.entities.VoidResponse;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -33,8 +34,8 @@ import com.flickr.api.entities.VoidResponse;
  */
 public class FavoritesService extends FlickrService {
 
-    FavoritesService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    FavoritesService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -48,12 +49,24 @@ public class FavoritesService extends FlickrService {
      * @throws FlickrException Error getting the favorites
      */
     public Paginated<Photo> getFavorites(BaseUser user, int perPage, int page) throws FlickrException {
+        return await(getFavoritesAsync(user, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getFavorites(BaseUser, int, int)}.
+     *
+     * @param user The user to fetch the favorites list for
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the favorites photos
+     */
+    public CompletableFuture<Paginated<Photo>> getFavoritesAsync(BaseUser user, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.favorites.getList");
         args.addParam("per_page", perPage);
         args.addParam("page", page);
         args.addParam("user_id", user.getId());
 
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -66,12 +79,24 @@ public class FavoritesService extends FlickrService {
      * @throws FlickrException Error getting the favorites
      */
     public Paginated<Photo> getPublicFavorites(BaseUser user, int perPage, int page) throws FlickrException {
+        return await(getPublicFavoritesAsync(user, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getPublicFavorites(BaseUser, int, int)}.
+     *
+     * @param user The user to fetch the favorites list for
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the favorites photos
+     */
+    public CompletableFuture<Paginated<Photo>> getPublicFavoritesAsync(BaseUser user, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.favorites.getPublicList");
         args.addParam("per_page", perPage);
         args.addParam("page", page);
         args.addParam("user_id", user.getId());
 
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -81,10 +106,20 @@ public class FavoritesService extends FlickrService {
      * @throws FlickrException Error setting the photo as favorite
      */
     public void addFavorite(Photo photo) throws FlickrException {
+        await(addFavoriteAsync(photo));
+    }
+
+    /**
+     * Asynchronous version of {@link #addFavorite(Photo)}.
+     *
+     * @param photo The photo to set favorite
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> addFavoriteAsync(Photo photo) {
         CommandArguments args = new CommandArguments("flickr.favorites.add");
         args.addParam("photo_id", photo.getId());
 
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -94,10 +129,20 @@ public class FavoritesService extends FlickrService {
      * @throws FlickrException Error removing the photo from favorite
      */
     public void removeFavorite(Photo photo) throws FlickrException {
+        await(removeFavoriteAsync(photo));
+    }
+
+    /**
+     * Asynchronous version of {@link #removeFavorite(Photo)}.
+     *
+     * @param photo The photo to remove from favorites
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> removeFavoriteAsync(Photo photo) {
         CommandArguments args = new CommandArguments("flickr.favorites.remove");
         args.addParam("photo_id", photo.getId());
 
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import org.apache.http.entity.mime.content.FileBody;
+
+/**
+ * A file part of a multipart body, sent without copying the file through the JVM when possible.
+ *
+ * <p>
+ * When the transport gives the channel of the connection (see {@link DirectTransfer}), the file is transferred with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}: the kernel sends the file pages
+ * straight to the socket (sendfile). Otherwise, on a TLS connection where the bytes must be encrypted first, the file
+ * is copied to the output stream with large buffers.</p>
+ *
+ * <p>
+ * The length of the file is read once, when the body is created, and exactly this number of bytes is sent: a file
+ * whose size changes before it is sent fails the upload instead of breaking the framing of the request.</p>
+ */
+final class FileTransferBody extends FileBody {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    //
+    private final long length;
+
+    FileTransferBody(File file) {
+        super(file);
+        length = file.length();
+    }
+
+    /**
+     * Get the length of the file when the body was created, the Content-Length of the request is computed from it.
+     *
+     * @return The number of bytes sent
+     */
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        FileInputStream in = new FileInputStream(getFile());
+        try {
+            FileChannel channel = in.getChannel();
+            DirectTransfer target = DirectTransfer.current();
+            if (target != null) {
+                // The headers and the previous parts are buffered by the client, they are sent first
+                out.flush();
+                long position = 0;
+                while (position < length) {
+                    // The channel is blocking, nothing is transferred only past the end of the file
+                    long count = channel.transferTo(position, length - position, target.getChannel());
+                    if (count <= 0) {
+                        throw truncated();
+                    }
+                    position += count;
+                    target.addTransferred(count);
+                }
+            } else {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long remaining = length;
+                while (remaining > 0) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read == -1) {
+                        throw truncated();
+                    }
+                    out.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+            if (channel.size() != length) {
+                throw new IOException("The size of the file " + getFile() + " changed while it was sent");
+            }
+            out.flush();
+        } finally {
+            in.close();
+        }
+    }
+
+    private EOFException truncated() {
+        return new EOFException("The file " + getFile() + " was truncated while it was sent");
+    }
+
+}
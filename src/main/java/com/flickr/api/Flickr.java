@@ -28,10 +28,21 @@ import java.net.Proxy;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.scribe.model.OAuthConstants;
+import org.scribe.model.Token;
 
 /**
  * This class is the entry point of the API.
+ * <p>
+ * An instance is safe to share between threads: the services, the user sessions and the setters can be used
+ * concurrently, and a setter applies to the calls started after it returns. An application usually creates a single
+ * instance from a {@link FlickrConfig}.</p>
  *
  * @author Fabien Barbero
  */
@@ -42,6 +53,10 @@ public final class Flickr {
     //
     private final OAuthHandler oauthHandler;
     private final FlickrProperties props;
+    private final PooledTransport pooledTransport;
+    private final ExecutorService defaultExecutor;
+    private ExecutorService virtualExecutor;
+    private final ServiceContext context;
     //
     private final ContactsService contactsService;
     private final PeopleService peoplesService;
@@ -68,40 +83,413 @@ public final class Flickr {
      * <b>must</b> not exists.
      */
     public Flickr(String apiKey, String apiSecret, String callbackUrl, String permission, FlickrProperties props) {
+        this(apiKey, apiSecret, callbackUrl, permission, props, null);
+    }
+
+    /**
+     * Create a new Flickr instance whose services have a concurrency limit
+     *
+     * @param apiKey The flickr API key
+     * @param apiSecret The flickr API secret
+     * @param callbackUrl The callback URL where the user will be redirected when he will grant the access of the
+     * application (see {@link Flickr#verifyToken(java.lang.String)}).
+     * @param permission The permission to use (read, write or delete) data.
+     * @param props The configuration used to store the Flickr informations
+     * @param bulkheads The concurrency limits of the services, or null for no limit
+     */
+    public Flickr(String apiKey, String apiSecret, String callbackUrl, String permission, FlickrProperties props,
+            Bulkheads bulkheads) {
+        this(FlickrConfig.builder(apiKey, apiSecret, props)
+                .callbackUrl(callbackUrl)
+                .permission(permission)
+                .bulkheads(bulkheads)
+                .build());
+    }
+
+    /**
+     * Create a new Flickr instance from a configuration (see {@link FlickrConfig#builder}).
+     *
+     * @param config The configuration
+     */
+    public Flickr(FlickrConfig config) {
+        props = config.getProperties();
         props.load();
-        this.props = props;
-        oauthHandler = new OAuthHandler(props, apiKey, apiSecret, callbackUrl, permission);
-
-        contactsService = new ContactsService(oauthHandler);
-        peoplesService = new PeopleService(oauthHandler);
-        photosService = new PhotosService(oauthHandler);
-        photosetsService = new PhotosetsService(oauthHandler);
-        favoritesService = new FavoritesService(oauthHandler);
-        authenticationService = new AuthenticationService(oauthHandler);
-        statsService = new StatsService(oauthHandler);
-        groupsService = new GroupsService(oauthHandler);
-        cameraService = new CameraService(oauthHandler);
-        interestingnessService = new InterestingnessService(oauthHandler);
-        galleriesService = new GalleriesService(oauthHandler);
-        uploadService = new UploadService(oauthHandler);
-    }
-    
-    public void setProxy(Proxy proxy)
-    {
+        oauthHandler = new OAuthHandler(props, config.getApiKey(), config.getApiSecret(), config.getCallbackUrl(),
+                config.getPermission());
+        pooledTransport = new PooledTransport();
+        defaultExecutor = Executors.newCachedThreadPool(new ServiceThreadFactory());
+        context = new ServiceContext(
+                config.getTransport() == null ? pooledTransport : config.getTransport(),
+                config.getExecutor() == null ? defaultExecutor : config.getExecutor(),
+                config.getBulkheads(), new Timeouts(config.getTimeouts()));
+        context.setCallTimeout(config.getCallTimeout(TimeUnit.NANOSECONDS));
+        context.setResponseCache(config.getResponseCache());
+        context.setRateLimiter(config.getRateLimiter());
+        context.setConcurrencyLimiter(config.getConcurrencyLimiter());
+        context.setRetryPolicy(config.getRetryPolicy());
+        context.setCircuitBreaker(config.getCircuitBreaker());
+        context.setHedgingPolicy(config.getHedgingPolicy());
+        context.setRequestScheduler(config.getRequestScheduler());
+        if (config.getProxy() != null) {
+            setProxy(config.getProxy());
+        }
+
+        contactsService = new ContactsService(oauthHandler, context);
+        peoplesService = new PeopleService(oauthHandler, context);
+        photosService = new PhotosService(oauthHandler, context);
+        photosetsService = new PhotosetsService(oauthHandler, context);
+        favoritesService = new FavoritesService(oauthHandler, context);
+        authenticationService = new AuthenticationService(oauthHandler, context);
+        statsService = new StatsService(oauthHandler, context);
+        groupsService = new GroupsService(oauthHandler, context);
+        cameraService = new CameraService(oauthHandler, context);
+        interestingnessService = new InterestingnessService(oauthHandler, context);
+        galleriesService = new GalleriesService(oauthHandler, context);
+        uploadService = new UploadService(oauthHandler, context);
+    }
+
+    /**
+     * Set the proxy of the requests, of this instance and of its user sessions. The calls in flight keep the previous
+     * proxy. The {@link PooledTransport} supports the HTTP and SOCKS proxies, the {@link Http2Transport} only the HTTP
+     * proxies.
+     *
+     * @param proxy The proxy, or null to connect directly
+     */
+    public synchronized void setProxy(Proxy proxy) {
         oauthHandler.setProxy(proxy);
-        
-        contactsService.setProxy(proxy);
-        peoplesService.setProxy(proxy);
-        photosService.setProxy(proxy);
-        photosetsService.setProxy(proxy);
-        authenticationService.setProxy(proxy);
-        favoritesService.setProxy(proxy);
-        statsService.setProxy(proxy);
-        groupsService.setProxy(proxy);
-        cameraService.setProxy(proxy);
-        interestingnessService.setProxy(proxy);
-        galleriesService.setProxy(proxy);
-        uploadService.setProxy(proxy);
+        context.setProxy(proxy);
+    }
+
+    /**
+     * Send the uploads to another endpoint than the Flickr one, such as a local proxy forwarding them to Flickr over
+     * TLS. The requests are still signed for the Flickr upload URL, and carry its Host header with the
+     * {@link PooledTransport}; the endpoint must forward them unchanged. The Flickr endpoints are only served over HTTPS, so the files are only sent with zero
+     * copy by the {@link PooledTransport} when this endpoint is a plain HTTP one.
+     *
+     * @param endpoint The URL the uploads are sent to, or null to send them to Flickr
+     */
+    public void setUploadEndpoint(String endpoint) {
+        if (endpoint != null && !endpoint.startsWith("http://") && !endpoint.startsWith("https://")) {
+            throw new IllegalArgumentException("Invalid upload endpoint: " + endpoint);
+        }
+        context.setUploadEndpoint(endpoint);
+    }
+
+    /**
+     * Get the endpoint the uploads are sent to.
+     *
+     * @return The URL of the endpoint, or null if the uploads are sent to Flickr
+     */
+    public String getUploadEndpoint() {
+        return context.getUploadEndpoint();
+    }
+
+    /**
+     * Set the transport used to send the requests. By default, a {@link PooledTransport} is used.
+     *
+     * @param transport The transport
+     */
+    public void setTransport(Transport transport) {
+        context.setTransport(transport);
+    }
+
+    /**
+     * Set the executor running the service calls. The synchronous methods of the services wait for the result of
+     * their asynchronous version, so the executor must not be bounded to a few threads if synchronous methods are
+     * called from inside it. By default, a cached thread pool with daemon threads is used.
+     *
+     * @param executor The executor
+     */
+    public void setExecutor(Executor executor) {
+        context.setExecutor(executor);
+    }
+
+    /**
+     * Indicates if the virtual threads mode is available on the current runtime (Java 21 or later).
+     *
+     * @return true if the virtual threads can be used, false otherwise
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VirtualThreads.isSupported();
+    }
+
+    /**
+     * Run the service calls on virtual threads (one per call) instead of the default thread pool. This mode needs
+     * Java 21 or later, see {@link #isVirtualThreadsSupported()}. Disabling it restores the default executor.
+     *
+     * @param enabled true to use the virtual threads, false otherwise
+     * @throws UnsupportedOperationException The runtime does not support virtual threads
+     */
+    public synchronized void setVirtualThreadsEnabled(boolean enabled) {
+        if (enabled) {
+            if (virtualExecutor == null) {
+                virtualExecutor = VirtualThreads.newExecutor();
+            }
+            context.setExecutor(virtualExecutor);
+        } else {
+            context.setExecutor(defaultExecutor);
+        }
+    }
+
+    /**
+     * Set the maximum number of connections kept alive by the default transport, all hosts included.
+     *
+     * @param max The maximum number of connections
+     */
+    public void setMaxConnections(int max) {
+        pooledTransport.setMaxConnections(max);
+    }
+
+    /**
+     * Set the maximum number of connections opened on a single host by the default transport.
+     *
+     * @param max The maximum number of connections per host
+     */
+    public void setMaxConnectionsPerRoute(int max) {
+        pooledTransport.setMaxConnectionsPerRoute(max);
+    }
+
+    /**
+     * Set the time after which an unused connection of the default transport is closed.
+     *
+     * @param timeout The idle timeout
+     * @param unit The timeout unit
+     */
+    public void setConnectionIdleTimeout(long timeout, TimeUnit unit) {
+        pooledTransport.setIdleTimeout(timeout, unit);
+    }
+
+    /**
+     * Ask the server to compress the responses (gzip or deflate). The responses are decompressed while they are
+     * read. The compression is enabled by default.
+     *
+     * @param enabled true to accept compressed responses, false otherwise
+     */
+    public void setCompressionEnabled(boolean enabled) {
+        context.setCompressionEnabled(enabled);
+    }
+
+    /**
+     * Get the counters of the bytes received for each called method, compressed and decompressed.
+     *
+     * @return The counters
+     */
+    public TrafficStats getTrafficStats() {
+        return context.getTrafficStats();
+    }
+
+    /**
+     * Share the response of a read call between the identical calls (same method and parameters) made while it is in
+     * flight, instead of sending a request for each. The coalescing is disabled by default.
+     *
+     * <p>
+     * The calls joining a call in flight get the same response objects, they must not modify them. They also share
+     * the deadline and the priority of the first call: they fail when it times out, and their request is queued with
+     * its priority.</p>
+     *
+     * @param enabled true to coalesce the identical read calls, false otherwise
+     */
+    public void setCoalescingEnabled(boolean enabled) {
+        context.setCoalescingEnabled(enabled);
+    }
+
+    /**
+     * Get the number of read calls which shared the response of an identical call in flight.
+     *
+     * @return The number of coalesced calls
+     */
+    public long getCoalescedCallCount() {
+        return context.getCoalescer().getCoalescedCount();
+    }
+
+    /**
+     * Set the cache storing the responses of the read methods. There is no cache by default.
+     *
+     * @param cache The cache, or null to disable it
+     */
+    public void setResponseCache(ResponseCache cache) {
+        context.setResponseCache(cache);
+    }
+
+    /**
+     * Get the cache storing the responses of the read methods.
+     *
+     * @return The cache, or null if there is no cache
+     */
+    public ResponseCache getResponseCache() {
+        return context.getResponseCache();
+    }
+
+    /**
+     * Set the rate limiter taken by the requests of all the services. There is no limit by default.
+     *
+     * @param rateLimiter The rate limiter, or null to disable the limit
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        context.setRateLimiter(rateLimiter);
+    }
+
+    /**
+     * Get the rate limiter taken by the requests of all the services.
+     *
+     * @return The rate limiter, or null if there is no limit
+     */
+    public RateLimiter getRateLimiter() {
+        return context.getRateLimiter();
+    }
+
+    /**
+     * Set the policy retrying the calls failed with a transient error. The calls are not retried by default.
+     *
+     * @param retryPolicy The retry policy, or null to disable the retries
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        context.setRetryPolicy(retryPolicy);
+    }
+
+    /**
+     * Get the policy retrying the calls failed with a transient error.
+     *
+     * @return The retry policy, or null if the calls are not retried
+     */
+    public RetryPolicy getRetryPolicy() {
+        return context.getRetryPolicy();
+    }
+
+    /**
+     * Set the circuit breakers failing at once the calls of a degraded method. There are no breakers by default.
+     *
+     * @param circuitBreaker The circuit breakers, or null to disable them
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        context.setCircuitBreaker(circuitBreaker);
+    }
+
+    /**
+     * Get the circuit breakers failing at once the calls of a degraded method.
+     *
+     * @return The circuit breakers, or null if they are disabled
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return context.getCircuitBreaker();
+    }
+
+    /**
+     * Set the policy sending a second request for the slow read calls. The calls are not hedged by default.
+     *
+     * @param hedgingPolicy The hedging policy, or null to disable the hedging
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        context.setHedgingPolicy(hedgingPolicy);
+    }
+
+    /**
+     * Get the policy sending a second request for the slow read calls.
+     *
+     * @return The hedging policy, or null if the calls are not hedged
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return context.getHedgingPolicy();
+    }
+
+    /**
+     * Adapt the number of requests in flight to the latency and errors of the server. The limit is shared by all the
+     * services.
+     *
+     * @param concurrencyLimiter The limiter, or null to remove the limit
+     */
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        context.setConcurrencyLimiter(concurrencyLimiter);
+    }
+
+    /**
+     * Get the adaptive limit of the requests in flight.
+     *
+     * @return The limiter or null
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return context.getConcurrencyLimiter();
+    }
+
+    /**
+     * Queue the requests of all the services in front of the rate limiter, the interactive calls before the
+     * background ones (see {@link Priority}). There is no scheduler by default.
+     *
+     * @param requestScheduler The scheduler, or null to send the requests in their arrival order
+     */
+    public void setRequestScheduler(RequestScheduler requestScheduler) {
+        context.setRequestScheduler(requestScheduler);
+    }
+
+    /**
+     * Get the scheduler queuing the requests by priority.
+     *
+     * @return The scheduler, or null if there is no scheduler
+     */
+    public RequestScheduler getRequestScheduler() {
+        return context.getRequestScheduler();
+    }
+
+    /**
+     * Set the default connect and read timeouts of the requests. By default, the connect timeout is 15 seconds and the
+     * read timeout 60 seconds.
+     *
+     * @param connectTimeout The maximum time to open a connection, 0 for no timeout
+     * @param readTimeout The maximum time waited for the next bytes of a response, 0 for no timeout
+     * @param unit The timeouts unit
+     */
+    public void setTimeouts(long connectTimeout, long readTimeout, TimeUnit unit) {
+        context.getTimeouts().setDefaults(connectTimeout, readTimeout, unit);
+    }
+
+    /**
+     * Set the connect and read timeouts of the requests of a method, instead of the default ones.
+     *
+     * @param method The method name (for instance "flickr.photos.search", or "upload" for the uploads)
+     * @param connectTimeout The maximum time to open a connection, 0 for no timeout
+     * @param readTimeout The maximum time waited for the next bytes of a response, 0 for no timeout
+     * @param unit The timeouts unit
+     */
+    public void setTimeouts(String method, long connectTimeout, long readTimeout, TimeUnit unit) {
+        context.getTimeouts().set(method, connectTimeout, readTimeout, unit);
+    }
+
+    /**
+     * Set the default time limit of the calls, retries and rate limiter waits included. It applies to the calls made
+     * out of the scope of a {@link Deadline}. There is no limit by default.
+     *
+     * @param timeout The time limit, 0 for no limit
+     * @param unit The time limit unit
+     */
+    public void setCallTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("The timeout cannot be negative");
+        }
+        context.setCallTimeout(unit.toNanos(timeout));
+    }
+
+    /**
+     * Get the bulkhead of a service, to check its queue depth and rejected calls.
+     *
+     * @param service The service class (for instance <code>GroupsService.class</code>)
+     * @return The bulkhead, or null if the service has no concurrency limit
+     */
+    public Bulkhead getBulkhead(Class<? extends FlickrService> service) {
+        return context.getBulkhead(service);
+    }
+
+    /**
+     * Release the connections held by the transport. The instance must not be used after this call.
+     */
+    public synchronized void shutdown() {
+        context.getTransport().shutdown();
+        if (context.getTransport() != pooledTransport) {
+            pooledTransport.shutdown();
+        }
+        defaultExecutor.shutdown();
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        }
     }
 
     /**
@@ -155,6 +543,32 @@ public final class Flickr {
         props.commit();
     }
 
+    /**
+     * Get the access token of the user of this instance, to keep it out of the configuration file.
+     *
+     * @return The token, or null if the access to the application is not granted yet
+     */
+    public UserToken getUserToken() {
+        Token token = oauthHandler.getAccessToken();
+        return token == null ? null : new UserToken(token.getToken(), token.getSecret());
+    }
+
+    /**
+     * Get the services of another user. The session shares the connections, cache and limiters of this instance, and
+     * its requests are signed with the token of the user. The sessions are cheap, an application serving many users
+     * keeps a single Flickr instance and creates a session per user.
+     *
+     *
+     * @param token The access token of the user
+     * @return The session
+     */
+    public UserSession forUser(UserToken token) {
+        if (token == null) {
+            throw new IllegalArgumentException("The token cannot be null");
+        }
+        return new UserSession(oauthHandler, context, token);
+    }
+
     /**
      * Get the user identifier.
      *
@@ -263,4 +677,16 @@ public final class Flickr {
         return uploadService;
     }
 
+    private static final class ServiceThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "flickr-api-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
 }
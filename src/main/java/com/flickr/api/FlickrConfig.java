@@ -0,0 +1,478 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.net.Proxy;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.scribe.model.OAuthConstants;
+
+/**
+ * The configuration of a {@link Flickr} instance, built once and never changed:
+ * <pre>
+ * FlickrConfig config = FlickrConfig.builder(apiKey, apiSecret, props)
+ *         .callbackUrl(callbackUrl)
+ *         .permission("read")
+ *         .timeouts(10, 30, TimeUnit.SECONDS)
+ *         .rateLimiter(new RateLimiter(1, 10, RateLimiter.Policy.BLOCK))
+ *         .build();
+ * Flickr flickr = new Flickr(config);
+ * </pre>
+ * <p>
+ * All the fields are final, so a configuration can be handed to other threads without synchronization. The builder is
+ * not thread safe, it is meant to be used by a single thread.</p>
+ */
+public final class FlickrConfig {
+
+    private final String apiKey;
+    private final String apiSecret;
+    private final String callbackUrl;
+    private final String permission;
+    private final FlickrProperties properties;
+    private final Transport transport;
+    private final Executor executor;
+    private final Proxy proxy;
+    private final Timeouts timeouts;
+    private final long callTimeout;
+    private final ResponseCache responseCache;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final HedgingPolicy hedgingPolicy;
+    private final RequestScheduler requestScheduler;
+    private final Bulkheads bulkheads;
+
+    private FlickrConfig(Builder builder) {
+        apiKey = builder.apiKey;
+        apiSecret = builder.apiSecret;
+        callbackUrl = builder.callbackUrl;
+        permission = builder.permission;
+        properties = builder.properties;
+        transport = builder.transport;
+        executor = builder.executor;
+        proxy = builder.proxy;
+        timeouts = new Timeouts(builder.timeouts);
+        callTimeout = builder.callTimeout;
+        responseCache = builder.responseCache;
+        rateLimiter = builder.rateLimiter;
+        concurrencyLimiter = builder.concurrencyLimiter;
+        retryPolicy = builder.retryPolicy;
+        circuitBreaker = builder.circuitBreaker;
+        hedgingPolicy = builder.hedgingPolicy;
+        requestScheduler = builder.requestScheduler;
+        bulkheads = builder.bulkheads == null ? null : builder.bulkheads.copy();
+    }
+
+    /**
+     * Create a configuration builder.
+     *
+     * @param apiKey The flickr API key
+     * @param apiSecret The flickr API secret
+     * @param properties The configuration used to store the Flickr informations
+     * @return The builder
+     */
+    public static Builder builder(String apiKey, String apiSecret, FlickrProperties properties) {
+        return new Builder(apiKey, apiSecret, properties);
+    }
+
+    /**
+     * Get the flickr API key
+     *
+     * @return The API key
+     */
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    String getApiSecret() {
+        return apiSecret;
+    }
+
+    /**
+     * Get the callback URL where the user is redirected when he grants the access of the application
+     *
+     * @return The callback URL
+     */
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    /**
+     * Get the permission asked to the user (read, write or delete)
+     *
+     * @return The permission
+     */
+    public String getPermission() {
+        return permission;
+    }
+
+    FlickrProperties getProperties() {
+        return properties;
+    }
+
+    /**
+     * Get the transport sending the requests
+     *
+     * @return The transport, or null for the default one
+     */
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Get the executor running the service calls
+     *
+     * @return The executor, or null for the default one
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get the proxy of the requests
+     *
+     * @return The proxy, or null to connect directly
+     */
+    public Proxy getProxy() {
+        return proxy;
+    }
+
+    Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Get the default time limit of the calls
+     *
+     * @param unit The time limit unit
+     * @return The time limit, 0 for no limit
+     */
+    public long getCallTimeout(TimeUnit unit) {
+        return unit.convert(callTimeout, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the cache storing the responses of the read methods
+     *
+     * @return The cache, or null if there is no cache
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Get the rate limiter taken by the requests of all the services
+     *
+     * @return The rate limiter, or null if there is no limit
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Get the adaptive limit of the requests in flight
+     *
+     * @return The limiter, or null if there is no limit
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Get the policy retrying the calls failed with a transient error
+     *
+     * @return The retry policy, or null if the calls are not retried
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Get the circuit breakers failing at once the calls of a degraded method
+     *
+     * @return The circuit breakers, or null if they are disabled
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Get the policy sending a second request for the slow read calls
+     *
+     * @return The hedging policy, or null if the calls are not hedged
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Get the scheduler queuing the requests by priority
+     *
+     * @return The scheduler, or null if there is no scheduler
+     */
+    public RequestScheduler getRequestScheduler() {
+        return requestScheduler;
+    }
+
+    Bulkheads getBulkheads() {
+        return bulkheads;
+    }
+
+    /**
+     * Build a {@link FlickrConfig}. The values not set keep the defaults of {@link Flickr}.
+     */
+    public static final class Builder {
+
+        private final String apiKey;
+        private final String apiSecret;
+        private final FlickrProperties properties;
+        private String callbackUrl = OAuthConstants.OUT_OF_BAND;
+        private String permission = "read";
+        private Transport transport;
+        private Executor executor;
+        private Proxy proxy;
+        private final Timeouts timeouts = new Timeouts();
+        private long callTimeout;
+        private ResponseCache responseCache;
+        private RateLimiter rateLimiter;
+        private ConcurrencyLimiter concurrencyLimiter;
+        private RetryPolicy retryPolicy;
+        private CircuitBreaker circuitBreaker;
+        private HedgingPolicy hedgingPolicy;
+        private RequestScheduler requestScheduler;
+        private Bulkheads bulkheads;
+
+        private Builder(String apiKey, String apiSecret, FlickrProperties properties) {
+            if (apiKey == null || apiSecret == null) {
+                throw new IllegalArgumentException("The API key and secret cannot be null");
+            }
+            if (properties == null) {
+                throw new IllegalArgumentException("The properties cannot be null");
+            }
+            this.apiKey = apiKey;
+            this.apiSecret = apiSecret;
+            this.properties = properties;
+        }
+
+        /**
+         * Set the callback URL where the user will be redirected when he will grant the access of the application
+         * (see {@link Flickr#verifyToken(java.lang.String)}). By default, the verifier is displayed to the user
+         * ("oob").
+         *
+         * @param callbackUrl The callback URL
+         * @return This builder
+         */
+        public Builder callbackUrl(String callbackUrl) {
+            this.callbackUrl = callbackUrl;
+            return this;
+        }
+
+        /**
+         * Set the permission to use (read, write or delete) data. The default permission is read.
+         *
+         * @param permission The permission
+         * @return This builder
+         */
+        public Builder permission(String permission) {
+            this.permission = permission;
+            return this;
+        }
+
+        /**
+         * Set the transport used to send the requests. By default, a {@link PooledTransport} is used.
+         *
+         * @param transport The transport
+         * @return This builder
+         */
+        public Builder transport(Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Set the executor running the service calls (see {@link Flickr#setExecutor(java.util.concurrent.Executor)}).
+         *
+         * @param executor The executor
+         * @return This builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Set the proxy of the requests.
+         *
+         * @param proxy The proxy, or null to connect directly
+         * @return This builder
+         */
+        public Builder proxy(Proxy proxy) {
+            this.proxy = proxy;
+            return this;
+        }
+
+        /**
+         * Set the default connect and read timeouts of the requests. By default, the connect timeout is 15 seconds
+         * and the read timeout 60 seconds.
+         *
+         * @param connectTimeout The maximum time to open a connection, 0 for no timeout
+         * @param readTimeout The maximum time waited for the next bytes of a response, 0 for no timeout
+         * @param unit The timeouts unit
+         * @return This builder
+         */
+        public Builder timeouts(long connectTimeout, long readTimeout, TimeUnit unit) {
+            timeouts.setDefaults(connectTimeout, readTimeout, unit);
+            return this;
+        }
+
+        /**
+         * Set the connect and read timeouts of the requests of a method, instead of the default ones.
+         *
+         * @param method The method name (for instance "flickr.photos.search", or "upload" for the uploads)
+         * @param connectTimeout The maximum time to open a connection, 0 for no timeout
+         * @param readTimeout The maximum time waited for the next bytes of a response, 0 for no timeout
+         * @param unit The timeouts unit
+         * @return This builder
+         */
+        public Builder timeouts(String method, long connectTimeout, long readTimeout, TimeUnit unit) {
+            timeouts.set(method, connectTimeout, readTimeout, unit);
+            return this;
+        }
+
+        /**
+         * Set the default time limit of the calls, retries and rate limiter waits included. There is no limit by
+         * default.
+         *
+         * @param timeout The time limit, 0 for no limit
+         * @param unit The time limit unit
+         * @return This builder
+         */
+        public Builder callTimeout(long timeout, TimeUnit unit) {
+            if (timeout < 0) {
+                throw new IllegalArgumentException("The timeout cannot be negative");
+            }
+            callTimeout = unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * Set the cache storing the responses of the read methods. There is no cache by default.
+         *
+         * @param responseCache The cache
+         * @return This builder
+         */
+        public Builder responseCache(ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+        /**
+         * Set the rate limiter taken by the requests of all the services. There is no limit by default.
+         *
+         * @param rateLimiter The rate limiter
+         * @return This builder
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Set the adaptive limit of the requests in flight. There is no limit by default.
+         *
+         * @param concurrencyLimiter The limiter
+         * @return This builder
+         */
+        public Builder concurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        /**
+         * Set the policy retrying the calls failed with a transient error. The calls are not retried by default.
+         *
+         * @param retryPolicy The retry policy
+         * @return This builder
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Set the circuit breakers failing at once the calls of a degraded method. There are no breakers by default.
+         *
+         * @param circuitBreaker The circuit breakers
+         * @return This builder
+         */
+        public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Set the policy sending a second request for the slow read calls. The calls are not hedged by default.
+         *
+         * @param hedgingPolicy The hedging policy
+         * @return This builder
+         */
+        public Builder hedgingPolicy(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Set the scheduler serving the interactive calls before the background ones. There is no scheduler by
+         * default.
+         *
+         * @param requestScheduler The scheduler
+         * @return This builder
+         */
+        public Builder requestScheduler(RequestScheduler requestScheduler) {
+            this.requestScheduler = requestScheduler;
+            return this;
+        }
+
+        /**
+         * Set the concurrency limits of the services. The limits are copied, the later changes of the given object
+         * are ignored. The services are not bounded by default.
+         *
+         * @param bulkheads The concurrency limits
+         * @return This builder
+         */
+        public Builder bulkheads(Bulkheads bulkheads) {
+            this.bulkheads = bulkheads;
+            return this;
+        }
+
+        /**
+         * Create the configuration. The builder can be reused, the configurations built before are not changed.
+         *
+         * @return The configuration
+         */
+        public FlickrConfig build() {
+            return new FlickrConfig(this);
+        }
+    }
+
+}
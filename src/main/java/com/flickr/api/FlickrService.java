@@ -17,14 +17,22 @@
  */
 package com.flickr.api;
 
-import java.io.ByteArrayOutputStream;
+import com.flickr.api.utils.CountingInputStream;
+import com.flickr.api.utils.IOUtils;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Proxy;
+import java.net.URI;
 import java.util.Map;
-import org.apache.http.entity.mime.MultipartEntity;
-import org.scribe.model.OAuthRequest;
-import org.scribe.model.Response;
-import org.scribe.model.Verb;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  *
@@ -34,90 +42,547 @@ public abstract class FlickrService {
 
     public static final int MAX_PER_PAGE = Integer.MAX_VALUE;
     private static final String URL_PREFIX = "https://api.flickr.com/services/rest";
-    private final OAuthHandler oauth;
-    
-    private Proxy proxy = null;
+    private final RequestSigner signer;
+    private final ServiceContext context;
+    private final Bulkhead bulkhead;
 
-    FlickrService(OAuthHandler oauth) {
-        this.oauth = oauth;
+    FlickrService(RequestSigner signer, ServiceContext context) {
+        this.signer = signer;
+        this.context = context;
+        this.bulkhead = context.getBulkhead(getClass());
     }
-    
-    public void setProxy( Proxy proxy)
-    {
-        this.proxy = proxy;
+
+    /**
+     * Set the proxy of the requests. The proxy is shared by all the services of the client and by its user sessions,
+     * it is no longer set per service.
+     *
+     * @param proxy The proxy, or null to connect directly
+     * @deprecated The proxy now applies to the whole client, use {@link Flickr#setProxy(Proxy)}
+     */
+    @Deprecated
+    public void setProxy(Proxy proxy) {
+        context.setProxy(proxy);
+    }
+
+    final <T extends ServerResponse> CompletableFuture<T> doGetAsync(CommandArguments args, Class<T> clazz) {
+        return getAsync(args, clazz, applyDeadline(args));
     }
 
-    final <T extends ServerResponse> T doGet(CommandArguments args, Class<T> clazz) throws FlickrException {
-        OAuthRequest request = new OAuthRequest(Verb.GET, URL_PREFIX);
+    /**
+     * Get the owner of the cached responses: the service class and the user, shared by the instances of the service
+     * of the client and of the sessions of the same user.
+     *
+     * @return The owner
+     */
+    String getCacheOwner() {
+        return getClass().getName() + '@' + signer.getUserKey();
+    }
 
-        // check for proxy, use if available
-        if (proxy != null)
-        {
-            request.setProxy(proxy);
+    /**
+     * The deadline applies to the call itself, the cancellation of the stages depending on it would not stop it.
+     */
+    private <T extends ServerResponse> CompletableFuture<T> getAsync(final CommandArguments args, final Class<T> clazz,
+            final Deadline deadline) {
+        final ResponseCache cache = context.getResponseCache();
+        final boolean cached = cache != null && cache.isCached(args.getMethod());
+        if (!cached && !context.isCoalescingEnabled()) {
+            return withDeadline(args, deadline, call(args, clazz, () -> createGetRequest(args), true));
         }
 
-        for (Map.Entry<String, Object> param : args.getParameters().entrySet()) {
-            request.addQuerystringParameter(param.getKey(), String.valueOf(param.getValue()));
+        // The responses depend on the user signing the request
+        final String key = signer.getUserKey() + '@' + clazz.getName() + '?' + args.getCanonicalKey();
+        Supplier<CompletableFuture<T>> call;
+        if (cached) {
+            T response = cache.get(key, clazz);
+            if (response != null) {
+                return CompletableFuture.completedFuture(response);
+            }
+            final long generation = cache.getGeneration();
+            call = () -> {
+                CompletableFuture<T> called = withDeadline(args, deadline,
+                        call(args, clazz, () -> createGetRequest(args), true));
+                return cancelling(called.thenApply(result -> {
+                    cache.put(key, getCacheOwner(), args, result, generation);
+                    return result;
+                }), called);
+            };
+        } else {
+            call = () -> withDeadline(args, deadline, call(args, clazz, () -> createGetRequest(args), true));
+        }
+
+        if (context.isCoalescingEnabled()) {
+            // The read requests have no side effect, the identical ones in flight share a single response. The shared
+            // call stops at the deadline of the first caller, each caller still fails at its own deadline.
+            return withDeadline(args, deadline, context.getCoalescer().execute(key, call));
+        }
+        return call.get();
+    }
+
+    final <T extends ServerResponse> CompletableFuture<T> doPostAsync(CommandArguments args, Class<T> clazz) {
+        return doPostAsync(args, clazz, URL_PREFIX);
+    }
+
+    final <T extends ServerResponse> CompletableFuture<T> doPostAsync(CommandArguments args, Class<T> clazz, String url) {
+        return doPostAsync(args, clazz, url, null);
+    }
+
+    /**
+     * Send a write call.
+     *
+     * @param url The URL the request is signed for
+     * @param endpoint The URL the request is sent to, or null to send it to the signed URL
+     */
+    final <T extends ServerResponse> CompletableFuture<T> doPostAsync(final CommandArguments args, Class<T> clazz,
+            final String url, final String endpoint) {
+        Deadline deadline = applyDeadline(args);
+        CompletableFuture<T> future = withDeadline(args, deadline,
+                call(args, clazz, () -> createPostRequest(args, url, endpoint), false));
+        final ResponseCache cache = context.getResponseCache();
+        if (cache != null) {
+            // Even a failed write may have been applied
+            final String owner = getCacheOwner();
+            future = cancelling(future.whenComplete((response, error) -> cache.invalidate(owner, args)), future);
+        }
+        return future;
+    }
+
+    /**
+     * Cancel a call with a stage depending on it, the cancellation of a dependent stage does not reach the call.
+     *
+     * @return The dependent stage
+     */
+    private static <T> CompletableFuture<T> cancelling(final CompletableFuture<T> dependent,
+            final CompletableFuture<?> call) {
+        dependent.whenComplete((response, error) -> {
+            if (dependent.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return dependent;
+    }
+
+    /**
+     * Get the endpoint the uploads are sent to.
+     *
+     * @return The URL of the endpoint, or null to send them to Flickr
+     */
+    final String getUploadEndpoint() {
+        return context.getUploadEndpoint();
+    }
+
+    /**
+     * Set the deadline of a call: the deadline in scope in the calling thread, or the default call timeout.
+     *
+     * @return The deadline or null
+     */
+    private Deadline applyDeadline(CommandArguments args) {
+        // The scopes are read in the calling thread, the call runs in the executor
+        args.setPriority(Priority.current());
+        Deadline deadline = Deadline.current();
+        long timeout = context.getCallTimeout();
+        if (deadline == null && timeout > 0) {
+            deadline = Deadline.after(timeout, TimeUnit.NANOSECONDS);
+        }
+        args.setDeadline(deadline);
+        return deadline;
+    }
+
+    /**
+     * Fail a call still running at its deadline, the call is then cancelled.
+     */
+    private <T> CompletableFuture<T> withDeadline(CommandArguments args, final Deadline deadline,
+            final CompletableFuture<T> future) {
+        if (deadline == null || future.isDone()) {
+            return future;
+        }
+        final String message = "Deadline exceeded calling method '" + args.getMethod() + "'";
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        final ScheduledFuture<?> timer = Timers.schedule(() -> {
+            // Cancelled first, the caller then sees a call which released its resources
+            future.cancel(true);
+            result.completeExceptionally(new DeadlineExceededException(message));
+        }, deadline.remaining(TimeUnit.NANOSECONDS));
+        future.whenComplete((response, error) -> {
+            timer.cancel(false);
+            if (future.isCancelled()) {
+                // By the timer or the caller, the result is completed by them
+                return;
+            }
+            if (error == null) {
+                result.complete(response);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (deadline.isExpired() && !(cause instanceof DeadlineExceededException)) {
+                // The read timeout cut to the deadline fired first
+                cause = new DeadlineExceededException(message, cause);
+            }
+            result.completeExceptionally(cause);
+        });
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Wait for the result of an asynchronous call.
+     *
+     * @param <T> The result type
+     * @param future The call result
+     * @return The result
+     * @throws FlickrException The error thrown by the call
+     */
+    static <T> T await(CompletableFuture<T> future) throws FlickrException {
+        try {
+            return future.get();
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new FlickrException("Interrupted while waiting for the server response", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof FlickrException) {
+                throw (FlickrException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new FlickrException("Server request error", cause);
         }
+    }
+
+    /**
+     * Run a call in the bulkhead of the service.
+     *
+     * @param idempotent true for a read call, false for a write call
+     */
+    private <T extends ServerResponse> CompletableFuture<T> call(final CommandArguments args, final Class<T> clazz,
+            final Callable<TransportRequest> requestFactory, final boolean idempotent) {
+        if (bulkhead == null) {
+            return retried(args, clazz, requestFactory, idempotent);
+        }
+        // The call keeps its slot during the retries
+        return bulkhead.execute(args.getMethod(), () -> retried(args, clazz, requestFactory, idempotent));
+    }
 
-        oauth.signRequest(request);
-        Response response = request.send();
-        String body = response.getBody();
+    /**
+     * Run a call, retried according to the retry policy. The uploads of a stream are never retried.
+     *
+     * @param idempotent true for a read call, false for a write call (only retried if the policy allows it)
+     */
+    private <T extends ServerResponse> CompletableFuture<T> retried(CommandArguments args, Class<T> clazz,
+            Callable<TransportRequest> requestFactory, boolean idempotent) {
+        RetryPolicy policy = context.getRetryPolicy();
+        if (policy == null || (!idempotent && !policy.isRetryPosts()) || !args.isRepeatable()) {
+            return attempt(args, clazz, requestFactory, 0, idempotent);
+        }
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        retry(policy, args, clazz, requestFactory, idempotent, 1, System.nanoTime(), 0, future);
+        return future;
+    }
 
-        return parseBody(args, clazz, body);
+    private <T extends ServerResponse> void retry(final RetryPolicy policy, final CommandArguments args,
+            final Class<T> clazz, final Callable<TransportRequest> requestFactory, final boolean idempotent,
+            final int attempt, final long start, long delay, final CompletableFuture<T> future) {
+        policy.recordAttempt();
+        final CompletableFuture<T> attempted = attempt(args, clazz, requestFactory, delay, idempotent);
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                attempted.cancel(true);
+            }
+        });
+        attempted.whenComplete((response, error) -> {
+            if (future.isDone()) {
+                // Cancelled, no retry
+                return;
+            }
+            if (error == null) {
+                future.complete(response);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            long backoff = policy.getBackoff(attempt);
+            if (policy.shouldRetry(cause, attempt, start, backoff, args.getDeadline())) {
+                retry(policy, args, clazz, requestFactory, idempotent, attempt + 1, start, backoff, future);
+            } else {
+                future.completeExceptionally(cause);
+            }
+        });
     }
 
-    final <T extends ServerResponse> T doPost(CommandArguments args, Class<T> clazz) throws FlickrException {
-        return doPost(args, clazz, URL_PREFIX);
+    /**
+     * Run an attempt of a call, hedged according to the hedging policy for a read call.
+     */
+    private <T extends ServerResponse> CompletableFuture<T> attempt(final CommandArguments args, final Class<T> clazz,
+            final Callable<TransportRequest> requestFactory, final long delay, boolean idempotent) {
+        HedgingPolicy policy = context.getHedgingPolicy();
+        if (!idempotent || policy == null || !policy.isHedged(args.getMethod())) {
+            return execute(args, clazz, requestFactory, delay, null);
+        }
+        return HedgedCall.run(policy, args.getMethod(), sent -> execute(args, clazz, requestFactory, delay, sent),
+                () -> execute(args, clazz, requestFactory, 0, null));
     }
 
-    final <T extends ServerResponse> T doPost(CommandArguments args, Class<T> clazz, String url) throws FlickrException {
+    /**
+     * Send a request: the executor waits for the delay, takes the tokens of the rate limiter, waits for the
+     * concurrency limit and checks the circuit breaker, then creates and signs the request and sends it with the
+     * asynchronous API of the transport. The response is read by the thread completing the send, which is the executor
+     * thread itself for a synchronous transport. Once the returned future is cancelled, the request is not sent, or its
+     * response is dropped.
+     *
+     * @param delay The time to wait before sending the request, in nanoseconds (backoff of a retry)
+     * @param sent Run when the request is handed to the transport (optional)
+     */
+    private <T extends ServerResponse> CompletableFuture<T> execute(final CommandArguments args, final Class<T> clazz,
+            final Callable<TransportRequest> requestFactory, final long delay, final Runnable sent) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        final Executor executor = context.getExecutor();
         try {
-            OAuthRequest request = new OAuthRequest(Verb.POST, url);
-            
-            // check for proxy, use if available
-            if (proxy != null)
-            {
-                request.setProxy(proxy);
-            }
-            
-            for (Map.Entry<String, Object> param : args.getParameters().entrySet()) {
-                if (param.getValue() instanceof String) {
-                    request.addQuerystringParameter(param.getKey(), (String) param.getValue());
+            executor.execute(() -> sendAttempt(args, clazz, requestFactory, delay, sent, executor, future));
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    private <T extends ServerResponse> void sendAttempt(final CommandArguments args, final Class<T> clazz,
+            Callable<TransportRequest> requestFactory, long delay, Runnable sent, Executor executor,
+            final CompletableFuture<T> future) {
+        final CircuitBreaker breaker = context.getCircuitBreaker();
+        final ConcurrencyLimiter limiter = context.getConcurrencyLimiter();
+        final RequestScheduler scheduler = context.getRequestScheduler();
+        boolean permitted = false;
+        long permit = 0;
+        boolean scheduled = false;
+        boolean acquired = false;
+        try {
+            if (delay > 0) {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+            RateLimiter rateLimiter = context.getRateLimiter();
+            if (scheduler != null) {
+                // The scheduler decides which waiting request takes the next rate limiter tokens
+                scheduler.acquire(args.getMethod(), args.getPriority(), args.getDeadline(), rateLimiter);
+                scheduled = true;
+            } else if (rateLimiter != null) {
+                rateLimiter.acquire(args.getMethod(), args.getDeadline());
+            }
+            if (limiter != null) {
+                limiter.acquire(args.getMethod(), args.getDeadline());
+            }
+            acquired = true;
+            // Checked last, a half-open probe is not held while the request waits for its turn
+            if (breaker != null) {
+                permit = breaker.permit(args.getMethod());
+            }
+            permitted = true;
+            if (future.isDone()) {
+                // Cancelled while waiting
+                release(breaker, permit, limiter, scheduler, args);
+                return;
+            }
+            TransportRequest request = requestFactory.call();
+
+            final long granted = permit;
+            if (sent != null) {
+                sent.run();
+            }
+            final long start = System.nanoTime();
+            final CompletableFuture<TransportResponse> sending = send(args, request, executor);
+            future.whenComplete((result, error) -> {
+                if (future.isCancelled()) {
+                    sending.cancel(true);
+                }
+            });
+            sending.whenComplete((response, error) -> {
+                if (future.isDone()) {
+                    // Cancelled while sending, the response is dropped
+                    IOUtils.closeQuietly(response);
+                    release(breaker, granted, limiter, scheduler, args);
+                    return;
+                }
+                T result = null;
+                Throwable failure = error;
+                if (failure == null) {
+                    try {
+                        result = read(args, clazz, response);
+                    } catch (Throwable ex) {
+                        failure = ex;
+                    }
                 }
+                // Recorded first, the caller may retry at once
+                long duration = System.nanoTime() - start;
+                if (breaker != null) {
+                    breaker.record(args.getMethod(), granted, failure, duration);
+                }
+                if (limiter != null) {
+                    limiter.release(args.getMethod(), failure, duration);
+                }
+                if (scheduler != null) {
+                    scheduler.release();
+                }
+                if (failure != null) {
+                    future.completeExceptionally(failure);
+                } else {
+                    future.complete(result);
+                }
+            });
+        } catch (Throwable ex) {
+            if (permitted && breaker != null) {
+                breaker.record(args.getMethod(), permit, null, -1);
+            }
+            if (acquired && limiter != null) {
+                limiter.release(args.getMethod(), null, -1);
+            }
+            if (scheduled) {
+                scheduler.release();
             }
+            future.completeExceptionally(ex);
+        }
+    }
 
-            oauth.signRequest(request);
+    /**
+     * Nothing to learn about the endpoint from a request not sent or cancelled.
+     */
+    private static void release(CircuitBreaker breaker, long permit, ConcurrencyLimiter limiter,
+            RequestScheduler scheduler, CommandArguments args) {
+        if (breaker != null) {
+            breaker.record(args.getMethod(), permit, null, -1);
+        }
+        if (limiter != null) {
+            limiter.release(args.getMethod(), null, -1);
+        }
+        if (scheduler != null) {
+            scheduler.release();
+        }
+    }
 
-            MultipartEntity multipart = args.getBody(request.getOauthParameters());
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            multipart.writeTo(baos);
+    private TransportRequest createGetRequest(CommandArguments args) {
+        // The parameters are already sorted by name
+        Map<String, Object> params = args.getParameters();
+        Map<String, String> oauthParams = signer.sign("GET", URL_PREFIX, params);
 
-            request.addPayload(baos.toByteArray());
-            request.addHeader("Content-type", multipart.getContentType().getValue());
+        StringBuilder url = new StringBuilder(512).append(URL_PREFIX).append('?');
+        OAuthSigner.appendQuery(url, params);
+        TransportRequest transportRequest = new TransportRequest("GET", url.toString());
+        transportRequest.addHeader("Authorization", OAuthSigner.getAuthorizationHeader(oauthParams));
+        return transportRequest;
+    }
+
+    private TransportRequest createPostRequest(CommandArguments args, String url, String endpoint) {
+        // The files are sent in the body, only the strings are signed
+        Map<String, String> params = new TreeMap<String, String>();
+        for (Map.Entry<String, Object> param : args.getParameters().entrySet()) {
+            if (param.getValue() instanceof String) {
+                params.put(param.getKey(), (String) param.getValue());
+            }
+        }
+        Map<String, String> oauthParams = signer.sign("POST", url, params);
 
-            Response response = request.send();
-            String body = response.getBody();
+        StringBuilder completeUrl = new StringBuilder(256).append(endpoint == null ? url : endpoint);
+        if (!params.isEmpty()) {
+            completeUrl.append('?');
+            OAuthSigner.appendQuery(completeUrl, params);
+        }
+        TransportRequest transportRequest = new TransportRequest("POST", completeUrl.toString());
+        transportRequest.addHeader("Authorization", OAuthSigner.getAuthorizationHeader(oauthParams));
+        if (endpoint != null) {
+            // Signed for the Flickr URL, the endpoint forwards the request to Flickr
+            transportRequest.addHeader("Host", URI.create(url).getHost());
+        }
+        // The length of the parts is known, the files are streamed to the connection when the request is sent
+        transportRequest.setEntity(args.getBody(oauthParams));
+        return transportRequest;
+    }
 
-            return parseBody(args, clazz, body);
+    private CompletableFuture<TransportResponse> send(final CommandArguments args, TransportRequest request,
+            Executor executor) {
+        request.setProxy(context.getProxy());
+        Timeouts timeouts = context.getTimeouts();
+        // The connect timeout is kept as configured, the HTTP/2 transport has a client per connect timeout
+        request.setConnectTimeout(timeouts.getConnectTimeout(args.getMethod()));
+        long readTimeout = timeouts.getReadTimeout(args.getMethod());
+        Deadline deadline = args.getDeadline();
+        if (deadline != null) {
+            long remaining = Math.max(deadline.remaining(TimeUnit.MILLISECONDS), 1);
+            readTimeout = readTimeout == 0 ? remaining : Math.min(readTimeout, remaining);
+        }
+        request.setReadTimeout(readTimeout);
+        if (context.isCompressionEnabled()) {
+            request.addHeader("Accept-Encoding", ContentEncoding.ACCEPTED);
+        }
 
+        final CompletableFuture<TransportResponse> future = new CompletableFuture<TransportResponse>();
+        final CompletableFuture<TransportResponse> sending = context.getTransport().sendAsync(request, executor);
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                sending.cancel(true);
+            }
+        });
+        sending.whenComplete((response, error) -> {
+            if (error == null) {
+                if (!future.complete(response)) {
+                    IOUtils.closeQuietly(response);
+                }
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof IOException) {
+                cause = new FlickrException("Error calling method '" + args.getMethod() + "'", cause);
+            }
+            future.completeExceptionally(cause);
+        });
+        return future;
+    }
+
+    private <T extends ServerResponse> T read(CommandArguments args, Class<T> clazz, TransportResponse response) throws FlickrException {
+        CountingInputStream received = null;
+        CountingInputStream decoded = null;
+        try {
+            int code = response.getCode();
+            if (code == 502 || code == 503 || code == 504) {
+                // The body is an HTML page of the front servers, not a JSON response
+                throw new FlickrException("Error calling method '" + args.getMethod() + "' (HTTP " + code + ")",
+                        FlickrErrorCode.service_currently_unavailable);
+            }
+            received = new CountingInputStream(response.getStream());
+            decoded = new CountingInputStream(ContentEncoding.decode(response.getHeader("Content-Encoding"), received));
+            return parseBody(args, clazz, decoded);
         } catch (IOException ex) {
-            throw new UnsupportedOperationException("Error preparing multipart request", ex);
+            throw new FlickrException("Error reading the response of method '" + args.getMethod() + "'", ex);
+        } finally {
+            if (received != null) {
+                context.getTrafficStats().record(args.getMethod(), received.getCount(),
+                        decoded == null ? 0 : decoded.getCount());
+            }
+            IOUtils.closeQuietly(decoded);
+            IOUtils.closeQuietly(response);
         }
     }
 
-    private <T extends ServerResponse> T parseBody(CommandArguments args, Class<T> clazz, String body) throws FlickrException {
+    private <T extends ServerResponse> T parseBody(CommandArguments args, Class<T> clazz, InputStream body) throws FlickrException, IOException {
         try {
+            T instance = clazz.newInstance();
+
             if (Flickr.debug) {
+                // The whole body is needed to be printed
+                String data = IOUtils.toString(body, "UTF-8");
                 try {
-                    System.out.println("Server response for method " + args.getMethod() + "\n" + body);
+                    System.out.println("Server response for method " + args.getMethod() + "\n" + data);
                 } catch (Exception ignored) {
                 }
+                instance.read(data, args.getMethod());
+            } else {
+                instance.read(body, args.getMethod());
             }
 
-            T instance = clazz.newInstance();
-            instance.read(body, args.getMethod());
-
             return instance;
 
         } catch (FlickrException ex) {
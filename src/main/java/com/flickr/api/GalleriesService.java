@@ -29,6 +29,7 @@ import com.flickr.api.entities.Paginated;
 import com.flickr.api.entities.Photo;
 import com.flickr.api.entities.PhotosResponse;
 import com.flickr.api.entities.VoidResponse;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -36,8 +37,8 @@ import com.flickr.api.entities.VoidResponse;
  */
 public class GalleriesService extends FlickrService {
 
-    GalleriesService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    GalleriesService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -50,12 +51,24 @@ public class GalleriesService extends FlickrService {
      * @throws FlickrException Error getting the galleries
      */
     public Paginated<Gallery> getGalleries(BaseUser user, int perPage, int page) throws FlickrException {
+        return await(getGalleriesAsync(user, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getGalleries(BaseUser, int, int)}.
+     *
+     * @param user The user to get a galleries list for
+     * @param perPage Number of galleries to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the galleries
+     */
+    public CompletableFuture<Paginated<Gallery>> getGalleriesAsync(BaseUser user, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.galleries.getList");
         args.addParam("per_page", perPage);
         args.addParam("page", page);
         args.addParam("user_id", user.getId());
 
-        return doGet(args, GalleriesResponse.class).getPaginated();
+        return doGetAsync(args, GalleriesResponse.class).thenApply(GalleriesResponse::getPaginated);
     }
 
     /**
@@ -68,12 +81,24 @@ public class GalleriesService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getGalleryPhotos(Gallery gallery, int perPage, int page) throws FlickrException {
+        return await(getGalleryPhotosAsync(gallery, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getGalleryPhotos(Gallery, int, int)}.
+     *
+     * @param gallery The gallery of photos to return
+     * @param perPage Number of galleries to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getGalleryPhotosAsync(Gallery gallery, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.galleries.getPhotos");
         args.addParam("per_page", perPage);
         args.addParam("page", page);
         args.addParam("gallery_id", gallery.getId());
 
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -86,6 +111,18 @@ public class GalleriesService extends FlickrService {
      * @throws FlickrException Error creating the gallery
      */
     public Gallery createGallery(String title, String description, Photo primaryPhoto) throws FlickrException {
+        return await(createGalleryAsync(title, description, primaryPhoto));
+    }
+
+    /**
+     * Asynchronous version of {@link #createGallery(String, String, Photo)}.
+     *
+     * @param title The gallery title
+     * @param description The gallery description
+     * @param primaryPhoto The primary photo (optional)
+     * @return A future completed with the created gallery
+     */
+    public CompletableFuture<Gallery> createGalleryAsync(String title, String description, Photo primaryPhoto) {
         CommandArguments args = new CommandArguments("flickr.galleries.create");
         args.addParam("title", title);
         args.addParam("description", description);
@@ -93,7 +130,7 @@ public class GalleriesService extends FlickrService {
             args.addParam("primary_photo_id", primaryPhoto.getId());
         }
 
-        return doPost(args, GalleryResponse.class).getGallery();
+        return doPostAsync(args, GalleryResponse.class).thenApply(GalleryResponse::getGallery);
     }
 
     /**
@@ -105,6 +142,18 @@ public class GalleriesService extends FlickrService {
      * @throws FlickrException Error adding the photo
      */
     public void addPhotoToGallery(Gallery gallery, Photo photo, String comment) throws FlickrException {
+        await(addPhotoToGalleryAsync(gallery, photo, comment));
+    }
+
+    /**
+     * Asynchronous version of {@link #addPhotoToGallery(Gallery, Photo, String)}.
+     *
+     * @param gallery The gallery
+     * @param photo The photo to add
+     * @param comment A comment (optional)
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> addPhotoToGalleryAsync(Gallery gallery, Photo photo, String comment) {
         CommandArguments args = new CommandArguments("flickr.galleries.addPhoto");
         args.addParam("gallery_id", gallery.getId());
         args.addParam("photo_id", photo.getId());
@@ -112,7 +161,7 @@ public class GalleriesService extends FlickrService {
             args.addParam("comment", comment);
         }
 
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
 }
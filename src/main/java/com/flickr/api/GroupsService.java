@@ -32,6 +32,7 @@ import com.flickr.api.entities.Photo;
 import com.flickr.api.entities.PhotosResponse;
 import com.flickr.api.entities.VoidResponse;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -39,8 +40,8 @@ import java.util.Locale;
  */
 public class GroupsService extends FlickrService {
 
-    GroupsService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    GroupsService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -52,10 +53,21 @@ public class GroupsService extends FlickrService {
      * @throws FlickrException Error getting the groups
      */
     public Paginated<Group> getGroups(int perPage, int page) throws FlickrException {
+        return await(getGroupsAsync(perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getGroups(int, int)}.
+     *
+     * @param perPage Number of groups to return per page. The maximum allowed value is 400.
+     * @param page The page of results to return
+     * @return A future completed with the groups
+     */
+    public CompletableFuture<Paginated<Group>> getGroupsAsync(int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.groups.pools.getGroups");
         args.addParam("page", page);
         args.addParam("per_page", perPage);
-        return doGet(args, GroupsResponse.class).getPaginated();
+        return doGetAsync(args, GroupsResponse.class).thenApply(GroupsResponse::getPaginated);
     }
 
     /**
@@ -66,11 +78,21 @@ public class GroupsService extends FlickrService {
      * @throws FlickrException Error getting the informations
      */
     public GroupInfos getGroupInfos(Group group) throws FlickrException {
+        return await(getGroupInfosAsync(group));
+    }
+
+    /**
+     * Asynchronous version of {@link #getGroupInfos(Group)}.
+     *
+     * @param group The group
+     * @return A future completed with the group informations
+     */
+    public CompletableFuture<GroupInfos> getGroupInfosAsync(Group group) {
         Locale locale = Locale.getDefault();
         CommandArguments args = new CommandArguments("flickr.groups.getInfo");
         args.addParam("group_id", group.getId());
         args.addParam("lang", locale.getCountry().toLowerCase() + "-" + locale.getLanguage());
-        return doGet(args, GroupInfosResponse.class).getInfos();
+        return doGetAsync(args, GroupInfosResponse.class).thenApply(GroupInfosResponse::getInfos);
     }
 
     /**
@@ -84,11 +106,23 @@ public class GroupsService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getGroupPhotos(Group group, int perPage, int page) throws FlickrException {
+        return await(getGroupPhotosAsync(group, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getGroupPhotos(Group, int, int)}.
+     *
+     * @param group The group who's pool you which to get the photo list for
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return.
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getGroupPhotosAsync(Group group, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.groups.pools.getPhotos");
         args.addParam("group_id", group.getId());
         args.addParam("page", page);
         args.addParam("per_page", perPage);
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -102,11 +136,23 @@ public class GroupsService extends FlickrService {
      * @throws FlickrException Error getting the members
      */
     public Paginated<Member> getGroupMembers(Group group, int perPage, int page) throws FlickrException {
+        return await(getGroupMembersAsync(group, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getGroupMembers(Group, int, int)}.
+     *
+     * @param group The group
+     * @param perPage Number of members to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the members
+     */
+    public CompletableFuture<Paginated<Member>> getGroupMembersAsync(Group group, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.groups.members.getList");
         args.addParam("group_id", group.getId());
         args.addParam("page", page);
         args.addParam("per_page", perPage);
-        return doGet(args, MembersResponse.class).getPaginated();
+        return doGetAsync(args, MembersResponse.class).thenApply(MembersResponse::getPaginated);
     }
 
     /**
@@ -120,11 +166,23 @@ public class GroupsService extends FlickrService {
      * @throws FlickrException Error searching the groups
      */
     public Paginated<Group> searchGroup(String search, int perPage, int page) throws FlickrException {
+        return await(searchGroupAsync(search, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #searchGroup(String, int, int)}.
+     *
+     * @param search The text to search for
+     * @param perPage Number of members to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the groups found
+     */
+    public CompletableFuture<Paginated<Group>> searchGroupAsync(String search, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.groups.search");
         args.addParam("text", search);
         args.addParam("page", page);
         args.addParam("per_page", perPage);
-        return doGet(args, GroupsResponse.class).getPaginated();
+        return doGetAsync(args, GroupsResponse.class).thenApply(GroupsResponse::getPaginated);
     }
 
     /**
@@ -137,10 +195,21 @@ public class GroupsService extends FlickrService {
      * @throws FlickrException Error joining the group
      */
     public void joinGroup(Group group, boolean acceptRules) throws FlickrException {
+        await(joinGroupAsync(group, acceptRules));
+    }
+
+    /**
+     * Asynchronous version of {@link #joinGroup(Group, boolean)}.
+     *
+     * @param group The group to join
+     * @param acceptRules If the group has rules, they must be displayed to the user prior to joining. Passing a true
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> joinGroupAsync(Group group, boolean acceptRules) {
         CommandArguments args = new CommandArguments("flickr.groups.join");
         args.addParam("group_id", group.getId());
         args.addParam("accept_rules", acceptRules);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -152,10 +221,21 @@ public class GroupsService extends FlickrService {
      * @throws FlickrException Error leaving the group
      */
     public void leaveGroup(Group group, boolean deleteUserPhotos) throws FlickrException {
+        await(leaveGroupAsync(group, deleteUserPhotos));
+    }
+
+    /**
+     * Asynchronous version of {@link #leaveGroup(Group, boolean)}.
+     *
+     * @param group The group to leave
+     * @param deleteUserPhotos true to delete the user photos, false otherwise
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> leaveGroupAsync(Group group, boolean deleteUserPhotos) {
         CommandArguments args = new CommandArguments("flickr.groups.leave");
         args.addParam("group_id", group.getId());
         args.addParam("delete_photos", deleteUserPhotos);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A read call hedged according to a {@link HedgingPolicy}: a second request is sent if the first one has not answered
+ * after the hedging delay, the first successful response completes the call and the other request is cancelled. The
+ * call fails when all the requests sent failed.
+ *
+ * <p>
+ * The delay and the latency are counted from the time the first request is handed to the transport, the wait for the
+ * rate limiter, the scheduler and the concurrency limiter is not a slow answer.</p>
+ *
+ * @param <T> The response type
+ */
+final class HedgedCall<T> {
+
+    private final HedgingPolicy policy;
+    private final String method;
+    private final Supplier<CompletableFuture<T>> request;
+    private final CompletableFuture<T> result = new CompletableFuture<T>();
+    // Requests sent and not failed yet
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final AtomicBoolean won = new AtomicBoolean();
+    private volatile long start;
+    private volatile CompletableFuture<T> primary;
+    private volatile CompletableFuture<T> hedge;
+    private volatile ScheduledFuture<?> timer;
+
+    private HedgedCall(HedgingPolicy policy, String method, Supplier<CompletableFuture<T>> request) {
+        this.policy = policy;
+        this.method = method;
+        this.request = request;
+    }
+
+    /**
+     * Run a hedged call.
+     *
+     * @param <T> The response type
+     * @param policy The hedging policy
+     * @param method The method called
+     * @param first Sends the first request, running the given callback when the request is handed to the transport
+     * @param request Sends the hedge request
+     * @return The result of the call
+     */
+    static <T> CompletableFuture<T> run(HedgingPolicy policy, String method,
+            Function<Runnable, CompletableFuture<T>> first, Supplier<CompletableFuture<T>> request) {
+        final HedgedCall<T> call = new HedgedCall<T>(policy, method, request);
+        call.primary = first.apply(call::sent);
+        call.primary.whenComplete((value, error) -> call.onComplete(value, error, false));
+        call.result.whenComplete((value, error) -> {
+            if (call.result.isCancelled()) {
+                call.cancel(call.primary);
+                call.cancel(call.hedge);
+            }
+        });
+        return call.result;
+    }
+
+    private void sent() {
+        if (result.isDone()) {
+            return;
+        }
+        start = System.nanoTime();
+        timer = Timers.schedule(this::sendHedge, policy.getDelay(method));
+        if (result.isDone()) {
+            // Completed while the timer was scheduled
+            cancelTimer();
+        }
+    }
+
+    private void sendHedge() {
+        if (result.isDone()) {
+            return;
+        }
+        pending.incrementAndGet();
+        policy.recordHedge();
+        hedge = request.get();
+        hedge.whenComplete((value, error) -> onComplete(value, error, true));
+        if (won.get() || result.isDone()) {
+            // The first request answered while the hedge was created
+            cancel(hedge);
+        }
+    }
+
+    private void onComplete(T value, Throwable error, boolean fromHedge) {
+        if (error == null) {
+            if (won.compareAndSet(false, true)) {
+                // The loser is cancelled before the caller gets the response
+                policy.recordLatency(method, System.nanoTime() - start);
+                if (fromHedge) {
+                    policy.recordWin();
+                }
+                cancelTimer();
+                cancel(fromHedge ? primary : hedge);
+                result.complete(value);
+            }
+        } else if (pending.decrementAndGet() == 0) {
+            // The hedge is not sent after a failure, the retry policy decides what to do
+            cancelTimer();
+            result.completeExceptionally(error);
+        }
+    }
+
+    private void cancelTimer() {
+        ScheduledFuture<?> scheduled = timer;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
+    private void cancel(CompletableFuture<T> request) {
+        if (request != null && request.cancel(true)) {
+            policy.recordCancelled();
+        }
+    }
+
+}
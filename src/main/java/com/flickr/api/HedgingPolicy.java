@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Policy hedging the read calls, see {@link Flickr#setHedgingPolicy(HedgingPolicy)}.
+ *
+ * <p>
+ * When the response of a read call has not arrived after the hedging delay of its method, counted from the time its
+ * request is sent, an identical request is sent, and the first response received is used; the other request is
+ * cancelled. The delay is a percentile of the
+ * last response times of the method (the 95th for instance), so only the slowest calls are hedged. Until enough
+ * response times are known, the maximum delay is used.</p>
+ *
+ * <p>
+ * The hedge requests take the tokens of the rate limiter like any other request. The write methods are never
+ * hedged.</p>
+ */
+public final class HedgingPolicy {
+
+    private static final int WINDOW_SIZE = 128;
+    private static final int MIN_SAMPLES = 16;
+    //
+    private final double percentile;
+    private final long minDelay;
+    private final long maxDelay;
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<String, LatencyWindow>();
+    private final ConcurrentMap<String, Boolean> excluded = new ConcurrentHashMap<String, Boolean>();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+
+    /**
+     * Create a new hedging policy
+     *
+     * @param percentile The percentile of the response times used as delay (0.95 for the 95th percentile)
+     * @param minDelay The minimum delay before a hedge request
+     * @param maxDelay The maximum delay before a hedge request
+     * @param unit The delay unit
+     */
+    public HedgingPolicy(double percentile, long minDelay, long maxDelay, TimeUnit unit) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("The percentile must be in ]0, 1[");
+        }
+        this.percentile = percentile;
+        this.minDelay = unit.toNanos(minDelay);
+        this.maxDelay = unit.toNanos(maxDelay);
+    }
+
+    /**
+     * Set if the calls of a method are hedged. All the read methods are hedged by default.
+     *
+     * @param method The method name
+     * @param hedged true to hedge the calls, false otherwise
+     */
+    public void setHedged(String method, boolean hedged) {
+        if (hedged) {
+            excluded.remove(method);
+        } else {
+            excluded.put(method, Boolean.TRUE);
+        }
+    }
+
+    public boolean isHedged(String method) {
+        return !excluded.containsKey(method);
+    }
+
+    /**
+     * Get the current delay before hedging a call.
+     *
+     * @param method The method name
+     * @return The delay in nanoseconds
+     */
+    public long getDelay(String method) {
+        LatencyWindow window = latencies.get(method);
+        long delay = window == null ? -1 : window.getPercentile();
+        if (delay < 0) {
+            return maxDelay;
+        }
+        return Math.max(minDelay, Math.min(maxDelay, delay));
+    }
+
+    void recordLatency(String method, long latency) {
+        LatencyWindow window = latencies.get(method);
+        if (window == null) {
+            LatencyWindow created = new LatencyWindow();
+            window = latencies.putIfAbsent(method, created);
+            if (window == null) {
+                window = created;
+            }
+        }
+        window.add(latency);
+    }
+
+    void recordHedge() {
+        hedges.increment();
+    }
+
+    void recordWin() {
+        wins.increment();
+    }
+
+    void recordCancelled() {
+        cancelled.increment();
+    }
+
+    /**
+     * Get the number of hedge requests sent.
+     *
+     * @return The number of requests
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Get the number of calls answered by their hedge request.
+     *
+     * @return The number of calls
+     */
+    public long getHedgeWinCount() {
+        return wins.sum();
+    }
+
+    /**
+     * Get the number of requests cancelled because the other request of their call answered first.
+     *
+     * @return The number of requests
+     */
+    public long getCancelledCount() {
+        return cancelled.sum();
+    }
+
+    private final class LatencyWindow {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int count;
+        private int index;
+        private int added;
+        private long value = -1;
+
+        private synchronized void add(long latency) {
+            samples[index] = latency;
+            index = (index + 1) % WINDOW_SIZE;
+            if (count < WINDOW_SIZE) {
+                count++;
+            }
+            added++;
+        }
+
+        private synchronized long getPercentile() {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            // Sorting the window on each call is not needed, the percentile moves slowly
+            if (value < 0 || added >= MIN_SAMPLES) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                value = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+                added = 0;
+            }
+            return value;
+        }
+    }
+
+}
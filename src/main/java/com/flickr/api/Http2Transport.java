@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.IOException;
+
+/**
+ * Transport sending the requests over HTTP/2 with the <code>java.net.http</code> client. This client needs Java 11,
+ * this version is used on the older runtimes. The Java 11 version is packaged in the multi-release jar
+ * (META-INF/versions/11).
+ */
+public final class Http2Transport implements Transport {
+
+    /**
+     * Create a new HTTP/2 transport
+     *
+     * @throws UnsupportedOperationException The runtime does not provide the HTTP/2 client
+     */
+    public Http2Transport() {
+        throw new UnsupportedOperationException("The HTTP/2 transport requires Java 11 or later");
+    }
+
+    /**
+     * Indicates if this transport is available on the current runtime (Java 11 or later).
+     *
+     * @return true if the transport can be used, false otherwise
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    @Override
+    public TransportResponse send(TransportRequest request) throws IOException {
+        throw new UnsupportedOperationException("The HTTP/2 transport requires Java 11 or later");
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+}
@@ -24,6 +24,7 @@ package com.flickr.api;
 import com.flickr.api.entities.Paginated;
 import com.flickr.api.entities.Photo;
 import com.flickr.api.entities.PhotosResponse;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -31,8 +32,8 @@ import com.flickr.api.entities.PhotosResponse;
  */
 public class InterestingnessService extends FlickrService {
 
-    InterestingnessService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    InterestingnessService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -44,10 +45,21 @@ public class InterestingnessService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getInterestingPhotos(int perPage, int page) throws FlickrException {
+        return await(getInterestingPhotosAsync(perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getInterestingPhotos(int, int)}.
+     *
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getInterestingPhotosAsync(int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.interestingness.getList");
         args.addParam("page", page);
         args.addParam("per_page", perPage);
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
 }
@@ -24,10 +24,10 @@ package com.flickr.api;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URL;
+import java.util.Map;
 
 import org.scribe.builder.ServiceBuilder;
 import org.scribe.exceptions.OAuthException;
-import org.scribe.model.OAuthRequest;
 import org.scribe.model.Token;
 import org.scribe.model.Verifier;
 import org.scribe.oauth.OAuthService;
@@ -36,7 +36,7 @@ import org.scribe.oauth.OAuthService;
  *
  * @author Fabien Barbero
  */
-class OAuthHandler {
+class OAuthHandler implements RequestSigner {
 
     private static final String PROPERTY_REQUEST_TOKEN = "oauth.request.token";
     private static final String PROPERTY_REQUEST_SECRET = "oauth.request.secret";
@@ -46,10 +46,12 @@ class OAuthHandler {
     //
     private final FlickrProperties props;
     private final OAuthService service;
+    private final OAuthSigner signer;
     //
-    private Token requestToken;
-    private Token accessToken;
-    private String token;
+    // Written by the authorization flow, read by the threads signing the requests
+    private volatile Token requestToken;
+    private volatile Token accessToken;
+    private volatile String token;
 
     OAuthHandler(FlickrProperties props, String apiKey, String apiSecret, String callbackUrl, String perms) {
         this.props = props;
@@ -58,6 +60,7 @@ class OAuthHandler {
                 .apiKey(apiKey).apiSecret(apiSecret)
                 .callback(callbackUrl)
                 .build();
+        signer = new OAuthSigner(apiKey, apiSecret);
         load();
     }
     
@@ -115,11 +118,31 @@ class OAuthHandler {
         return requestToken;
     }
 
-    void signRequest(OAuthRequest request) {
-        service.signRequest(accessToken, request);
+    @Override
+    public Map<String, String> sign(String verb, String url, Map<String, ?> params) {
+        return signer.sign(verb, url, params, accessToken);
     }
 
-    String retrieveAuthorizationUrl() throws OAuthException {
+    /**
+     * Sign a request with the token of another user, the consumer key and secret are shared.
+     *
+     * @param verb The HTTP method
+     * @param url The URL, without query string
+     * @param params The request parameters, sorted by name
+     * @param token The access token of the user
+     * @return The OAuth parameters, the signature included
+     */
+    Map<String, String> sign(String verb, String url, Map<String, ?> params, Token token) {
+        return signer.sign(verb, url, params, token);
+    }
+
+    @Override
+    public String getUserKey() {
+        Token token = accessToken;
+        return token == null ? "" : token.getToken();
+    }
+
+    synchronized String retrieveAuthorizationUrl() throws OAuthException {
         requestToken = service.getRequestToken();
         String authorizationUrl = service.getAuthorizationUrl(requestToken);
 
@@ -127,7 +150,7 @@ class OAuthHandler {
         return authorizationUrl;
     }
 
-    void retrieveAccessToken(String verifier, String token) throws OAuthException {
+    synchronized void retrieveAccessToken(String verifier, String token) throws OAuthException {
         accessToken = service.getAccessToken(requestToken, new Verifier(verifier));
 
         this.token = token;
@@ -135,7 +158,7 @@ class OAuthHandler {
         save();
     }
 
-    public void clear() {
+    public synchronized void clear() {
         requestToken = null;
         accessToken = null;
         token = null;
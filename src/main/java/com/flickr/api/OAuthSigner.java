@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.scribe.model.Token;
+
+/**
+ * OAuth 1.0a HMAC-SHA1 signing of the requests.
+ *
+ * <p>
+ * The request parameters are already sorted by name, they are merged with the OAuth parameters and percent-encoded
+ * straight into a buffer reused by the thread, without intermediate strings. Each thread keeps its
+ * <code>Mac</code>, which is only keyed again when the token secret changes.</p>
+ */
+final class OAuthSigner {
+
+    private static final String ALGORITHM = "HmacSHA1";
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final ThreadLocal<SigningBuffer> BUFFERS = new ThreadLocal<SigningBuffer>() {
+
+        @Override
+        protected SigningBuffer initialValue() {
+            return new SigningBuffer();
+        }
+    };
+    //
+    private final String consumerKey;
+    private final String consumerSecret;
+
+    OAuthSigner(String consumerKey, String consumerSecret) {
+        this.consumerKey = consumerKey;
+        this.consumerSecret = consumerSecret;
+    }
+
+    /**
+     * Sign a request.
+     *
+     * @param verb The HTTP method
+     * @param url The URL, without query string
+     * @param params The request parameters, sorted by name
+     * @param token The access token, or null
+     * @return The OAuth parameters, the signature included
+     */
+    Map<String, String> sign(String verb, String url, Map<String, ?> params, Token token) {
+        String timestamp = Long.toString(System.currentTimeMillis() / 1000);
+        String nonce = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+        return sign(verb, url, params, token, timestamp, nonce);
+    }
+
+    Map<String, String> sign(String verb, String url, Map<String, ?> params, Token token, String timestamp,
+            String nonce) {
+        Map<String, String> oauthParams = new TreeMap<String, String>();
+        oauthParams.put("oauth_consumer_key", consumerKey);
+        oauthParams.put("oauth_nonce", nonce);
+        oauthParams.put("oauth_signature_method", "HMAC-SHA1");
+        oauthParams.put("oauth_timestamp", timestamp);
+        if (token != null && !token.isEmpty()) {
+            oauthParams.put("oauth_token", token.getToken());
+        }
+        oauthParams.put("oauth_version", "1.0");
+
+        SigningBuffer buffer = BUFFERS.get();
+        StringBuilder base = buffer.base;
+        base.setLength(0);
+        base.append(verb).append('&');
+        encode(base, url, false);
+        base.append('&');
+        appendParameters(base, params, oauthParams);
+
+        Mac mac = buffer.getMac(consumerSecret, token == null ? "" : token.getSecret());
+        int length = base.length();
+        byte[] bytes = buffer.getBytes(length);
+        for (int i = 0; i < length; i++) {
+            // Only ASCII characters once encoded
+            bytes[i] = (byte) base.charAt(i);
+        }
+        mac.update(bytes, 0, length);
+        oauthParams.put("oauth_signature", Base64.getEncoder().encodeToString(mac.doFinal()));
+        return oauthParams;
+    }
+
+    /**
+     * Append the parameters of the signature base string: both maps merged by name, encoded twice.
+     */
+    private static void appendParameters(StringBuilder base, Map<String, ?> params, Map<String, String> oauthParams) {
+        Iterator<? extends Map.Entry<String, ?>> requestIt = params.entrySet().iterator();
+        Iterator<Map.Entry<String, String>> oauthIt = oauthParams.entrySet().iterator();
+        Map.Entry<String, ?> request = requestIt.hasNext() ? requestIt.next() : null;
+        Map.Entry<String, String> oauth = oauthIt.hasNext() ? oauthIt.next() : null;
+        boolean first = true;
+        while (request != null || oauth != null) {
+            Map.Entry<String, ?> next;
+            if (oauth == null || (request != null && request.getKey().compareTo(oauth.getKey()) <= 0)) {
+                next = request;
+                request = requestIt.hasNext() ? requestIt.next() : null;
+            } else {
+                next = oauth;
+                oauth = oauthIt.hasNext() ? oauthIt.next() : null;
+            }
+            if (!first) {
+                base.append("%26");
+            }
+            first = false;
+            encode(base, next.getKey(), true);
+            base.append("%3D");
+            encode(base, String.valueOf(next.getValue()), true);
+        }
+    }
+
+    /**
+     * Append the parameters as a query string.
+     *
+     * @param builder The query string
+     * @param params The parameters
+     */
+    static void appendQuery(StringBuilder builder, Map<String, ?> params) {
+        boolean first = true;
+        for (Map.Entry<String, ?> param : params.entrySet()) {
+            if (!first) {
+                builder.append('&');
+            }
+            first = false;
+            encode(builder, param.getKey(), false);
+            builder.append('=');
+            encode(builder, String.valueOf(param.getValue()), false);
+        }
+    }
+
+    /**
+     * Get the Authorization header of a signed request.
+     *
+     * @param oauthParams The OAuth parameters
+     * @return The header value
+     */
+    static String getAuthorizationHeader(Map<String, String> oauthParams) {
+        StringBuilder builder = new StringBuilder(256).append("OAuth ");
+        boolean first = true;
+        for (Map.Entry<String, String> param : oauthParams.entrySet()) {
+            if (!first) {
+                builder.append(", ");
+            }
+            first = false;
+            builder.append(param.getKey()).append("=\"");
+            encode(builder, param.getValue(), false);
+            builder.append('"');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Percent-encode a value as defined by RFC 3986.
+     *
+     * @param builder The encoded value
+     * @param value The value
+     * @param twice true to encode the value twice, as the parameters of the signature base string
+     */
+    static void encode(StringBuilder builder, String value, boolean twice) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '.' || c == '_' || c == '~') {
+                builder.append(c);
+            } else if (c < 0x80) {
+                appendByte(builder, c, twice);
+            } else if (c < 0x800) {
+                appendByte(builder, 0xC0 | (c >> 6), twice);
+                appendByte(builder, 0x80 | (c & 0x3F), twice);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendByte(builder, 0xF0 | (codePoint >> 18), twice);
+                appendByte(builder, 0x80 | ((codePoint >> 12) & 0x3F), twice);
+                appendByte(builder, 0x80 | ((codePoint >> 6) & 0x3F), twice);
+                appendByte(builder, 0x80 | (codePoint & 0x3F), twice);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced like the JDK encoder does
+                appendByte(builder, '?', twice);
+            } else {
+                appendByte(builder, 0xE0 | (c >> 12), twice);
+                appendByte(builder, 0x80 | ((c >> 6) & 0x3F), twice);
+                appendByte(builder, 0x80 | (c & 0x3F), twice);
+            }
+        }
+    }
+
+    private static void appendByte(StringBuilder builder, int b, boolean twice) {
+        builder.append(twice ? "%25" : "%").append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+
+    /**
+     * The buffers and the keyed Mac of a thread.
+     */
+    private static final class SigningBuffer {
+
+        private final StringBuilder base = new StringBuilder(512);
+        private byte[] bytes = new byte[512];
+        private Mac mac;
+        private String consumerSecret;
+        private String tokenSecret;
+
+        private byte[] getBytes(int length) {
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            return bytes;
+        }
+
+        private Mac getMac(String consumerSecret, String tokenSecret) {
+            if (mac != null && consumerSecret.equals(this.consumerSecret) && tokenSecret.equals(this.tokenSecret)) {
+                return mac;
+            }
+            StringBuilder key = new StringBuilder(64);
+            encode(key, consumerSecret, false);
+            key.append('&');
+            encode(key, tokenSecret, false);
+            try {
+                if (mac == null) {
+                    mac = Mac.getInstance(ALGORITHM);
+                }
+                mac.init(new SecretKeySpec(key.toString().getBytes(StandardCharsets.US_ASCII), ALGORITHM));
+            } catch (GeneralSecurityException ex) {
+                mac = null;
+                throw new UnsupportedOperationException("HMAC-SHA1 is not available", ex);
+            }
+            this.consumerSecret = consumerSecret;
+            this.tokenSecret = tokenSecret;
+            return mac;
+        }
+    }
+
+}
@@ -32,6 +32,8 @@ import com.flickr.api.entities.UserInfos;
 import com.flickr.api.entities.UserInfoResponse;
 import com.flickr.api.entities.UserResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  *
@@ -39,8 +41,8 @@ import java.util.List;
  */
 public class PeopleService extends FlickrService {
 
-    PeopleService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    PeopleService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -51,17 +53,19 @@ public class PeopleService extends FlickrService {
      * @throws FlickrException Eror finding the user
      */
     public User findByEmail(String email) throws FlickrException {
-        try {
-            CommandArguments args = new CommandArguments("flickr.people.findByEmail");
-            args.addParam("find_email", email);
-            return doGet(args, UserResponse.class).getUser();
-        } catch (FlickrException ex) {
-            if (ex.getErrorCode() == FlickrErrorCode.not_found) {
-                return null;
-            } else {
-                throw ex;
-            }
-        }
+        return await(findByEmailAsync(email));
+    }
+
+    /**
+     * Asynchronous version of {@link #findByEmail(String)}.
+     *
+     * @param email The email address of the user to find (may be primary or secondary).
+     * @return A future completed with the user found or null
+     */
+    public CompletableFuture<User> findByEmailAsync(String email) {
+        CommandArguments args = new CommandArguments("flickr.people.findByEmail");
+        args.addParam("find_email", email);
+        return nullIfNotFound(doGetAsync(args, UserResponse.class).thenApply(UserResponse::getUser));
     }
 
     /**
@@ -72,17 +76,19 @@ public class PeopleService extends FlickrService {
      * @throws FlickrException Error getting the user
      */
     public User findByUserName(String userName) throws FlickrException {
-        try {
-            CommandArguments args = new CommandArguments("flickr.people.findByUsername");
-            args.addParam("username", userName);
-            return doGet(args, UserResponse.class).getUser();
-        } catch (FlickrException ex) {
-            if (ex.getErrorCode() == FlickrErrorCode.not_found) {
-                return null;
-            } else {
-                throw ex;
-            }
-        }
+        return await(findByUserNameAsync(userName));
+    }
+
+    /**
+     * Asynchronous version of {@link #findByUserName(String)}.
+     *
+     * @param userName The username to search
+     * @return A future completed with the user found, or null
+     */
+    public CompletableFuture<User> findByUserNameAsync(String userName) {
+        CommandArguments args = new CommandArguments("flickr.people.findByUsername");
+        args.addParam("username", userName);
+        return nullIfNotFound(doGetAsync(args, UserResponse.class).thenApply(UserResponse::getUser));
     }
 
     /**
@@ -93,15 +99,34 @@ public class PeopleService extends FlickrService {
      * @throws FlickrException Error getting the informations
      */
     public UserInfos getUserInfo(BaseUser user) throws FlickrException {
+        return await(getUserInfoAsync(user));
+    }
+
+    /**
+     * Asynchronous version of {@link #getUserInfo(BaseUser)}.
+     *
+     * @param user The user
+     * @return A future completed with the user informations
+     */
+    public CompletableFuture<UserInfos> getUserInfoAsync(BaseUser user) {
         CommandArguments args = new CommandArguments("flickr.people.getInfo");
         args.addParam("user_id", user.getId());
-        return doGet(args, UserInfoResponse.class).getUserInfo();
+        return doGetAsync(args, UserInfoResponse.class).thenApply(UserInfoResponse::getUserInfo);
     }
     
     public UserInfos getUserInfo(String userId) throws FlickrException {
+        return await(getUserInfoAsync(userId));
+    }
+
+    /**
+     * Asynchronous version of {@link #getUserInfo(String)}.
+     *
+     * @return A future completed with the result
+     */
+    public CompletableFuture<UserInfos> getUserInfoAsync(String userId) {
         CommandArguments args = new CommandArguments("flickr.people.getInfo");
         args.addParam("user_id", userId);
-        return doGet(args, UserInfoResponse.class).getUserInfo();
+        return doGetAsync(args, UserInfoResponse.class).thenApply(UserInfoResponse::getUserInfo);
     }
 
     /**
@@ -114,11 +139,23 @@ public class PeopleService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getUserPhotos(BaseUser user, int perPage, int page) throws FlickrException {
+        return await(getUserPhotosAsync(user, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getUserPhotos(BaseUser, int, int)}.
+     *
+     * @param user The user
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getUserPhotosAsync(BaseUser user, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.people.getPhotos");
         args.addParam("user_id", user.getId());
         args.addParam("per_page", perPage);
         args.addParam("page", page);
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -131,11 +168,23 @@ public class PeopleService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getUserPublicPhotos(BaseUser user, int perPage, int page) throws FlickrException {
+        return await(getUserPublicPhotosAsync(user, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getUserPublicPhotos(BaseUser, int, int)}.
+     *
+     * @param user The user
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getUserPublicPhotosAsync(BaseUser user, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.people.getPublicPhotos");
         args.addParam("user_id", user.getId());
         args.addParam("per_page", perPage);
         args.addParam("page", page);
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -149,12 +198,25 @@ public class PeopleService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getUserPhotosOf(BaseUser user, BaseUser owner, int perPage, int page) throws FlickrException {
+        return await(getUserPhotosOfAsync(user, owner, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getUserPhotosOf(BaseUser, BaseUser, int, int)}.
+     *
+     * @param user The user you want to find photos of
+     * @param owner A Flickr member. This will restrict the list of photos to those taken by that member.
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getUserPhotosOfAsync(BaseUser user, BaseUser owner, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.people.getPhotosOf");
         args.addParam("user_id", user.getId());
         args.addParam("owner_id", owner.getId());
         args.addParam("per_page", perPage);
         args.addParam("page", page);
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -165,9 +227,19 @@ public class PeopleService extends FlickrService {
      * @throws FlickrException Error getting the groups
      */
     public List<Group> getUserGroups(BaseUser user) throws FlickrException {
+        return await(getUserGroupsAsync(user));
+    }
+
+    /**
+     * Asynchronous version of {@link #getUserGroups(BaseUser)}.
+     *
+     * @param user The user to fetch groups for
+     * @return A future completed with the groups
+     */
+    public CompletableFuture<List<Group>> getUserGroupsAsync(BaseUser user) {
         CommandArguments args = new CommandArguments("flickr.people.getPhotosOf");
         args.addParam("user_id", user.getId());
-        return doGet(args, GroupsResponse.class).getPaginated().asList();
+        return doGetAsync(args, GroupsResponse.class).thenApply(response -> response.getPaginated().asList());
     }
 
     /**
@@ -178,9 +250,33 @@ public class PeopleService extends FlickrService {
      * @throws FlickrException Error getting the groups
      */
     public List<Group> getUserPublicGroups(BaseUser user) throws FlickrException {
+        return await(getUserPublicGroupsAsync(user));
+    }
+
+    /**
+     * Asynchronous version of {@link #getUserPublicGroups(BaseUser)}.
+     *
+     * @param user The user to fetch groups for
+     * @return A future completed with the public groups
+     */
+    public CompletableFuture<List<Group>> getUserPublicGroupsAsync(BaseUser user) {
         CommandArguments args = new CommandArguments("flickr.people.getPublicGroups");
         args.addParam("user_id", user.getId());
-        return doGet(args, GroupsResponse.class).getPaginated().asList();
+        return doGetAsync(args, GroupsResponse.class).thenApply(response -> response.getPaginated().asList());
+    }
+
+    private static CompletableFuture<User> nullIfNotFound(CompletableFuture<User> future) {
+        CompletableFuture<User> result = new CompletableFuture<User>();
+        future.whenComplete((user, error) -> {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause == null) {
+                result.complete(user);
+            } else if (cause instanceof FlickrException && ((FlickrException) cause).getErrorCode() == FlickrErrorCode.not_found) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+        return result;
     }
-    
 }
@@ -40,6 +40,7 @@ import com.flickr.api.entities.PhotoSize;
 import com.flickr.api.entities.PhotoSizesResponse;
 import com.flickr.api.entities.PhotoTag;
 import com.flickr.api.entities.VoidResponse;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service used to access the photos.
@@ -48,8 +49,8 @@ import com.flickr.api.entities.VoidResponse;
  */
 public class PhotosService extends FlickrService {
 
-    PhotosService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    PhotosService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -59,8 +60,17 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getContactsPhotos() throws FlickrException {
+        return await(getContactsPhotosAsync());
+    }
+
+    /**
+     * Asynchronous version of {@link #getContactsPhotos()}.
+     *
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getContactsPhotosAsync() {
         CommandArguments args = new CommandArguments("flickr.photos.getContactsPhotos");
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -74,12 +84,25 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getContactsPhotos(int count, boolean justFriends, boolean singlePhoto, boolean includeSelf) throws FlickrException {
+        return await(getContactsPhotosAsync(count, justFriends, singlePhoto, includeSelf));
+    }
+
+    /**
+     * Asynchronous version of {@link #getContactsPhotos(int, boolean, boolean, boolean)}.
+     *
+     * @param count Number of photos to return
+     * @param justFriends To only show photos from friends and family (excluding regular contacts).
+     * @param singlePhoto Only fetch one photo (the latest) per contact, instead of all photos in chronological order.
+     * @param includeSelf To include photos from the user specified by user_id.
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getContactsPhotosAsync(int count, boolean justFriends, boolean singlePhoto, boolean includeSelf) {
         CommandArguments args = new CommandArguments("flickr.photos.getContactsPhotos");
         args.addParam("count", count);
         args.addParam("just_friends", justFriends);
         args.addParam("single_photo", singlePhoto);
         args.addParam("include_self", includeSelf);
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -90,9 +113,19 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getContactsPublicPhotos(BaseUser user) throws FlickrException {
+        return await(getContactsPublicPhotosAsync(user));
+    }
+
+    /**
+     * Asynchronous version of {@link #getContactsPublicPhotos(BaseUser)}.
+     *
+     * @param user The user to fetch photos for
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getContactsPublicPhotosAsync(BaseUser user) {
         CommandArguments args = new CommandArguments("flickr.photos.getContactsPublicPhotos");
         args.addParam("user_id", user.getId());
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -107,13 +140,27 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getContactsPublicPhotos(BaseUser user, int count, boolean justFriends, boolean singlePhoto, boolean includeSelf) throws FlickrException {
+        return await(getContactsPublicPhotosAsync(user, count, justFriends, singlePhoto, includeSelf));
+    }
+
+    /**
+     * Asynchronous version of {@link #getContactsPublicPhotos(BaseUser, int, boolean, boolean, boolean)}.
+     *
+     * @param user The user to fetch photos for
+     * @param count Number of photos to return
+     * @param justFriends To only show photos from friends and family (excluding regular contacts).
+     * @param singlePhoto Only fetch one photo (the latest) per contact, instead of all photos in chronological order.
+     * @param includeSelf To include photos from the user specified by user_id.
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getContactsPublicPhotosAsync(BaseUser user, int count, boolean justFriends, boolean singlePhoto, boolean includeSelf) {
         CommandArguments args = new CommandArguments("flickr.photos.getContactsPublicPhotos");
         args.addParam("user_id", user.getId());
         args.addParam("count", count);
         args.addParam("just_friends", justFriends);
         args.addParam("single_photo", singlePhoto);
         args.addParam("include_self", includeSelf);
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -124,9 +171,19 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the informations
      */
     public PhotoInfos getInfos(Photo photo) throws FlickrException {
+        return await(getInfosAsync(photo));
+    }
+
+    /**
+     * Asynchronous version of {@link #getInfos(Photo)}.
+     *
+     * @param photo The photo
+     * @return A future completed with the photo informations
+     */
+    public CompletableFuture<PhotoInfos> getInfosAsync(Photo photo) {
         CommandArguments args = new CommandArguments("flickr.photos.getInfo");
         args.addParam("photo_id", photo.getId());
-        return doGet(args, PhotoInfosResponse.class).getInfos();
+        return doGetAsync(args, PhotoInfosResponse.class).thenApply(PhotoInfosResponse::getInfos);
     }
 
     /**
@@ -137,9 +194,19 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the permissions
      */
     public PhotoPermissions getPermissions(Photo photo) throws FlickrException {
+        return await(getPermissionsAsync(photo));
+    }
+
+    /**
+     * Asynchronous version of {@link #getPermissions(Photo)}.
+     *
+     * @param photo The photo
+     * @return A future completed with the photo permissions
+     */
+    public CompletableFuture<PhotoPermissions> getPermissionsAsync(Photo photo) {
         CommandArguments args = new CommandArguments("flickr.photos.getPerms");
         args.addParam("photo_id", photo.getId());
-        return doGet(args, PhotoPermissions.class);
+        return doGetAsync(args, PhotoPermissions.class);
     }
 
     /**
@@ -151,11 +218,21 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getRecent(int perPage, int page) throws FlickrException {
+        return await(getRecentAsync(perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getRecent(int, int)}.
+     *
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the recent photos
+     */
+    public CompletableFuture<Paginated<Photo>> getRecentAsync(int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.photos.getRecent");
         args.addParam("per_page", perPage);
         args.addParam("page", page);
-        Paginated<Photo> photos = doGet(args, PhotosResponse.class).getPaginated();
-        return photos;
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -166,10 +243,19 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the sizes
      */
     public List<PhotoSize> getSizes(Photo photo) throws FlickrException {
+        return await(getSizesAsync(photo));
+    }
+
+    /**
+     * Asynchronous version of {@link #getSizes(Photo)}.
+     *
+     * @param photo The photo
+     * @return A future completed with the photo sizes
+     */
+    public CompletableFuture<List<PhotoSize>> getSizesAsync(Photo photo) {
         CommandArguments args = new CommandArguments("flickr.photos.getSizes");
         args.addParam("photo_id", photo.getId());
-        List<PhotoSize> sizes = doGet(args, PhotoSizesResponse.class).getList();
-        return sizes;
+        return doGetAsync(args, PhotoSizesResponse.class).thenApply(PhotoSizesResponse::getList);
     }
 
     /**
@@ -183,13 +269,23 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getRecentlyUpdated(int perPage, int page) throws FlickrException {
+        return await(getRecentlyUpdatedAsync(perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getRecentlyUpdated(int, int)}.
+     *
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getRecentlyUpdatedAsync(int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.photos.recentlyUpdated");
         args.addParam("per_page", perPage);
         args.addParam("page", page);
         args.addParam("extras", "date_upload");
         args.addParam("min_date", "10000");
-        Paginated<Photo> photos = doGet(args, PhotosResponse.class).getPaginated();
-        return photos;
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -201,9 +297,19 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the exif informations
      */
     public ExifInfos getExif(Photo photo) throws FlickrException {
+        return await(getExifAsync(photo));
+    }
+
+    /**
+     * Asynchronous version of {@link #getExif(Photo)}.
+     *
+     * @param photo The photo
+     * @return A future completed with the exif informations
+     */
+    public CompletableFuture<ExifInfos> getExifAsync(Photo photo) {
         CommandArguments args = new CommandArguments("flickr.photos.getExif");
         args.addParam("photo_id", photo.getId());
-        return doGet(args, ExifInfosResponse.class).getExifInfos();
+        return doGetAsync(args, ExifInfosResponse.class).thenApply(ExifInfosResponse::getExifInfos);
     }
 
     /**
@@ -213,8 +319,17 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the licenses
      */
     public List<License> getLicenses() throws FlickrException {
+        return await(getLicensesAsync());
+    }
+
+    /**
+     * Asynchronous version of {@link #getLicenses()}.
+     *
+     * @return A future completed with the licenses
+     */
+    public CompletableFuture<List<License>> getLicensesAsync() {
         CommandArguments args = new CommandArguments("flickr.photos.licenses.getInfo");
-        return doGet(args, LicensesResponse.class).getList();
+        return doGetAsync(args, LicensesResponse.class).thenApply(LicensesResponse::getList);
     }
 
     /**
@@ -225,9 +340,19 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error getting the comments
      */
     public List<Comment> getComments(Photo photo) throws FlickrException {
+        return await(getCommentsAsync(photo));
+    }
+
+    /**
+     * Asynchronous version of {@link #getComments(Photo)}.
+     *
+     * @param photo The photo
+     * @return A future completed with the comments
+     */
+    public CompletableFuture<List<Comment>> getCommentsAsync(Photo photo) {
         CommandArguments args = new CommandArguments("flickr.photos.comments.getList");
         args.addParam("photo_id", photo.getId());
-        return doGet(args, CommentsResponse.class).getList();
+        return doGetAsync(args, CommentsResponse.class).thenApply(CommentsResponse::getList);
     }
 
     /**
@@ -237,9 +362,19 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error deleting the photo
      */
     public void deletePhoto(Photo photo) throws FlickrException {
+        await(deletePhotoAsync(photo));
+    }
+
+    /**
+     * Asynchronous version of {@link #deletePhoto(Photo)}.
+     *
+     * @param photo The photo to delete
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> deletePhotoAsync(Photo photo) {
         CommandArguments args = new CommandArguments("flickr.photos.delete");
         args.addParam("photo_id", photo.getId());
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -250,6 +385,17 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error setting the tags
      */
     public void setTags(Photo photo, String... tags) throws FlickrException {
+        await(setTagsAsync(photo, tags));
+    }
+
+    /**
+     * Asynchronous version of {@link #setTags(Photo, String...)}.
+     *
+     * @param photo The photo to set the tags
+     * @param tags The tags list
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> setTagsAsync(Photo photo, String... tags) {
         StringBuilder tagsBuilder = new StringBuilder();
         for (String tag : tags) {
             if (tag.contains(" ")) {
@@ -263,7 +409,7 @@ public class PhotosService extends FlickrService {
         CommandArguments args = new CommandArguments("flickr.photos.setTag");
         args.addParam("photo_id", photo.getId());
         args.addParam("tags", tagsBuilder);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -273,9 +419,19 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error removing tag
      */
     public void removeTag(PhotoTag tag) throws FlickrException {
+        await(removeTagAsync(tag));
+    }
+
+    /**
+     * Asynchronous version of {@link #removeTag(PhotoTag)}.
+     *
+     * @param tag The tag to remove
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> removeTagAsync(PhotoTag tag) {
         CommandArguments args = new CommandArguments("flickr.photos.removeTag");
         args.addParam("tag_id", tag.getId());
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -287,11 +443,23 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error updating the photo meta
      */
     public void setPhotoMeta(Photo photo, String title, String description) throws FlickrException {
+        await(setPhotoMetaAsync(photo, title, description));
+    }
+
+    /**
+     * Asynchronous version of {@link #setPhotoMeta(Photo, String, String)}.
+     *
+     * @param photo The photo to modify
+     * @param title The new photo title
+     * @param description The new photo description
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> setPhotoMetaAsync(Photo photo, String title, String description) {
         CommandArguments args = new CommandArguments("flickr.photos.setMeta");
         args.addParam("photo_id", photo.getId());
         args.addParam("title", title);
         args.addParam("description", description);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -306,6 +474,21 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error setting the permissions
      */
     public void setPhotoPermissions(Photo photo, boolean isPublic, boolean isFriend, boolean isFamily, Permission commentsPerms, Permission addMetaPerms) throws FlickrException {
+        await(setPhotoPermissionsAsync(photo, isPublic, isFriend, isFamily, commentsPerms, addMetaPerms));
+    }
+
+    /**
+     * Asynchronous version of {@link #setPhotoPermissions(Photo, boolean, boolean, boolean, Permission, Permission)}.
+     *
+     * @param photo The photo to modify the permissions
+     * @param isPublic true to set the photo public, false otherwise
+     * @param isFriend true to set the photo accessible for friends, false otherwise
+     * @param isFamily true to set the photo accessible for family, false otherwise
+     * @param commentsPerms Comments permissions
+     * @param addMetaPerms Meta add permissions
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> setPhotoPermissionsAsync(Photo photo, boolean isPublic, boolean isFriend, boolean isFamily, Permission commentsPerms, Permission addMetaPerms) {
         CommandArguments args = new CommandArguments("flickr.photos.setPerms");
         args.addParam("photo_id", photo.getId());
         args.addParam("is_public", isPublic);
@@ -313,7 +496,7 @@ public class PhotosService extends FlickrService {
         args.addParam("is_family", isFamily);
         args.addParam("perm_comment", commentsPerms.value);
         args.addParam("perm_addmeta", addMetaPerms.value);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -325,10 +508,21 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error adding the comment
      */
     public Comment addPhotoComment(Photo photo, String text) throws FlickrException {
+        return await(addPhotoCommentAsync(photo, text));
+    }
+
+    /**
+     * Asynchronous version of {@link #addPhotoComment(Photo, String)}.
+     *
+     * @param photo The photo
+     * @param text The comment to add
+     * @return A future completed with the comment
+     */
+    public CompletableFuture<Comment> addPhotoCommentAsync(Photo photo, String text) {
         CommandArguments args = new CommandArguments("flickr.photos.comments.addComment");
         args.addParam("photo_id", photo.getId());
         args.addParam("comment_text", text);
-        return doPost(args, CommentResponse.class).getComment();
+        return doPostAsync(args, CommentResponse.class).thenApply(CommentResponse::getComment);
     }
 
     /**
@@ -338,9 +532,19 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error deleting the comment
      */
     public void deleteComment(Comment comment) throws FlickrException {
+        await(deleteCommentAsync(comment));
+    }
+
+    /**
+     * Asynchronous version of {@link #deleteComment(Comment)}.
+     *
+     * @param comment The comment to delete
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> deleteCommentAsync(Comment comment) {
         CommandArguments args = new CommandArguments("flickr.photos.comments.deleteComment");
         args.addParam("comment_id", comment.getId());
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -351,10 +555,21 @@ public class PhotosService extends FlickrService {
      * @throws FlickrException Error editing the comment
      */
     public void editComment(Comment comment, String text) throws FlickrException {
+        await(editCommentAsync(comment, text));
+    }
+
+    /**
+     * Asynchronous version of {@link #editComment(Comment, String)}.
+     *
+     * @param comment The comment to update
+     * @param text The new comment text
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> editCommentAsync(Comment comment, String text) {
         CommandArguments args = new CommandArguments("flickr.photos.comments.editComment");
         args.addParam("comment_id", comment.getId());
         args.addParam("comment_text", text);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     public enum Permission {
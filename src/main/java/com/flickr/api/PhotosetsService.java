@@ -35,6 +35,7 @@ import com.flickr.api.entities.PhotosetResponse;
 import com.flickr.api.entities.PhotosetsResponse;
 import com.flickr.api.entities.VoidResponse;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -42,8 +43,8 @@ import java.util.List;
  */
 public class PhotosetsService extends FlickrService {
 
-    PhotosetsService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    PhotosetsService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -56,11 +57,23 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error getting the sets
      */
     public Paginated<Photoset> getPhotosets(BaseUser user, int perPage, int page) throws FlickrException {
+        return await(getPhotosetsAsync(user, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getPhotosets(BaseUser, int, int)}.
+     *
+     * @param user The user to get a photoset list for
+     * @param perPage The number of sets to get per page. The maximum number of sets per page is 500.
+     * @param page The page of results to get
+     * @return A future completed with the sets
+     */
+    public CompletableFuture<Paginated<Photoset>> getPhotosetsAsync(BaseUser user, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.photosets.getList");
         args.addParam("user_id", user.getId());
         args.addParam("per_page", perPage);
         args.addParam("page", page);
-        return doGet(args, PhotosetsResponse.class).getPaginated();
+        return doGetAsync(args, PhotosetsResponse.class).thenApply(PhotosetsResponse::getPaginated);
     }
 
     /**
@@ -73,11 +86,23 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error getting the photos
      */
     public Paginated<Photo> getPhotos(Photoset photoset, int perPage, int page) throws FlickrException {
+        return await(getPhotosAsync(photoset, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getPhotos(Photoset, int, int)}.
+     *
+     * @param photoset The photoset
+     * @param perPage Number of photos to return per page. The maximum allowed value is 500.
+     * @param page The page of results to return
+     * @return A future completed with the photos
+     */
+    public CompletableFuture<Paginated<Photo>> getPhotosAsync(Photoset photoset, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.photosets.getPhotos");
         args.addParam("photoset_id", photoset.getId());
         args.addParam("per_page", perPage);
         args.addParam("page", page);
-        return doGet(args, PhotosResponse.class).getPaginated();
+        return doGetAsync(args, PhotosResponse.class).thenApply(PhotosResponse::getPaginated);
     }
 
     /**
@@ -88,9 +113,19 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error getting the set
      */
     public PhotosetInfos getInfos(Photoset photoset) throws FlickrException {
+        return await(getInfosAsync(photoset));
+    }
+
+    /**
+     * Asynchronous version of {@link #getInfos(Photoset)}.
+     *
+     * @param photoset The photoset
+     * @return A future completed with the photoset
+     */
+    public CompletableFuture<PhotosetInfos> getInfosAsync(Photoset photoset) {
         CommandArguments args = new CommandArguments("flickr.photosets.getInfo");
         args.addParam("photoset_id", photoset.getId());
-        return doGet(args, PhotosetInfosResponse.class).getInfos();
+        return doGetAsync(args, PhotosetInfosResponse.class).thenApply(PhotosetInfosResponse::getInfos);
     }
 
     /**
@@ -101,9 +136,19 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error getting the comments
      */
     public List<Comment> getComments(Photoset photoset) throws FlickrException {
+        return await(getCommentsAsync(photoset));
+    }
+
+    /**
+     * Asynchronous version of {@link #getComments(Photoset)}.
+     *
+     * @param photoset The photoset
+     * @return A future completed with the comments
+     */
+    public CompletableFuture<List<Comment>> getCommentsAsync(Photoset photoset) {
         CommandArguments args = new CommandArguments("flickr.photosets.comments.getList");
         args.addParam("photoset_id", photoset.getId());
-        return doGet(args, CommentsResponse.class).getList();
+        return doGetAsync(args, CommentsResponse.class).thenApply(CommentsResponse::getList);
     }
 
     /**
@@ -111,25 +156,46 @@ public class PhotosetsService extends FlickrService {
      *
      * @param title The photoset title
      * @param description The photoset description
-     * @param primaryPhoto The photoset priùary photo
+     * @param primaryPhoto The photoset primary photo
      * @return The new photoset
      * @throws FlickrException Error creating the photoset
      */
     public Photoset createPhotoset(String title, String description, Photo primaryPhoto) throws FlickrException {
+        return await(createPhotosetAsync(title, description, primaryPhoto));
+    }
+
+    /**
+     * Asynchronous version of {@link #createPhotoset(String, String, Photo)}.
+     *
+     * @param title The photoset title
+     * @param description The photoset description
+     * @param primaryPhoto The photoset primary photo
+     * @return A future completed with the new photoset
+     */
+    public CompletableFuture<Photoset> createPhotosetAsync(String title, String description, Photo primaryPhoto) {
         CommandArguments args = new CommandArguments("flickr.photosets.create");
         args.addParam("title", title);
         args.addParam("description", description);
         args.addParam("primary_photo_id", primaryPhoto.getId());
-        return doPost(args, PhotosetResponse.class).getPhotoset();
+        return doPostAsync(args, PhotosetResponse.class).thenApply(PhotosetResponse::getPhotoset);
     }
     
     // there is no reason to require a Photo object if only the id is used
     public Photoset createPhotoset(String title, String description, String primaryPhotoId) throws FlickrException {
+        return await(createPhotosetAsync(title, description, primaryPhotoId));
+    }
+
+    /**
+     * Asynchronous version of {@link #createPhotoset(String, String, String)}.
+     *
+     * @return A future completed with the result
+     */
+    public CompletableFuture<Photoset> createPhotosetAsync(String title, String description, String primaryPhotoId) {
         CommandArguments args = new CommandArguments("flickr.photosets.create");
         args.addParam("title", title);
         args.addParam("description", description);
         args.addParam("primary_photo_id", primaryPhotoId);
-        return doPost(args, PhotosetResponse.class).getPhotoset();
+        return doPostAsync(args, PhotosetResponse.class).thenApply(PhotosetResponse::getPhotoset);
     }
 
     /**
@@ -139,9 +205,19 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error deleting the photoset
      */
     public void deletePhotoset(Photoset photoset) throws FlickrException {
+        await(deletePhotosetAsync(photoset));
+    }
+
+    /**
+     * Asynchronous version of {@link #deletePhotoset(Photoset)}.
+     *
+     * @param photoset The photoset to delete
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> deletePhotosetAsync(Photoset photoset) {
         CommandArguments args = new CommandArguments("flickr.photosets.delete");
         args.addParam("photoset_id", photoset.getId());
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -153,11 +229,23 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error editing the meta
      */
     public void editPhotosetMeta(Photoset photoset, String title, String description) throws FlickrException {
+        await(editPhotosetMetaAsync(photoset, title, description));
+    }
+
+    /**
+     * Asynchronous version of {@link #editPhotosetMeta(Photoset, String, String)}.
+     *
+     * @param photoset The photoset to modify
+     * @param title The new title
+     * @param description The new description
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> editPhotosetMetaAsync(Photoset photoset, String title, String description) {
         CommandArguments args = new CommandArguments("flickr.photosets.editMeta");
         args.addParam("photoset_id", photoset.getId());
         args.addParam("title", title);
         args.addParam("description", description);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -168,10 +256,21 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error setting the primary photo
      */
     public void setPrimaryPhoto(Photoset photoset, Photo primaryPhoto) throws FlickrException {
+        await(setPrimaryPhotoAsync(photoset, primaryPhoto));
+    }
+
+    /**
+     * Asynchronous version of {@link #setPrimaryPhoto(Photoset, Photo)}.
+     *
+     * @param photoset The photoset
+     * @param primaryPhoto The new primary photo
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> setPrimaryPhotoAsync(Photoset photoset, Photo primaryPhoto) {
         CommandArguments args = new CommandArguments("flickr.photosets.setPrimaryPhoto");
         args.addParam("photoset_id", photoset.getId());
         args.addParam("photo_id", primaryPhoto.getId());
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -182,18 +281,38 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error adding the photo
      */
     public void addPhotoToSet(Photoset photoset, Photo photo) throws FlickrException {
+        await(addPhotoToSetAsync(photoset, photo));
+    }
+
+    /**
+     * Asynchronous version of {@link #addPhotoToSet(Photoset, Photo)}.
+     *
+     * @param photoset The set
+     * @param photo The photo to add
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> addPhotoToSetAsync(Photoset photoset, Photo photo) {
         CommandArguments args = new CommandArguments("flickr.photosets.addPhoto");
         args.addParam("photoset_id", photoset.getId());
         args.addParam("photo_id", photo.getId());
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
     
     // there is no reason to require a Photo object if only the id is used
     public void addPhotoToSet(Photoset photoset, String photoId) throws FlickrException {
+        await(addPhotoToSetAsync(photoset, photoId));
+    }
+
+    /**
+     * Asynchronous version of {@link #addPhotoToSet(Photoset, String)}.
+     *
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> addPhotoToSetAsync(Photoset photoset, String photoId) {
         CommandArguments args = new CommandArguments("flickr.photosets.addPhoto");
         args.addParam("photoset_id", photoset.getId());
         args.addParam("photo_id", photoId);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -204,6 +323,17 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error removing the photos
      */
     public void removePhotosFromSet(Photoset photoset, Photo... photos) throws FlickrException {
+        await(removePhotosFromSetAsync(photoset, photos));
+    }
+
+    /**
+     * Asynchronous version of {@link #removePhotosFromSet(Photoset, Photo...)}.
+     *
+     * @param photoset The photoset
+     * @param photos The photos to remove
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> removePhotosFromSetAsync(Photoset photoset, Photo... photos) {
         StringBuilder builder = new StringBuilder();
         for (Photo photo : photos) {
             builder.append(photo.getId()).append(",");
@@ -212,7 +342,7 @@ public class PhotosetsService extends FlickrService {
         CommandArguments args = new CommandArguments("flickr.photosets.removePhotos");
         args.addParam("photoset_id", photoset.getId());
         args.addParam("photo_ids", builder);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -224,10 +354,21 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error adding the comment
      */
     public Comment addComment(Photoset photoset, String text) throws FlickrException {
+        return await(addCommentAsync(photoset, text));
+    }
+
+    /**
+     * Asynchronous version of {@link #addComment(Photoset, String)}.
+     *
+     * @param photoset The photoset
+     * @param text The comment text
+     * @return A future completed with the created comment
+     */
+    public CompletableFuture<Comment> addCommentAsync(Photoset photoset, String text) {
         CommandArguments args = new CommandArguments("flickr.photosets.comments.addComment");
         args.addParam("photoset_id", photoset.getId());
         args.addParam("comment_text", text);
-        return doPost(args, CommentResponse.class).getComment();
+        return doPostAsync(args, CommentResponse.class).thenApply(CommentResponse::getComment);
     }
 
     /**
@@ -237,9 +378,19 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error deleting the comment
      */
     public void deleteComment(Comment comment) throws FlickrException {
+        await(deleteCommentAsync(comment));
+    }
+
+    /**
+     * Asynchronous version of {@link #deleteComment(Comment)}.
+     *
+     * @param comment The comment to delete
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> deleteCommentAsync(Comment comment) {
         CommandArguments args = new CommandArguments("flickr.photosets.comments.deleteComment");
         args.addParam("comment_id", comment.getId());
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 
     /**
@@ -250,9 +401,20 @@ public class PhotosetsService extends FlickrService {
      * @throws FlickrException Error editing the comment
      */
     public void editComment(Comment comment, String text) throws FlickrException {
+        await(editCommentAsync(comment, text));
+    }
+
+    /**
+     * Asynchronous version of {@link #editComment(Comment, String)}.
+     *
+     * @param comment The comment to edit
+     * @param text The new comment text
+     * @return A future completed when the request is done
+     */
+    public CompletableFuture<Void> editCommentAsync(Comment comment, String text) {
         CommandArguments args = new CommandArguments("flickr.photosets.comments.editComment");
         args.addParam("comment_id", comment.getId());
         args.addParam("comment_text", text);
-        doPost(args, VoidResponse.class);
+        return doPostAsync(args, VoidResponse.class).thenApply(response -> null);
     }
 }
\ No newline at end of file
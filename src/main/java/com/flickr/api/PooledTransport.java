@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2013 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.params.ConnRouteParams;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnection;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * The default transport. The connections are kept alive and pooled per host (route), so the TLS handshake is only
+ * done when a new connection must be opened. A connection unused for more than the idle timeout is closed.
+ *
+ * <p>
+ * The uploaded files are sent with zero copy on the plain HTTP connections: the kernel sends the file pages straight
+ * to the socket, and the byte buffers are written to the socket channel. The TLS connections encrypt the bytes in the
+ * JVM, the files are copied there. The Flickr endpoints are only served over HTTPS, the zero copy then only applies
+ * to the uploads sent to a plain HTTP endpoint forwarding them to Flickr, see
+ * {@link Flickr#setUploadEndpoint(String)}.</p>
+ *
+ * <p>
+ * The HTTP and SOCKS proxies are supported. A SOCKS proxy is not part of the route of the pooled connections, the
+ * idle connections are closed when it changes so that the next requests are sent through the new proxy. The
+ * connections opened through a SOCKS proxy copy the files.</p>
+ */
+public final class PooledTransport implements Transport {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+    public static final long DEFAULT_IDLE_TIMEOUT = 30000;
+    // Parameter of the requests giving the SOCKS proxy to the socket factories
+    private static final String SOCKS_PROXY = "flickr.api.socks-proxy";
+    //
+    private final PoolingClientConnectionManager connectionManager;
+    private final DefaultHttpClient client;
+    private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+    private volatile long lastEviction = System.currentTimeMillis();
+    private volatile boolean zeroCopyEnabled = true;
+    private final LongAdder transferredBytes = new LongAdder();
+    private volatile Proxy socksProxy;
+
+    public PooledTransport() {
+        SchemeRegistry registry = SchemeRegistryFactory.createDefault();
+        // The sockets of the plain connections are opened from a channel, the files can be transferred to it
+        registry.register(new Scheme("http", 80, new ChannelSocketFactory()));
+        registry.register(new Scheme("https", 443, new TlsSocketFactory()));
+        connectionManager = new PoolingClientConnectionManager(registry) {
+
+            @Override
+            protected ClientConnectionOperator createConnectionOperator(SchemeRegistry registry) {
+                return new DefaultClientConnectionOperator(registry) {
+
+                    @Override
+                    public OperatedClientConnection createConnection() {
+                        return new ChannelConnection();
+                    }
+                };
+            }
+        };
+        connectionManager.setMaxTotal(DEFAULT_MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+
+        client = new DefaultHttpClient(connectionManager);
+        client.setKeepAliveStrategy(new IdleKeepAliveStrategy());
+        // The stale check costs a blocking read on each request, the idle connections are evicted instead
+        HttpConnectionParams.setStaleCheckingEnabled(client.getParams(), false);
+    }
+
+    /**
+     * Set the maximum number of connections kept in the pool, all hosts included.
+     *
+     * @param max The maximum number of connections
+     */
+    public void setMaxConnections(int max) {
+        connectionManager.setMaxTotal(max);
+    }
+
+    public int getMaxConnections() {
+        return connectionManager.getMaxTotal();
+    }
+
+    /**
+     * Set the maximum number of connections opened on a single host.
+     *
+     * @param max The maximum number of connections per host
+     */
+    public void setMaxConnectionsPerRoute(int max) {
+        connectionManager.setDefaultMaxPerRoute(max);
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return connectionManager.getDefaultMaxPerRoute();
+    }
+
+    /**
+     * Set the time after which an unused connection is closed.
+     *
+     * @param timeout The timeout
+     * @param unit The timeout unit
+     */
+    public void setIdleTimeout(long timeout, TimeUnit unit) {
+        idleTimeout = unit.toMillis(timeout);
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Send the uploaded files straight from the disk to the plain HTTP connections. The zero copy is enabled by
+     * default, disabling it copies the files through a buffer as on the TLS connections.
+     *
+     * @param enabled true to transfer the files to the sockets, false to copy them
+     */
+    public void setZeroCopyEnabled(boolean enabled) {
+        zeroCopyEnabled = enabled;
+    }
+
+    public boolean isZeroCopyEnabled() {
+        return zeroCopyEnabled;
+    }
+
+    /**
+     * Get the number of bytes of the uploads sent with zero copy.
+     *
+     * @return The number of bytes
+     */
+    public long getTransferredBytes() {
+        return transferredBytes.sum();
+    }
+
+    @Override
+    public TransportResponse send(TransportRequest request) throws IOException {
+        evictIdleConnections();
+
+        HttpRequestBase httpRequest;
+        if ("POST".equals(request.getMethod())) {
+            HttpPost post = new HttpPost(request.getUrl());
+            post.setEntity(request.getEntity());
+            httpRequest = post;
+        } else {
+            httpRequest = new HttpGet(request.getUrl());
+        }
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            httpRequest.addHeader(header.getKey(), header.getValue());
+        }
+
+        // The request parameters override the client ones
+        HttpConnectionParams.setConnectionTimeout(httpRequest.getParams(), toIntMillis(request.getConnectTimeout()));
+        HttpConnectionParams.setSoTimeout(httpRequest.getParams(), toIntMillis(request.getReadTimeout()));
+
+        Proxy proxy = request.getProxy();
+        if (proxy != null && proxy.type() == Proxy.Type.SOCKS) {
+            setSocksProxy(proxy);
+            httpRequest.getParams().setParameter(SOCKS_PROXY, proxy);
+        } else {
+            setSocksProxy(null);
+            HttpHost httpProxy = toHttpHost(proxy);
+            if (httpProxy != null) {
+                ConnRouteParams.setDefaultProxy(httpRequest.getParams(), httpProxy);
+            }
+        }
+
+        try {
+            return new PooledResponse(client.execute(httpRequest));
+        } catch (IOException ex) {
+            httpRequest.abort();
+            throw ex;
+        } catch (RuntimeException ex) {
+            httpRequest.abort();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        connectionManager.shutdown();
+    }
+
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        if (now - lastEviction > idleTimeout) {
+            lastEviction = now;
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * The pooled connections are not kept per SOCKS proxy, the idle ones are closed when the proxy changes.
+     */
+    private void setSocksProxy(Proxy proxy) {
+        if (!Objects.equals(proxy, socksProxy)) {
+            socksProxy = proxy;
+            connectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Proxy getSocksProxy(HttpParams params) {
+        return params == null ? null : (Proxy) params.getParameter(SOCKS_PROXY);
+    }
+
+    private static HttpHost toHttpHost(Proxy proxy) {
+        if (proxy == null || proxy.type() != Proxy.Type.HTTP) {
+            return null;
+        }
+        InetSocketAddress address = (InetSocketAddress) proxy.address();
+        return new HttpHost(address.getHostName(), address.getPort());
+    }
+
+    /**
+     * Keep the connections alive as long as the server allows it, but never more than the idle timeout.
+     */
+    private final class IdleKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+        private final ConnectionKeepAliveStrategy serverStrategy = new DefaultConnectionKeepAliveStrategy();
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long duration = serverStrategy.getKeepAliveDuration(response, context);
+            if (duration < 0 || duration > idleTimeout) {
+                return idleTimeout;
+            }
+            return duration;
+        }
+    }
+
+    private static int toIntMillis(long millis) {
+        return (int) Math.min(millis, Integer.MAX_VALUE);
+    }
+
+    private static final class PooledResponse implements TransportResponse {
+
+        private final HttpResponse response;
+
+        PooledResponse(HttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getCode() {
+            return response.getStatusLine().getStatusCode();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            Header header = response.getFirstHeader(name);
+            return header == null ? null : header.getValue();
+        }
+
+        @Override
+        public InputStream getStream() throws IOException {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+            return entity.getContent();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Consuming the entity gives the connection back to the pool
+            EntityUtils.consume(response.getEntity());
+        }
+    }
+
+    /**
+     * Open the plain sockets from a channel, the standard sockets have none.
+     */
+    private static final class ChannelSocketFactory extends PlainSocketFactory {
+
+        @Override
+        public Socket createSocket(HttpParams params) {
+            Proxy proxy = getSocksProxy(params);
+            if (proxy != null) {
+                // The SOCKS sockets have no channel, the files are copied
+                return new Socket(proxy);
+            }
+            try {
+                return SocketChannel.open().socket();
+            } catch (IOException ex) {
+                // Without a channel, the files are copied
+                return super.createSocket(params);
+            }
+        }
+    }
+
+    /**
+     * Open the TLS sockets, through the SOCKS proxy of the request if any. The TLS layer is added once the socket is
+     * connected.
+     */
+    private static final class TlsSocketFactory extends SSLSocketFactory {
+
+        TlsSocketFactory() {
+            super((javax.net.ssl.SSLSocketFactory) javax.net.ssl.SSLSocketFactory.getDefault(),
+                    BROWSER_COMPATIBLE_HOSTNAME_VERIFIER);
+        }
+
+        @Override
+        public Socket createSocket(HttpParams params) throws IOException {
+            Proxy proxy = getSocksProxy(params);
+            return proxy != null ? new Socket(proxy) : super.createSocket(params);
+        }
+    }
+
+    /**
+     * A connection giving the channel of its socket to the upload bodies it writes.
+     */
+    private final class ChannelConnection extends DefaultClientConnection {
+
+        @Override
+        public void sendRequestEntity(HttpEntityEnclosingRequest request) throws HttpException, IOException {
+            // Null for the TLS sockets
+            SocketChannel channel = zeroCopyEnabled ? getSocket().getChannel() : null;
+            // The chunked bodies are framed by the stream, they cannot bypass it
+            if (channel == null || request.getEntity() == null || request.getEntity().getContentLength() < 0) {
+                super.sendRequestEntity(request);
+                return;
+            }
+            DirectTransfer.begin(channel);
+            try {
+                super.sendRequestEntity(request);
+            } finally {
+                transferredBytes.add(DirectTransfer.end());
+            }
+        }
+    }
+
+}
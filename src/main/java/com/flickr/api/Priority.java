@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+/**
+ * The priority of the calls in the queue of a {@link RequestScheduler}.
+ *
+ * <p>
+ * A priority applies to the calls made by the current thread while it is in scope, for instance around a crawl:</p>
+ * <pre>
+ * try (Priority.Scope scope = Priority.BACKGROUND.apply()) {
+ *     for (int page = 1; page &lt;= pages; page++) {
+ *         photos.addAll(flickr.getGroupsService().getGroupPhotos(group, 500, page));
+ *     }
+ * }
+ * </pre>
+ * <p>
+ * The calls made out of a scope get the priority of their method in the scheduler.</p>
+ */
+public enum Priority {
+
+    /**
+     * The calls waited for by a user, served first.
+     */
+    INTERACTIVE,
+    /**
+     * The bulk calls, served when no interactive call is waiting.
+     */
+    BACKGROUND;
+    //
+    private static final ThreadLocal<Priority> CURRENT = new ThreadLocal<Priority>();
+
+    /**
+     * Get the priority applied to the calls of the current thread.
+     *
+     * @return The priority or null
+     */
+    public static Priority current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Apply this priority to the calls made by the current thread, until the returned scope is closed.
+     *
+     * @return The scope
+     */
+    public Scope apply() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(this);
+        return scope;
+    }
+
+    /**
+     * The scope of a priority, closing it restores the previous priority of the thread.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Priority previous;
+
+        private Scope(Priority previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+}
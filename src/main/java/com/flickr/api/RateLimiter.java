@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket limiting the rate of the requests sent by all the services, see
+ * {@link Flickr#setRateLimiter(RateLimiter)}.
+ *
+ * <p>
+ * The bucket holds up to <code>burst</code> tokens and is refilled at the given rate. Each request takes the weight
+ * of its method in tokens (1 by default, {@value #DEFAULT_UPLOAD_WEIGHT} for the uploads). When the bucket is empty,
+ * the request waits for its tokens or fails with a {@link RateLimitExceededException}, depending on the policy. The
+ * waiting requests are served in their arrival order.</p>
+ */
+public final class RateLimiter {
+
+    /**
+     * The default weight of the upload requests, they hold a connection and the server much longer than the API
+     * methods.
+     */
+    public static final int DEFAULT_UPLOAD_WEIGHT = 5;
+
+    /**
+     * What to do with a request when the bucket is empty.
+     */
+    public enum Policy {
+
+        /**
+         * The request waits until the bucket is refilled.
+         */
+        BLOCK,
+        /**
+         * The request fails with a {@link RateLimitExceededException}.
+         */
+        FAIL_FAST
+    }
+    //
+    private final double tokensPerNano;
+    private final int burst;
+    private final Policy policy;
+    private final ConcurrentMap<String, Integer> weights = new ConcurrentHashMap<String, Integer>();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Create a new rate limiter
+     *
+     * @param requestsPerSecond The sustained rate (Flickr allows 3600 requests per hour and per key, 1 per second)
+     * @param burst The number of requests which can be sent at once after an idle period
+     * @param policy What to do when the bucket is empty
+     */
+    public RateLimiter(double requestsPerSecond, int burst, Policy policy) {
+        if (requestsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("The rate and the burst must be positive");
+        }
+        this.tokensPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.policy = policy;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+        weights.put(CommandArguments.UPLOAD_METHOD, DEFAULT_UPLOAD_WEIGHT);
+    }
+
+    /**
+     * Set the number of tokens taken by the requests of a method.
+     *
+     * @param method The method name (for instance "flickr.photos.search", or "upload" for the uploads)
+     * @param weight The number of tokens
+     */
+    public void setWeight(String method, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("The weight cannot be negative");
+        }
+        weights.put(method, weight);
+    }
+
+    /**
+     * Get the number of tokens taken by the requests of a method.
+     *
+     * @param method The method name
+     * @return The number of tokens
+     */
+    public int getWeight(String method) {
+        Integer weight = weights.get(method);
+        return weight == null ? 1 : weight;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Take the tokens of a request, waiting for them if needed.
+     *
+     * @param method The method called
+     * @param deadline The deadline of the call, or null
+     * @throws FlickrException The bucket is empty with the fail-fast policy, the tokens would come after the deadline,
+     * or the wait was interrupted
+     */
+    void acquire(String method, Deadline deadline) throws FlickrException {
+        int weight = getWeight(method);
+        long wait;
+        synchronized (this) {
+            refill();
+            // A request heavier than the burst only needs a full bucket
+            if (tokens >= Math.min(weight, burst)) {
+                tokens -= weight;
+                return;
+            }
+            if (policy == Policy.FAIL_FAST) {
+                rejected.increment();
+                throw new RateLimitExceededException("Rate limit exceeded for method '" + method + "'");
+            }
+            // The tokens are reserved now, the following requests wait after this one
+            tokens -= weight;
+            wait = (long) Math.ceil(-Math.min(tokens, 0) / tokensPerNano);
+            if (deadline != null && wait > deadline.remaining(TimeUnit.NANOSECONDS)) {
+                tokens += weight;
+                rejected.increment();
+                throw new DeadlineExceededException("Deadline exceeded waiting for the rate limiter, method '"
+                        + method + "'");
+            }
+        }
+        throttled.increment();
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new FlickrException("Interrupted while waiting for the rate limiter", ex);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+
+    /**
+     * Get the number of tokens available now. The value is negative when requests are waiting.
+     *
+     * @return The number of tokens
+     */
+    public synchronized double getAvailableTokens() {
+        refill();
+        return tokens;
+    }
+
+    /**
+     * Get the number of requests which waited for their tokens.
+     *
+     * @return The number of requests
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    /**
+     * Get the number of requests which failed because the bucket was empty, or would not be refilled before their
+     * deadline.
+     *
+     * @return The number of requests
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Shares the result of a call between the identical calls made while it is in flight (single-flight). The first
+ * caller sends the request, the following ones wait for its parsed response and get the same objects. A call made
+ * once the response is received sends a new request, so a result is never older than its call.
+ *
+ * <p>
+ * The request is sent with the deadline and the priority of the first caller, the following ones share them.</p>
+ */
+final class RequestCoalescer {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight
+            = new ConcurrentHashMap<String, CompletableFuture<Object>>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Run a call, or join the identical call in flight.
+     *
+     * @param <T> The result type
+     * @param key The call key, identical for the calls returning the same result
+     * @param call Starts the call when none is in flight
+     * @return The result of the call
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> execute(final String key, Supplier<CompletableFuture<T>> call) {
+        final CompletableFuture<Object> shared = new CompletableFuture<Object>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            coalesced.increment();
+            return (CompletableFuture<T>) dependent(existing);
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException ex) {
+            result = new CompletableFuture<T>();
+            result.completeExceptionally(ex);
+        }
+        result.whenComplete((value, error) -> {
+            // Removed first, a call made once the result is known must not share it
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(value);
+            }
+        });
+        return (CompletableFuture<T>) dependent(shared);
+    }
+
+    /**
+     * Get the number of calls which joined an identical call in flight instead of sending their own request.
+     *
+     * @return The number of coalesced calls
+     */
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Each caller gets its own future, so a caller cancelling it does not cancel the call of the others.
+     */
+    private static CompletableFuture<Object> dependent(CompletableFuture<Object> shared) {
+        return shared.thenApply(value -> value);
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue of the requests of all the services, serving the interactive calls before the background ones, see
+ * {@link Flickr#setRequestScheduler(RequestScheduler)}.
+ *
+ * <p>
+ * At most <code>maxConcurrentCalls</code> requests are in flight. Past this limit, the requests wait in two queues,
+ * one per {@link Priority}, and a free slot goes to the oldest interactive request. A background request waiting for
+ * more than the maximum wait is served first, so that a steady flow of interactive calls cannot starve the bulk work.
+ * </p>
+ *
+ * <p>
+ * The scheduler also orders the waits for the {@link RateLimiter}: only the request at the head of the queue waits for
+ * its tokens, so an interactive request takes the next tokens instead of waiting for all the background requests
+ * queued before it.</p>
+ */
+public final class RequestScheduler {
+
+    /**
+     * The default maximum wait of a background request before it is served first, in milliseconds.
+     */
+    public static final long DEFAULT_MAX_WAIT = 10000;
+    //
+    private final int maxConcurrentCalls;
+    private final ConcurrentMap<String, Priority> priorities = new ConcurrentHashMap<String, Priority>();
+    private final Queue<Ticket> interactive = new ArrayDeque<Ticket>();
+    private final Queue<Ticket> background = new ArrayDeque<Ticket>();
+    private volatile long maxWait = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_WAIT);
+    private int running;
+    private Ticket rateWaiter;
+    private long promoted;
+
+    /**
+     * Create a scheduler.
+     *
+     * @param maxConcurrentCalls The maximum number of requests in flight
+     */
+    public RequestScheduler(int maxConcurrentCalls) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("The maximum number of calls must be positive");
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    /**
+     * Set the priority of the calls of a method made out of a {@link Priority} scope. The methods are interactive by
+     * default.
+     *
+     * @param method The method name (for instance "flickr.groups.pools.getPhotos", or "upload" for the uploads)
+     * @param priority The priority
+     */
+    public void setPriority(String method, Priority priority) {
+        priorities.put(method, priority);
+    }
+
+    /**
+     * Get the priority of the calls of a method made out of a {@link Priority} scope.
+     *
+     * @param method The method name
+     * @return The priority
+     */
+    public Priority getPriority(String method) {
+        Priority priority = priorities.get(method);
+        return priority == null ? Priority.INTERACTIVE : priority;
+    }
+
+    /**
+     * Set the time after which a waiting background request is served before the interactive ones. The default wait
+     * is {@value #DEFAULT_MAX_WAIT} milliseconds.
+     *
+     * @param timeout The maximum wait
+     * @param unit The wait unit
+     */
+    public void setMaxWait(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("The wait cannot be negative");
+        }
+        maxWait = unit.toNanos(timeout);
+    }
+
+    /**
+     * Wait for the turn of a request, then for its rate limiter tokens.
+     *
+     * @param method The method called
+     * @param priority The priority of the call, or null for the priority of the method
+     * @param deadline The deadline of the call, or null
+     * @param rateLimiter The rate limiter, or null
+     * @throws FlickrException The deadline is passed, the rate limit is exceeded, or the wait was interrupted
+     */
+    void acquire(String method, Priority priority, Deadline deadline, RateLimiter rateLimiter) throws FlickrException {
+        if (priority == null) {
+            priority = getPriority(method);
+        }
+        Ticket ticket = new Ticket();
+        synchronized (this) {
+            Queue<Ticket> queue = priority == Priority.INTERACTIVE ? interactive : background;
+            queue.add(ticket);
+            try {
+                while (running >= maxConcurrentCalls || rateWaiter != null || next() != ticket) {
+                    if (deadline == null) {
+                        wait();
+                    } else {
+                        long remaining = deadline.remaining(TimeUnit.NANOSECONDS);
+                        if (remaining <= 0) {
+                            throw new DeadlineExceededException("Deadline exceeded waiting in the scheduler, method '"
+                                    + method + "'");
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                queue.remove(ticket);
+                notifyAll();
+                throw new FlickrException("Interrupted while waiting in the scheduler", ex);
+            } catch (FlickrException ex) {
+                queue.remove(ticket);
+                notifyAll();
+                throw ex;
+            }
+            queue.remove();
+            if (priority == Priority.BACKGROUND && !interactive.isEmpty()) {
+                promoted++;
+            }
+            running++;
+            rateWaiter = ticket;
+        }
+
+        boolean acquired = false;
+        try {
+            if (rateLimiter != null) {
+                rateLimiter.acquire(method, deadline);
+            }
+            acquired = true;
+        } finally {
+            synchronized (this) {
+                rateWaiter = null;
+                if (!acquired) {
+                    running--;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Release the slot of a request completed or cancelled.
+     */
+    synchronized void release() {
+        running--;
+        notifyAll();
+    }
+
+    /**
+     * Get the next request served.
+     */
+    private Ticket next() {
+        Ticket first = interactive.peek();
+        Ticket waiting = background.peek();
+        if (first == null) {
+            return waiting;
+        }
+        if (waiting != null && System.nanoTime() - waiting.time >= maxWait) {
+            return waiting;
+        }
+        return first;
+    }
+
+    /**
+     * Get the number of requests in flight.
+     *
+     * @return The number of requests
+     */
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * Get the number of requests waiting for their turn.
+     *
+     * @param priority The priority of the requests
+     * @return The number of requests
+     */
+    public synchronized int getQueueDepth(Priority priority) {
+        return priority == Priority.INTERACTIVE ? interactive.size() : background.size();
+    }
+
+    /**
+     * Get the number of background requests served before interactive ones because they waited too long.
+     *
+     * @return The number of requests
+     */
+    public synchronized long getPromotedCount() {
+        return promoted;
+    }
+
+    private static final class Ticket {
+
+        private final long time = System.nanoTime();
+    }
+
+}
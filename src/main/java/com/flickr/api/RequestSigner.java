@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.Map;
+
+/**
+ * Sign the requests with the OAuth token of a user.
+ */
+interface RequestSigner {
+
+    /**
+     * Sign a request.
+     *
+     * @param verb The HTTP method
+     * @param url The URL, without query string
+     * @param params The request parameters, sorted by name
+     * @return The OAuth parameters, the signature included
+     */
+    Map<String, String> sign(String verb, String url, Map<String, ?> params);
+
+    /**
+     * Get the key of the user whose token signs the requests. The responses of two users are never shared, the key is
+     * part of the response cache and coalescing keys.
+     *
+     * @return The user key, empty without a token
+     */
+    String getUserKey();
+
+}
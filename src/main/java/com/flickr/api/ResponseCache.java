@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory cache of the responses of the read methods, see {@link Flickr#setResponseCache(ResponseCache)}.
+ *
+ * <p>
+ * The responses are stored by method and parameters, for the time to live of their method. When the cache is full,
+ * the least recently used response is evicted. A write call (favorite added, photo deleted ...) invalidates the
+ * responses of its service, and the responses of the other services read with one of its identifiers (photo, set,
+ * group ...). The cached responses are shared by the callers and must not be modified.</p>
+ */
+public final class ResponseCache {
+
+    // Polled for a state changing on the server, they only get the time to live set for them
+    private static final Set<String> POLLED_METHODS = Collections.singleton("flickr.photos.upload.checkTickets");
+    //
+    private final int maxEntries;
+    private final long defaultTtl;
+    private final ConcurrentMap<String, Long> ttls = new ConcurrentHashMap<String, Long>();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    // Incremented by each invalidation, a response read before must not be stored
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Create a new cache
+     *
+     * @param maxEntries The maximum number of responses kept
+     * @param defaultTtl The time to live of the responses, for the methods without their own (0 to only cache the
+     * methods with a time to live set with {@link #setTtl(String, long, TimeUnit)})
+     * @param unit The time to live unit
+     */
+    public ResponseCache(int maxEntries, long defaultTtl, TimeUnit unit) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The maximum number of entries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.defaultTtl = unit.toNanos(defaultTtl);
+    }
+
+    /**
+     * Set the time to live of the responses of a method.
+     *
+     * @param method The method name (for instance "flickr.photos.getSizes")
+     * @param ttl The time to live, 0 to never cache the method
+     * @param unit The time to live unit
+     */
+    public void setTtl(String method, long ttl, TimeUnit unit) {
+        ttls.put(method, unit.toNanos(ttl));
+    }
+
+    boolean isCached(String method) {
+        return getTtl(method) > 0;
+    }
+
+    private long getTtl(String method) {
+        Long ttl = ttls.get(method);
+        if (ttl == null) {
+            return POLLED_METHODS.contains(method) ? 0 : defaultTtl;
+        }
+        return ttl;
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    synchronized <T> T get(String key, Class<T> clazz) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiration - System.nanoTime() <= 0) {
+            entries.remove(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return clazz.cast(entry.value);
+    }
+
+    /**
+     * Store a response, unless the cache has been invalidated since the request was sent.
+     */
+    synchronized void put(String key, String owner, CommandArguments args, Object value, long requestGeneration) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        entries.put(key, new Entry(owner, args.getParameters(), value, System.nanoTime() + getTtl(args.getMethod())));
+        if (entries.size() > maxEntries) {
+            Iterator<Entry> it = entries.values().iterator();
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Remove the responses affected by a write call: the responses of the same service for the same user, whatever
+     * the session which read them, and the responses read with one of the identifiers of the call.
+     *
+     * @param owner The service and the user of the write call (see {@link FlickrService#getCacheOwner()})
+     */
+    synchronized void invalidate(String owner, CommandArguments args) {
+        generation++;
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            Entry entry = it.next();
+            if (entry.owner.equals(owner) || entry.sharesIdentifier(args.getParameters())) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all the responses of a method.
+     *
+     * @param method The method name
+     */
+    public synchronized void invalidate(String method) {
+        generation++;
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            if (method.equals(it.next().parameters.get("method"))) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all the responses.
+     */
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * Get the number of responses currently stored.
+     *
+     * @return The number of responses
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of calls answered from the cache.
+     *
+     * @return The number of hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Get the number of cacheable calls sent to the server.
+     *
+     * @return The number of misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Get the number of responses removed because the cache was full or they expired.
+     *
+     * @return The number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return entries.size() + "/" + maxEntries + " responses, " + hits + " hits, " + misses + " misses, "
+                + evictions + " evictions";
+    }
+
+    private static final class Entry {
+
+        private final String owner;
+        private final Map<String, Object> parameters;
+        private final Object value;
+        private final long expiration;
+
+        private Entry(String owner, Map<String, Object> parameters, Object value, long expiration) {
+            this.owner = owner;
+            this.parameters = parameters;
+            this.value = value;
+            this.expiration = expiration;
+        }
+
+        private boolean sharesIdentifier(Map<String, Object> writeParameters) {
+            for (Map.Entry<String, Object> param : writeParameters.entrySet()) {
+                if (param.getKey().endsWith("_id")) {
+                    String id = String.valueOf(param.getValue());
+                    for (Map.Entry<String, Object> readParam : parameters.entrySet()) {
+                        if (readParam.getKey().endsWith("_id") && id.equals(String.valueOf(readParam.getValue()))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+}
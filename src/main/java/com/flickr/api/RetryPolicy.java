@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Policy retrying the calls failed with a transient error, see {@link Flickr#setRetryPolicy(RetryPolicy)}.
+ *
+ * <p>
+ * The retryable errors are the I/O errors (connection reset, timeout, truncated response ...) and the Flickr error
+ * codes of a temporary failure ({@link FlickrErrorCode#service_currently_unavailable} by default). Before each retry,
+ * the call waits an exponential backoff with full jitter: a random time between 0 and
+ * <code>min(maxBackoff, initialBackoff * 2^(retry - 1))</code>, so the clients failed together do not retry
+ * together. No retry is done once the deadline of the call would be exceeded.</p>
+ *
+ * <p>
+ * The write methods (POST) may be applied twice if the server failed after applying them, they are only retried when
+ * enabled with {@link #setRetryPosts(boolean)}.</p>
+ */
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final Set<FlickrErrorCode> retryableCodes = EnumSet.of(FlickrErrorCode.service_currently_unavailable);
+    private volatile long deadline;
+    private volatile boolean retryPosts;
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    /**
+     * Create a new retry policy
+     *
+     * @param maxAttempts The maximum number of attempts of a call, the first one included
+     * @param initialBackoff The maximum wait before the first retry
+     * @param maxBackoff The maximum wait before a retry
+     * @param unit The backoff unit
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoff, long maxBackoff, TimeUnit unit) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("The maximum number of attempts must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = unit.toNanos(initialBackoff);
+        this.maxBackoff = unit.toNanos(maxBackoff);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Set the time after which a failed call is not retried anymore, counted from its first attempt.
+     *
+     * @param deadline The deadline, 0 for no deadline
+     * @param unit The deadline unit
+     */
+    public void setDeadline(long deadline, TimeUnit unit) {
+        this.deadline = unit.toNanos(deadline);
+    }
+
+    /**
+     * Retry the write methods (POST) too. They are not retried by default, since a write failed after being applied
+     * by the server is applied twice.
+     *
+     * @param retryPosts true to retry the write methods, false otherwise
+     */
+    public void setRetryPosts(boolean retryPosts) {
+        this.retryPosts = retryPosts;
+    }
+
+    public boolean isRetryPosts() {
+        return retryPosts;
+    }
+
+    /**
+     * Set if the calls failed with an error code are retried.
+     *
+     * @param code The error code
+     * @param retryable true to retry the calls failed with this code, false otherwise
+     */
+    public void setRetryable(FlickrErrorCode code, boolean retryable) {
+        synchronized (retryableCodes) {
+            if (retryable) {
+                retryableCodes.add(code);
+            } else {
+                retryableCodes.remove(code);
+            }
+        }
+    }
+
+    /**
+     * Indicates if a call failed with an error can be retried.
+     *
+     * @param error The error
+     * @return true if the error is transient, false otherwise
+     */
+    public boolean isRetryable(Throwable error) {
+        if (error instanceof FlickrException) {
+            FlickrErrorCode code = ((FlickrException) error).getErrorCode();
+            if (code != null) {
+                synchronized (retryableCodes) {
+                    return retryableCodes.contains(code);
+                }
+            }
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException)) {
+                // The caller asked to stop
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the wait before a retry.
+     *
+     * @param retry The retry number, from 1
+     * @return The wait in nanoseconds
+     */
+    long getBackoff(int retry) {
+        long ceiling = initialBackoff << Math.min(retry - 1, 30);
+        if (ceiling <= 0 || ceiling > maxBackoff) {
+            ceiling = maxBackoff;
+        }
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Decide if a failed attempt is retried.
+     *
+     * @param error The error of the attempt
+     * @param attempt The attempt number, from 1
+     * @param start The start of the first attempt ({@link System#nanoTime()})
+     * @param backoff The wait before the retry
+     * @param callDeadline The deadline of the call, or null
+     * @return true to retry, false to fail the call
+     */
+    boolean shouldRetry(Throwable error, int attempt, long start, long backoff, Deadline callDeadline) {
+        boolean retry = attempt < maxAttempts && isRetryable(error)
+                && (deadline <= 0 || System.nanoTime() + backoff - start < deadline)
+                && (callDeadline == null || backoff < callDeadline.remaining(TimeUnit.NANOSECONDS));
+        if (retry) {
+            retries.increment();
+        } else if (attempt > 1) {
+            exhausted.increment();
+        }
+        return retry;
+    }
+
+    void recordAttempt() {
+        attempts.increment();
+    }
+
+    /**
+     * Get the number of attempts made, the first attempts and the retries.
+     *
+     * @return The number of attempts
+     */
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    /**
+     * Get the number of retries made.
+     *
+     * @return The number of retries
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * Get the number of calls failed after being retried.
+     *
+     * @return The number of calls
+     */
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+}
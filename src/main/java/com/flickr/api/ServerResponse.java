@@ -21,6 +21,8 @@
  */
 package com.flickr.api;
 
+import java.io.InputStream;
+
 /**
  *
  * @author Fabien Barbero
@@ -28,6 +30,15 @@ package com.flickr.api;
 public interface ServerResponse {
 
     void read(String data, String method) throws FlickrException;
+
+    /**
+     * Read the response while it is received. The stream is closed by the caller.
+     *
+     * @param data The response body
+     * @param method The called method
+     * @throws FlickrException The server returned an error or the response cannot be read
+     */
+    void read(InputStream data, String method) throws FlickrException;
     
     public enum ResponseStatus {
 
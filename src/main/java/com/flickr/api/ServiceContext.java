@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2013 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.net.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * The resources shared by all the services of a {@link Flickr} instance.
+ */
+final class ServiceContext {
+
+    private volatile Transport transport;
+    private volatile Proxy proxy;
+    private volatile String uploadEndpoint;
+    private volatile Executor executor;
+    private volatile boolean compressionEnabled = true;
+    private volatile boolean coalescingEnabled;
+    private final TrafficStats trafficStats = new TrafficStats();
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private volatile ResponseCache responseCache;
+    private volatile RateLimiter rateLimiter;
+    private volatile RetryPolicy retryPolicy;
+    private volatile CircuitBreaker circuitBreaker;
+    private volatile HedgingPolicy hedgingPolicy;
+    private volatile ConcurrencyLimiter concurrencyLimiter;
+    private volatile RequestScheduler requestScheduler;
+    private final Timeouts timeouts;
+    private volatile long callTimeout;
+    private final Bulkheads bulkheadsConfig;
+    private final ConcurrentMap<Class<? extends FlickrService>, Bulkhead> bulkheads
+            = new ConcurrentHashMap<Class<? extends FlickrService>, Bulkhead>();
+
+    ServiceContext(Transport transport, Executor executor, Bulkheads bulkheadsConfig) {
+        this(transport, executor, bulkheadsConfig, new Timeouts());
+    }
+
+    ServiceContext(Transport transport, Executor executor, Bulkheads bulkheadsConfig, Timeouts timeouts) {
+        this.transport = transport;
+        this.executor = executor;
+        this.bulkheadsConfig = bulkheadsConfig;
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * Get the bulkhead of a service, shared by the service instances of all the users.
+     *
+     * @param service The service class
+     * @return The bulkhead, or null if the service is not bounded
+     */
+    Bulkhead getBulkhead(Class<? extends FlickrService> service) {
+        if (bulkheadsConfig == null) {
+            return null;
+        }
+        return bulkheads.computeIfAbsent(service, bulkheadsConfig::create);
+    }
+
+    Transport getTransport() {
+        return transport;
+    }
+
+    void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Get the proxy of the requests, shared by the services of all the users.
+     *
+     * @return The proxy, or null to connect directly
+     */
+    Proxy getProxy() {
+        return proxy;
+    }
+
+    void setProxy(Proxy proxy) {
+        this.proxy = proxy;
+    }
+
+    String getUploadEndpoint() {
+        return uploadEndpoint;
+    }
+
+    void setUploadEndpoint(String uploadEndpoint) {
+        this.uploadEndpoint = uploadEndpoint;
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    TrafficStats getTrafficStats() {
+        return trafficStats;
+    }
+
+    boolean isCoalescingEnabled() {
+        return coalescingEnabled;
+    }
+
+    void setCoalescingEnabled(boolean coalescingEnabled) {
+        this.coalescingEnabled = coalescingEnabled;
+    }
+
+    RequestCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    RequestScheduler getRequestScheduler() {
+        return requestScheduler;
+    }
+
+    void setRequestScheduler(RequestScheduler requestScheduler) {
+        this.requestScheduler = requestScheduler;
+    }
+
+    Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Get the default time limit of the calls.
+     *
+     * @return The time limit in nanoseconds, 0 for no limit
+     */
+    long getCallTimeout() {
+        return callTimeout;
+    }
+
+    void setCallTimeout(long callTimeout) {
+        this.callTimeout = callTimeout;
+    }
+
+}
@@ -29,6 +29,7 @@ import com.flickr.api.entities.TotalViewsResponse;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -36,10 +37,15 @@ import java.util.Date;
  */
 public class StatsService extends FlickrService {
 
-    private static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd");
+    private static final ThreadLocal<DateFormat> DATE_FORMAT = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd");
+        }
+    };
 
-    StatsService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    StatsService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -52,13 +58,25 @@ public class StatsService extends FlickrService {
      * @throws FlickrException Error getting the stats
      */
     public Paginated<PhotoStats> getPopularPhotos(Date date, int perPage, int page) throws FlickrException {
+        return await(getPopularPhotosAsync(date, perPage, page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getPopularPhotos(Date, int, int)}.
+     *
+     * @param date Stats will be returned for this date
+     * @param perPage Number of referrers to return per page. The maximum allowed value is 100.
+     * @param page The page of results to return
+     * @return A future completed with the stats
+     */
+    public CompletableFuture<Paginated<PhotoStats>> getPopularPhotosAsync(Date date, int perPage, int page) {
         CommandArguments args = new CommandArguments("flickr.stats.getPopularPhotos");
         args.addParam("per_page", perPage);
         args.addParam("page", page);
         if (date != null) {
-            args.addParam("date", DATE_FORMAT.format(date));
+            args.addParam("date", DATE_FORMAT.get().format(date));
         }
-        return doGet(args, PhotoStatsResponse.class).getPaginated();
+        return doGetAsync(args, PhotoStatsResponse.class).thenApply(PhotoStatsResponse::getPaginated);
     }
 
     /**
@@ -69,11 +87,21 @@ public class StatsService extends FlickrService {
      * @throws FlickrException
      */
     public TotalViews getTotalViews(Date date) throws FlickrException {
+        return await(getTotalViewsAsync(date));
+    }
+
+    /**
+     * Asynchronous version of {@link #getTotalViews(Date)}.
+     *
+     * @param date Stats will be returned for this date
+     * @return A future completed with the views
+     */
+    public CompletableFuture<TotalViews> getTotalViewsAsync(Date date) {
         CommandArguments args = new CommandArguments("flickr.stats.getTotalViews");
         if (date != null) {
-            args.addParam("date", DATE_FORMAT.format(date));
+            args.addParam("date", DATE_FORMAT.get().format(date));
         }
-        return doGet(args, TotalViewsResponse.class).getViews();
+        return doGetAsync(args, TotalViewsResponse.class).thenApply(TotalViewsResponse::getViews);
     }
 
 }
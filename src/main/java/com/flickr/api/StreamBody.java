@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.http.entity.mime.MIME;
+import org.apache.http.entity.mime.content.AbstractContentBody;
+
+/**
+ * A part of a multipart body sending a stream of a known length, so that the body is sent with its length rather
+ * than chunked. A stream can only be read once: the part cannot be sent again, and the calls uploading it are never
+ * retried (see {@link CommandArguments#isRepeatable()}).
+ */
+final class StreamBody extends AbstractContentBody {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final InputStream in;
+    private final long length;
+    private final String filename;
+    private boolean consumed;
+
+    StreamBody(InputStream in, long length, String filename) {
+        super("application/octet-stream");
+        if (length < 0) {
+            throw new IllegalArgumentException("The length cannot be negative");
+        }
+        this.in = in;
+        this.length = length;
+        this.filename = filename;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        synchronized (this) {
+            if (consumed) {
+                throw new IOException("The stream of " + filename + " was already sent");
+            }
+            consumed = true;
+        }
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(1, length))];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                throw new EOFException("The stream of " + filename + " ended " + remaining + " bytes before its length");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        out.flush();
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getCharset() {
+        return null;
+    }
+
+    @Override
+    public String getTransferEncoding() {
+        return MIME.ENC_BINARY;
+    }
+
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+}
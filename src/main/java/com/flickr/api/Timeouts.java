@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The connect and read timeouts of the requests: the defaults, and the timeouts of the methods overriding them.
+ */
+final class Timeouts {
+
+    static final long DEFAULT_CONNECT_TIMEOUT = 15000;
+    static final long DEFAULT_READ_TIMEOUT = 60000;
+    //
+    private volatile long[] defaults = {DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT};
+    private final ConcurrentMap<String, long[]> methods = new ConcurrentHashMap<String, long[]>();
+
+    Timeouts() {
+    }
+
+    /**
+     * Create a copy of some timeouts, the changes of one are not seen by the other.
+     *
+     * @param timeouts The timeouts copied
+     */
+    Timeouts(Timeouts timeouts) {
+        defaults = timeouts.defaults;
+        methods.putAll(timeouts.methods);
+    }
+
+    void setDefaults(long connectTimeout, long readTimeout, TimeUnit unit) {
+        defaults = toMillis(connectTimeout, readTimeout, unit);
+    }
+
+    void set(String method, long connectTimeout, long readTimeout, TimeUnit unit) {
+        methods.put(method, toMillis(connectTimeout, readTimeout, unit));
+    }
+
+    /**
+     * Get the connect timeout of a method.
+     *
+     * @param method The method name
+     * @return The timeout in milliseconds, 0 for no timeout
+     */
+    long getConnectTimeout(String method) {
+        return get(method)[0];
+    }
+
+    /**
+     * Get the read timeout of a method: the maximum time waited for the next bytes of the response.
+     *
+     * @param method The method name
+     * @return The timeout in milliseconds, 0 for no timeout
+     */
+    long getReadTimeout(String method) {
+        return get(method)[1];
+    }
+
+    private long[] get(String method) {
+        long[] timeouts = methods.get(method);
+        return timeouts == null ? defaults : timeouts;
+    }
+
+    private static long[] toMillis(long connectTimeout, long readTimeout, TimeUnit unit) {
+        if (connectTimeout < 0 || readTimeout < 0) {
+            throw new IllegalArgumentException("The timeouts cannot be negative");
+        }
+        return new long[]{unit.toMillis(connectTimeout), unit.toMillis(readTimeout)};
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the bytes received for each called method. The received bytes are counted as they come from the
+ * network, the decoded bytes once decompressed, the difference is the saving of the response compression.
+ */
+public final class TrafficStats {
+
+    private final ConcurrentMap<String, MethodTraffic> methods = new ConcurrentHashMap<String, MethodTraffic>();
+
+    TrafficStats() {
+    }
+
+    void record(String method, long received, long decoded) {
+        MethodTraffic traffic = methods.get(method);
+        if (traffic == null) {
+            MethodTraffic created = new MethodTraffic(method);
+            traffic = methods.putIfAbsent(method, created);
+            if (traffic == null) {
+                traffic = created;
+            }
+        }
+        traffic.calls.increment();
+        traffic.received.add(received);
+        traffic.decoded.add(decoded);
+    }
+
+    /**
+     * Get the counters of a method.
+     *
+     * @param method The method name (for instance "flickr.photos.search")
+     * @return The counters, or null if the method has not been called
+     */
+    public MethodTraffic get(String method) {
+        return methods.get(method);
+    }
+
+    /**
+     * Get the counters of all the called methods.
+     *
+     * @return The counters, sorted by method name
+     */
+    public Map<String, MethodTraffic> getMethods() {
+        return Collections.unmodifiableMap(new TreeMap<String, MethodTraffic>(methods));
+    }
+
+    /**
+     * Get the number of bytes received for all the methods.
+     *
+     * @return The number of bytes
+     */
+    public long getReceivedBytes() {
+        long total = 0;
+        for (MethodTraffic traffic : methods.values()) {
+            total += traffic.getReceivedBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of decoded bytes for all the methods.
+     *
+     * @return The number of bytes
+     */
+    public long getDecodedBytes() {
+        long total = 0;
+        for (MethodTraffic traffic : methods.values()) {
+            total += traffic.getDecodedBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Reset all the counters.
+     */
+    public void reset() {
+        methods.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (MethodTraffic traffic : getMethods().values()) {
+            builder.append(traffic).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The counters of a method.
+     */
+    public static final class MethodTraffic {
+
+        private final String method;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder received = new LongAdder();
+        private final LongAdder decoded = new LongAdder();
+
+        private MethodTraffic(String method) {
+            this.method = method;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * Get the number of responses read.
+         *
+         * @return The number of calls
+         */
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        /**
+         * Get the number of bytes received from the network.
+         *
+         * @return The number of bytes
+         */
+        public long getReceivedBytes() {
+            return received.sum();
+        }
+
+        /**
+         * Get the number of bytes once the responses are decompressed.
+         *
+         * @return The number of bytes
+         */
+        public long getDecodedBytes() {
+            return decoded.sum();
+        }
+
+        /**
+         * Get the compression ratio of the responses.
+         *
+         * @return The decoded size divided by the received size, 1 if the responses are not compressed
+         */
+        public double getCompressionRatio() {
+            long receivedBytes = getReceivedBytes();
+            return receivedBytes == 0 ? 1 : (double) getDecodedBytes() / receivedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d calls, %d bytes received, %d bytes decoded (x%.1f)",
+                    method, getCalls(), getReceivedBytes(), getDecodedBytes(), getCompressionRatio());
+        }
+    }
+
+}
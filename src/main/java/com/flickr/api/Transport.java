@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2013 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The HTTP layer used by the services to send the signed requests to Flickr. A custom implementation can be given to
+ * {@link Flickr#setTransport(Transport)}, the default one is {@link PooledTransport}.
+ */
+public interface Transport {
+
+    /**
+     * Send a request. The returned response <b>must</b> be closed once read, so the underlying connection can be
+     * reused.
+     *
+     * @param request The signed request to send
+     * @return The server response
+     * @throws IOException Error sending the request or reading the response headers
+     */
+    TransportResponse send(TransportRequest request) throws IOException;
+
+    /**
+     * Send a request without blocking the calling thread. The returned future <b>must</b> be completed in a thread
+     * of the given executor (or in the calling thread), since the response body is read by the completing thread.
+     * By default, the request is sent synchronously by the calling thread, which is already an executor thread.
+     *
+     * @param request The signed request to send
+     * @param executor The executor running the service calls
+     * @return The server response, or the {@link IOException} sending the request
+     */
+    default CompletableFuture<TransportResponse> sendAsync(TransportRequest request, Executor executor) {
+        CompletableFuture<TransportResponse> future = new CompletableFuture<TransportResponse>();
+        try {
+            future.complete(send(request));
+        } catch (IOException ex) {
+            future.completeExceptionally(ex);
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Release all the resources (connections, sockets ...) held by the transport.
+     */
+    void shutdown();
+
+}
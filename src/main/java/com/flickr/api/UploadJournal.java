@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only journal of the files uploaded by a {@link BulkUpload}, read again to resume an interrupted upload.
+ *
+ * <p>
+ * Each upload is recorded on its own line, "photo id TAB absolute path", and forced to the disk before the upload is
+ * reported as done. A line cut by a crash is removed when the journal is opened, so its file is uploaded again.</p>
+ */
+final class UploadJournal implements AutoCloseable {
+
+    private final Map<String, String> photoIds = new HashMap<String, String>();
+    private final FileChannel channel;
+
+    /**
+     * Open a journal, creating it if it does not exist.
+     *
+     * @param file The journal file
+     * @throws IOException Error reading the journal
+     */
+    UploadJournal(File file) throws IOException {
+        byte[] bytes = file.exists() ? Files.readAllBytes(file.toPath()) : new byte[0];
+        // The end of the last complete line, a new line is a single byte in UTF-8
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n') {
+            complete--;
+        }
+        String content = new String(bytes, 0, complete, StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) != -1) {
+            String line = content.substring(start, end);
+            int tab = line.indexOf('\t');
+            if (tab > 0) {
+                photoIds.put(unescape(line.substring(tab + 1)), line.substring(0, tab));
+            }
+            start = end + 1;
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (complete < bytes.length) {
+            // The line cut by the crash is removed, ended it could be read as a valid record by the next resume
+            channel.truncate(complete);
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Get the photo identifier of a file already uploaded.
+     *
+     * @param file The file
+     * @return The photo identifier, or null if the file was not uploaded
+     */
+    synchronized String getPhotoId(File file) {
+        return photoIds.get(file.getAbsolutePath());
+    }
+
+    /**
+     * Get the number of files recorded.
+     *
+     * @return The number of files
+     */
+    synchronized int size() {
+        return photoIds.size();
+    }
+
+    /**
+     * Record an uploaded file, and wait until the record is on the disk.
+     *
+     * @param file The file
+     * @param photoId The photo identifier
+     * @throws IOException Error writing the journal
+     */
+    synchronized void record(File file, String photoId) throws IOException {
+        String path = file.getAbsolutePath();
+        write(photoId + '\t' + escape(path) + '\n');
+        photoIds.put(path, photoId);
+    }
+
+    private void write(String record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static String escape(String path) {
+        return path.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String path) {
+        StringBuilder builder = new StringBuilder(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '\\' && i + 1 < path.length()) {
+                char next = path.charAt(++i);
+                builder.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+}
@@ -21,8 +21,16 @@
  */
 package com.flickr.api;
 
+import com.flickr.api.entities.UploadTicket;
+import com.flickr.api.entities.UploadTicketResponse;
+import com.flickr.api.entities.UploadTicketsResponse;
 import com.flickr.api.entities.UploadedPhotoResponse;
 import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -30,8 +38,10 @@ import java.io.File;
  */
 public class UploadService extends FlickrService {
 
-    UploadService(OAuthHandler oauthHandler) {
-        super(oauthHandler);
+    private static final String UPLOAD_URL = "https://up.flickr.com/services/upload";
+
+    UploadService(RequestSigner signer, ServiceContext context) {
+        super(signer, context);
     }
 
     /**
@@ -44,8 +54,169 @@ public class UploadService extends FlickrService {
      * @throws FlickrException Upload error
      */
     public String uploadPhoto(File file, String title, String description) throws FlickrException {
+        return await(uploadPhotoAsync(file, title, description));
+    }
+
+    /**
+     * Asynchronous version of {@link #uploadPhoto(File, String, String)}.
+     *
+     * @param file The photo file
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return A future completed with the new photo identifier
+     */
+    public CompletableFuture<String> uploadPhotoAsync(File file, String title, String description) {
+        CommandArguments args = createUploadArguments(file, title, description);
+        return doUploadAsync(args, UploadedPhotoResponse.class).thenApply(UploadedPhotoResponse::getPhotoId);
+    }
+
+    /**
+     * Upload a new photo on Flickr from a stream. The stream is sent as it is read, and it is not closed. As it can
+     * only be read once, the upload is never retried.
+     *
+     * @param data The photo data
+     * @param length The number of bytes of the photo, read from the stream
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return The new photo identifier
+     * @throws FlickrException Upload error, or the stream ended before its length
+     */
+    public String uploadPhoto(InputStream data, long length, String title, String description) throws FlickrException {
+        return await(uploadPhotoAsync(data, length, title, description));
+    }
+
+    /**
+     * Asynchronous version of {@link #uploadPhoto(InputStream, long, String, String)}. The stream is read by the
+     * thread sending the upload.
+     *
+     * @param data The photo data
+     * @param length The number of bytes of the photo, read from the stream
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return A future completed with the new photo identifier
+     */
+    public CompletableFuture<String> uploadPhotoAsync(InputStream data, long length, String title,
+            String description) {
+        CommandArguments args = createUploadArguments(new StreamBody(data, length, CommandArguments.UPLOAD_FILENAME),
+                title, description);
+        return doUploadAsync(args, UploadedPhotoResponse.class).thenApply(UploadedPhotoResponse::getPhotoId);
+    }
+
+    /**
+     * Upload a new photo on Flickr from its bytes in memory. The array is sent as it is, it must not be changed until
+     * the upload is done.
+     *
+     * @param data The photo data
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return The new photo identifier
+     * @throws FlickrException Upload error
+     */
+    public String uploadPhoto(byte[] data, String title, String description) throws FlickrException {
+        return await(uploadPhotoAsync(data, title, description));
+    }
+
+    /**
+     * Asynchronous version of {@link #uploadPhoto(byte[], String, String)}.
+     *
+     * @param data The photo data
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return A future completed with the new photo identifier
+     */
+    public CompletableFuture<String> uploadPhotoAsync(byte[] data, String title, String description) {
+        CommandArguments args = createUploadArguments(data, title, description);
+        return doUploadAsync(args, UploadedPhotoResponse.class).thenApply(UploadedPhotoResponse::getPhotoId);
+    }
+
+    /**
+     * Upload a new photo on Flickr from the remaining bytes of a buffer, for instance a file mapped in memory. The
+     * buffer is sent as it is, its position is not changed, and its content must not be changed until the upload is
+     * done.
+     *
+     * @param data The photo data
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return The new photo identifier
+     * @throws FlickrException Upload error
+     */
+    public String uploadPhoto(ByteBuffer data, String title, String description) throws FlickrException {
+        return await(uploadPhotoAsync(data, title, description));
+    }
+
+    /**
+     * Asynchronous version of {@link #uploadPhoto(ByteBuffer, String, String)}.
+     *
+     * @param data The photo data
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return A future completed with the new photo identifier
+     */
+    public CompletableFuture<String> uploadPhotoAsync(ByteBuffer data, String title, String description) {
+        CommandArguments args = createUploadArguments(data, title, description);
+        return doUploadAsync(args, UploadedPhotoResponse.class).thenApply(UploadedPhotoResponse::getPhotoId);
+    }
+
+    /**
+     * Upload a new photo on Flickr, without waiting for Flickr to process it. The server answers as soon as the file
+     * is received, with a ticket checked later with {@link #checkTickets(Collection)} or an
+     * {@link UploadTicketPoller}.
+     *
+     * @param file The photo file
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return The ticket identifier
+     * @throws FlickrException Upload error
+     */
+    public String startUpload(File file, String title, String description) throws FlickrException {
+        return await(startUploadAsync(file, title, description));
+    }
+
+    /**
+     * Asynchronous version of {@link #startUpload(File, String, String)}.
+     *
+     * @param file The photo file
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return A future completed with the ticket identifier
+     */
+    public CompletableFuture<String> startUploadAsync(File file, String title, String description) {
+        CommandArguments args = createUploadArguments(file, title, description);
+        args.addParam("async", "1");
+        return doUploadAsync(args, UploadTicketResponse.class).thenApply(UploadTicketResponse::getTicketId);
+    }
+
+    /**
+     * Get the state of the photos uploaded with {@link #startUpload(File, String, String)}.
+     *
+     * @param ticketIds The ticket identifiers
+     * @return The tickets
+     * @throws FlickrException Error checking the tickets
+     */
+    public List<UploadTicket> checkTickets(Collection<String> ticketIds) throws FlickrException {
+        return await(checkTicketsAsync(ticketIds));
+    }
+
+    /**
+     * Asynchronous version of {@link #checkTickets(Collection)}.
+     *
+     * @param ticketIds The ticket identifiers
+     * @return A future completed with the tickets
+     */
+    public CompletableFuture<List<UploadTicket>> checkTicketsAsync(Collection<String> ticketIds) {
+        CommandArguments args = new CommandArguments("flickr.photos.upload.checkTickets");
+        args.addParam("tickets", String.join(",", ticketIds));
+        return doGetAsync(args, UploadTicketsResponse.class).thenApply(UploadTicketsResponse::getList);
+    }
+
+    private <T extends ServerResponse> CompletableFuture<T> doUploadAsync(CommandArguments args, Class<T> clazz) {
+        // Always signed for the Flickr URL, even when sent to another endpoint
+        return doPostAsync(args, clazz, UPLOAD_URL, getUploadEndpoint());
+    }
+
+    private static CommandArguments createUploadArguments(Object photo, String title, String description) {
         CommandArguments args = new CommandArguments();
-        args.addParam("photo", file);
+        args.addParam("photo", photo);
         args.addParam("content_type", 1);
         if (title != null) {
             args.addParam("title", title);
@@ -53,8 +224,7 @@ public class UploadService extends FlickrService {
         if (description != null) {
             args.addParam("description", description);
         }
-
-        return doPost(args, UploadedPhotoResponse.class, "https://up.flickr.com/services/upload").getPhotoId();
+        return args;
     }
 
 }
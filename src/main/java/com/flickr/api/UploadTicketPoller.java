@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.UploadTicket;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wait for the photos uploaded asynchronously to be processed by Flickr.
+ *
+ * <p>
+ * The uploads started with {@link UploadService#startUpload(File, String, String)} free their connection as soon as
+ * the file is sent, Flickr processes the photo later. The poller checks all the pending tickets together, up to
+ * {@value #MAX_TICKETS_PER_CALL} per flickr.photos.upload.checkTickets call, and completes the future of each ticket
+ * with its photo identifier once the photo is available:</p>
+ * <pre>
+ * UploadTicketPoller poller = new UploadTicketPoller(flickr.getUploadService(), 1, TimeUnit.SECONDS);
+ * CompletableFuture&lt;String&gt; photoId = poller.upload(file, "title", null);
+ * </pre>
+ * <p>
+ * A ticket not processed after the maximum wait fails. The poller only sends requests while tickets are pending.</p>
+ */
+public final class UploadTicketPoller implements AutoCloseable {
+
+    /**
+     * The maximum number of tickets checked by a call.
+     */
+    public static final int MAX_TICKETS_PER_CALL = 100;
+    /**
+     * The default maximum wait of a ticket, in seconds.
+     */
+    public static final long DEFAULT_MAX_WAIT = 600;
+    //
+    private final UploadService service;
+    private final long interval;
+    private final Map<String, Pending> pending = new LinkedHashMap<String, Pending>();
+    private volatile long maxWait = TimeUnit.SECONDS.toNanos(DEFAULT_MAX_WAIT);
+    private boolean scheduled;
+    private boolean closed;
+    private long checkCount;
+
+    /**
+     * Create a poller.
+     *
+     * @param service The service checking the tickets
+     * @param interval The time between two checks of the pending tickets
+     * @param unit The interval unit
+     */
+    public UploadTicketPoller(UploadService service, long interval, TimeUnit unit) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The interval must be positive");
+        }
+        this.service = service;
+        this.interval = unit.toNanos(interval);
+    }
+
+    /**
+     * Set the time after which a ticket still not processed fails. The default wait is {@value #DEFAULT_MAX_WAIT}
+     * seconds.
+     *
+     * @param timeout The maximum wait
+     * @param unit The wait unit
+     */
+    public void setMaxWait(long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("The wait must be positive");
+        }
+        maxWait = unit.toNanos(timeout);
+    }
+
+    /**
+     * Upload a new photo on Flickr, and wait for Flickr to process it.
+     *
+     * @param file The photo file
+     * @param title The photo title (optional)
+     * @param description The photo description (optional)
+     * @return A future completed with the new photo identifier
+     */
+    public CompletableFuture<String> upload(File file, String title, String description) {
+        return service.startUploadAsync(file, title, description).thenCompose(this::await);
+    }
+
+    /**
+     * Wait for the photo of a ticket to be processed.
+     *
+     * @param ticketId The ticket identifier
+     * @return A future completed with the new photo identifier, or failed if Flickr failed to process the photo
+     */
+    public CompletableFuture<String> await(String ticketId) {
+        CompletableFuture<String> future = new CompletableFuture<String>();
+        boolean schedule;
+        synchronized (this) {
+            if (closed) {
+                future.completeExceptionally(new FlickrException("The ticket poller is closed"));
+                return future;
+            }
+            Pending previous = pending.get(ticketId);
+            if (previous != null) {
+                return previous.future;
+            }
+            pending.put(ticketId, new Pending(future, System.nanoTime()));
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        future.whenComplete((photoId, error) -> {
+            if (future.isCancelled()) {
+                remove(ticketId);
+            }
+        });
+        if (schedule) {
+            Timers.schedule(this::poll, interval);
+        }
+        return future;
+    }
+
+    /**
+     * Get the number of tickets waiting for their photo.
+     *
+     * @return The number of tickets
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Get the number of flickr.photos.upload.checkTickets calls sent.
+     *
+     * @return The number of calls
+     */
+    public synchronized long getCheckCount() {
+        return checkCount;
+    }
+
+    /**
+     * Stop polling, the futures of the pending tickets fail.
+     */
+    @Override
+    public void close() {
+        List<Pending> failed;
+        synchronized (this) {
+            closed = true;
+            failed = new ArrayList<Pending>(pending.values());
+            pending.clear();
+        }
+        for (Pending ticket : failed) {
+            ticket.future.completeExceptionally(new FlickrException("The ticket poller is closed"));
+        }
+    }
+
+    private synchronized Pending remove(String ticketId) {
+        return pending.remove(ticketId);
+    }
+
+    private void poll() {
+        List<List<String>> batches = new ArrayList<List<String>>();
+        List<Pending> expired = new ArrayList<Pending>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            List<String> batch = null;
+            for (Iterator<Map.Entry<String, Pending>> it = pending.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String, Pending> entry = it.next();
+                if (now - entry.getValue().start > maxWait) {
+                    it.remove();
+                    expired.add(entry.getValue());
+                    continue;
+                }
+                if (batch == null || batch.size() == MAX_TICKETS_PER_CALL) {
+                    batch = new ArrayList<String>();
+                    batches.add(batch);
+                }
+                batch.add(entry.getKey());
+            }
+            if (batches.isEmpty()) {
+                scheduled = false;
+            }
+            checkCount += batches.size();
+        }
+        for (Pending ticket : expired) {
+            ticket.future.completeExceptionally(new FlickrException("The photo was not processed in time"));
+        }
+        if (batches.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<?>[] checks = new CompletableFuture<?>[batches.size()];
+        for (int i = 0; i < checks.length; i++) {
+            // A failed check is tried again with the next one
+            checks[i] = service.checkTicketsAsync(batches.get(i)).thenAccept(this::update);
+        }
+        CompletableFuture.allOf(checks).whenComplete((result, error) -> {
+            synchronized (this) {
+                if (closed || pending.isEmpty()) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            Timers.schedule(this::poll, interval);
+        });
+    }
+
+    private void update(List<UploadTicket> tickets) {
+        for (UploadTicket ticket : tickets) {
+            if (ticket.isComplete()) {
+                Pending done = remove(ticket.getId());
+                if (done != null) {
+                    done.future.complete(ticket.getPhotoId());
+                }
+            } else if (ticket.isFailed() || ticket.isInvalid()) {
+                Pending done = remove(ticket.getId());
+                if (done != null) {
+                    done.future.completeExceptionally(new FlickrException(ticket.isInvalid()
+                            ? "Unknown upload ticket " + ticket.getId()
+                            : "Flickr failed to process the photo of ticket " + ticket.getId()));
+                }
+            }
+        }
+    }
+
+    private static final class Pending {
+
+        private final CompletableFuture<String> future;
+        private final long start;
+
+        Pending(CompletableFuture<String> future, long start) {
+            this.future = future;
+            this.start = start;
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.Map;
+
+/**
+ * The services of a user, whose requests are signed with the user token, see {@link Flickr#forUser(UserToken)}.
+ *
+ * <p>
+ * A session shares the transport, executor, cache and limiters of its {@link Flickr} instance, and holds nothing else
+ * than the token: the services are only created when first used, and nothing is written to the disk.</p>
+ */
+public final class UserSession {
+
+    private final UserToken token;
+    private final RequestSigner signer;
+    private final ServiceContext context;
+    //
+    private ContactsService contactsService;
+    private PeopleService peoplesService;
+    private PhotosService photosService;
+    private PhotosetsService photosetsService;
+    private FavoritesService favoritesService;
+    private StatsService statsService;
+    private GroupsService groupsService;
+    private CameraService cameraService;
+    private InterestingnessService interestingnessService;
+    private GalleriesService galleriesService;
+    private UploadService uploadService;
+
+    UserSession(final OAuthHandler oauthHandler, ServiceContext context, final UserToken token) {
+        this.token = token;
+        this.context = context;
+        signer = new RequestSigner() {
+
+            @Override
+            public Map<String, String> sign(String verb, String url, Map<String, ?> params) {
+                return oauthHandler.sign(verb, url, params, token.getAccessToken());
+            }
+
+            @Override
+            public String getUserKey() {
+                return token.getToken();
+            }
+        };
+    }
+
+    /**
+     * Get the token signing the requests.
+     *
+     * @return The token
+     */
+    public UserToken getToken() {
+        return token;
+    }
+
+    /**
+     * Get the contacts services
+     *
+     * @return The service
+     */
+    public synchronized ContactsService getContactsService() {
+        if (contactsService == null) {
+            contactsService = new ContactsService(signer, context);
+        }
+        return contactsService;
+    }
+
+    /**
+     * Get the people services
+     *
+     * @return The service
+     */
+    public synchronized PeopleService getPeopleService() {
+        if (peoplesService == null) {
+            peoplesService = new PeopleService(signer, context);
+        }
+        return peoplesService;
+    }
+
+    /**
+     * Get the photos services
+     *
+     * @return The service
+     */
+    public synchronized PhotosService getPhotosService() {
+        if (photosService == null) {
+            photosService = new PhotosService(signer, context);
+        }
+        return photosService;
+    }
+
+    /**
+     * Get the photo set services
+     *
+     * @return The service
+     */
+    public synchronized PhotosetsService getPhotosetsService() {
+        if (photosetsService == null) {
+            photosetsService = new PhotosetsService(signer, context);
+        }
+        return photosetsService;
+    }
+
+    /**
+     * Get the stats service
+     *
+     * @return The service
+     */
+    public synchronized StatsService getStatsService() {
+        if (statsService == null) {
+            statsService = new StatsService(signer, context);
+        }
+        return statsService;
+    }
+
+    /**
+     * Get the groups service
+     *
+     * @return The service
+     */
+    public synchronized GroupsService getGroupsService() {
+        if (groupsService == null) {
+            groupsService = new GroupsService(signer, context);
+        }
+        return groupsService;
+    }
+
+    /**
+     * Get the favorites services
+     *
+     * @return The service
+     */
+    public synchronized FavoritesService getFavoritesService() {
+        if (favoritesService == null) {
+            favoritesService = new FavoritesService(signer, context);
+        }
+        return favoritesService;
+    }
+
+    /**
+     * Get the cameras service
+     *
+     * @return The camera service
+     */
+    public synchronized CameraService getCameraService() {
+        if (cameraService == null) {
+            cameraService = new CameraService(signer, context);
+        }
+        return cameraService;
+    }
+
+    /**
+     * Get the interestingness service
+     *
+     * @return The interestingness service
+     */
+    public synchronized InterestingnessService getInterestingnessService() {
+        if (interestingnessService == null) {
+            interestingnessService = new InterestingnessService(signer, context);
+        }
+        return interestingnessService;
+    }
+
+    /**
+     * Get the galleries service
+     *
+     * @return The galleries service
+     */
+    public synchronized GalleriesService getGalleriesService() {
+        if (galleriesService == null) {
+            galleriesService = new GalleriesService(signer, context);
+        }
+        return galleriesService;
+    }
+
+    /**
+     * Get the upload service
+     *
+     * @return The upload service
+     */
+    public synchronized UploadService getUploadService() {
+        if (uploadService == null) {
+            uploadService = new UploadService(signer, context);
+        }
+        return uploadService;
+    }
+
+}
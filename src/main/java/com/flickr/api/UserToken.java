@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import org.scribe.model.Token;
+
+/**
+ * The OAuth access token of a user, see {@link Flickr#forUser(UserToken)}.
+ *
+ * <p>
+ * A token is immutable and only kept in memory, the application stores it where it wants.</p>
+ */
+public final class UserToken {
+
+    private final Token token;
+
+    /**
+     * Create a token.
+     *
+     * @param token The OAuth access token
+     * @param secret The OAuth access token secret
+     */
+    public UserToken(String token, String secret) {
+        if (token == null || secret == null) {
+            throw new IllegalArgumentException("The token and its secret cannot be null");
+        }
+        this.token = new Token(token, secret);
+    }
+
+    public String getToken() {
+        return token.getToken();
+    }
+
+    public String getSecret() {
+        return token.getSecret();
+    }
+
+    Token getAccessToken() {
+        return token;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof UserToken && token.equals(((UserToken) obj).token);
+    }
+
+    @Override
+    public int hashCode() {
+        return token.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        // The secret is not printed
+        return "UserToken[" + token.getToken() + "]";
+    }
+
+}
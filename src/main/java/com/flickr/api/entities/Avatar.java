@@ -24,7 +24,6 @@ package com.flickr.api.entities;
 import com.flickr.api.utils.URLUtils;
 import java.io.Serializable;
 import java.net.URL;
-import org.json.JSONObject;
 
 /**
  *
@@ -54,9 +53,9 @@ public class Avatar implements Serializable {
     private final String iconFarm;
     private final String userId;
 
-    Avatar(JSONObject json, String userId) {
-        this.iconServer = json.optInt("iconserver", 0);
-        this.iconFarm = json.optString("iconfarm", null);
+    Avatar(int iconServer, String iconFarm, String userId) {
+        this.iconServer = iconServer;
+        this.iconFarm = iconFarm;
         this.userId = userId;
     }
 
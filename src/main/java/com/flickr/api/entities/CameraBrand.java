@@ -21,8 +21,9 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
+
 
 /**
  *
@@ -30,12 +31,22 @@ import org.json.JSONObject;
  */
 public class CameraBrand implements IdObject {
 
-    private final String name;
-    private final String id;
+    private String name;
+    private String id;
 
-    CameraBrand(JSONObject json) throws JSONException {
-        id = json.getString("id");
-        name = json.getString("name");
+    CameraBrand(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("name".equals(key)) {
+                name = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
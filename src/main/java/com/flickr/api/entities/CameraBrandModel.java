@@ -21,11 +21,12 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import com.flickr.api.json.JSONToken;
 import com.flickr.api.utils.JSONUtils;
 import com.flickr.api.utils.URLUtils;
+import java.io.IOException;
 import java.net.URL;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -33,33 +34,67 @@ import org.json.JSONObject;
  */
 public class CameraBrandModel implements IdObject {
 
-    private final String id;
-    private final String name;
+    private String id;
+    private String name;
     private URL smallImage;
     private URL largeImage;
     private String megapixels;
     private String lcdScreenSize;
     private String memoryType;
 
-    CameraBrandModel(JSONObject json) throws JSONException {
-        id = json.getString("id");
-        name = JSONUtils.getContent(json, "name");
+    CameraBrandModel(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("name".equals(key)) {
+                name = JSONUtils.readContent(reader);
+            } else if ("images".equals(key)) {
+                readImages(reader);
+            } else if ("details".equals(key)) {
+                if (reader.peek() == JSONToken.BEGIN_OBJECT) {
+                    readDetails(reader);
+                } else {
+                    reader.skipValue();
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
 
-        if (json.has("images")) {
-            JSONObject imageObj = json.getJSONObject("images");
-            smallImage = URLUtils.fromString(JSONUtils.getContent(imageObj, "small"));
-            largeImage = URLUtils.fromString(JSONUtils.getContent(imageObj, "large"));
+    private void readImages(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("small".equals(key)) {
+                smallImage = URLUtils.fromString(JSONUtils.readContent(reader));
+            } else if ("large".equals(key)) {
+                largeImage = URLUtils.fromString(JSONUtils.readContent(reader));
+            } else {
+                reader.skipValue();
+            }
         }
+        reader.endObject();
+    }
 
-        if (json.has("details")) {
-            Object details = json.get("details");
-            if (details instanceof JSONObject) {
-                JSONObject detailsObj = (JSONObject) details;
-                megapixels = detailsObj.optString("megapixels", null);
-                lcdScreenSize = detailsObj.optString("lcd_screen_size", null);
-                memoryType = detailsObj.optString("memory_type", null);
+    private void readDetails(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("megapixels".equals(key)) {
+                megapixels = reader.nextString();
+            } else if ("lcd_screen_size".equals(key)) {
+                lcdScreenSize = reader.nextString();
+            } else if ("memory_type".equals(key)) {
+                memoryType = reader.nextString();
+            } else {
+                reader.skipValue();
             }
         }
+        reader.endObject();
     }
 
     /**
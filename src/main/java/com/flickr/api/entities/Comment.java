@@ -21,10 +21,10 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.util.Date;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -32,16 +32,42 @@ import org.json.JSONObject;
  */
 public class Comment implements IdObject {
 
-    private final String id;
-    private final Date creationDate;
-    private final String value;
-    private final Commentator commentator;
+    private String id;
+    private Date creationDate;
+    private String value;
+    private Commentator commentator;
 
-    Comment(JSONObject json) throws JSONException {
-        id = json.getString("id");
-        creationDate = JSONUtils.dateFromString(json.getString("datecreate"));
-        commentator = new Commentator(json);
-        value = json.getString("_content");
+    Comment(JSONReader reader) throws IOException {
+        String author = null;
+        String authorName = null;
+        String realName = null;
+        int iconServer = 0;
+        String iconFarm = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("datecreate".equals(key)) {
+                creationDate = JSONUtils.dateFromString(reader.nextString());
+            } else if ("_content".equals(key)) {
+                value = reader.nextString();
+            } else if ("author".equals(key)) {
+                author = reader.nextString();
+            } else if ("authorname".equals(key)) {
+                authorName = reader.nextString();
+            } else if ("realname".equals(key)) {
+                realName = reader.nextString();
+            } else if ("iconserver".equals(key)) {
+                iconServer = reader.nextInt();
+            } else if ("iconfarm".equals(key)) {
+                iconFarm = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        commentator = new Commentator(author, authorName, realName, new Avatar(iconServer, iconFarm, author));
     }
 
     /**
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -33,8 +33,12 @@ public class CommentResponse extends JSONResponse {
     private Comment comment;
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        comment = new Comment(json);
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("comment".equals(name)) {
+            comment = new Comment(reader);
+        } else {
+            reader.skipValue();
+        }
     }
 
     public Comment getComment() {
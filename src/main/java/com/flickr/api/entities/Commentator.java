@@ -21,8 +21,6 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  * Represents a user who write a comment.
@@ -36,11 +34,11 @@ public class Commentator implements BaseUser {
     private final String realName;
     private final Avatar avatar;
 
-    Commentator(JSONObject json) throws JSONException {
-        id = json.getString("author");
-        name = json.getString("authorname");
-        realName = json.getString("realname");
-        avatar = new Avatar(json, id);
+    Commentator(String id, String name, String realName, Avatar avatar) {
+        this.id = id;
+        this.name = name;
+        this.realName = realName;
+        this.avatar = avatar;
     }
 
     /**
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -31,8 +31,8 @@ import org.json.JSONObject;
 public class CommentsResponse extends ListResponse<Comment> {
 
     @Override
-    protected Comment unmarshall(JSONObject json) throws JSONException {
-        return new Comment(json);
+    protected Comment unmarshall(JSONReader reader) throws IOException {
+        return new Comment(reader);
     }
 
 }
@@ -21,8 +21,9 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
+
 
 /**
  * Represents a user contact
@@ -31,24 +32,45 @@ import org.json.JSONObject;
  */
 public class Contact implements BaseUser {
 
-    private final String id;
-    private final String username;
-    private final String location;
-    private final int friend;
-    private final int family;
-    private final int ignored;
-    private final Avatar avatar;
-    private final String realname;
+    private String id;
+    private String username;
+    private String location;
+    private int friend;
+    private int family;
+    private int ignored;
+    private Avatar avatar;
+    private String realname;
 
-    Contact(JSONObject json) throws JSONException {
-        id = json.getString("nsid");
-        username = json.getString("username");
-        realname = json.optString("realname", null);
-        location = json.optString("location", null);
-        friend = json.optInt("friend", 0);
-        family = json.optInt("family", 0);
-        ignored = json.optInt("ignored", 0);
-        avatar = new Avatar(json, id);
+    Contact(JSONReader reader) throws IOException {
+        int iconServer = 0;
+        String iconFarm = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("nsid".equals(key)) {
+                id = reader.nextString();
+            } else if ("username".equals(key)) {
+                username = reader.nextString();
+            } else if ("realname".equals(key)) {
+                realname = reader.nextString();
+            } else if ("location".equals(key)) {
+                location = reader.nextString();
+            } else if ("friend".equals(key)) {
+                friend = reader.nextInt();
+            } else if ("family".equals(key)) {
+                family = reader.nextInt();
+            } else if ("ignored".equals(key)) {
+                ignored = reader.nextInt();
+            } else if ("iconserver".equals(key)) {
+                iconServer = reader.nextInt();
+            } else if ("iconfarm".equals(key)) {
+                iconFarm = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        avatar = new Avatar(iconServer, iconFarm, id);
     }
 
     /**
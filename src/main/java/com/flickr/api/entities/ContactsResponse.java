@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -31,8 +31,8 @@ import org.json.JSONObject;
 public class ContactsResponse extends PaginatedResponse<Contact> {
 
     @Override
-    protected Contact unmarshall(JSONObject json) throws JSONException {
-        return new Contact(json);
+    protected Contact unmarshall(JSONReader reader) throws IOException {
+        return new Contact(reader);
     }
 
 }
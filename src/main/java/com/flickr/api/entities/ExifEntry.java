@@ -21,10 +21,10 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.io.Serializable;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  * Represents an exif entry for a photo
@@ -118,20 +118,28 @@ public class ExifEntry implements Serializable {
     public static final String TAG_APP14_FLAGS1 = "APP14Flags1";
     public static final String TAG_COLOR_TRANSFORM = "ColorTransform";
     //
-    private final String label;
-    private final String raw;
-    private final String tag;
-    private final String clean;
+    private String label;
+    private String raw;
+    private String tag;
+    private String clean;
 
-    ExifEntry(JSONObject json) throws JSONException {
-        label = json.getString("label");
-        raw = JSONUtils.getContent(json, "raw");
-        tag = json.getString("tag");
-        if (json.has("clean")) {
-            clean = JSONUtils.getContent(json, "clean");
-        } else {
-            clean = null;
+    ExifEntry(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("label".equals(key)) {
+                label = reader.nextString();
+            } else if ("raw".equals(key)) {
+                raw = JSONUtils.readContent(reader);
+            } else if ("tag".equals(key)) {
+                tag = reader.nextString();
+            } else if ("clean".equals(key)) {
+                clean = JSONUtils.readContent(reader);
+            } else {
+                reader.skipValue();
+            }
         }
+        reader.endObject();
     }
 
     /**
@@ -21,12 +21,11 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  * Represents the exif informations of a photo
@@ -35,16 +34,26 @@ import org.json.JSONObject;
  */
 public class ExifInfos implements Serializable {
 
-    private final String camera;
+    private String camera;
     private final List<ExifEntry> entries = new ArrayList<ExifEntry>();
 
-    ExifInfos(JSONObject json) throws JSONException {
-        camera = json.getString("camera");
-
-        JSONArray array = json.getJSONArray("exif");
-        for (int i = 0; i < array.length(); i++) {
-            entries.add(new ExifEntry(array.getJSONObject(i)));
+    ExifInfos(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("camera".equals(key)) {
+                camera = reader.nextString();
+            } else if ("exif".equals(key)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    entries.add(new ExifEntry(reader));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
         }
+        reader.endObject();
     }
 
     /**
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -33,8 +33,12 @@ public class ExifInfosResponse extends JSONResponse {
     private ExifInfos infos;
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        infos = new ExifInfos(json.getJSONObject("photo"));
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("photo".equals(name)) {
+            infos = new ExifInfos(reader);
+        } else {
+            reader.skipValue();
+        }
     }
 
     /**
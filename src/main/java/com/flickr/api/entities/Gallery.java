@@ -21,10 +21,10 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.util.Date;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -32,32 +32,54 @@ import org.json.JSONObject;
  */
 public class Gallery implements IdObject {
 
-    private final String id;
-    private final String url;
-    private final Date creationDate;
-    private final Date updateDate;
-    private final Image primaryImage;
-    private final int photos;
-    private final int videos;
-    private final String title;
+    private String id;
+    private String url;
+    private Date creationDate;
+    private Date updateDate;
+    private Image primaryImage;
+    private int photos;
+    private int videos;
+    private String title;
     private String description;
 
-    Gallery(JSONObject json) throws JSONException {
-        id = json.getString("id");
-        url = json.getString("url");
-        creationDate = JSONUtils.dateFromString(json.getString("date_create"));
-        updateDate = JSONUtils.dateFromString(json.getString("date_update"));
-        photos = json.getInt("count_photos");
-        videos = json.getInt("count_videos");
-        title = JSONUtils.getContent(json, "title");
-        if (json.has("description")) {
-            description = JSONUtils.getContent(json, "description");
+    Gallery(JSONReader reader) throws IOException {
+        String primaryFarm = null;
+        String primaryServer = null;
+        String primaryId = null;
+        String primarySecret = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("url".equals(key)) {
+                url = reader.nextString();
+            } else if ("date_create".equals(key)) {
+                creationDate = JSONUtils.dateFromString(reader.nextString());
+            } else if ("date_update".equals(key)) {
+                updateDate = JSONUtils.dateFromString(reader.nextString());
+            } else if ("count_photos".equals(key)) {
+                photos = reader.nextInt();
+            } else if ("count_videos".equals(key)) {
+                videos = reader.nextInt();
+            } else if ("title".equals(key)) {
+                title = JSONUtils.readContent(reader);
+            } else if ("description".equals(key)) {
+                description = JSONUtils.readContent(reader);
+            } else if ("primary_photo_farm".equals(key)) {
+                primaryFarm = reader.nextString();
+            } else if ("primary_photo_server".equals(key)) {
+                primaryServer = reader.nextString();
+            } else if ("primary_photo_id".equals(key)) {
+                primaryId = reader.nextString();
+            } else if ("primary_photo_secret".equals(key)) {
+                primarySecret = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
         }
-        primaryImage = new Image(
-                json.getString("primary_photo_farm"),
-                json.getString("primary_photo_server"),
-                json.getString("primary_photo_id"),
-                json.getString("primary_photo_secret"));
+        reader.endObject();
+        primaryImage = new Image(primaryFarm, primaryServer, primaryId, primarySecret);
     }
 
     /**
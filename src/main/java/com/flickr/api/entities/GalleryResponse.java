@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -33,8 +33,12 @@ public class GalleryResponse extends JSONResponse {
     private Gallery gallery;
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        gallery = new Gallery(json);
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("gallery".equals(name)) {
+            gallery = new Gallery(reader);
+        } else {
+            reader.skipValue();
+        }
     }
 
     public Gallery getGallery() {
@@ -21,11 +21,11 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.URLUtils;
+import java.io.IOException;
 import java.net.URL;
 import java.text.MessageFormat;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -33,18 +33,35 @@ import org.json.JSONObject;
  */
 public class Group implements IdObject {
 
-    private final String id;
-    private final String name;
-    private final int photos;
-    private final URL cover;
-
-    Group(JSONObject json) throws JSONException {
-        id = json.getString("nsid");
-        name = json.getString("name");
-        photos = json.optInt("photos", -1);
+    private String id;
+    private String name;
+    private int photos;
+    private URL cover;
 
+    Group(JSONReader reader) throws IOException {
+        String iconFarm = null;
+        String iconServer = null;
+        photos = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("nsid".equals(key)) {
+                id = reader.nextString();
+            } else if ("name".equals(key)) {
+                name = reader.nextString();
+            } else if ("photos".equals(key)) {
+                photos = reader.nextInt();
+            } else if ("iconfarm".equals(key)) {
+                iconFarm = reader.nextString();
+            } else if ("iconserver".equals(key)) {
+                iconServer = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
         cover = URLUtils.fromString(MessageFormat.format("http://farm{0}.staticflickr.com/{1}/coverphoto/{2}_s.jpg",
-                json.getString("iconfarm"), json.getString("iconserver"), id));
+                iconFarm, iconServer, id));
     }
 
     /**
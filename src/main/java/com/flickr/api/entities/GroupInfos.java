@@ -21,9 +21,9 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.io.IOException;
 
 /**
  *
@@ -31,20 +31,34 @@ import org.json.JSONObject;
  */
 public class GroupInfos implements IdObject {
 
-    private final String name;
-    private final String description;
-    private final String rules;
-    private final int members;
-    private final String blast;
-    private final String id;
+    private String name;
+    private String description;
+    private String rules;
+    private int members;
+    private String blast;
+    private String id;
 
-    GroupInfos(JSONObject json) throws JSONException {
-        id = json.getString("id");
-        name = JSONUtils.getContent(json, "name");
-        description = JSONUtils.getContent(json, "description");
-        rules = JSONUtils.getContent(json, "rules");
-        members = JSONUtils.getIntegerContent(json, "members");
-        blast = JSONUtils.getContent(json, "blast");
+    GroupInfos(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("name".equals(key)) {
+                name = JSONUtils.readContent(reader);
+            } else if ("description".equals(key)) {
+                description = JSONUtils.readContent(reader);
+            } else if ("rules".equals(key)) {
+                rules = JSONUtils.readContent(reader);
+            } else if ("members".equals(key)) {
+                members = JSONUtils.readIntegerContent(reader);
+            } else if ("blast".equals(key)) {
+                blast = JSONUtils.readContent(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
         // FIXME: add throttle
     }
 
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -33,8 +33,12 @@ public class GroupInfosResponse extends JSONResponse {
     private GroupInfos infos;
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        infos = new GroupInfos(json.getJSONObject("group"));
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("group".equals(name)) {
+            infos = new GroupInfos(reader);
+        } else {
+            reader.skipValue();
+        }
     }
 
     public GroupInfos getInfos() {
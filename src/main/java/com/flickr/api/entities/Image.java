@@ -23,9 +23,6 @@ package com.flickr.api.entities;
 
 import java.io.Serializable;
 import java.net.URL;
-import java.text.MessageFormat;
-import org.json.JSONException;
-import org.json.JSONObject;
 import com.flickr.api.utils.URLUtils;
 
 /**
@@ -78,21 +75,14 @@ public class Image implements Serializable {
     }
 
     Image(String farm, String server, String primary, String secret) {
-        prefix = MessageFormat.format("http://farm{0}.staticflickr.com/{1}/{2}_{3}_", farm, server, primary, secret);
+        prefix = "http://farm" + farm + ".staticflickr.com/" + server + "/" + primary + "_" + secret + "_";
     }
 
-    Image(JSONObject json) throws JSONException {
-        String id;
-        if (json.has("id")) {
-            id = json.getString("id");
-        } else {
-            id = json.getString("primary");
-        }
-
-        prefix = MessageFormat.format("http://farm{0}.static.flickr.com/{1}/{2}_{3}_",
-                json.getString("farm"), json.getString("server"),
-                id,
-                json.getString("secret"));
+    /**
+     * Create the image of a photo, as returned in the photos lists.
+     */
+    static Image fromPhoto(String farm, String server, String id, String secret) {
+        return new Image("http://farm" + farm + ".static.flickr.com/" + server + "/" + id + "_" + secret + "_");
     }
 
     /**
@@ -24,8 +24,14 @@ package com.flickr.api.entities;
 import com.flickr.api.FlickrErrorCode;
 import com.flickr.api.FlickrException;
 import com.flickr.api.ServerResponse;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONParser;
+import com.flickr.api.json.JSONReader;
+import com.flickr.api.utils.IOUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 
 /**
  *
@@ -35,24 +41,58 @@ public abstract class JSONResponse implements ServerResponse {
 
     @Override
     public final void read(String data, String method) throws FlickrException {
+        read(new StringReader(data), method);
+    }
+
+    @Override
+    public final void read(InputStream data, String method) throws FlickrException {
+        read(new InputStreamReader(data, IOUtils.UTF8), method);
+    }
+
+    private void read(Reader data, String method) throws FlickrException {
+        ResponseStatus status = null;
+        int code = 0;
+        String message = null;
         try {
-            JSONObject json = new JSONObject(data);
-            
-            ResponseStatus status = ResponseStatus.valueOf(json.getString("stat"));
-            
-            if(status == ResponseStatus.fail) {
-                FlickrErrorCode code = FlickrErrorCode.fromCode(json.optInt("code"));
-                String message = json.optString("message");
-                throw new FlickrException("Error calling method '" + method + "' (" + message + ")", code);
+            JSONReader reader = JSONParser.getDefault().newReader(data);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("stat".equals(name)) {
+                    status = ResponseStatus.valueOf(reader.nextString());
+                } else if ("code".equals(name)) {
+                    code = reader.nextInt();
+                } else if ("message".equals(name)) {
+                    message = reader.nextString();
+                } else {
+                    readMember(name, reader);
+                }
             }
+            reader.endObject();
             
-            readObject(json);
-            
-        } catch (JSONException ex) {
+        } catch (IOException ex) {
+            throw new FlickrException("Error parsing JSON response", ex);
+        } catch (IllegalArgumentException ex) {
             throw new FlickrException("Error parsing JSON response", ex);
         }
+        
+        if (status == null) {
+            throw new FlickrException("Error parsing JSON response (no status)");
+        }
+        if (status == ResponseStatus.fail) {
+            throw new FlickrException("Error calling method '" + method + "' (" + message + ")", 
+                    FlickrErrorCode.fromCode(code));
+        }
     }
 
-    protected abstract void readObject(JSONObject json) throws JSONException;
+    /**
+     * Read a member of the response object, other than the status members ("stat", "code" and "message"). The
+     * members are given while they are received, the value must be consumed (or skipped) by this method.
+     *
+     * @param name The name of the member
+     * @param reader The reader, positioned on the value of the member
+     * @throws IOException Parsing error
+     */
+    protected abstract void readMember(String name, JSONReader reader) throws IOException;
 
 }
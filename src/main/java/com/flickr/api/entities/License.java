@@ -21,8 +21,9 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
+
 
 /**
  *
@@ -30,14 +31,25 @@ import org.json.JSONObject;
  */
 public class License implements IdObject {
 
-    private final String id;
-    private final String name;
-    private final String url;
+    private String id;
+    private String name;
+    private String url;
 
-    License(JSONObject json) throws JSONException {
-        id = json.getString("id");
-        name = json.getString("name");
-        url = json.getString("url");
+    License(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("name".equals(key)) {
+                name = reader.nextString();
+            } else if ("url".equals(key)) {
+                url = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
@@ -21,12 +21,11 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import com.flickr.api.json.JSONToken;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -34,33 +33,50 @@ import org.json.JSONObject;
  */
 public abstract class ListResponse<T> extends JSONResponse {
 
-    private List<T> values;
+    private final List<T> values = new ArrayList<T>();
+    private boolean found;
 
+    /**
+     * Read the first object of the response, and unmarshall the elements of its first array one by one while they
+     * are received.
+     */
     @Override
-    protected final void readObject(JSONObject json) throws JSONException {
-        values = new ArrayList<T>();
-
-        JSONObject parent = find(json, JSONObject.class);
-        JSONArray array = find(parent, JSONArray.class);
-        if (array != null) {
-            for (int i = 0; i < array.length(); i++) {
-                values.add(unmarshall(array.getJSONObject(i)));
-            }
+    protected final void readMember(String name, JSONReader reader) throws IOException {
+        if (!found && reader.peek() == JSONToken.BEGIN_OBJECT) {
+            found = true;
+            readParent(reader);
+        } else {
+            reader.skipValue();
         }
     }
 
-    private <T> T find(JSONObject json, Class<T> clazz) throws JSONException {
-        Iterator<String> it = json.keys();
-        while (it.hasNext()) {
-            Object obj = json.get(it.next());
-            if (clazz.isInstance(obj)) {
-                return (T) obj;
+    private void readParent(JSONReader reader) throws IOException {
+        boolean arrayFound = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (!arrayFound && reader.peek() == JSONToken.BEGIN_ARRAY) {
+                arrayFound = true;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    values.add(unmarshall(reader));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
             }
         }
-        return null;
+        reader.endObject();
     }
 
-    protected abstract T unmarshall(JSONObject json) throws JSONException;
+    /**
+     * Read an element of the list.
+     *
+     * @param reader The reader, positioned on the element
+     * @return The element
+     * @throws IOException Parsing error
+     */
+    protected abstract T unmarshall(JSONReader reader) throws IOException;
 
     public List<T> getList() {
         return values;
@@ -21,9 +21,9 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 
 
 public class LoginResponse extends JSONResponse
@@ -32,9 +32,13 @@ public class LoginResponse extends JSONResponse
     private BaseUser identifier;
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException
+    protected void readMember(String name, JSONReader reader) throws IOException
     {
-        identifier = new LoginUser(json.getJSONObject("user"));
+        if ("user".equals(name)) {
+            identifier = new LoginUser(reader);
+        } else {
+            reader.skipValue();
+        }
     }
 
     public BaseUser getIdentifier()
@@ -44,12 +48,22 @@ public class LoginResponse extends JSONResponse
     
     private static class LoginUser implements BaseUser {
 
-        private final String username;
-        private final String id;
+        private String username;
+        private String id;
         
-        public LoginUser(JSONObject json) throws JSONException {
-            id = json.getString("id");
-            username = JSONUtils.getContent(json, "username");
+        public LoginUser(JSONReader reader) throws IOException {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("id".equals(name)) {
+                    id = reader.nextString();
+                } else if ("username".equals(name)) {
+                    username = JSONUtils.readContent(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
         }
         
         @Override
@@ -21,8 +21,9 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
+
 
 /**
  *
@@ -30,18 +31,36 @@ import org.json.JSONObject;
  */
 public class Member implements BaseUser {
 
-    private final String id;
-    private final String username;
-    private final String realname;
-    private final Avatar avatar;
-    private final Type type;
+    private String id;
+    private String username;
+    private String realname;
+    private Avatar avatar;
+    private Type type;
 
-    Member(JSONObject json) throws JSONException {
-        id = json.getString("nsid");
-        username = json.getString("username");
-        realname = json.getString("realname");
-        avatar = new Avatar(json, id);
-        type = Type.fromValue(json.getInt("membertype"));
+    Member(JSONReader reader) throws IOException {
+        int iconServer = 0;
+        String iconFarm = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("nsid".equals(key)) {
+                id = reader.nextString();
+            } else if ("username".equals(key)) {
+                username = reader.nextString();
+            } else if ("realname".equals(key)) {
+                realname = reader.nextString();
+            } else if ("membertype".equals(key)) {
+                type = Type.fromValue(reader.nextInt());
+            } else if ("iconserver".equals(key)) {
+                iconServer = reader.nextInt();
+            } else if ("iconfarm".equals(key)) {
+                iconFarm = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        avatar = new Avatar(iconServer, iconFarm, id);
     }
 
     /**
@@ -21,8 +21,9 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
+
 
 /**
  *
@@ -30,18 +31,36 @@ import org.json.JSONObject;
  */
 public class Owner implements BaseUser {
 
-    private final String id;
-    private final String username;
-    private final String realname;
-    private final String location;
-    private final Avatar avatar;
+    private String id;
+    private String username;
+    private String realname;
+    private String location;
+    private Avatar avatar;
 
-    Owner(JSONObject json) throws JSONException {
-        id = json.getString("nsid");
-        username = json.getString("username");
-        realname = json.getString("realname");
-        location = json.getString("location");
-        avatar = new Avatar(json, id);
+    Owner(JSONReader reader) throws IOException {
+        int iconServer = 0;
+        String iconFarm = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("nsid".equals(key)) {
+                id = reader.nextString();
+            } else if ("username".equals(key)) {
+                username = reader.nextString();
+            } else if ("realname".equals(key)) {
+                realname = reader.nextString();
+            } else if ("location".equals(key)) {
+                location = reader.nextString();
+            } else if ("iconserver".equals(key)) {
+                iconServer = reader.nextInt();
+            } else if ("iconfarm".equals(key)) {
+                iconFarm = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        avatar = new Avatar(iconServer, iconFarm, id);
     }
 
     /**
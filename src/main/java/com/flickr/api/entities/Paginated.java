@@ -23,8 +23,6 @@ package com.flickr.api.entities;
 
 import java.util.Iterator;
 import java.util.List;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -38,15 +36,11 @@ public final class Paginated<T> implements Iterable<T> {
     private final int total;
     private final List<T> content;
 
-    protected Paginated(JSONObject json, List<T> content) throws JSONException {
-        page = json.getInt("page");
-        pages = json.getInt("pages");
-        if (json.has("per_page")) {
-            perpage = json.getInt("per_page");
-        } else {
-            perpage = json.getInt("perpage");
-        }
-        total = json.getInt("total");
+    protected Paginated(int page, int pages, int perpage, int total, List<T> content) {
+        this.page = page;
+        this.pages = pages;
+        this.perpage = perpage;
+        this.total = total;
         this.content = content;
     }
 
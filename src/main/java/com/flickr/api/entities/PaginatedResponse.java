@@ -21,12 +21,11 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import com.flickr.api.json.JSONToken;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -36,33 +35,62 @@ public abstract class PaginatedResponse<T> extends JSONResponse {
 
     private Paginated<T> value;
 
+    /**
+     * Read the first object of the response, and unmarshall the elements of its first array one by one while they
+     * are received. The other members of this object are the pagination informations.
+     */
     @Override
-    protected final void readObject(JSONObject json) throws JSONException {
-        List<T> values = new ArrayList<T>();
-
-        JSONObject parent = find(json, JSONObject.class);
-        JSONArray array = find(parent, JSONArray.class);
-        if (array != null) {
-            for (int i = 0; i < array.length(); i++) {
-                values.add(unmarshall(array.getJSONObject(i)));
-            }
+    protected final void readMember(String name, JSONReader reader) throws IOException {
+        if (value == null && reader.peek() == JSONToken.BEGIN_OBJECT) {
+            readParent(reader);
+        } else {
+            reader.skipValue();
         }
-
-        value = new Paginated<T>(parent, values);
     }
 
-    private <T> T find(JSONObject json, Class<T> clazz) throws JSONException {
-        Iterator<String> it = json.keys();
-        while (it.hasNext()) {
-            Object obj = json.get(it.next());
-            if (clazz.isInstance(obj)) {
-                return (T) obj;
+    private void readParent(JSONReader reader) throws IOException {
+        List<T> values = new ArrayList<T>();
+        int page = 0;
+        int pages = 0;
+        int perpage = 0;
+        int total = 0;
+
+        boolean found = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!found && reader.peek() == JSONToken.BEGIN_ARRAY) {
+                found = true;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    values.add(unmarshall(reader));
+                }
+                reader.endArray();
+            } else if ("page".equals(name)) {
+                page = reader.nextInt();
+            } else if ("pages".equals(name)) {
+                pages = reader.nextInt();
+            } else if ("perpage".equals(name) || "per_page".equals(name)) {
+                perpage = reader.nextInt();
+            } else if ("total".equals(name)) {
+                total = reader.nextInt();
+            } else {
+                reader.skipValue();
             }
         }
-        return null;
+        reader.endObject();
+
+        value = new Paginated<T>(page, pages, perpage, total, values);
     }
 
-    protected abstract T unmarshall(JSONObject json) throws JSONException;
+    /**
+     * Read an element of the list.
+     *
+     * @param reader The reader, positioned on the element
+     * @return The element
+     * @throws IOException Parsing error
+     */
+    protected abstract T unmarshall(JSONReader reader) throws IOException;
 
     public final Paginated<T> getPaginated() {
         return value;
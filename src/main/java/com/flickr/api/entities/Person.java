@@ -21,10 +21,10 @@
  */
 package com.flickr.api.entities;
 
-import java.util.Date;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
+import java.util.Date;
 
 /**
  *
@@ -32,14 +32,25 @@ import com.flickr.api.utils.JSONUtils;
  */
 public class Person implements BaseUser {
 
-    private final String id;
-    private final String username;
-    private final Date favedate;
+    private String id;
+    private String username;
+    private Date favedate;
 
-    Person(JSONObject json) throws JSONException {
-        id = json.getString("nsid");
-        username = json.getString("username");
-        favedate = JSONUtils.dateFromString(json.getString("favedate"));
+    Person(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("nsid".equals(key)) {
+                id = reader.nextString();
+            } else if ("username".equals(key)) {
+                username = reader.nextString();
+            } else if ("favedate".equals(key)) {
+                favedate = JSONUtils.dateFromString(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
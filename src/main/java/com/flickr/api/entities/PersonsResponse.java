@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -31,8 +31,8 @@ import org.json.JSONObject;
 public class PersonsResponse extends ListResponse<Person> {
 
     @Override
-    protected Person unmarshall(JSONObject json) throws JSONException {
-        return new Person(json);
+    protected Person unmarshall(JSONReader reader) throws IOException {
+        return new Person(reader);
     }
     
 }
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -32,24 +32,83 @@ public class Photo implements IdObject {
 
     private static final long serialVersionUID = 5438438431425L;
     //
-    private final String id;
-    private final String title;
-    private final Image url;
-    private final boolean isFamily;
-    private final boolean isFriend;
-    private final boolean isPublic;
-    private final boolean isPrimary;
-    private final String owner;
-
-    public Photo(JSONObject json) throws JSONException {
-        id = json.getString("id");
-        title = json.getString("title");
-        url = new Image(json);
-        isFamily = json.optInt("isfamily", 0) == 1;
-        isFriend = json.optInt("isfriend", 0) == 1;
-        isPublic = json.optInt("ispublic", 0) == 1;
-        isPrimary = json.optInt("isprimary", 0) == 1;
-        owner = json.optString("owner");
+    private String id;
+    private String title;
+    private Image url;
+    private boolean isFamily;
+    private boolean isFriend;
+    private boolean isPublic;
+    private boolean isPrimary;
+    private String owner = "";
+    // Only used while reading the photo
+    private transient String farm;
+    private transient String server;
+    private transient String secret;
+    private transient String primary;
+
+    public Photo(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (!readMember(key, reader)) {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        endRead();
+    }
+
+    /**
+     * Create an empty photo, the members are then given to {@link #readMember(String, JSONReader)} by an
+     * object containing the photo fields.
+     */
+    Photo() {
+    }
+
+    /**
+     * Read a member of the photo object.
+     *
+     * @param key The name of the member
+     * @param reader The reader, positioned on the value of the member
+     * @return true if the member has been read, false if it is not a member of a photo (the value is then not
+     * consumed)
+     * @throws IOException Parsing error
+     */
+    boolean readMember(String key, JSONReader reader) throws IOException {
+        if ("id".equals(key)) {
+            id = reader.nextString();
+        } else if ("title".equals(key)) {
+            title = reader.nextString();
+        } else if ("primary".equals(key)) {
+            primary = reader.nextString();
+        } else if ("farm".equals(key)) {
+            farm = reader.nextString();
+        } else if ("server".equals(key)) {
+            server = reader.nextString();
+        } else if ("secret".equals(key)) {
+            secret = reader.nextString();
+        } else if ("isfamily".equals(key)) {
+            isFamily = reader.nextInt() == 1;
+        } else if ("isfriend".equals(key)) {
+            isFriend = reader.nextInt() == 1;
+        } else if ("ispublic".equals(key)) {
+            isPublic = reader.nextInt() == 1;
+        } else if ("isprimary".equals(key)) {
+            isPrimary = reader.nextInt() == 1;
+        } else if ("owner".equals(key)) {
+            owner = reader.nextString();
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    void endRead() {
+        url = Image.fromPhoto(farm, server, id != null ? id : primary, secret);
+        farm = null;
+        server = null;
+        secret = null;
+        primary = null;
     }
 
     /**
@@ -21,11 +21,11 @@
  */
 package com.flickr.api.entities;
 
-import java.util.Date;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.Date;
 
 /**
  * Represents the dates of the photo
@@ -34,16 +34,28 @@ import java.io.Serializable;
  */
 public class PhotoDates implements Serializable {
 
-    private final Date posted;
-    private final Date taken;
-    private final int takengranularity;
-    private final Date lastupdate;
+    private Date posted;
+    private Date taken;
+    private int takengranularity;
+    private Date lastupdate;
 
-    PhotoDates(JSONObject json) throws JSONException {
-        posted = JSONUtils.dateFromString(json.getString("posted"));
-        taken = JSONUtils.dateFromString(json.getString("taken"));
-        takengranularity = json.getInt("takengranularity");
-        lastupdate = JSONUtils.dateFromString(json.getString("lastupdate"));
+    PhotoDates(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("posted".equals(key)) {
+                posted = JSONUtils.dateFromString(reader.nextString());
+            } else if ("taken".equals(key)) {
+                taken = JSONUtils.dateFromString(reader.nextString());
+            } else if ("takengranularity".equals(key)) {
+                takengranularity = reader.nextInt();
+            } else if ("lastupdate".equals(key)) {
+                lastupdate = JSONUtils.dateFromString(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
@@ -21,9 +21,9 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 import java.io.Serializable;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -31,12 +31,22 @@ import org.json.JSONObject;
  */
 public class PhotoEditability implements Serializable {
 
-    private final boolean canAddMedata;
-    private final boolean canComment;
+    private boolean canAddMedata;
+    private boolean canComment;
 
-    PhotoEditability(JSONObject json) throws JSONException {
-        canAddMedata = json.getInt("canaddmeta") == 1;
-        canComment = json.getInt("cancomment") == 1;
+    PhotoEditability(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("canaddmeta".equals(key)) {
+                canAddMedata = reader.nextInt() == 1;
+            } else if ("cancomment".equals(key)) {
+                canComment = reader.nextInt() == 1;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
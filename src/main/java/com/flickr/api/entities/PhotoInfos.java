@@ -21,14 +21,13 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -36,47 +35,78 @@ import org.json.JSONObject;
  */
 public class PhotoInfos implements Serializable {
 
-    private final Owner owner;
-    private final String title;
-    private final String description;
-    private final PhotoVisibility visibility;
-    private final PhotoDates dates;
-    private final PhotoUsage usage;
-    private final Date uploadedDate;
-    private final int comments;
-    private final int views;
-    private final List<PhotoTag> tags;
-    private final PhotoEditability editability;
-    private final PhotoEditability publicEditability;
-    private final boolean isFavorite;
-    private final String license;
-    private final PhotoLocation location;
-
-    PhotoInfos(JSONObject json) throws JSONException {
-        owner = new Owner(json.getJSONObject("owner"));
-        title = JSONUtils.getContent(json, "title");
-        description = JSONUtils.getContent(json, "description");
-        visibility = new PhotoVisibility(json.getJSONObject("visibility"));
-        dates = new PhotoDates(json.getJSONObject("dates"));
-        usage = new PhotoUsage(json.getJSONObject("usage"));
-        comments = JSONUtils.getIntegerContent(json, "comments");
-        uploadedDate = JSONUtils.dateFromString(json.getString("dateuploaded"));
-        editability = new PhotoEditability(json.getJSONObject("editability"));
-        publicEditability = new PhotoEditability(json.getJSONObject("publiceditability"));
-        isFavorite = json.getInt("isfavorite") == 1;
-        license = json.getString("license");
-        if (json.has("location")) {
-            location = new PhotoLocation(json.getJSONObject("location"));
-        } else {
-            location = null;
+    private Owner owner;
+    private String title;
+    private String description;
+    private PhotoVisibility visibility;
+    private PhotoDates dates;
+    private PhotoUsage usage;
+    private Date uploadedDate;
+    private int comments;
+    private int views;
+    private final List<PhotoTag> tags = new ArrayList<PhotoTag>();
+    private PhotoEditability editability;
+    private PhotoEditability publicEditability;
+    private boolean isFavorite;
+    private String license;
+    private PhotoLocation location;
+
+    PhotoInfos(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("owner".equals(key)) {
+                owner = new Owner(reader);
+            } else if ("title".equals(key)) {
+                title = JSONUtils.readContent(reader);
+            } else if ("description".equals(key)) {
+                description = JSONUtils.readContent(reader);
+            } else if ("visibility".equals(key)) {
+                visibility = new PhotoVisibility(reader);
+            } else if ("dates".equals(key)) {
+                dates = new PhotoDates(reader);
+            } else if ("usage".equals(key)) {
+                usage = new PhotoUsage(reader);
+            } else if ("comments".equals(key)) {
+                comments = JSONUtils.readIntegerContent(reader);
+            } else if ("dateuploaded".equals(key)) {
+                uploadedDate = JSONUtils.dateFromString(reader.nextString());
+            } else if ("editability".equals(key)) {
+                editability = new PhotoEditability(reader);
+            } else if ("publiceditability".equals(key)) {
+                publicEditability = new PhotoEditability(reader);
+            } else if ("isfavorite".equals(key)) {
+                isFavorite = reader.nextInt() == 1;
+            } else if ("license".equals(key)) {
+                license = reader.nextString();
+            } else if ("location".equals(key)) {
+                location = new PhotoLocation(reader);
+            } else if ("views".equals(key)) {
+                views = reader.nextInt();
+            } else if ("tags".equals(key)) {
+                readTags(reader);
+            } else {
+                reader.skipValue();
+            }
         }
-        views = json.getInt("views");
-
-        tags = new ArrayList<PhotoTag>();
-        JSONArray array = json.getJSONObject("tags").getJSONArray("tag");
-        for (int i = 0; i < array.length(); i++) {
-            tags.add(new PhotoTag(array.getJSONObject(i)));
+        reader.endObject();
+    }
+
+    private void readTags(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("tag".equals(key)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    tags.add(new PhotoTag(reader));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
         }
+        reader.endObject();
     }
 
     /**
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -37,8 +37,12 @@ public class PhotoInfosResponse extends JSONResponse {
     }
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        infos = new PhotoInfos(json.getJSONObject("photo"));
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("photo".equals(name)) {
+            infos = new PhotoInfos(reader);
+        } else {
+            reader.skipValue();
+        }
     }
     
 }
@@ -21,10 +21,10 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.io.Serializable;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  * Contains the location informations of a photo
@@ -38,31 +38,38 @@ public class PhotoLocation implements Serializable {
     private String neighbourhood;
     private String region;
     private String country;
-    private final double latitude;
-    private final double longitude;
-    private final int accuracy;
-    private final int context;
+    private double latitude;
+    private double longitude;
+    private int accuracy;
+    private int context;
 
-    PhotoLocation(JSONObject json) throws JSONException {
-        if (json.has("locality")) {
-            locality = JSONUtils.getContent(json, "locality");
+    PhotoLocation(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("locality".equals(key)) {
+                locality = JSONUtils.readContent(reader);
+            } else if ("county".equals(key)) {
+                county = JSONUtils.readContent(reader);
+            } else if ("region".equals(key)) {
+                region = JSONUtils.readContent(reader);
+            } else if ("country".equals(key)) {
+                country = JSONUtils.readContent(reader);
+            } else if ("neighbourhood".equals(key)) {
+                neighbourhood = JSONUtils.readContent(reader);
+            } else if ("latitude".equals(key)) {
+                latitude = reader.nextDouble();
+            } else if ("longitude".equals(key)) {
+                longitude = reader.nextDouble();
+            } else if ("accuracy".equals(key)) {
+                accuracy = reader.nextInt();
+            } else if ("context".equals(key)) {
+                context = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
         }
-        if (json.has("county")) {
-            county = JSONUtils.getContent(json, "county");
-        }
-        if (json.has("region")) {
-            region = JSONUtils.getContent(json, "region");
-        }
-        if (json.has("country")) {
-            country = JSONUtils.getContent(json, "country");
-        }
-        if (json.has("neighbourhood")) {
-            neighbourhood = JSONUtils.getContent(json, "neighbourhood");
-        }
-        latitude = json.getDouble("latitude");
-        longitude = json.getDouble("longitude");
-        accuracy = json.getInt("accuracy");
-        context = json.getInt("context");
+        reader.endObject();
     }
 
     /**
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -35,11 +35,25 @@ public class PhotoPermissions extends JSONResponse {
     private int isfamily;
     
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        JSONObject permObj = json.getJSONObject("perms");
-        ispublic = permObj.getInt("ispublic");
-        isfriend = permObj.getInt("isfriend");
-        isfamily = permObj.getInt("isfamily");
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if (!"perms".equals(name)) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String member = reader.nextName();
+            if ("ispublic".equals(member)) {
+                ispublic = reader.nextInt();
+            } else if ("isfriend".equals(member)) {
+                isfriend = reader.nextInt();
+            } else if ("isfamily".equals(member)) {
+                isfamily = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
@@ -21,11 +21,11 @@
  */
 package com.flickr.api.entities;
 
-import java.net.URL;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.io.Serializable;
+import java.net.URL;
 
 /**
  *
@@ -33,16 +33,28 @@ import java.io.Serializable;
  */
 public class PhotoSize implements Serializable {
 
-    private final String label;
-    private final int width;
-    private final int height;
-    private final URL source;
+    private String label;
+    private int width;
+    private int height;
+    private URL source;
 
-    PhotoSize(JSONObject json) throws JSONException {
-        label = json.getString("label");
-        width = json.getInt("width");
-        height = json.getInt("height");
-        source = JSONUtils.urlFromString(json.getString("source"));
+    PhotoSize(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("label".equals(key)) {
+                label = reader.nextString();
+            } else if ("width".equals(key)) {
+                width = reader.nextInt();
+            } else if ("height".equals(key)) {
+                height = reader.nextInt();
+            } else if ("source".equals(key)) {
+                source = JSONUtils.urlFromString(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
@@ -21,9 +21,9 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 import java.io.Serializable;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -31,12 +31,22 @@ import org.json.JSONObject;
  */
 public class PhotoStats implements Serializable {
 
-    private final Stats stats;
+    private Stats stats;
     private final Photo photo;
 
-    public PhotoStats(JSONObject json) throws JSONException {
-        stats = new Stats(json.getJSONObject("stats"));
-        photo = new Photo(json);
+    public PhotoStats(JSONReader reader) throws IOException {
+        photo = new Photo();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("stats".equals(key)) {
+                stats = new Stats(reader);
+            } else if (!photo.readMember(key, reader)) {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        photo.endRead();
     }
 
     /**
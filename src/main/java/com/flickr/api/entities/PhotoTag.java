@@ -21,8 +21,9 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
+
 
 /**
  * Represents a tag on a photo
@@ -31,17 +32,29 @@ import org.json.JSONObject;
  */
 public class PhotoTag implements IdObject {
 
-    private final String id;
-    private final String author;
-    private final String raw;
+    private String id;
+    private String author;
+    private String raw;
     // FIXME
-    private final String tag;
+    private String tag;
 
-    PhotoTag(JSONObject json) throws JSONException {
-        id = json.getString("id");
-        author = json.getString("author");
-        raw = json.getString("raw");
-        tag = json.getString("_content");
+    PhotoTag(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("author".equals(key)) {
+                author = reader.nextString();
+            } else if ("raw".equals(key)) {
+                raw = reader.nextString();
+            } else if ("_content".equals(key)) {
+                tag = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
@@ -21,9 +21,9 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 import java.io.Serializable;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -31,16 +31,28 @@ import org.json.JSONObject;
  */
 public class PhotoUsage implements Serializable {
 
-    private final int canDownload;
-    private final int canBlog;
-    private final int canPrint;
-    private final int canShare;
+    private int canDownload;
+    private int canBlog;
+    private int canPrint;
+    private int canShare;
 
-    PhotoUsage(JSONObject json) throws JSONException {
-        canDownload = json.getInt("candownload");
-        canBlog = json.getInt("canblog");
-        canPrint = json.getInt("canprint");
-        canShare = json.getInt("canshare");
+    PhotoUsage(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("candownload".equals(key)) {
+                canDownload = reader.nextInt();
+            } else if ("canblog".equals(key)) {
+                canBlog = reader.nextInt();
+            } else if ("canprint".equals(key)) {
+                canPrint = reader.nextInt();
+            } else if ("canshare".equals(key)) {
+                canShare = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
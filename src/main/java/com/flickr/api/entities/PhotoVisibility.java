@@ -21,9 +21,9 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 import java.io.Serializable;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -31,14 +31,25 @@ import org.json.JSONObject;
  */
 public class PhotoVisibility implements Serializable {
 
-    private final int isPublic;
-    private final int isFriend;
-    private final int isFamily;
+    private int isPublic;
+    private int isFriend;
+    private int isFamily;
 
-    PhotoVisibility(JSONObject json) throws JSONException {
-        isPublic = json.getInt("ispublic");
-        isFriend = json.getInt("isfriend");
-        isFamily = json.getInt("isfamily");
+    PhotoVisibility(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("ispublic".equals(key)) {
+                isPublic = reader.nextInt();
+            } else if ("isfriend".equals(key)) {
+                isFriend = reader.nextInt();
+            } else if ("isfamily".equals(key)) {
+                isFamily = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
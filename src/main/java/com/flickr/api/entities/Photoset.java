@@ -17,9 +17,9 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.util.Date;
 
 /**
@@ -30,9 +30,10 @@ public class Photoset implements IdObject {
 
     private static final long serialVersionUID = 545748673399L;
 
-    private final String id;
+    private String id;
     
-    // see comment below.  there may be no values with which to initialize these fields so they cannot be final
+    // the flickr api response for successfully creating a photo set may include only "id" and "url", so the
+    // other fields may not be initialized
     private int photos;
     private String owner;
     private String title;
@@ -44,25 +45,49 @@ public class Photoset implements IdObject {
     private Date creationDate;
     private Date updateDate;
 
-    Photoset(JSONObject json)
-            throws JSONException {
-        id = json.getString("id");
-        
-        // the flickr api response for successfully creating a photo set may include only "id" and "url"
-        try {
-            photos = json.getInt("photos");
-            owner = json.optString("owner");
-            title = JSONUtils.getContent(json, "title");
-            description = JSONUtils.getContent(json, "description");
-            countViews = json.getInt("count_views");
-            primaryPhoto = new Image(json.getString("farm"), json.getString("server"), json.getString("primary"), json.getString("secret"));
-            canComment = json.getInt("can_comment") == 1;
-            commentCount = json.getInt("count_comments");
-            creationDate = JSONUtils.dateFromString(json.getString("date_create"));
-            updateDate = JSONUtils.dateFromString(json.getString("date_update"));
-        } catch (JSONException je) {
-            // this is not a critical error, catch it here instead of propagating it
-            System.out.println("(Photoset) unable to parse optional json field from response: " + je.getMessage());
+    Photoset(JSONReader reader) throws IOException {
+        String farm = null;
+        String server = null;
+        String primary = null;
+        String secret = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("photos".equals(key)) {
+                photos = reader.nextInt();
+            } else if ("owner".equals(key)) {
+                owner = reader.nextString();
+            } else if ("title".equals(key)) {
+                title = JSONUtils.readContent(reader);
+            } else if ("description".equals(key)) {
+                description = JSONUtils.readContent(reader);
+            } else if ("count_views".equals(key)) {
+                countViews = reader.nextInt();
+            } else if ("farm".equals(key)) {
+                farm = reader.nextString();
+            } else if ("server".equals(key)) {
+                server = reader.nextString();
+            } else if ("primary".equals(key)) {
+                primary = reader.nextString();
+            } else if ("secret".equals(key)) {
+                secret = reader.nextString();
+            } else if ("can_comment".equals(key)) {
+                canComment = reader.nextInt() == 1;
+            } else if ("count_comments".equals(key)) {
+                commentCount = reader.nextInt();
+            } else if ("date_create".equals(key)) {
+                creationDate = JSONUtils.dateFromString(reader.nextString());
+            } else if ("date_update".equals(key)) {
+                updateDate = JSONUtils.dateFromString(reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (primary != null) {
+            primaryPhoto = new Image(farm, server, primary, secret);
         }
     }
 
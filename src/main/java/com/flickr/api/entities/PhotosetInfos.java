@@ -21,10 +21,10 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.util.Date;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  * Represents the informations of a photoset
@@ -33,24 +33,40 @@ import org.json.JSONObject;
  */
 public class PhotosetInfos implements IdObject {
 
-    private final String id;
-    private final boolean canComment;
-    private final int commentsCount;
-    private final int viewsCount;
-    private final Date createDate;
-    private final Date updateDate;
-    private final String description;
-    private final String owner;
+    private String id;
+    private boolean canComment;
+    private int commentsCount;
+    private int viewsCount;
+    private Date createDate;
+    private Date updateDate;
+    private String description;
+    private String owner;
 
-    PhotosetInfos(JSONObject json) throws JSONException {
-        id = json.getString("id");
-        canComment = json.getInt("can_comment") == 1;
-        commentsCount = json.getInt("count_comments");
-        viewsCount = json.getInt("count_views");
-        createDate = JSONUtils.dateFromString(json.getString("date_create"));
-        updateDate = JSONUtils.dateFromString(json.getString("date_update"));
-        description = JSONUtils.getContent(json, "description");
-        owner = json.getString("owner");
+    PhotosetInfos(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("can_comment".equals(key)) {
+                canComment = reader.nextInt() == 1;
+            } else if ("count_comments".equals(key)) {
+                commentsCount = reader.nextInt();
+            } else if ("count_views".equals(key)) {
+                viewsCount = reader.nextInt();
+            } else if ("date_create".equals(key)) {
+                createDate = JSONUtils.dateFromString(reader.nextString());
+            } else if ("date_update".equals(key)) {
+                updateDate = JSONUtils.dateFromString(reader.nextString());
+            } else if ("description".equals(key)) {
+                description = JSONUtils.readContent(reader);
+            } else if ("owner".equals(key)) {
+                owner = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -33,8 +33,12 @@ public class PhotosetInfosResponse extends JSONResponse {
     private PhotosetInfos infos;
     
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        infos = new PhotosetInfos(json.getJSONObject("photoset"));
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("photoset".equals(name)) {
+            infos = new PhotosetInfos(reader);
+        } else {
+            reader.skipValue();
+        }
     }
 
     public PhotosetInfos getInfos() {
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -37,8 +37,12 @@ public class PhotosetResponse extends JSONResponse {
     }
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        photoset = new Photoset(json.getJSONObject("photoset"));
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("photoset".equals(name)) {
+            photoset = new Photoset(reader);
+        } else {
+            reader.skipValue();
+        }
     }
     
 }
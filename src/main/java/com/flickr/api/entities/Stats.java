@@ -21,9 +21,9 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 import java.io.Serializable;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -31,14 +31,25 @@ import org.json.JSONObject;
  */
 public class Stats implements Serializable {
 
-    private final int views;
-    private final int comments;
-    private final int favorites;
+    private int views;
+    private int comments;
+    private int favorites;
 
-    Stats(JSONObject json) throws JSONException {
-        views = json.getInt("views");
-        comments = json.getInt("comments");
-        favorites = json.getInt("favorites");
+    Stats(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("views".equals(key)) {
+                views = reader.nextInt();
+            } else if ("comments".equals(key)) {
+                comments = reader.nextInt();
+            } else if ("favorites".equals(key)) {
+                favorites = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
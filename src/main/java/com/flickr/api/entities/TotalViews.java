@@ -21,9 +21,9 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 import java.io.Serializable;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  *
@@ -31,20 +31,49 @@ import org.json.JSONObject;
  */
 public class TotalViews implements Serializable {
 
-    private final int total;
-    private final int photos;
-    private final int photosets;
-    private final int photoStream;
-    private final int collections;
-    private final int galleries;
+    private int total;
+    private int photos;
+    private int photosets;
+    private int photoStream;
+    private int collections;
+    private int galleries;
 
-    TotalViews(JSONObject json) throws JSONException {
-        total = json.getJSONObject("total").getInt("views");
-        photos = json.getJSONObject("photos").getInt("views");
-        photosets = json.getJSONObject("sets").getInt("views");
-        photoStream = json.getJSONObject("photostream").getInt("views");
-        collections = json.getJSONObject("collections").getInt("views");
-        galleries = json.getJSONObject("galleries").getInt("views");
+    TotalViews(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("total".equals(key)) {
+                total = readViews(reader);
+            } else if ("photos".equals(key)) {
+                photos = readViews(reader);
+            } else if ("sets".equals(key)) {
+                photosets = readViews(reader);
+            } else if ("photostream".equals(key)) {
+                photoStream = readViews(reader);
+            } else if ("collections".equals(key)) {
+                collections = readViews(reader);
+            } else if ("galleries".equals(key)) {
+                galleries = readViews(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static int readViews(JSONReader reader) throws IOException {
+        int views = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("views".equals(key)) {
+                views = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return views;
     }
 
     public int getCollectionsViews() {
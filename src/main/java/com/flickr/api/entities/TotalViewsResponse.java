@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -33,8 +33,12 @@ public class TotalViewsResponse extends JSONResponse {
     private TotalViews views;
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        views = new TotalViews(json.getJSONObject("stats"));
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("stats".equals(name)) {
+            views = new TotalViews(reader);
+        } else {
+            reader.skipValue();
+        }
     }
 
     public TotalViews getViews() {
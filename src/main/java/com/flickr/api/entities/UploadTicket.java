@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.entities;
+
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * The state of an asynchronous upload.
+ */
+public class UploadTicket implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String id;
+    private int complete;
+    private boolean invalid;
+    private String photoId;
+
+    UploadTicket(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("id".equals(key)) {
+                id = reader.nextString();
+            } else if ("complete".equals(key)) {
+                complete = reader.nextInt();
+            } else if ("invalid".equals(key)) {
+                invalid = reader.nextInt() != 0;
+            } else if ("photoid".equals(key)) {
+                photoId = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Get the ticket identifier.
+     *
+     * @return The identifier
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get if the photo is processed and available.
+     *
+     * @return true if the photo is available
+     */
+    public boolean isComplete() {
+        return !invalid && complete == 1;
+    }
+
+    /**
+     * Get if Flickr failed to process the photo.
+     *
+     * @return true if the upload failed
+     */
+    public boolean isFailed() {
+        return !invalid && complete == 2;
+    }
+
+    /**
+     * Get if the ticket is unknown to Flickr.
+     *
+     * @return true if the ticket is invalid
+     */
+    public boolean isInvalid() {
+        return invalid;
+    }
+
+    /**
+     * Get the identifier of the new photo.
+     *
+     * @return The photo identifier, or null if the photo is not processed
+     */
+    public String getPhotoId() {
+        return photoId;
+    }
+
+    @Override
+    public String toString() {
+        String state = invalid ? "invalid" : complete == 1 ? "complete" : complete == 2 ? "failed" : "pending";
+        return id + " (" + state + ")";
+    }
+}
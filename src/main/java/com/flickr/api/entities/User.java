@@ -21,8 +21,9 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
+
 
 /**
  *
@@ -32,12 +33,22 @@ public class User implements BaseUser {
 
     private static final long serialVersionUID = -1178719861430017441L;
     
-    private final String id;
-    private final String username;
+    private String id;
+    private String username;
 
-    User(JSONObject json) throws JSONException {
-        id = json.getString("nsid");
-        username = json.getString("username");
+    User(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("nsid".equals(key)) {
+                id = reader.nextString();
+            } else if ("username".equals(key)) {
+                username = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     @Override
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -37,8 +37,12 @@ public class UserInfoResponse extends JSONResponse {
     }
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        userinfo = new UserInfos(json.getJSONObject("person"));
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("person".equals(name)) {
+            userinfo = new UserInfos(reader);
+        } else {
+            reader.skipValue();
+        }
     }
     
 }
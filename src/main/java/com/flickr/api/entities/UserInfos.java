@@ -21,10 +21,10 @@
  */
 package com.flickr.api.entities;
 
-import java.net.URL;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
 import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
+import java.net.URL;
 
 /**
  *
@@ -34,32 +34,51 @@ public class UserInfos implements BaseUser {
 
     private static final long serialVersionUID = -5126309551528400272L;
     //
-    private final String id;
-    private final int isPro;
-    private final String description;
-    private final String userName;
+    private String id;
+    private int isPro;
+    private String description;
+    private String userName;
     private String location;
     private String realName;
-    private final URL photosUrl;
-    private final URL profileUrl;
-    private final UserPhotosInfo photosInfo;
-    private final Avatar avatar;
+    private URL photosUrl;
+    private URL profileUrl;
+    private UserPhotosInfo photosInfo;
+    private Avatar avatar;
 
-    UserInfos(JSONObject json) throws JSONException {
-        id = json.getString("nsid");
-        isPro = json.getInt("ispro");
-        description = JSONUtils.getContent(json, "description");
-        userName = JSONUtils.getContent(json, "username");
-        if (json.has("realname")) {
-            realName = JSONUtils.getContent(json, "realname");
-        }
-        if (json.has("location")) {
-            location = JSONUtils.getContent(json, "location");
+    UserInfos(JSONReader reader) throws IOException {
+        int iconServer = 0;
+        String iconFarm = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("nsid".equals(key)) {
+                id = reader.nextString();
+            } else if ("ispro".equals(key)) {
+                isPro = reader.nextInt();
+            } else if ("description".equals(key)) {
+                description = JSONUtils.readContent(reader);
+            } else if ("username".equals(key)) {
+                userName = JSONUtils.readContent(reader);
+            } else if ("realname".equals(key)) {
+                realName = JSONUtils.readContent(reader);
+            } else if ("location".equals(key)) {
+                location = JSONUtils.readContent(reader);
+            } else if ("photosurl".equals(key)) {
+                photosUrl = JSONUtils.urlFromString(JSONUtils.readContent(reader));
+            } else if ("profileurl".equals(key)) {
+                profileUrl = JSONUtils.urlFromString(JSONUtils.readContent(reader));
+            } else if ("photos".equals(key)) {
+                photosInfo = new UserPhotosInfo(reader);
+            } else if ("iconserver".equals(key)) {
+                iconServer = reader.nextInt();
+            } else if ("iconfarm".equals(key)) {
+                iconFarm = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
         }
-        photosUrl = JSONUtils.urlFromString(JSONUtils.getContent(json, "photosurl"));
-        profileUrl = JSONUtils.urlFromString(JSONUtils.getContent(json, "profileurl"));
-        photosInfo = new UserPhotosInfo(json.getJSONObject("photos"));
-        avatar = new Avatar(json, id);
+        reader.endObject();
+        avatar = new Avatar(iconServer, iconFarm, id);
     }
 
     @Override
@@ -21,11 +21,11 @@
  */
 package com.flickr.api.entities;
 
+import com.flickr.api.json.JSONReader;
+import com.flickr.api.utils.JSONUtils;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Date;
-import org.json.JSONException;
-import org.json.JSONObject;
-import com.flickr.api.utils.JSONUtils;
 
 /**
  *
@@ -34,14 +34,25 @@ import com.flickr.api.utils.JSONUtils;
 public class UserPhotosInfo implements Serializable {
 
     private static final long serialVersionUID = 5602104420678151276L;
-    private final Date firstDate;
-    private final Date firstDateTaken;
-    private final int count;
+    private Date firstDate;
+    private Date firstDateTaken;
+    private int count;
 
-    UserPhotosInfo(JSONObject json) throws JSONException {
-        firstDate = JSONUtils.dateFromString(JSONUtils.getContent(json, "firstdate"));
-        firstDateTaken = JSONUtils.dateFromString(JSONUtils.getContent(json, "firstdatetaken"));
-        count = JSONUtils.getIntegerContent(json, "count");
+    UserPhotosInfo(JSONReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if ("firstdate".equals(key)) {
+                firstDate = JSONUtils.dateFromString(JSONUtils.readContent(reader));
+            } else if ("firstdatetaken".equals(key)) {
+                firstDateTaken = JSONUtils.dateFromString(JSONUtils.readContent(reader));
+            } else if ("count".equals(key)) {
+                count = JSONUtils.readIntegerContent(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
     }
 
     /**
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -37,8 +37,12 @@ public class UserResponse extends JSONResponse {
     }
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
-        user = new User(json.getJSONObject("user"));
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        if ("user".equals(name)) {
+            user = new User(reader);
+        } else {
+            reader.skipValue();
+        }
     }
     
 }
@@ -21,8 +21,8 @@
  */
 package com.flickr.api.entities;
 
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 
 /**
  *
@@ -31,6 +31,7 @@ import org.json.JSONObject;
 public class VoidResponse extends JSONResponse {
 
     @Override
-    protected void readObject(JSONObject json) throws JSONException {
+    protected void readMember(String name, JSONReader reader) throws IOException {
+        reader.skipValue();
     }
 }
@@ -26,6 +26,7 @@ import com.flickr.api.FlickrException;
 import com.flickr.api.ServerResponse;
 import com.flickr.api.utils.XMLUtils;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -43,10 +44,19 @@ public abstract class XMLResponse implements ServerResponse {
 
     @Override
     public final void read(String data, String method) throws FlickrException {
+        read(new InputSource(new StringReader(data)), method);
+    }
+
+    @Override
+    public final void read(InputStream data, String method) throws FlickrException {
+        read(new InputSource(data), method);
+    }
+
+    private void read(InputSource data, String method) throws FlickrException {
         try {
             DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
             DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(new InputSource(new StringReader(data)));
+            Document document = builder.parse(data);
             
             Element rootElement = document.getDocumentElement();
             
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.json;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The available JSON backends.
+ *
+ * <p>
+ * The streaming backend is used by default. The org.json backend reads the whole document into a
+ * <code>JSONObject</code> first, it can be selected with {@link #setDefault(JSONParser)} or with the
+ * <code>flickr.api.json.parser=org.json</code> system property. The org.json library is only needed at runtime
+ * when this backend is used.</p>
+ */
+public enum JSONParser {
+
+    /**
+     * Token streaming backend, the values are read while the document is received.
+     */
+    STREAMING {
+        @Override
+        public JSONReader newReader(Reader reader) {
+            return new StreamingJSONReader(reader);
+        }
+    },
+    /**
+     * Backend based on the org.json tree.
+     */
+    ORG_JSON {
+        @Override
+        public JSONReader newReader(Reader reader) throws IOException {
+            return TreeJSONReader.parse(reader);
+        }
+    };
+
+    private static volatile JSONParser defaultParser = "org.json".equals(System.getProperty("flickr.api.json.parser"))
+            ? ORG_JSON : STREAMING;
+
+    /**
+     * Create a reader of a document.
+     *
+     * @param reader The document
+     * @return The reader
+     * @throws IOException Read or parsing error
+     */
+    public abstract JSONReader newReader(Reader reader) throws IOException;
+
+    /**
+     * Get the backend used to read the responses.
+     *
+     * @return The backend
+     */
+    public static JSONParser getDefault() {
+        return defaultParser;
+    }
+
+    /**
+     * Set the backend used to read the responses.
+     *
+     * @param parser The backend
+     */
+    public static void setDefault(JSONParser parser) {
+        if (parser == null) {
+            throw new IllegalArgumentException("The parser cannot be null");
+        }
+        defaultParser = parser;
+    }
+
+}
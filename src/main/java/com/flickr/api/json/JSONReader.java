@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.json;
+
+import java.io.IOException;
+
+/**
+ * Pull reader of a JSON document. The document is walked token by token, so the entities can read their members
+ * without building an intermediate tree.
+ *
+ * <p>
+ * The value readers are lenient with the types because the Flickr API does not always use the same type for a
+ * given member: {@link #nextString()} accepts numbers and booleans, {@link #nextInt()} accepts numeric strings.</p>
+ */
+public interface JSONReader {
+
+    /**
+     * Get the type of the next token, without consuming it.
+     *
+     * @return The token type
+     * @throws IOException Read or parsing error
+     */
+    JSONToken peek() throws IOException;
+
+    /**
+     * Consume the beginning of an object.
+     *
+     * @throws IOException The next token is not the beginning of an object
+     */
+    void beginObject() throws IOException;
+
+    /**
+     * Consume the end of the current object.
+     *
+     * @throws IOException The next token is not the end of an object
+     */
+    void endObject() throws IOException;
+
+    /**
+     * Consume the beginning of an array.
+     *
+     * @throws IOException The next token is not the beginning of an array
+     */
+    void beginArray() throws IOException;
+
+    /**
+     * Consume the end of the current array.
+     *
+     * @throws IOException The next token is not the end of an array
+     */
+    void endArray() throws IOException;
+
+    /**
+     * Indicates if the current object or array has more members or elements.
+     *
+     * @return true if there is a next member or element
+     * @throws IOException Read or parsing error
+     */
+    boolean hasNext() throws IOException;
+
+    /**
+     * Read the name of the next member of the current object.
+     *
+     * @return The name
+     * @throws IOException The next token is not a name
+     */
+    String nextName() throws IOException;
+
+    /**
+     * Read a scalar value as a string.
+     *
+     * @return The value, or null for the null literal
+     * @throws IOException The next token is not a scalar value
+     */
+    String nextString() throws IOException;
+
+    /**
+     * Read a numeric value as an int.
+     *
+     * @return The value
+     * @throws IOException The next token is not a number, or a string containing a number
+     */
+    int nextInt() throws IOException;
+
+    /**
+     * Read a numeric value as a long.
+     *
+     * @return The value
+     * @throws IOException The next token is not a number, or a string containing a number
+     */
+    long nextLong() throws IOException;
+
+    /**
+     * Read a numeric value as a double.
+     *
+     * @return The value
+     * @throws IOException The next token is not a number, or a string containing a number
+     */
+    double nextDouble() throws IOException;
+
+    /**
+     * Read a boolean value.
+     *
+     * @return The value
+     * @throws IOException The next token is not a boolean
+     */
+    boolean nextBoolean() throws IOException;
+
+    /**
+     * Skip the next value. Objects and arrays are skipped with all their content, a member name is skipped with its
+     * value.
+     *
+     * @throws IOException Read or parsing error
+     */
+    void skipValue() throws IOException;
+
+}
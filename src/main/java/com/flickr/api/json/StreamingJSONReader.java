@@ -0,0 +1,470 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.json;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Token streaming implementation of {@link JSONReader}.
+ *
+ * <p>
+ * The characters of the strings and numbers are copied into a buffer reused for the whole document, so a String is
+ * only allocated when the value is requested as a string, and the numbers are parsed without any boxing. The member
+ * names are interned in a small table, the names of the elements of a list are then only allocated once.</p>
+ */
+public final class StreamingJSONReader implements JSONReader {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+    private static final int NAMES_SIZE = 512;
+
+    private final Reader in;
+    private final char[] buffer = new char[2048];
+    private int pos;
+    private int limit;
+
+    private int[] stack = new int[16];
+    private int stackSize = 1;
+
+    private JSONToken peeked;
+    private boolean booleanValue;
+
+    private char[] scratch = new char[64];
+    private int scratchLength;
+
+    private final String[] names = new String[NAMES_SIZE];
+
+    public StreamingJSONReader(Reader in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    @Override
+    public JSONToken peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int c;
+        switch (stack[stackSize - 1]) {
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+
+            case NONEMPTY_DOCUMENT:
+                if (nextNonWhitespace(false) != -1) {
+                    throw syntaxError("Expected the end of the document");
+                }
+                return peeked = JSONToken.END_DOCUMENT;
+
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace(true) == ']') {
+                    return peeked = JSONToken.END_ARRAY;
+                }
+                pos--;
+                break;
+
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace(true);
+                if (c == ']') {
+                    return peeked = JSONToken.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                break;
+
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace(true);
+                if (c == '}') {
+                    return peeked = JSONToken.END_OBJECT;
+                }
+                if (stack[stackSize - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextNonWhitespace(true);
+                }
+                if (c != '"' && c != '\'') {
+                    throw syntaxError("Expected a name");
+                }
+                readString((char) c);
+                stack[stackSize - 1] = DANGLING_NAME;
+                return peeked = JSONToken.NAME;
+
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace(true) != ':') {
+                    throw syntaxError("Expected ':'");
+                }
+                break;
+
+            default:
+                throw new IllegalStateException();
+        }
+        return peeked = readValue();
+    }
+
+    private JSONToken readValue() throws IOException {
+        int c = nextNonWhitespace(true);
+        switch (c) {
+            case '{':
+                return JSONToken.BEGIN_OBJECT;
+            case '[':
+                return JSONToken.BEGIN_ARRAY;
+            case '"':
+            case '\'':
+                readString((char) c);
+                return JSONToken.STRING;
+            case 't':
+            case 'f':
+            case 'n':
+                pos--;
+                readUnquoted();
+                if (scratchEquals("true")) {
+                    booleanValue = true;
+                    return JSONToken.BOOLEAN;
+                } else if (scratchEquals("false")) {
+                    booleanValue = false;
+                    return JSONToken.BOOLEAN;
+                } else if (scratchEquals("null")) {
+                    return JSONToken.NULL;
+                }
+                throw syntaxError("Unexpected literal '" + new String(scratch, 0, scratchLength) + "'");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    readUnquoted();
+                    return JSONToken.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JSONToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JSONToken.END_OBJECT);
+        stackSize--;
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JSONToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JSONToken.END_ARRAY);
+        stackSize--;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JSONToken token = peek();
+        return token != JSONToken.END_OBJECT && token != JSONToken.END_ARRAY && token != JSONToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(JSONToken.NAME);
+        return internName();
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        JSONToken token = peek();
+        peeked = null;
+        switch (token) {
+            case STRING:
+            case NUMBER:
+                return new String(scratch, 0, scratchLength);
+            case BOOLEAN:
+                return booleanValue ? "true" : "false";
+            case NULL:
+                return null;
+            default:
+                throw new JSONParseException("Expected a value but found " + token);
+        }
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JSONParseException("Number out of the int range: " + value);
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        JSONToken token = peek();
+        if (token != JSONToken.NUMBER && token != JSONToken.STRING) {
+            throw new JSONParseException("Expected a number but found " + token);
+        }
+        peeked = null;
+        int start = 0;
+        boolean negative = false;
+        if (scratchLength > 0 && (scratch[0] == '-' || scratch[0] == '+')) {
+            negative = scratch[0] == '-';
+            start = 1;
+        }
+        if (start == scratchLength || scratchLength - start > 18) {
+            return (long) parseDouble();
+        }
+        long value = 0;
+        for (int i = start; i < scratchLength; i++) {
+            char c = scratch[i];
+            if (c < '0' || c > '9') {
+                double d = parseDouble();
+                if (d != (long) d) {
+                    throw new JSONParseException("Expected an integer but found " + d);
+                }
+                return (long) d;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        JSONToken token = peek();
+        if (token != JSONToken.NUMBER && token != JSONToken.STRING) {
+            throw new JSONParseException("Expected a number but found " + token);
+        }
+        peeked = null;
+        return parseDouble();
+    }
+
+    private double parseDouble() throws JSONParseException {
+        String value = new String(scratch, 0, scratchLength);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw new JSONParseException("Expected a number but found '" + value + "'", ex);
+        }
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        expect(JSONToken.BOOLEAN);
+        return booleanValue;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        if (peek() == JSONToken.NAME) {
+            peeked = null;
+        }
+        int depth = 0;
+        do {
+            JSONToken token = peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    if (depth == 0) {
+                        throw new JSONParseException("Expected a value but found " + token);
+                    }
+                    if (token == JSONToken.END_OBJECT) {
+                        endObject();
+                    } else {
+                        endArray();
+                    }
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw new JSONParseException("Unexpected end of the document");
+                default:
+                    peeked = null;
+            }
+        } while (depth > 0);
+    }
+
+    private void expect(JSONToken expected) throws IOException {
+        JSONToken token = peek();
+        if (token != expected) {
+            throw new JSONParseException("Expected " + expected + " but found " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] newStack = new int[stackSize * 2];
+            System.arraycopy(stack, 0, newStack, 0, stackSize);
+            stack = newStack;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private String internName() {
+        int hash = 0;
+        for (int i = 0; i < scratchLength; i++) {
+            hash = 31 * hash + scratch[i];
+        }
+        int index = (hash ^ (hash >>> 16)) & (NAMES_SIZE - 1);
+        String name = names[index];
+        if (name != null && scratchEquals(name)) {
+            return name;
+        }
+        name = new String(scratch, 0, scratchLength);
+        names[index] = name;
+        return name;
+    }
+
+    private boolean scratchEquals(String value) {
+        if (value.length() != scratchLength) {
+            return false;
+        }
+        for (int i = 0; i < scratchLength; i++) {
+            if (value.charAt(i) != scratch[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void append(char c) {
+        if (scratchLength == scratch.length) {
+            char[] newScratch = new char[scratchLength * 2];
+            System.arraycopy(scratch, 0, newScratch, 0, scratchLength);
+            scratch = newScratch;
+        }
+        scratch[scratchLength++] = c;
+    }
+
+    private void readString(char quote) throws IOException {
+        scratchLength = 0;
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[pos++];
+            if (c == quote) {
+                return;
+            } else if (c == '\\') {
+                append(readEscape());
+            } else {
+                append(c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char c = buffer[pos++];
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'f':
+                return '\f';
+            case 'r':
+                return '\r';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (pos == limit && !fill()) {
+                        throw syntaxError("Unterminated escape sequence");
+                    }
+                    int digit = Character.digit(buffer[pos++], 16);
+                    if (digit < 0) {
+                        throw syntaxError("Invalid unicode escape sequence");
+                    }
+                    value = (value << 4) + digit;
+                }
+                return (char) value;
+            default:
+                return c;
+        }
+    }
+
+    private void readUnquoted() throws IOException {
+        scratchLength = 0;
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                    || c == '-' || c == '+' || c == '.') {
+                append(c);
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private int nextNonWhitespace(boolean throwOnEof) throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+        if (throwOnEof) {
+            throw new JSONParseException("Unexpected end of the document");
+        }
+        return -1;
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            pos = limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = count;
+        return true;
+    }
+
+    private JSONParseException syntaxError(String message) {
+        return new JSONParseException(message + " at depth " + (stackSize - 1));
+    }
+
+}
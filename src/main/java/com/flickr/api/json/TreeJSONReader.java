@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Implementation of {@link JSONReader} walking an org.json tree.
+ */
+public final class TreeJSONReader implements JSONReader {
+
+    private final Object root;
+    private boolean rootConsumed;
+    private final List<Frame> stack = new ArrayList<Frame>();
+
+    public TreeJSONReader(JSONObject root) {
+        this.root = root;
+    }
+
+    static TreeJSONReader parse(Reader reader) throws JSONParseException {
+        try {
+            return new TreeJSONReader(new JSONObject(new JSONTokener(reader)));
+        } catch (JSONException ex) {
+            throw new JSONParseException(ex.getMessage(), ex);
+        } catch (NumberFormatException ex) {
+            // Thrown by org.json for an invalid unicode escape sequence
+            throw new JSONParseException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public JSONToken peek() throws IOException {
+        if (stack.isEmpty()) {
+            return rootConsumed ? JSONToken.END_DOCUMENT : tokenOf(root);
+        }
+        Frame frame = top();
+        if (frame.object != null) {
+            if (frame.name == null) {
+                if (frame.nextName == null && frame.keys.hasNext()) {
+                    frame.nextName = (String) frame.keys.next();
+                }
+                return frame.nextName == null ? JSONToken.END_OBJECT : JSONToken.NAME;
+            }
+            return tokenOf(frame.object.opt(frame.name));
+        }
+        if (frame.index < frame.array.length()) {
+            return tokenOf(frame.array.opt(frame.index));
+        }
+        return JSONToken.END_ARRAY;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        Object value = nextValue(JSONToken.BEGIN_OBJECT);
+        stack.add(new Frame((JSONObject) value));
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expectEnd(JSONToken.END_OBJECT);
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        Object value = nextValue(JSONToken.BEGIN_ARRAY);
+        stack.add(new Frame((JSONArray) value));
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expectEnd(JSONToken.END_ARRAY);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JSONToken token = peek();
+        return token != JSONToken.END_OBJECT && token != JSONToken.END_ARRAY && token != JSONToken.END_DOCUMENT;
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        JSONToken token = peek();
+        if (token != JSONToken.NAME) {
+            throw new JSONParseException("Expected " + JSONToken.NAME + " but found " + token);
+        }
+        Frame frame = top();
+        frame.name = frame.nextName;
+        frame.nextName = null;
+        return frame.name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        JSONToken token = peek();
+        switch (token) {
+            case STRING:
+            case NUMBER:
+            case BOOLEAN:
+                return consume().toString();
+            case NULL:
+                consume();
+                return null;
+            default:
+                throw new JSONParseException("Expected a value but found " + token);
+        }
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JSONParseException("Number out of the int range: " + value);
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        double value = nextDouble();
+        if (value != (long) value) {
+            throw new JSONParseException("Expected an integer but found " + value);
+        }
+        return (long) value;
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        JSONToken token = peek();
+        if (token != JSONToken.NUMBER && token != JSONToken.STRING) {
+            throw new JSONParseException("Expected a number but found " + token);
+        }
+        Object value = consume();
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return Double.parseDouble((String) value);
+        } catch (NumberFormatException ex) {
+            throw new JSONParseException("Expected a number but found '" + value + "'", ex);
+        }
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        return (Boolean) nextValue(JSONToken.BOOLEAN);
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        JSONToken token = peek();
+        if (token == JSONToken.NAME) {
+            nextName();
+        } else if (token == JSONToken.END_OBJECT || token == JSONToken.END_ARRAY
+                || token == JSONToken.END_DOCUMENT) {
+            throw new JSONParseException("Expected a value but found " + token);
+        }
+        consume();
+    }
+
+    private Object nextValue(JSONToken expected) throws IOException {
+        JSONToken token = peek();
+        if (token != expected) {
+            throw new JSONParseException("Expected " + expected + " but found " + token);
+        }
+        return consume();
+    }
+
+    private void expectEnd(JSONToken expected) throws IOException {
+        JSONToken token = peek();
+        if (token != expected) {
+            throw new JSONParseException("Expected " + expected + " but found " + token);
+        }
+        stack.remove(stack.size() - 1);
+    }
+
+    private Object consume() {
+        if (stack.isEmpty()) {
+            rootConsumed = true;
+            return root;
+        }
+        Frame frame = top();
+        if (frame.object != null) {
+            Object value = frame.object.opt(frame.name);
+            frame.name = null;
+            return value;
+        }
+        return frame.array.opt(frame.index++);
+    }
+
+    private Frame top() {
+        return stack.get(stack.size() - 1);
+    }
+
+    private static JSONToken tokenOf(Object value) {
+        if (value instanceof JSONObject) {
+            return JSONToken.BEGIN_OBJECT;
+        } else if (value instanceof JSONArray) {
+            return JSONToken.BEGIN_ARRAY;
+        } else if (value instanceof String) {
+            return JSONToken.STRING;
+        } else if (value instanceof Number) {
+            return JSONToken.NUMBER;
+        } else if (value instanceof Boolean) {
+            return JSONToken.BOOLEAN;
+        }
+        return JSONToken.NULL;
+    }
+
+    private static final class Frame {
+
+        private final JSONObject object;
+        private final Iterator<?> keys;
+        private final JSONArray array;
+        private String nextName;
+        private String name;
+        private int index;
+
+        private Frame(JSONObject object) {
+            this.object = object;
+            this.keys = object.keys();
+            this.array = null;
+        }
+
+        private Frame(JSONArray array) {
+            this.object = null;
+            this.keys = null;
+            this.array = array;
+        }
+    }
+
+}
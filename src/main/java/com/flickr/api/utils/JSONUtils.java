@@ -1,22 +1,34 @@
 package com.flickr.api.utils;
 
+import com.flickr.api.json.JSONParseException;
+import com.flickr.api.json.JSONReader;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 public class JSONUtils {
 
     private JSONUtils() {
     }
     private static final String DATE_REGEX = "^[0-9]{4}-[0-9]{2}-[0-9]{2}$";
-    private static final DateFormat DATE_FORMAT = DateFormat.getDateInstance();
+    // The formats are not thread safe, each thread parsing the responses gets its own
+    private static final ThreadLocal<DateFormat> DATE_FORMAT = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            return DateFormat.getDateInstance();
+        }
+    };
     private static final String DATE_TIME_REGEX = "^[0-9]{4}-[0-9]{2}-[0-9]{2} [0-9]{2}:[0-9]{2}:[0-9]{2}$";
-    private static final DateFormat DATE_TIME_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private static final ThreadLocal<DateFormat> DATE_TIME_FORMAT = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        }
+    };
 
     /**
      * Get a URL object from a String.
@@ -44,10 +56,10 @@ public class JSONUtils {
         }
         try {
             if (s.matches(DATE_REGEX)) {
-                return DATE_FORMAT.parse(s);
+                return DATE_FORMAT.get().parse(s);
 
             } else if (s.matches(DATE_TIME_REGEX)) {
-                return DATE_TIME_FORMAT.parse(s);
+                return DATE_TIME_FORMAT.get().parse(s);
 
             } else {
                 long date = Long.parseLong(s);
@@ -60,26 +72,39 @@ public class JSONUtils {
     }
 
     /**
-     * Get a content value. Some values can be included in a sub json object. For instance :
+     * Read a content value. Some values can be included in a sub json object. For instance :
      *
      * <pre>
      * "title":{"_content":"My Photoset"}
      * </pre>
      *
-     * @param json The json object to parse.
-     * @param key The key of the content to get (in the premious example it will be "title").
+     * @param reader The reader, positioned on the value of the member (in the previous example the value of "title").
      * @return The content.
-     * @throws JSONException Parsing error.
+     * @throws IOException Parsing error.
      */
-    public static String getContent(JSONObject json, String key) throws JSONException {
-        String value = json.getJSONObject(key).getString("_content");
-        if("null".equals(value)) {
+    public static String readContent(JSONReader reader) throws IOException {
+        String value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("_content".equals(reader.nextName())) {
+                value = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if ("null".equals(value)) {
             return null;
         }
         return value;
     }
 
-    public static int getIntegerContent(JSONObject json, String key) throws JSONException {
-        return Integer.parseInt(getContent(json, key));
+    public static int readIntegerContent(JSONReader reader) throws IOException {
+        String value = readContent(reader);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new JSONParseException("Invalid integer content: " + value, ex);
+        }
     }
 }
@@ -0,0 +1,366 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.utils.IOUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.mime.MultipartEntity;
+
+/**
+ * Transport sending the requests over HTTP/2 with the <code>java.net.http</code> client.
+ *
+ * <p>
+ * All the calls share a single connection per host, the requests are multiplexed on it as concurrent streams, so a
+ * slow response does not hold the following requests. The requests are still signed by the services, this transport
+ * only sends them. The client falls back to HTTP/1.1 when the server does not support HTTP/2.</p>
+ *
+ * <p>
+ * The asynchronous sends do not hold any thread while waiting for the server, the response is handed over to the
+ * executor of the services once its headers are received. The body of an upload is written by a thread of that
+ * executor while it is sent.</p>
+ *
+ * <p>
+ * The connect timeout is set on the client, the clients are kept per connect timeout. The <code>java.net.http</code>
+ * client has no read timeout, so the timeouts differ from the {@link PooledTransport}:</p>
+ * <ul>
+ * <li>for a request without body, the read timeout bounds the whole wait of the response headers, instead of each
+ * wait for the next bytes;</li>
+ * <li>for a request with a body, such as an upload, the read timeout is not used since it would also bound the time
+ * to send the body. The wait is then only bounded by the deadline of the call, see {@link Deadline}.</li>
+ * </ul>
+ */
+public final class Http2Transport implements Transport {
+
+    // Headers set by the client itself, which refuses them in the requests
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<String>(Arrays.asList(
+            "connection", "content-length", "expect", "host", "upgrade"));
+    private static final int PIPE_SIZE = 64 * 1024;
+    //
+    private final ConcurrentMap<ClientKey, HttpClient> clients = new ConcurrentHashMap<ClientKey, HttpClient>();
+
+    /**
+     * Create a new HTTP/2 transport
+     */
+    public Http2Transport() {
+    }
+
+    /**
+     * Indicates if this transport is available on the current runtime (Java 11 or later).
+     *
+     * @return true if the transport can be used, false otherwise
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    @Override
+    public TransportResponse send(TransportRequest request) throws IOException {
+        // The calling thread writes the body of a multipart request while it waits for the response
+        final BlockingQueue<Runnable> writers = new LinkedBlockingQueue<Runnable>();
+        BodyWriter writer = new BodyWriter(writers::add);
+        CompletableFuture<HttpResponse<InputStream>> exchange = getClient(request)
+                .sendAsync(createRequest(request, writer), HttpResponse.BodyHandlers.ofInputStream());
+        exchange.whenComplete((response, error) -> writers.add(() -> {
+        }));
+        try {
+            while (!exchange.isDone()) {
+                writers.take().run();
+            }
+            return new Http2Response(exchange.get());
+        } catch (InterruptedException ex) {
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sending the request");
+        } catch (ExecutionException ex) {
+            Throwable cause = writer.getError(ex.getCause());
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Error sending the request", cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(TransportRequest request, Executor executor) {
+        final BodyWriter writer = new BodyWriter(executor);
+        CompletableFuture<HttpResponse<InputStream>> exchange;
+        try {
+            exchange = getClient(request).sendAsync(createRequest(request, writer),
+                    HttpResponse.BodyHandlers.ofInputStream());
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        CompletableFuture<TransportResponse> future = exchange.handleAsync((response, error) -> {
+            if (error != null) {
+                throw new CompletionException(writer.getError(error));
+            }
+            return new Http2Response(response);
+        }, executor);
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                // Cancelling the dependent stage does not reach the client, and a response received in the meantime
+                // is never handed over: its body is closed so the stream is released
+                exchange.cancel(true);
+                exchange.thenAccept(received -> IOUtils.closeQuietly(received.body()));
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void shutdown() {
+        // The client has no close method before Java 21, its connections are released once it is unreachable
+        clients.clear();
+    }
+
+    private HttpClient getClient(TransportRequest request) {
+        Proxy proxy = request.getProxy();
+        if (proxy != null && proxy.type() == Proxy.Type.DIRECT) {
+            proxy = null;
+        }
+        if (proxy != null && proxy.type() != Proxy.Type.HTTP) {
+            throw new UnsupportedOperationException("The HTTP/2 transport only supports HTTP proxies");
+        }
+        return clients.computeIfAbsent(new ClientKey(proxy, request.getConnectTimeout()), Http2Transport::newClient);
+    }
+
+    private static HttpClient newClient(ClientKey key) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (key.proxy != null) {
+            builder.proxy(ProxySelector.of((InetSocketAddress) key.proxy.address()));
+        }
+        if (key.connectTimeout > 0) {
+            builder.connectTimeout(Duration.ofMillis(key.connectTimeout));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create the request to send.
+     *
+     * @param writer The writer of the body
+     */
+    private static HttpRequest createRequest(TransportRequest request, final BodyWriter writer) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUrl()));
+        // The timeout would also run while the body is sent, it would cut the uploads of large files
+        if (request.getReadTimeout() > 0 && request.getEntity() == null) {
+            builder.timeout(Duration.ofMillis(request.getReadTimeout()));
+        }
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ENGLISH))) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+
+        final HttpEntity entity = request.getEntity();
+        if (entity == null) {
+            builder.method(request.getMethod(), HttpRequest.BodyPublishers.noBody());
+        } else {
+            HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.ofInputStream(() -> {
+                try {
+                    return writer.open(entity);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            if (entity.getContentLength() >= 0) {
+                body = HttpRequest.BodyPublishers.fromPublisher(body, entity.getContentLength());
+            }
+            Header contentType = entity.getContentType();
+            if (contentType != null) {
+                builder.header("Content-Type", contentType.getValue());
+            }
+            builder.method(request.getMethod(), body);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Opens the body of a request. The multipart entities can only be written, they are then written by a thread of
+     * the executor into a pipe, so the files are streamed instead of copied in memory. An error of the writer fails
+     * the request with it.
+     */
+    private static final class BodyWriter {
+
+        private final Executor executor;
+        private volatile IOException failure;
+
+        private BodyWriter(Executor executor) {
+            this.executor = executor;
+        }
+
+        private InputStream open(final HttpEntity entity) throws IOException {
+            if (!(entity instanceof MultipartEntity)) {
+                return entity.getContent();
+            }
+            final PipedOutputStream out = new PipedOutputStream();
+            InputStream in = new Pipe(out);
+            executor.execute(() -> {
+                try {
+                    entity.writeTo(out);
+                } catch (IOException ex) {
+                    failure = ex;
+                } finally {
+                    IOUtils.closeQuietly(out);
+                }
+            });
+            return in;
+        }
+
+        /**
+         * Get the error of a failed exchange. Depending on the runtime, the client reports a failed body as a body
+         * too short or as an unchecked error, the error of the writer is reported instead.
+         */
+        private Throwable getError(Throwable error) {
+            if (failure != null) {
+                return new IOException("Error writing the request body", failure);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            return cause instanceof UncheckedIOException ? cause.getCause() : cause;
+        }
+
+        /**
+         * Fails at its end when the writer failed, instead of a body silently cut short.
+         */
+        private final class Pipe extends PipedInputStream {
+
+            private Pipe(PipedOutputStream out) throws IOException {
+                super(out, PIPE_SIZE);
+            }
+
+            @Override
+            public synchronized int read() throws IOException {
+                int read = super.read();
+                if (read == -1) {
+                    checkWriter();
+                }
+                return read;
+            }
+
+            @Override
+            public synchronized int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read == -1) {
+                    checkWriter();
+                }
+                return read;
+            }
+
+            private void checkWriter() throws IOException {
+                IOException error = failure;
+                if (error != null) {
+                    throw new IOException("Error writing the request body", error);
+                }
+            }
+        }
+    }
+
+    private static final class ClientKey {
+
+        private final Proxy proxy;
+        private final long connectTimeout;
+
+        private ClientKey(Proxy proxy, long connectTimeout) {
+            this.proxy = proxy;
+            this.connectTimeout = connectTimeout;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ClientKey)) {
+                return false;
+            }
+            ClientKey other = (ClientKey) obj;
+            return connectTimeout == other.connectTimeout && Objects.equals(proxy, other.proxy);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(proxy) + Long.hashCode(connectTimeout);
+        }
+    }
+
+    private static final class Http2Response implements TransportResponse {
+
+        private final HttpResponse<InputStream> response;
+
+        private Http2Response(HttpResponse<InputStream> response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return response.headers().firstValue(name).orElse(null);
+        }
+
+        @Override
+        public InputStream getStream() throws IOException {
+            return response.body();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closing an unread HTTP/2 body only resets its stream, the connection stays open
+            response.body().close();
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the asynchronous calls complete on the executor of the services, and fail with the same errors as the
+ * synchronous calls.
+ */
+public class AsyncTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private ExecutorService executor;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        flickr = server.createFlickr();
+        executor = Executors.newCachedThreadPool(runnable -> new Thread(runnable, "async-test"));
+        flickr.setExecutor(executor);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\"}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        executor.shutdownNow();
+        server.stop();
+    }
+
+    @Test
+    public void testCompletion() throws Exception {
+        server.setLatency(100);
+        CompletableFuture<List<PhotoSize>> future = flickr.getPhotosService().getSizesAsync(photo);
+        // The call does not block the calling thread
+        assertFalse(future.isDone());
+
+        CompletableFuture<String> thread = future.thenApply(sizes -> Thread.currentThread().getName());
+        List<PhotoSize> sizes = future.get(5, TimeUnit.SECONDS);
+        assertEquals(1, sizes.size());
+        assertEquals("Square", sizes.get(0).getLabel());
+        assertEquals("async-test", thread.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testApiError() throws Exception {
+        server.respond("flickr.photos.getSizes", "{\"stat\":\"fail\",\"code\":1,\"message\":\"Photo not found\"}");
+
+        FlickrException async = failure(flickr.getPhotosService().getSizesAsync(photo));
+        assertEquals(FlickrErrorCode.not_found, async.getErrorCode());
+
+        // The synchronous call throws the same exception, not wrapped
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The call should fail");
+        } catch (FlickrException ex) {
+            assertEquals(FlickrErrorCode.not_found, ex.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testHttpError() throws Exception {
+        server.failNext(2, 500);
+        assertNotNull(failure(flickr.getPhotosService().getSizesAsync(photo)));
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The call should fail");
+        } catch (FlickrException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testMalformedResponse() throws Exception {
+        server.respond("flickr.photos.getSizes", "{\"sizes\":{\"size\":[");
+        FlickrException error = failure(flickr.getPhotosService().getSizesAsync(photo));
+        assertNull(error.getErrorCode());
+    }
+
+    @Test
+    public void testConnectionError() throws Exception {
+        server.stop();
+        assertNotNull(failure(flickr.getPhotosService().getSizesAsync(photo)));
+    }
+
+    private static FlickrException failure(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("The call should fail");
+            return null;
+        } catch (ExecutionException ex) {
+            assertTrue("Unexpected error " + ex.getCause(), ex.getCause() instanceof FlickrException);
+            return (FlickrException) ex.getCause();
+        }
+    }
+
+}
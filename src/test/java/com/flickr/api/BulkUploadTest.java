@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the bulk uploads bound the uploads in flight, and resume from their journal.
+ */
+public class BulkUploadTest {
+
+    private static final String UPLOADED = "<?xml version=\"1.0\" encoding=\"utf-8\" ?>"
+            + "<rsp stat=\"ok\"><photoid>1234</photoid></rsp>";
+    private static final int FILES = 30;
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private File directory;
+    private File journal;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("upload", UPLOADED);
+        flickr = server.createFlickr();
+        directory = Files.createTempDirectory("photos").toFile();
+        File album = new File(directory, "album");
+        album.mkdir();
+        for (int i = 0; i < FILES; i++) {
+            write(new File(i % 2 == 0 ? directory : album, "photo" + i + ".jpg"), "photo" + i);
+        }
+        journal = new File(directory, "upload.journal");
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+        delete(directory);
+    }
+
+    @Test
+    public void testUploadDirectory() throws Exception {
+        // More than 4 uploads in flight would be refused
+        server.setLatency(20);
+        server.setCapacity(4);
+
+        List<File> notified = new ArrayList<File>();
+        try (BulkUpload upload = new BulkUpload(flickr.getUploadService(), journal, 4)) {
+            upload.setListener(new BulkUpload.Listener() {
+                @Override
+                public synchronized void uploaded(File file, String photoId) {
+                    notified.add(file);
+                }
+
+                @Override
+                public void failed(File file, FlickrException error) {
+                }
+            });
+            upload.start(directory).get(10, TimeUnit.SECONDS);
+
+            assertEquals(FILES, upload.getTotalCount());
+            assertEquals(FILES, upload.getUploadedCount());
+            assertEquals(0, upload.getFailedCount());
+            assertTrue(upload.getUploadedBytes() > 0);
+            assertTrue(upload.getThroughput() > 0);
+            assertEquals("1234", upload.getPhotoId(new File(directory, "photo0.jpg")));
+        }
+        assertEquals(FILES, notified.size());
+        assertEquals(FILES, server.getRequestCount());
+        assertEquals(FILES, Files.readAllLines(journal.toPath()).size());
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        try (BulkUpload upload = new BulkUpload(flickr.getUploadService(), journal, 4)) {
+            upload.start(directory).get(10, TimeUnit.SECONDS);
+        }
+        // A crash while writing the last record
+        List<String> records = Files.readAllLines(journal.toPath());
+        String lines = String.join("\n", records.subList(0, 10)) + "\n" + records.get(10).substring(0, 3);
+        write(journal, lines);
+
+        try (BulkUpload upload = new BulkUpload(flickr.getUploadService(), journal, 4)) {
+            upload.start(directory).get(10, TimeUnit.SECONDS);
+            assertEquals(10, upload.getSkippedCount());
+            assertEquals(FILES - 10, upload.getUploadedCount());
+        }
+        assertEquals(2 * FILES - 10, server.getRequestCount());
+
+        // Nothing left to upload
+        try (BulkUpload upload = new BulkUpload(flickr.getUploadService(), journal, 4)) {
+            upload.start(directory).get(10, TimeUnit.SECONDS);
+            assertEquals(FILES, upload.getSkippedCount());
+            assertEquals(0, upload.getUploadedCount());
+        }
+        assertEquals(2 * FILES - 10, server.getRequestCount());
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        server.failNext(3, 500);
+        try (BulkUpload upload = new BulkUpload(flickr.getUploadService(), journal, 1)) {
+            upload.start(directory).get(10, TimeUnit.SECONDS);
+            assertEquals(3, upload.getFailedCount());
+            assertEquals(FILES - 3, upload.getUploadedCount());
+        }
+
+        // The next run only uploads the failed files
+        try (BulkUpload upload = new BulkUpload(flickr.getUploadService(), journal, 1)) {
+            upload.start(directory).get(10, TimeUnit.SECONDS);
+            assertEquals(3, upload.getUploadedCount());
+            assertEquals(0, upload.getFailedCount());
+        }
+        assertEquals(FILES + 3, server.getRequestCount());
+    }
+
+    @Test
+    public void testRetriedUploads() throws Exception {
+        RetryPolicy policy = new RetryPolicy(4, 10, 10, TimeUnit.MILLISECONDS);
+        policy.setRetryPosts(true);
+        flickr.setRetryPolicy(policy);
+        flickr.setRateLimiter(new RateLimiter(1000, 10, RateLimiter.Policy.BLOCK));
+        server.failNext(3, 503);
+
+        try (BulkUpload upload = new BulkUpload(flickr.getUploadService(), journal, 1)) {
+            upload.start(directory).get(10, TimeUnit.SECONDS);
+            assertEquals(FILES, upload.getUploadedCount());
+            assertEquals(0, upload.getFailedCount());
+        }
+        assertEquals(FILES + 3, server.getRequestCount());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        server.setLatency(20);
+        try (BulkUpload upload = new BulkUpload(flickr.getUploadService(), journal, 2)) {
+            upload.setListener(new BulkUpload.Listener() {
+                @Override
+                public void uploaded(File file, String photoId) {
+                    upload.cancel();
+                }
+
+                @Override
+                public void failed(File file, FlickrException error) {
+                }
+            });
+            upload.start(directory).get(10, TimeUnit.SECONDS);
+            assertTrue(upload.getUploadedCount() < FILES);
+        }
+    }
+
+    @Test
+    public void testCloseWaitsForUploads() throws Exception {
+        server.setLatency(100);
+        BulkUpload upload = new BulkUpload(flickr.getUploadService(), journal, 2);
+        CompletableFuture<Void> result = upload.start(directory);
+        upload.close();
+
+        // The uploads in flight are recorded before the journal is closed
+        assertTrue(result.isDone());
+        assertEquals(0, upload.getFailedCount());
+        assertTrue(upload.getUploadedCount() > 0);
+        assertTrue(upload.getUploadedCount() < FILES);
+        assertEquals(upload.getUploadedCount(), Files.readAllLines(journal.toPath()).size());
+    }
+
+    @Test
+    public void testTornRecord() throws Exception {
+        File photo = new File(directory, "photo0.jpg");
+        File cut = new File(directory, "photo0.jp");
+        String record = "1234\t" + photo.getAbsolutePath();
+        // A crash while writing the second record, its path is cut
+        write(journal, record + "\n5678\t" + cut.getAbsolutePath());
+
+        File other = new File(directory, "photo2.jpg");
+        try (UploadJournal opened = new UploadJournal(journal)) {
+            assertEquals(1, opened.size());
+            assertEquals("1234", opened.getPhotoId(photo));
+            assertNull(opened.getPhotoId(cut));
+            opened.record(other, "42");
+        }
+        // Opened again, the cut record is not read as a complete one
+        try (UploadJournal opened = new UploadJournal(journal)) {
+            assertEquals(2, opened.size());
+            assertNull(opened.getPhotoId(cut));
+            assertEquals("42", opened.getPhotoId(other));
+        }
+        assertEquals(Arrays.asList(record, "42\t" + other.getAbsolutePath()), Files.readAllLines(journal.toPath()));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Paginated;
+import com.flickr.api.entities.Group;
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the concurrency limits of the services.
+ */
+public class BulkheadTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        Bulkheads bulkheads = new Bulkheads();
+        bulkheads.set(PhotosService.class, 2, 2);
+        bulkheads.set(GroupsService.class, 1, 0);
+        flickr = server.createFlickr(new PooledTransport(), bulkheads);
+        flickr.setCoalescingEnabled(false);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testQueue() throws Exception {
+        Bulkhead bulkhead = flickr.getBulkhead(PhotosService.class);
+        server.setLatency(200);
+
+        List<CompletableFuture<List<PhotoSize>>> futures = new ArrayList<CompletableFuture<List<PhotoSize>>>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(flickr.getPhotosService().getSizesAsync(photo));
+        }
+        assertEquals(2, bulkhead.getRunningCount());
+        assertEquals(2, bulkhead.getQueueDepth());
+        assertEquals(2, bulkhead.getRejectedCount());
+
+        int rejected = 0;
+        for (CompletableFuture<List<PhotoSize>> future : futures) {
+            try {
+                assertEquals(1, future.get().size());
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof BulkheadFullException);
+                rejected++;
+            }
+        }
+        assertEquals(2, rejected);
+        assertEquals(4, server.getRequestCount());
+        assertEquals(0, bulkhead.getRunningCount());
+        assertEquals(0, bulkhead.getQueueDepth());
+    }
+
+    @Test
+    public void testDeadlineInQueue() throws Exception {
+        Bulkhead bulkhead = flickr.getBulkhead(PhotosService.class);
+        server.setLatency(300);
+
+        CompletableFuture<List<PhotoSize>> first = flickr.getPhotosService().getSizesAsync(photo);
+        CompletableFuture<List<PhotoSize>> second = flickr.getPhotosService().getSizesAsync(photo);
+        try (Deadline.Scope scope = Deadline.after(50, TimeUnit.MILLISECONDS).apply()) {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The call waits in the queue past its deadline");
+        } catch (DeadlineExceededException ex) {
+            // Expected
+        }
+        // The expired call left the queue and is never sent
+        assertEquals(0, bulkhead.getQueueDepth());
+
+        first.get();
+        second.get();
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, bulkhead.getRunningCount());
+    }
+
+    @Test
+    public void testIsolation() throws Exception {
+        assertNull(flickr.getBulkhead(PeopleService.class));
+        server.setLatency(200);
+
+        // The groups service is full, the photos service is not affected
+        CompletableFuture<Paginated<Group>> groups = flickr.getGroupsService().searchGroupAsync("test", 10, 1);
+        try {
+            flickr.getGroupsService().searchGroup("test", 10, 1);
+            fail("The groups service has a single slot and no queue");
+        } catch (BulkheadFullException ex) {
+            // Expected
+        }
+        assertEquals(1, flickr.getPhotosService().getSizes(photo).size());
+        assertEquals(1, flickr.getBulkhead(GroupsService.class).getRejectedCount());
+
+        try {
+            groups.get();
+        } catch (ExecutionException ex) {
+            // The stub server does not know the method
+        }
+        assertEquals(0, flickr.getBulkhead(GroupsService.class).getRunningCount());
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check a circuit breaker opens on the errors or the slow calls of its method only, and closes after a successful
+ * probe.
+ */
+public class CircuitBreakerTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    private static final String GET_SIZES = "flickr.photos.getSizes";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private CircuitBreaker breaker;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond(GET_SIZES, SIZES);
+        server.respond("flickr.favorites.add", "{\"stat\":\"ok\"}");
+        flickr = server.createFlickr();
+        breaker = new CircuitBreaker(4, 0.5, 200, TimeUnit.MILLISECONDS);
+        flickr.setCircuitBreaker(breaker);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testOpenOnErrors() throws Exception {
+        server.failNext(2, 503);
+        getSizesQuietly();
+        getSizesQuietly();
+        getSizesQuietly();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(GET_SIZES));
+        getSizesQuietly();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(GET_SIZES));
+
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The breaker is open");
+        } catch (CircuitOpenException ex) {
+            assertEquals(4, server.getRequestCount());
+            assertEquals(1, breaker.getRejectedCount());
+        }
+
+        // The other methods are not affected
+        flickr.getFavoritesService().addFavorite(photo);
+        assertEquals(5, server.getRequestCount());
+    }
+
+    @Test
+    public void testHalfOpenProbe() throws Exception {
+        server.failNext(4, 503);
+        for (int i = 0; i < 4; i++) {
+            getSizesQuietly();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(GET_SIZES));
+
+        Thread.sleep(250);
+        server.failNext(1, 503);
+        getSizesQuietly();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(GET_SIZES));
+        assertEquals(2, breaker.getOpenedCount());
+
+        Thread.sleep(250);
+        assertEquals(1, flickr.getPhotosService().getSizes(photo).size());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(GET_SIZES));
+    }
+
+    @Test
+    public void testStaleCallInHalfOpen() throws Exception {
+        // In flight while the breaker opens
+        long stale = breaker.permit(GET_SIZES);
+        long staleCancelled = breaker.permit(GET_SIZES);
+        for (int i = 0; i < 4; i++) {
+            breaker.record(GET_SIZES, breaker.permit(GET_SIZES), new IOException("failed"), 1);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(GET_SIZES));
+
+        Thread.sleep(250);
+        long probe = breaker.permit(GET_SIZES);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(GET_SIZES));
+
+        // The stale calls neither decide nor let a second probe in
+        breaker.record(GET_SIZES, stale, null, 1);
+        breaker.record(GET_SIZES, staleCancelled, null, -1);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(GET_SIZES));
+        try {
+            breaker.permit(GET_SIZES);
+            fail("The probe is still running");
+        } catch (CircuitOpenException ex) {
+            // Expected
+        }
+
+        breaker.record(GET_SIZES, probe, new IOException("failed"), 1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(GET_SIZES));
+    }
+
+    @Test
+    public void testOpenOnSlowCalls() throws Exception {
+        breaker.setSlowCallThreshold(20, TimeUnit.MILLISECONDS);
+        server.setLatency(50);
+        for (int i = 0; i < 4; i++) {
+            flickr.getPhotosService().getSizes(photo);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(GET_SIZES));
+    }
+
+    @Test
+    public void testApiErrorsAreHealthy() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            try {
+                flickr.getPhotosService().getInfos(photo);
+                fail("The method is unknown");
+            } catch (FlickrException ex) {
+                assertEquals(FlickrErrorCode.method_not_found, ex.getErrorCode());
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("flickr.photos.getInfo"));
+    }
+
+    private void getSizesQuietly() {
+        try {
+            flickr.getPhotosService().getSizes(photo);
+        } catch (FlickrException ex) {
+            // Expected for the failed requests
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the identical read calls in flight share a single request.
+ */
+public class CoalescingTest {
+
+    private static final int CALLS = 10;
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        server.setLatency(200);
+        flickr = server.createFlickr();
+        flickr.setCoalescingEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testIdenticalCalls() throws Exception {
+        List<CompletableFuture<List<PhotoSize>>> futures = getSizes(photo("1"), CALLS);
+        List<PhotoSize> first = futures.get(0).get();
+        for (CompletableFuture<List<PhotoSize>> future : futures) {
+            assertSame(first, future.get());
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(CALLS - 1, flickr.getCoalescedCallCount());
+
+        // The response is not reused once received
+        flickr.getPhotosService().getSizes(photo("1"));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testDifferentArguments() throws Exception {
+        List<CompletableFuture<List<PhotoSize>>> futures = getSizes(photo("1"), 1);
+        futures.addAll(getSizes(photo("2"), 1));
+        for (CompletableFuture<List<PhotoSize>> future : futures) {
+            future.get();
+        }
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, flickr.getCoalescedCallCount());
+    }
+
+    @Test
+    public void testCancelledCaller() throws Exception {
+        List<CompletableFuture<List<PhotoSize>>> futures = getSizes(photo("1"), 2);
+        futures.get(0).cancel(true);
+        assertEquals(1, futures.get(1).get().size());
+    }
+
+    @Test
+    public void testCoalescingDisabled() throws Exception {
+        flickr.setCoalescingEnabled(false);
+        for (CompletableFuture<List<PhotoSize>> future : getSizes(photo("1"), CALLS)) {
+            future.get();
+        }
+        assertEquals(CALLS, server.getRequestCount());
+        assertEquals(0, flickr.getCoalescedCallCount());
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        Flickr other = server.createFlickr();
+        try {
+            Photo photo = photo("1");
+            List<CompletableFuture<List<PhotoSize>>> futures = new ArrayList<CompletableFuture<List<PhotoSize>>>();
+            for (int i = 0; i < CALLS; i++) {
+                futures.add(other.getPhotosService().getSizesAsync(photo));
+            }
+            for (CompletableFuture<List<PhotoSize>> future : futures) {
+                future.get();
+            }
+            assertEquals(CALLS, server.getRequestCount());
+            assertEquals(0, other.getCoalescedCallCount());
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    private List<CompletableFuture<List<PhotoSize>>> getSizes(Photo photo, int count) {
+        List<CompletableFuture<List<PhotoSize>>> futures = new ArrayList<CompletableFuture<List<PhotoSize>>>();
+        for (int i = 0; i < count; i++) {
+            futures.add(flickr.getPhotosService().getSizesAsync(photo));
+        }
+        return futures;
+    }
+
+    private static Photo photo(String id) throws Exception {
+        return new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"" + id
+                + "\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+}
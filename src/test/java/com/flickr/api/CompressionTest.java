@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Group;
+import com.flickr.api.entities.Paginated;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the compressed responses are decoded, and counted in the traffic stats.
+ */
+public class CompressionTest {
+
+    private static final int GROUPS = 500;
+    //
+    private StubServer server;
+    private Flickr flickr;
+
+    @Before
+    public void setUp() throws Exception {
+        StringBuilder builder = new StringBuilder("{\"groups\":{\"page\":1,\"pages\":4,\"perpage\":");
+        builder.append(GROUPS).append(",\"total\":\"").append(GROUPS * 4).append("\",\"group\":[");
+        for (int i = 0; i < GROUPS; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"nsid\":\"").append(10000 + i).append("@N0").append(i % 10)
+                    .append("\",\"name\":\"Group number ").append(i)
+                    .append("\",\"iconfarm\":").append(1 + i % 9).append(",\"iconserver\":\"").append(1000 + i)
+                    .append("\",\"admin\":0,\"eighteenplus\":0,\"invitation_only\":0,\"members\":\"").append(i * 3)
+                    .append("\",\"pool_count\":\"").append(i * 7).append("\"}");
+        }
+        builder.append("]},\"stat\":\"ok\"}");
+
+        server = new StubServer();
+        server.respond("flickr.groups.search", builder.toString());
+        flickr = server.createFlickr();
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        server.setContentEncoding("gzip");
+        assertCompressed(search());
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        server.setContentEncoding("deflate");
+        assertCompressed(search());
+    }
+
+    @Test
+    public void testCompressionDisabled() throws Exception {
+        server.setContentEncoding("gzip");
+        flickr.setCompressionEnabled(false);
+        TrafficStats.MethodTraffic traffic = search();
+
+        assertEquals(traffic.getReceivedBytes(), traffic.getDecodedBytes());
+    }
+
+    private TrafficStats.MethodTraffic search() throws Exception {
+        Paginated<Group> groups = flickr.getGroupsService().searchGroup("test", GROUPS, 1);
+        assertEquals(GROUPS, groups.asList().size());
+        assertEquals(GROUPS * 4, groups.getTotalCount());
+        assertEquals("Group number " + (GROUPS - 1), groups.get(GROUPS - 1).getName());
+
+        TrafficStats.MethodTraffic traffic = flickr.getTrafficStats().get("flickr.groups.search");
+        assertEquals(1, traffic.getCalls());
+        return traffic;
+    }
+
+    private static void assertCompressed(TrafficStats.MethodTraffic traffic) {
+        assertTrue(traffic.getCompressionRatio() > 5);
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Simulations of an overloaded server, checking the concurrency limit adapts to it.
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        // The pool must not be the limit
+        PooledTransport transport = new PooledTransport();
+        transport.setMaxConnections(100);
+        transport.setMaxConnectionsPerRoute(100);
+        flickr = server.createFlickr(transport);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testQueueingServer() throws Exception {
+        // Each request handled at the same time adds 5 ms to the others
+        server.setLatency(10);
+        server.setQueueLatency(5);
+        // The baseline is measured on a server not loaded yet
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 100);
+        flickr.setConcurrencyLimiter(limiter);
+
+        assertEquals(0, run(400));
+        // The round trip time stays under twice the one of a lone request (15 ms) below 4 requests in flight
+        assertTrue("Limit " + limiter.getLimit(), limiter.getLimit() > 1 && limiter.getLimit() <= 10);
+        assertTrue(limiter.getDecreaseCount() > 0);
+        assertTrue(limiter.getThrottledCount() > 0);
+        assertEquals(0, limiter.getInFlightCount());
+    }
+
+    @Test
+    public void testThrottlingServer() throws Exception {
+        server.setLatency(20);
+        server.setCapacity(8);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(40, 1, 100);
+        limiter.setLatencyTolerance(100);
+        flickr.setConcurrencyLimiter(limiter);
+
+        int failed = run(400);
+        assertTrue("Limit " + limiter.getLimit(), limiter.getLimit() <= 12);
+        assertTrue("Failed " + failed, failed < 100);
+        assertEquals(0, limiter.getInFlightCount());
+
+        // Without the limiter, most of the requests are throttled
+        flickr.setConcurrencyLimiter(null);
+        assertTrue(run(400) > 200);
+    }
+
+    @Test
+    public void testIncrease() throws Exception {
+        server.setLatency(10);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 1, 100);
+        flickr.setConcurrencyLimiter(limiter);
+
+        assertEquals(0, run(200));
+        // A fast server lets the limit grow
+        assertTrue("Limit " + limiter.getLimit(), limiter.getLimit() > 4);
+    }
+
+    @Test
+    public void testSlowUploads() throws Exception {
+        server.respond("upload", "<rsp stat=\"ok\"><photoid>1234</photoid></rsp>");
+        server.setLatency(10);
+        server.setLatency("upload", 500);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 1, 100);
+        // Far above the jitter of the reads, below the time of an upload
+        limiter.setLatencyTolerance(20);
+        flickr.setConcurrencyLimiter(limiter);
+        // The connections are opened and the reads have a baseline
+        assertEquals(0, run(100));
+        long decreases = limiter.getDecreaseCount();
+        int limit = limiter.getLimit();
+
+        List<CompletableFuture<String>> uploads = new ArrayList<CompletableFuture<String>>();
+        for (int i = 0; i < 4; i++) {
+            uploads.add(flickr.getUploadService().uploadPhotoAsync(new byte[1024], "photo " + i, null));
+        }
+        assertEquals(0, run(100));
+        for (CompletableFuture<String> upload : uploads) {
+            assertEquals("1234", upload.get());
+        }
+        // The uploads are compared to their own baseline, they are not an overload signal for the reads
+        assertEquals(decreases, limiter.getDecreaseCount());
+        assertTrue("Limit " + limiter.getLimit(), limiter.getLimit() >= limit);
+        assertTrue(limiter.getBaselineRtt("upload", TimeUnit.MILLISECONDS) >= 500);
+        assertTrue(limiter.getBaselineRtt("flickr.photos.getSizes", TimeUnit.MILLISECONDS) < 500);
+        assertEquals(0, limiter.getInFlightCount());
+    }
+
+    /**
+     * Send the calls at once.
+     *
+     * @return The number of failed calls
+     */
+    private int run(int count) throws Exception {
+        List<CompletableFuture<List<PhotoSize>>> futures = new ArrayList<CompletableFuture<List<PhotoSize>>>();
+        for (int i = 0; i < count; i++) {
+            futures.add(flickr.getPhotosService().getSizesAsync(photo));
+        }
+        int failed = 0;
+        for (CompletableFuture<List<PhotoSize>> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+}
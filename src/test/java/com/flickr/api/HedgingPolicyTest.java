@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the slow read calls are hedged, and the hedge requests are counted.
+ */
+public class HedgingPolicyTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private HedgingPolicy policy;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        server.respond("flickr.favorites.add", "{\"stat\":\"ok\"}");
+        flickr = server.createFlickr();
+        policy = new HedgingPolicy(0.9, 20, 100, TimeUnit.MILLISECONDS);
+        flickr.setHedgingPolicy(policy);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testSlowCallHedged() throws Exception {
+        server.delayNext(1, 1000);
+        long start = System.nanoTime();
+        assertEquals(1, flickr.getPhotosService().getSizes(photo).size());
+        long elapsed = (System.nanoTime() - start) / 1000000;
+
+        assertTrue("Elapsed " + elapsed + " ms", elapsed < 800);
+        assertEquals(1, policy.getHedgeCount());
+        assertEquals(1, policy.getHedgeWinCount());
+        assertEquals(1, policy.getCancelledCount());
+    }
+
+    @Test
+    public void testFastCallNotHedged() throws Exception {
+        policy = new HedgingPolicy(0.9, 1000, 1000, TimeUnit.MILLISECONDS);
+        flickr.setHedgingPolicy(policy);
+        flickr.getPhotosService().getSizes(photo);
+        assertEquals(0, policy.getHedgeCount());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testWriteNotHedged() throws Exception {
+        server.delayNext(1, 300);
+        flickr.getFavoritesService().addFavorite(photo);
+        assertEquals(0, policy.getHedgeCount());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testHedgeTakesTokens() throws Exception {
+        RateLimiter limiter = new RateLimiter(0.001, 10, RateLimiter.Policy.FAIL_FAST);
+        flickr.setRateLimiter(limiter);
+        server.delayNext(1, 1000);
+        flickr.getPhotosService().getSizes(photo);
+        assertEquals(8, limiter.getAvailableTokens(), 0.1);
+    }
+
+    @Test
+    public void testQueuedCallNotHedged() throws Exception {
+        // The calls wait for their tokens much longer than the hedging delay, the server answers at once
+        flickr.setRateLimiter(new RateLimiter(5, 1, RateLimiter.Policy.BLOCK));
+        List<CompletableFuture<List<PhotoSize>>> futures = new ArrayList<CompletableFuture<List<PhotoSize>>>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(flickr.getPhotosService().getSizesAsync(photo));
+        }
+        for (CompletableFuture<List<PhotoSize>> future : futures) {
+            assertEquals(1, future.get(5, TimeUnit.SECONDS).size());
+        }
+        assertEquals(0, policy.getHedgeCount());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void testPercentileDelay() {
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), policy.getDelay("flickr.photos.getInfo"));
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency("flickr.photos.getInfo", TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(90), policy.getDelay("flickr.photos.getInfo"));
+
+        for (int i = 1; i <= 100; i++) {
+            policy.recordLatency("flickr.photos.getSizes", TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), policy.getDelay("flickr.photos.getSizes"));
+    }
+
+}
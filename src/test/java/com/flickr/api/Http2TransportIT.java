@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.entity.mime.MultipartEntity;
+import org.apache.http.entity.mime.content.ByteArrayBody;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the calls sent with the HTTP/2 transport. The stub server only speaks HTTP/1.1, so this also checks the
+ * fallback of the client. Run with "mvn verify" on Java 11 or later, as the transport is only visible from the
+ * multi-release jar.
+ */
+public class Http2TransportIT {
+
+    private static final int CALLS = 200;
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue(Http2Transport.isSupported());
+
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        server.respond("flickr.favorites.add", "{\"stat\":\"ok\"}");
+        server.respond("upload", "<rsp stat=\"ok\"><photoid>1234</photoid></rsp>");
+        server.setLatency(10);
+
+        flickr = server.createFlickr(new Http2Transport());
+        // The calls are identical, each one must send its own request
+        flickr.setCoalescingEnabled(false);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        if (flickr != null) {
+            flickr.shutdown();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testGet() throws Exception {
+        List<PhotoSize> sizes = flickr.getPhotosService().getSizes(photo);
+        assertEquals(1, sizes.size());
+        assertEquals(75, sizes.get(0).getWidth());
+    }
+
+    @Test
+    public void testPost() throws Exception {
+        flickr.getFavoritesService().addFavorite(photo);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testUpload() throws Exception {
+        File file = UploadTest.createFile(4 * 1024 * 1024);
+        try {
+            assertEquals("1234", flickr.getUploadService().uploadPhoto(file, "title", null));
+            assertTrue(server.getReceivedBytes() > file.length());
+            assertEquals(String.valueOf(server.getReceivedBytes()), server.getLastHeader("Content-Length"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testUploadReadError() throws Exception {
+        // The stream fails after a part of the photo is sent
+        InputStream data = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (++read > 100000) {
+                    throw new IOException("Disk error");
+                }
+                return 0;
+            }
+        };
+        try {
+            flickr.getUploadService().uploadPhoto(data, 200000, "title", null);
+            fail("The upload must fail");
+        } catch (FlickrException ex) {
+            assertTrue(hasCause(ex, "Disk error"));
+        }
+    }
+
+    @Test
+    public void testSynchronousUpload() throws Exception {
+        Http2Transport transport = new Http2Transport();
+        try {
+            TransportRequest request = new TransportRequest("POST", server.getBaseUrl() + "/services/upload");
+            MultipartEntity entity = new MultipartEntity();
+            entity.addPart("photo", new ByteArrayBody(new byte[100000], "photo.jpg"));
+            request.setEntity(entity);
+            TransportResponse response = transport.send(request);
+            try {
+                assertEquals(200, response.getCode());
+            } finally {
+                response.close();
+            }
+            assertTrue(server.getReceivedBytes() > 100000);
+        } finally {
+            transport.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompressed() throws Exception {
+        StringBuilder builder = new StringBuilder("{\"sizes\":{\"size\":[");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"label\":\"Size ").append(i).append("\",\"width\":").append(i * 100)
+                    .append(",\"height\":").append(i * 75).append(",\"source\":\"https://farm1.staticflickr.com/1/1_")
+                    .append(i).append(".jpg\"}");
+        }
+        builder.append("]},\"stat\":\"ok\"}");
+        server.respond("flickr.photos.getSizes", builder.toString());
+        server.setContentEncoding("gzip");
+        assertEquals(20, flickr.getPhotosService().getSizes(photo).size());
+
+        TrafficStats.MethodTraffic traffic = flickr.getTrafficStats().get("flickr.photos.getSizes");
+        assertTrue(traffic.getReceivedBytes() < traffic.getDecodedBytes());
+    }
+
+    @Test
+    public void testErrorCode() throws Exception {
+        try {
+            flickr.getPhotosService().getInfos(photo);
+            fail("The unknown method must fail");
+        } catch (FlickrException ex) {
+            assertEquals(FlickrErrorCode.method_not_found, ex.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testCancelledCalls() throws Exception {
+        // The responses arrive after the deadline, their streams must not be held
+        server.setLatency(300);
+        for (int i = 0; i < 5; i++) {
+            try (Deadline.Scope scope = Deadline.after(50, TimeUnit.MILLISECONDS).apply()) {
+                flickr.getPhotosService().getSizesAsync(photo).get(5, TimeUnit.SECONDS);
+                fail("The call must fail at its deadline");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof DeadlineExceededException);
+            }
+        }
+        server.setLatency(10);
+        assertEquals(1, flickr.getPhotosService().getSizes(photo).size());
+    }
+
+    @Test
+    public void testConcurrentAsync() throws Exception {
+        long start = System.nanoTime();
+        List<CompletableFuture<List<PhotoSize>>> futures = new ArrayList<CompletableFuture<List<PhotoSize>>>();
+        for (int i = 0; i < CALLS; i++) {
+            futures.add(flickr.getPhotosService().getSizesAsync(photo));
+        }
+        for (CompletableFuture<List<PhotoSize>> future : futures) {
+            assertEquals(1, future.get().size());
+        }
+        System.out.println(CALLS + " async calls over HTTP/2 transport: "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+        assertEquals(CALLS, server.getRequestCount());
+    }
+
+    private static boolean hasCause(Throwable error, String message) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (message.equals(cause.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
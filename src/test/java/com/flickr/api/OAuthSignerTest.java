@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.FlickrApi;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+import org.scribe.services.TimestampService;
+import static org.junit.Assert.*;
+
+/**
+ * Check the signatures are the ones computed by scribe.
+ */
+public class OAuthSignerTest {
+
+    private static final String URL = "https://api.flickr.com/services/rest";
+    private static final String TIMESTAMP = "1400000000";
+    private static final String NONCE = "1400123456";
+    //
+    private final OAuthSigner signer = new OAuthSigner("key", "secret+with/chars");
+    private final OAuthService scribe = new ServiceBuilder().provider(FixedTimeApi.class)
+            .apiKey("key").apiSecret("secret+with/chars").build();
+
+    @Test
+    public void testGet() throws Exception {
+        Map<String, Object> params = new CommandArguments("flickr.photos.search").getParameters();
+        params.put("text", "caf\u00e9 & cr\u00e8me * ~ 100%");
+        params.put("tags", "\u6771\u4eac,\ud83d\udcf7");
+        params.put("per_page", 50);
+        Token token = new Token("user-token", "user secret");
+
+        assertSigned(Verb.GET, params, token);
+    }
+
+    @Test
+    public void testPost() throws Exception {
+        Map<String, Object> params = new TreeMap<String, Object>();
+        params.put("title", "A title");
+        params.put("is_public", "1");
+        assertSigned(Verb.POST, params, new Token("user-token", "user-secret"));
+    }
+
+    @Test
+    public void testNoToken() throws Exception {
+        Map<String, Object> params = new CommandArguments("flickr.interestingness.getList").getParameters();
+        assertSigned(Verb.GET, params, null);
+    }
+
+    @Test
+    public void testThreads() throws Exception {
+        final Map<String, Object> params = new CommandArguments("flickr.photos.getSizes").getParameters();
+        params.put("photo_id", "1234");
+        final List<Token> tokens = new ArrayList<Token>();
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 4; i++) {
+            Token token = new Token("token" + i, "secret" + i);
+            tokens.add(token);
+            expected.add(signer.sign("GET", URL, params, token, TIMESTAMP, NONCE).get("oauth_signature"));
+        }
+
+        // The Mac of a thread is keyed again for each user
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        int user = i % tokens.size();
+                        String signature = signer.sign("GET", URL, params, tokens.get(user), TIMESTAMP, NONCE)
+                                .get("oauth_signature");
+                        if (!expected.get(user).equals(signature)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void assertSigned(Verb verb, Map<String, Object> params, Token token) {
+        OAuthRequest request = new OAuthRequest(verb, URL);
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            request.addQuerystringParameter(param.getKey(), String.valueOf(param.getValue()));
+        }
+        scribe.signRequest(token == null ? Token.empty() : token, request);
+
+        Map<String, String> oauthParams = signer.sign(verb.name(), URL, params, token, TIMESTAMP, NONCE);
+        assertEquals(request.getOauthParameters(), oauthParams);
+
+        StringBuilder url = new StringBuilder(URL).append('?');
+        OAuthSigner.appendQuery(url, params);
+        assertEquals(request.getCompleteUrl(), url.toString());
+
+        // The header parameters are not in the same order
+        String header = OAuthSigner.getAuthorizationHeader(oauthParams);
+        String expected = request.getHeaders().get("Authorization");
+        assertEquals(sortedHeader(expected), sortedHeader(header));
+    }
+
+    private static String sortedHeader(String header) {
+        assertTrue(header.startsWith("OAuth "));
+        String[] parts = header.substring("OAuth ".length()).split(", ");
+        Arrays.sort(parts);
+        return String.join(", ", parts);
+    }
+
+    /**
+     * Flickr API with a fixed timestamp and nonce.
+     */
+    public static class FixedTimeApi extends FlickrApi {
+
+        @Override
+        public TimestampService getTimestampService() {
+            return new TimestampService() {
+
+                @Override
+                public String getTimestampInSeconds() {
+                    return TIMESTAMP;
+                }
+
+                @Override
+                public String getNonce() {
+                    return NONCE;
+                }
+            };
+        }
+    }
+
+}
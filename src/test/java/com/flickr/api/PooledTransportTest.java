@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.utils.IOUtils;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the pooled transport keeps the connections alive, bounds them, and sends the requests through the proxies.
+ */
+public class PooledTransportTest {
+
+    private static final String ECHO = "{\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private PooledTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.test.echo", ECHO);
+        transport = new PooledTransport();
+    }
+
+    @After
+    public void tearDown() {
+        transport.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testKeepAlive() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(ECHO, send(server.getBaseUrl(), null));
+        }
+        assertEquals(5, server.getRequestCount());
+        assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    public void testIdleTimeout() throws Exception {
+        transport.setIdleTimeout(50, TimeUnit.MILLISECONDS);
+        send(server.getBaseUrl(), null);
+        send(server.getBaseUrl(), null);
+        assertEquals(1, server.getConnectionCount());
+
+        // The idle connection is closed, the next request opens a new one
+        Thread.sleep(150);
+        send(server.getBaseUrl(), null);
+        assertEquals(2, server.getConnectionCount());
+    }
+
+    @Test
+    public void testMaxConnectionsPerRoute() throws Exception {
+        transport.setMaxConnectionsPerRoute(2);
+        server.setLatency(50);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 12; i++) {
+                futures.add(executor.submit(() -> send(server.getBaseUrl(), null)));
+            }
+            for (Future<String> future : futures) {
+                assertEquals(ECHO, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(12, server.getRequestCount());
+        assertEquals(2, server.getConnectionCount());
+    }
+
+    @Test
+    public void testHttpProxy() throws Exception {
+        StubServer proxy = new StubServer();
+        proxy.respond("flickr.test.echo", ECHO);
+        try {
+            // The target host is never resolved, the request is sent to the proxy
+            Proxy httpProxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress("127.0.0.1", proxy.getPort()));
+            assertEquals(ECHO, send("http://api.flickr.invalid", httpProxy));
+            assertEquals(ECHO, send("http://api.flickr.invalid", httpProxy));
+            assertEquals(2, proxy.getRequestCount());
+            assertEquals(1, proxy.getConnectionCount());
+            assertEquals(0, server.getRequestCount());
+        } finally {
+            proxy.stop();
+        }
+    }
+
+    @Test
+    public void testSocksProxy() throws Exception {
+        try (SocksProxy socks = new SocksProxy()) {
+            Proxy proxy = new Proxy(Proxy.Type.SOCKS, new InetSocketAddress("127.0.0.1", socks.getPort()));
+            assertEquals(ECHO, send(server.getBaseUrl(), proxy));
+            assertEquals(ECHO, send(server.getBaseUrl(), proxy));
+            assertEquals(2, server.getRequestCount());
+            // The connection through the proxy is kept alive
+            assertEquals(1, socks.getConnectionCount());
+            assertEquals(1, server.getConnectionCount());
+
+            // Without the proxy, the connection opened through it is not reused
+            assertEquals(ECHO, send(server.getBaseUrl(), null));
+            assertEquals(1, socks.getConnectionCount());
+            assertEquals(2, server.getConnectionCount());
+        }
+    }
+
+    private String send(String baseUrl, Proxy proxy) throws IOException {
+        TransportRequest request = new TransportRequest("GET", baseUrl + "/services/rest/?method=flickr.test.echo");
+        request.setProxy(proxy);
+        request.setConnectTimeout(5000);
+        request.setReadTimeout(5000);
+        TransportResponse response = transport.send(request);
+        try {
+            assertEquals(200, response.getCode());
+            return IOUtils.toString(response.getStream(), "UTF-8");
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * A SOCKS 5 proxy without authentication, relaying the connections to their target.
+     */
+    private static final class SocksProxy implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger connections = new AtomicInteger();
+
+        SocksProxy() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+            executor.execute(() -> {
+                try {
+                    while (true) {
+                        Socket client = serverSocket.accept();
+                        connections.incrementAndGet();
+                        executor.execute(() -> relay(client));
+                    }
+                } catch (IOException ex) {
+                    // Closed
+                }
+            });
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        int getConnectionCount() {
+            return connections.get();
+        }
+
+        private void relay(Socket client) {
+            try (Socket c = client) {
+                DataInputStream in = new DataInputStream(c.getInputStream());
+                DataOutputStream out = new DataOutputStream(c.getOutputStream());
+                // Greeting: version, methods
+                in.readUnsignedByte();
+                in.skipBytes(in.readUnsignedByte());
+                out.write(new byte[]{5, 0});
+                // Request: version, command, reserved, address type, address, port
+                in.readUnsignedByte();
+                in.readUnsignedByte();
+                in.readUnsignedByte();
+                int type = in.readUnsignedByte();
+                String host;
+                if (type == 1) {
+                    byte[] address = new byte[4];
+                    in.readFully(address);
+                    host = InetAddress.getByAddress(address).getHostAddress();
+                } else if (type == 3) {
+                    byte[] name = new byte[in.readUnsignedByte()];
+                    in.readFully(name);
+                    host = new String(name, "US-ASCII");
+                } else {
+                    byte[] address = new byte[16];
+                    in.readFully(address);
+                    host = InetAddress.getByAddress(address).getHostAddress();
+                }
+                int port = in.readUnsignedShort();
+                try (Socket target = new Socket(host, port)) {
+                    out.write(new byte[]{5, 0, 0, 1, 0, 0, 0, 0, 0, 0});
+                    out.flush();
+                    executor.execute(() -> pipe(target, c));
+                    pipe(c, target);
+                }
+            } catch (IOException ex) {
+                // Connection closed
+            }
+        }
+
+        private static void pipe(Socket from, Socket to) {
+            try {
+                InputStream in = from.getInputStream();
+                OutputStream out = to.getOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    out.flush();
+                }
+                to.shutdownOutput();
+            } catch (IOException ex) {
+                // Connection closed
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+
+}
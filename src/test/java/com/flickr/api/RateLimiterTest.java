@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the rate limiter delays or refuses the requests once the burst is spent.
+ */
+public class RateLimiterTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        flickr = server.createFlickr();
+        flickr.setCoalescingEnabled(false);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        RateLimiter limiter = new RateLimiter(20, 2, RateLimiter.Policy.BLOCK);
+        flickr.setRateLimiter(limiter);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<List<PhotoSize>>> futures = new ArrayList<CompletableFuture<List<PhotoSize>>>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(flickr.getPhotosService().getSizesAsync(photo));
+        }
+        for (CompletableFuture<List<PhotoSize>> future : futures) {
+            future.get();
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000;
+
+        // The burst is sent at once, the 4 other requests are sent 50 ms apart
+        assertTrue("Elapsed " + elapsed + " ms", elapsed >= 190);
+        assertEquals(6, server.getRequestCount());
+        assertEquals(4, limiter.getThrottledCount());
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 2, RateLimiter.Policy.FAIL_FAST);
+        flickr.setRateLimiter(limiter);
+
+        flickr.getPhotosService().getSizes(photo);
+        flickr.getPhotosService().getSizes(photo);
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The bucket is empty");
+        } catch (RateLimitExceededException ex) {
+            assertEquals(2, server.getRequestCount());
+            assertEquals(1, limiter.getRejectedCount());
+        }
+    }
+
+    @Test
+    public void testWeights() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 10, RateLimiter.Policy.FAIL_FAST);
+        assertEquals(1, limiter.getWeight("flickr.photos.getSizes"));
+        assertEquals(RateLimiter.DEFAULT_UPLOAD_WEIGHT, limiter.getWeight("upload"));
+
+        limiter.setWeight("flickr.photos.getSizes", 4);
+        flickr.setRateLimiter(limiter);
+        flickr.getPhotosService().getSizes(photo);
+        flickr.getPhotosService().getSizes(photo);
+        assertTrue(limiter.getAvailableTokens() < 3);
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The bucket has less tokens than the weight");
+        } catch (RateLimitExceededException ex) {
+            assertEquals(2, server.getRequestCount());
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the interactive calls are served before the background ones.
+ */
+public class RequestSchedulerTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    private static final String INFO = "{\"photo\":{\"id\":\"1\"},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        server.respond("flickr.photos.getInfo", INFO);
+        flickr = server.createFlickr();
+        flickr.setCoalescingEnabled(false);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testInteractiveFirst() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1);
+        flickr.setRequestScheduler(scheduler);
+        server.setLatency(100);
+        final List<String> completed = Collections.synchronizedList(new ArrayList<String>());
+
+        List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>();
+        try (Priority.Scope scope = Priority.BACKGROUND.apply()) {
+            for (int i = 0; i < 5; i++) {
+                futures.add(flickr.getPhotosService().getInfosAsync(photo).thenRun(() -> completed.add("background")));
+            }
+        }
+        awaitQueueDepth(scheduler, Priority.BACKGROUND, 4);
+        futures.add(flickr.getPhotosService().getSizesAsync(photo).thenRun(() -> completed.add("interactive")));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+
+        // Only the background call in flight is served before
+        assertEquals("interactive", completed.get(1));
+        assertEquals(0, scheduler.getRunningCount());
+        assertEquals(0, scheduler.getPromotedCount());
+    }
+
+    @Test
+    public void testStarvation() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1);
+        scheduler.setMaxWait(300, TimeUnit.MILLISECONDS);
+        flickr.setRequestScheduler(scheduler);
+        server.setLatency(20);
+
+        // More interactive calls than the scheduler serves, the interactive queue is never empty
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final AtomicInteger interactiveCalls = new AtomicInteger();
+        ExecutorService users = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 4; i++) {
+                users.execute(() -> {
+                    try {
+                        while (!stopped.get()) {
+                            flickr.getPhotosService().getSizes(photo);
+                            interactiveCalls.incrementAndGet();
+                        }
+                    } catch (FlickrException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                });
+            }
+            awaitQueueDepth(scheduler, Priority.INTERACTIVE, 3);
+
+            // Without the promotion, the background call would wait until the users stop, past its deadline
+            scheduler.setPriority("flickr.photos.getInfo", Priority.BACKGROUND);
+            try (Deadline.Scope scope = Deadline.after(5, TimeUnit.SECONDS).apply()) {
+                flickr.getPhotosService().getInfos(photo);
+            }
+            assertEquals(1, scheduler.getPromotedCount());
+
+            // The interactive calls are still served after it
+            int served = interactiveCalls.get();
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (interactiveCalls.get() < served + 3 && System.nanoTime() < end) {
+                Thread.sleep(5);
+            }
+            assertTrue(interactiveCalls.get() >= served + 3);
+        } finally {
+            stopped.set(true);
+            users.shutdown();
+        }
+        assertTrue(users.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.getPromotedCount());
+        assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void testSharedRateBudget() throws Exception {
+        flickr.setRateLimiter(new RateLimiter(10, 1, RateLimiter.Policy.BLOCK));
+        RequestScheduler scheduler = new RequestScheduler(10);
+        flickr.setRequestScheduler(scheduler);
+        final List<String> completed = Collections.synchronizedList(new ArrayList<String>());
+
+        List<CompletableFuture<?>> futures = new ArrayList<CompletableFuture<?>>();
+        try (Priority.Scope scope = Priority.BACKGROUND.apply()) {
+            for (int i = 0; i < 8; i++) {
+                futures.add(flickr.getPhotosService().getInfosAsync(photo).thenRun(() -> completed.add("background")));
+            }
+        }
+        // One background call waits for its tokens, the others wait for their turn
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (scheduler.getQueueDepth(Priority.BACKGROUND) < 5 && System.nanoTime() < end) {
+            Thread.sleep(5);
+        }
+        int queued = scheduler.getQueueDepth(Priority.BACKGROUND);
+        assertTrue(queued >= 5);
+
+        // Without the scheduler, the call would wait for the tokens reserved by all the background calls
+        flickr.getPhotosService().getSizes(photo);
+        completed.add("interactive");
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        // Served before the background calls queued, except the one which was then taking its tokens
+        int after = completed.size() - 1 - completed.indexOf("interactive");
+        assertTrue("Background calls served after the interactive one: " + after, after >= queued - 1);
+        assertEquals(9, server.getRequestCount());
+        assertEquals(0, scheduler.getPromotedCount());
+        assertEquals(0, scheduler.getRunningCount());
+        assertTrue(flickr.getRateLimiter().getThrottledCount() >= 8);
+    }
+
+    @Test
+    public void testDeadlineInQueue() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1);
+        flickr.setRequestScheduler(scheduler);
+        server.setLatency(300);
+
+        CompletableFuture<?> running = flickr.getPhotosService().getSizesAsync(photo);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (scheduler.getRunningCount() == 0 && System.nanoTime() < end) {
+            Thread.sleep(5);
+        }
+        try (Deadline.Scope scope = Deadline.after(100, TimeUnit.MILLISECONDS).apply()) {
+            flickr.getPhotosService().getInfos(photo);
+            fail("The call waits for the running one");
+        } catch (DeadlineExceededException ex) {
+            // Expected
+        }
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals(0, scheduler.getQueueDepth(Priority.INTERACTIVE));
+        assertEquals(0, scheduler.getRunningCount());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    private static void awaitQueueDepth(RequestScheduler scheduler, Priority priority, int depth)
+            throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (scheduler.getQueueDepth(priority) != depth && System.nanoTime() < end) {
+            Thread.sleep(5);
+        }
+        assertEquals(depth, scheduler.getQueueDepth(priority));
+    }
+
+}
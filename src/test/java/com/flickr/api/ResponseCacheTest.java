@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the responses of the read methods are cached, expired, evicted and invalidated by the write methods.
+ */
+public class ResponseCacheTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private ResponseCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        server.respond("flickr.favorites.add", "{\"stat\":\"ok\"}");
+        flickr = server.createFlickr();
+        cache = new ResponseCache(2, 1, TimeUnit.MINUTES);
+        flickr.setResponseCache(cache);
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testHit() throws Exception {
+        List<PhotoSize> sizes = getSizes("1");
+        assertSame(sizes, getSizes("1"));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        cache.setTtl("flickr.photos.getSizes", 50, TimeUnit.MILLISECONDS);
+        getSizes("1");
+        Thread.sleep(100);
+        getSizes("1");
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testMethodNotCached() throws Exception {
+        cache.setTtl("flickr.photos.getSizes", 0, TimeUnit.SECONDS);
+        getSizes("1");
+        getSizes("1");
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        getSizes("1");
+        getSizes("2");
+        getSizes("1");
+        getSizes("3");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        getSizes("1");
+        assertEquals(3, server.getRequestCount());
+        getSizes("2");
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void testWriteInvalidates() throws Exception {
+        getSizes("1");
+        getSizes("2");
+        flickr.getFavoritesService().addFavorite(photo("1"));
+        assertEquals(1, cache.size());
+
+        getSizes("1");
+        getSizes("2");
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void testDeadlineCancelsRead() throws Exception {
+        Bulkheads bulkheads = new Bulkheads();
+        bulkheads.set(PhotosService.class, 1, 1);
+        Flickr limited = server.createFlickr(new PooledTransport(), bulkheads);
+        try {
+            limited.setResponseCache(cache);
+            Bulkhead bulkhead = limited.getBulkhead(PhotosService.class);
+            server.setLatency(500);
+            CompletableFuture<List<PhotoSize>> first = limited.getPhotosService().getSizesAsync(photo("1"));
+
+            // Queued behind the first call until its deadline
+            try (Deadline.Scope scope = Deadline.after(100, TimeUnit.MILLISECONDS).apply()) {
+                limited.getPhotosService().getSizes(photo("2"));
+                fail("The call must fail at its deadline");
+            } catch (DeadlineExceededException ex) {
+                // Expected
+            }
+            // Cancelled before failing, the call left the queue and is never sent
+            assertEquals(0, bulkhead.getQueueDepth());
+            assertEquals(1, first.get(5, TimeUnit.SECONDS).size());
+            assertEquals(0, bulkhead.getRunningCount());
+            assertEquals(1, server.getRequestCount());
+            assertEquals(1, cache.size());
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    public void testDeadlineCancelsWrite() throws Exception {
+        Bulkheads bulkheads = new Bulkheads();
+        bulkheads.set(FavoritesService.class, 1, 1);
+        Flickr limited = server.createFlickr(new PooledTransport(), bulkheads);
+        try {
+            limited.setResponseCache(cache);
+            Bulkhead bulkhead = limited.getBulkhead(FavoritesService.class);
+            server.setLatency(500);
+            CompletableFuture<Void> first = limited.getFavoritesService().addFavoriteAsync(photo("1"));
+
+            try (Deadline.Scope scope = Deadline.after(100, TimeUnit.MILLISECONDS).apply()) {
+                limited.getFavoritesService().addFavorite(photo("2"));
+                fail("The call must fail at its deadline");
+            } catch (DeadlineExceededException ex) {
+                // Expected
+            }
+            assertEquals(0, bulkhead.getQueueDepth());
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(0, bulkhead.getRunningCount());
+            assertEquals(1, server.getRequestCount());
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    private List<PhotoSize> getSizes(String id) throws Exception {
+        return flickr.getPhotosService().getSizes(photo(id));
+    }
+
+    private static Photo photo(String id) throws Exception {
+        return new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"" + id
+                + "\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+}
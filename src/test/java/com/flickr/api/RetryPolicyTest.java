@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the transient errors are retried, and the other ones are not.
+ */
+public class RetryPolicyTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private RetryPolicy policy;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        server.respond("flickr.favorites.add", "{\"stat\":\"ok\"}");
+        flickr = server.createFlickr();
+        policy = new RetryPolicy(3, 10, 50, TimeUnit.MILLISECONDS);
+        flickr.setRetryPolicy(policy);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testTransientError() throws Exception {
+        server.failNext(2, 503);
+        assertEquals(1, flickr.getPhotosService().getSizes(photo).size());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(3, policy.getAttemptCount());
+        assertEquals(2, policy.getRetryCount());
+    }
+
+    @Test
+    public void testAttemptsExhausted() throws Exception {
+        server.failNext(3, 503);
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The 3 attempts failed");
+        } catch (FlickrException ex) {
+            assertEquals(FlickrErrorCode.service_currently_unavailable, ex.getErrorCode());
+            assertEquals(3, server.getRequestCount());
+            assertEquals(1, policy.getExhaustedCount());
+        }
+    }
+
+    @Test
+    public void testErrorNotRetryable() throws Exception {
+        try {
+            flickr.getPhotosService().getInfos(photo);
+            fail("The method is unknown");
+        } catch (FlickrException ex) {
+            assertEquals(FlickrErrorCode.method_not_found, ex.getErrorCode());
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        policy = new RetryPolicy(10, 200, 200, TimeUnit.MILLISECONDS);
+        policy.setDeadline(1, TimeUnit.MILLISECONDS);
+        flickr.setRetryPolicy(policy);
+        server.failNext(1, 503);
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The retry would exceed the deadline");
+        } catch (FlickrException ex) {
+            assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void testPostOptIn() throws Exception {
+        server.failNext(1, 503);
+        try {
+            flickr.getFavoritesService().addFavorite(photo);
+            fail("The write methods are not retried by default");
+        } catch (FlickrException ex) {
+            assertEquals(1, server.getRequestCount());
+        }
+
+        policy.setRetryPosts(true);
+        server.failNext(1, 503);
+        flickr.getFavoritesService().addFavorite(photo);
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void testClassification() {
+        assertTrue(policy.isRetryable(new FlickrException("reset", new SocketException("Connection reset"))));
+        assertTrue(policy.isRetryable(new FlickrException("timeout", new SocketTimeoutException())));
+        assertFalse(policy.isRetryable(new FlickrException("signature", FlickrErrorCode.invalid_signature)));
+        assertFalse(policy.isRetryable(new RateLimitExceededException("limit")));
+
+        policy.setRetryable(FlickrErrorCode.general_upload_failure, true);
+        assertTrue(policy.isRetryable(new FlickrException("upload", FlickrErrorCode.general_upload_failure)));
+    }
+
+    @Test
+    public void testBackoff() {
+        for (int retry = 1; retry < 40; retry++) {
+            long backoff = policy.getBackoff(retry);
+            assertTrue(backoff >= 0);
+            assertTrue(backoff <= TimeUnit.MILLISECONDS.toNanos(Math.min(50, 10L << Math.min(retry - 1, 10))));
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.FlickrApi;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+
+/**
+ * JMH benchmark of the signing of a search request: scribe, as the requests were signed before, and
+ * {@link OAuthSigner}. Run by {@link SigningBenchmarkIT}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SigningBenchmark {
+
+    private static final String URL = "https://api.flickr.com/services/rest";
+    //
+    private OAuthService scribe;
+    private OAuthSigner signer;
+    private Token token;
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() {
+        scribe = new ServiceBuilder().provider(FlickrApi.class).apiKey("0123456789abcdef0123456789abcdef")
+                .apiSecret("0123456789abcdef").build();
+        signer = new OAuthSigner("0123456789abcdef0123456789abcdef", "0123456789abcdef");
+        token = new Token("72157600000000000-0123456789abcdef", "0123456789abcdef");
+
+        CommandArguments args = new CommandArguments("flickr.photos.search");
+        args.addParam("user_id", "12345678@N00");
+        args.addParam("text", "sunset over the bay");
+        args.addParam("extras", "date_taken,owner_name,original_format,geo,tags,url_m");
+        args.addParam("per_page", 100);
+        args.addParam("page", 3);
+        params = args.getParameters();
+    }
+
+    @Benchmark
+    public Object scribe() {
+        OAuthRequest request = new OAuthRequest(Verb.GET, URL);
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            request.addQuerystringParameter(param.getKey(), String.valueOf(param.getValue()));
+        }
+        scribe.signRequest(token, request);
+        return request.getCompleteUrl() + request.getHeaders().get("Authorization");
+    }
+
+    @Benchmark
+    public Object signer() {
+        Map<String, String> oauthParams = signer.sign("GET", URL, params, token);
+        StringBuilder url = new StringBuilder(512).append(URL).append('?');
+        OAuthSigner.appendQuery(url, params);
+        return url.toString() + OAuthSigner.getAuthorizationHeader(oauthParams);
+    }
+
+}
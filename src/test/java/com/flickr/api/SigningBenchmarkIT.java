@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.util.Collection;
+import org.junit.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import static org.junit.Assert.*;
+
+/**
+ * Run {@link SigningBenchmark}, and check the new signing path is faster and allocates less than scribe.
+ */
+public class SigningBenchmarkIT {
+
+    @Test
+    public void testSigning() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(SigningBenchmark.class.getName() + "\\.")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        double scribeTime = 0, signerTime = 0, scribeAlloc = 0, signerAlloc = 0;
+        for (RunResult result : results) {
+            String name = result.getParams().getBenchmark();
+            Result allocation = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            double allocated = allocation == null ? Double.NaN : allocation.getScore();
+            if (name.endsWith(".scribe")) {
+                scribeTime = result.getPrimaryResult().getScore();
+                scribeAlloc = allocated;
+            } else {
+                signerTime = result.getPrimaryResult().getScore();
+                signerAlloc = allocated;
+            }
+        }
+        System.out.println(String.format("Signing: scribe %.2f us %.0f bytes, signer %.2f us %.0f bytes per request",
+                scribeTime, scribeAlloc, signerTime, signerAlloc));
+        assertTrue("The signer should be faster than scribe", signerTime < scribeTime);
+        assertTrue("The signer should allocate less than scribe", Double.isNaN(signerAlloc) || signerAlloc < scribeAlloc);
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Paginated;
+import com.flickr.api.entities.Photo;
+import com.flickr.api.json.JSONParser;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the responses are parsed while they are received, from a server sending them slowly in small chunks.
+ */
+public class StreamingResponseTest {
+
+    private static final int PHOTOS = 40;
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private String page;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        flickr = server.createFlickr();
+        StringBuilder builder = new StringBuilder("{\"photos\":{\"page\":1,\"pages\":1,\"perpage\":");
+        builder.append(PHOTOS).append(",\"total\":\"").append(PHOTOS).append("\",\"photo\":[");
+        for (int i = 0; i < PHOTOS; i++) {
+            builder.append(i == 0 ? "" : ",").append("{\"id\":\"").append(1000 + i)
+                    .append("\",\"owner\":\"12345678@N01\",\"secret\":\"a1b2c3d4e5\",\"server\":\"1\",\"farm\":1,")
+                    .append("\"title\":\"Caf\u00e9 \u20ac ").append(i).append("\",\"ispublic\":1}");
+        }
+        page = builder.append("]},\"stat\":\"ok\"}").toString();
+        server.respond("flickr.photos.getRecent", page);
+    }
+
+    @After
+    public void tearDown() {
+        JSONParser.setDefault(JSONParser.STREAMING);
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testSlowChunkedBody() throws Exception {
+        // The chunks cut the tokens and the multi-byte characters
+        server.setChunks(5, 1);
+        assertPage(flickr.getPhotosService().getRecent(PHOTOS, 1));
+    }
+
+    @Test
+    public void testSlowChunkedBodyWithTree() throws Exception {
+        JSONParser.setDefault(JSONParser.ORG_JSON);
+        server.setChunks(5, 1);
+        assertPage(flickr.getPhotosService().getRecent(PHOTOS, 1));
+    }
+
+    @Test
+    public void testReadTimeoutBetweenChunks() throws Exception {
+        // The whole body takes longer than the read timeout, but each chunk arrives before it
+        int chunk = page.length() / 20 + 1;
+        server.setChunks(chunk, 50);
+        flickr.setTimeouts(5000, 500, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        assertPage(flickr.getPhotosService().getRecent(PHOTOS, 1));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 500);
+    }
+
+    @Test
+    public void testTruncatedChunkedBody() throws Exception {
+        server.respond("flickr.photos.getRecent", page.substring(0, page.length() / 2));
+        server.setChunks(16, 1);
+        try {
+            flickr.getPhotosService().getRecent(PHOTOS, 1);
+            fail("The truncated body should not be parsed");
+        } catch (FlickrException ex) {
+            assertNull(ex.getErrorCode());
+        }
+    }
+
+    private static void assertPage(Paginated<Photo> photos) {
+        assertEquals(PHOTOS, photos.asList().size());
+        for (int i = 0; i < PHOTOS; i++) {
+            Photo photo = photos.get(i);
+            assertEquals(String.valueOf(1000 + i), photo.getId());
+            assertEquals("Caf\u00e9 \u20ac " + i, photo.getTitle());
+            assertTrue(photo.isPublic());
+        }
+    }
+
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright (C) 2013 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.utils.IOUtils;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local HTTP server answering the Flickr API calls with canned JSON responses, used to test the client without the
+ * real web services.
+ */
+final class StubServer {
+
+    static {
+        // Without TCP_NODELAY, the headers and the body written separately wait for the delayed ACK (~40ms)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, String> responses = new ConcurrentHashMap<String, String>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private volatile long latency;
+    private final Map<String, Long> methodLatencies = new ConcurrentHashMap<String, Long>();
+    private volatile String contentEncoding;
+    private volatile int chunkSize;
+    private volatile long chunkDelay;
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile int failureStatus;
+    private final AtomicInteger delayed = new AtomicInteger();
+    private volatile long delay;
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private volatile long queueLatency;
+    private volatile int capacity;
+    private final List<String> authorizations = new CopyOnWriteArrayList<String>();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private volatile Headers lastHeaders;
+    private volatile String lastQuery;
+    private volatile boolean recordBodies;
+    private volatile byte[] lastBody;
+
+    StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", new StubHandler());
+        server.start();
+    }
+
+    /**
+     * Set the response returned for an API method.
+     *
+     * @param method The API method (flickr.photos.getSizes ...), or "upload" for the upload endpoint
+     * @param json The JSON response
+     */
+    void respond(String method, String json) {
+        responses.put(method, json);
+    }
+
+    /**
+     * Set the time waited by the server before answering.
+     *
+     * @param millis The latency in milliseconds
+     */
+    void setLatency(long millis) {
+        latency = millis;
+    }
+
+    /**
+     * Set the time waited by the server before answering the calls of a method, added to the latency of all the calls.
+     *
+     * @param method The API method, or "upload" for the upload endpoint
+     * @param millis The latency in milliseconds
+     */
+    void setLatency(String method, long millis) {
+        methodLatencies.put(method, millis);
+    }
+
+    /**
+     * Add a latency growing with the number of requests handled at the same time, as a server queueing them.
+     *
+     * @param millis The latency added for each request handled, in milliseconds
+     */
+    void setQueueLatency(long millis) {
+        queueLatency = millis;
+    }
+
+    /**
+     * Answer the requests past the capacity with an HTTP 503 error, as a throttling server.
+     *
+     * @param capacity The maximum number of requests handled at the same time, 0 for no limit
+     */
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Compress the responses when the client accepts it.
+     *
+     * @param encoding "gzip", "deflate", or null to send the responses uncompressed
+     */
+    void setContentEncoding(String encoding) {
+        contentEncoding = encoding;
+    }
+
+    /**
+     * Send the responses with the chunked encoding, a few bytes at a time, as a slow server.
+     *
+     * @param size The number of bytes per chunk, 0 to send the responses at once
+     * @param delay The time waited before each chunk, in milliseconds
+     */
+    void setChunks(int size, long delay) {
+        chunkSize = size;
+        chunkDelay = delay;
+    }
+
+    /**
+     * Answer the next requests with an HTTP error, without a JSON body.
+     *
+     * @param count The number of requests failed
+     * @param status The HTTP status (503 ...)
+     */
+    void failNext(int count, int status) {
+        failureStatus = status;
+        failures.set(count);
+    }
+
+    /**
+     * Answer the next requests after an additional delay.
+     *
+     * @param count The number of requests delayed
+     * @param millis The delay in milliseconds
+     */
+    void delayNext(int count, long millis) {
+        delay = millis;
+        delayed.set(count);
+    }
+
+    int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Get the number of connections the requests were received on.
+     *
+     * @return The number of distinct client addresses
+     */
+    int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Get the OAuth headers of the requests received.
+     *
+     * @return The Authorization headers, in the arrival order
+     */
+    List<String> getAuthorizations() {
+        return authorizations;
+    }
+
+    /**
+     * Get the number of bytes received in the request bodies.
+     *
+     * @return The number of bytes
+     */
+    long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    /**
+     * Get a header of the last request received.
+     *
+     * @param name The header name
+     * @return The header value, or null
+     */
+    String getLastHeader(String name) {
+        Headers headers = lastHeaders;
+        return headers == null ? null : headers.getFirst(name);
+    }
+
+    /**
+     * Get the query string of the last request received.
+     *
+     * @return The query string, not decoded, or null
+     */
+    String getLastQuery() {
+        return lastQuery;
+    }
+
+    /**
+     * Keep the body of the last request received, instead of discarding it.
+     */
+    void recordBodies() {
+        recordBodies = true;
+    }
+
+    /**
+     * Get the body of the last request received, if the bodies are recorded.
+     *
+     * @return The body, or null
+     */
+    byte[] getLastBody() {
+        return lastBody;
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    String getBaseUrl() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    /**
+     * Create a client whose requests are sent to this server.
+     *
+     * @return The client
+     * @throws IOException Error creating the client configuration
+     */
+    Flickr createFlickr() throws IOException {
+        return createFlickr(new PooledTransport());
+    }
+
+    /**
+     * Create a client whose requests are sent to this server with the given transport.
+     *
+     * @param transport The transport
+     * @return The client
+     * @throws IOException Error creating the client configuration
+     */
+    Flickr createFlickr(Transport transport) throws IOException {
+        return createFlickr(transport, null);
+    }
+
+    /**
+     * Create a client whose requests are sent to this server with the given transport and concurrency limits.
+     *
+     * @param transport The transport
+     * @param bulkheads The concurrency limits of the services, or null
+     * @return The client
+     * @throws IOException Error creating the client configuration
+     */
+    Flickr createFlickr(Transport transport, Bulkheads bulkheads) throws IOException {
+        Flickr flickr = new Flickr("key", "secret", "http://localhost", "read", createProperties(), bulkheads);
+        flickr.setTransport(new RedirectTransport(transport));
+        return flickr;
+    }
+
+    /**
+     * Create the configuration of a client whose requests are sent to this server with the given transport.
+     *
+     * @param transport The transport
+     * @return The configuration builder, to complete
+     * @throws IOException Error creating the client configuration
+     */
+    FlickrConfig.Builder configure(Transport transport) throws IOException {
+        return FlickrConfig.builder("key", "secret", createProperties())
+                .callbackUrl("http://localhost")
+                .transport(new RedirectTransport(transport));
+    }
+
+    FlickrProperties createProperties() throws IOException {
+        File file = File.createTempFile("flickr", ".conf");
+        file.deleteOnExit();
+
+        Properties props = new Properties();
+        props.setProperty("oauth.access.token", "token");
+        props.setProperty("oauth.access.secret", "secret");
+        OutputStream os = new FileOutputStream(file);
+        try {
+            props.store(os, null);
+        } finally {
+            IOUtils.closeQuietly(os);
+        }
+        return new FlickrProperties(file);
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static boolean take(AtomicInteger counter) {
+        int count;
+        do {
+            count = counter.get();
+            if (count <= 0) {
+                return false;
+            }
+        } while (!counter.compareAndSet(count, count - 1));
+        return true;
+    }
+
+    private static String getMethod(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("method=")) {
+                    return param.substring("method=".length());
+                }
+            }
+        }
+        return "upload";
+    }
+
+    private static byte[] compress(byte[] data, String encoding) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStream os = "gzip".equals(encoding) ? new GZIPOutputStream(baos) : new DeflaterOutputStream(baos);
+        os.write(data);
+        os.close();
+        return baos.toByteArray();
+    }
+
+    private final class StubHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            connections.add(exchange.getRemoteAddress());
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authorization != null) {
+                authorizations.add(authorization);
+            }
+            lastHeaders = exchange.getRequestHeaders();
+            lastQuery = exchange.getRequestURI().getRawQuery();
+            int handled = concurrent.incrementAndGet();
+            try {
+                InputStream is = exchange.getRequestBody();
+                ByteArrayOutputStream recorded = recordBodies ? new ByteArrayOutputStream() : null;
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = is.read(buffer)) != -1) {
+                    // Discard the request body, unless it is recorded
+                    receivedBytes.addAndGet(read);
+                    if (recorded != null) {
+                        recorded.write(buffer, 0, read);
+                    }
+                }
+                if (recorded != null) {
+                    lastBody = recorded.toByteArray();
+                }
+                if (latency > 0) {
+                    Thread.sleep(latency);
+                }
+                Long methodLatency = methodLatencies.get(getMethod(exchange));
+                if (methodLatency != null) {
+                    Thread.sleep(methodLatency);
+                }
+
+                if (queueLatency > 0) {
+                    Thread.sleep(queueLatency * handled);
+                }
+                if (take(delayed)) {
+                    Thread.sleep(delay);
+                }
+                if (capacity > 0 && handled > capacity) {
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                if (take(failures)) {
+                    exchange.sendResponseHeaders(failureStatus, -1);
+                    return;
+                }
+
+                String response = responses.get(getMethod(exchange));
+                if (response == null) {
+                    response = "{\"stat\":\"fail\",\"code\":112,\"message\":\"Method not found\"}";
+                }
+                byte[] body = IOUtils.toByteArray(response);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                String encoding = contentEncoding;
+                String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                if (encoding != null && accepted != null && accepted.contains(encoding)) {
+                    body = compress(body, encoding);
+                    exchange.getResponseHeaders().set("Content-Encoding", encoding);
+                }
+                int chunk = chunkSize;
+                if (chunk > 0) {
+                    // Length 0: chunked encoding
+                    exchange.sendResponseHeaders(200, 0);
+                    OutputStream os = exchange.getResponseBody();
+                    for (int offset = 0; offset < body.length; offset += chunk) {
+                        Thread.sleep(chunkDelay);
+                        os.write(body, offset, Math.min(chunk, body.length - offset));
+                        os.flush();
+                    }
+                } else {
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                }
+
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Send the requests to the stub server instead of the Flickr hosts.
+     */
+    private final class RedirectTransport implements Transport {
+
+        private final Transport delegate;
+
+        RedirectTransport(Transport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public TransportResponse send(TransportRequest request) throws IOException {
+            return delegate.send(redirect(request));
+        }
+
+        @Override
+        public CompletableFuture<TransportResponse> sendAsync(TransportRequest request, Executor executor) {
+            return delegate.sendAsync(redirect(request), executor);
+        }
+
+        private TransportRequest redirect(TransportRequest request) {
+            String url = request.getUrl().replaceFirst("^https?://[^/]+", getBaseUrl());
+            TransportRequest redirected = new TransportRequest(request.getMethod(), url);
+            redirected.getHeaders().putAll(request.getHeaders());
+            redirected.setEntity(request.getEntity());
+            redirected.setConnectTimeout(request.getConnectTimeout());
+            redirected.setReadTimeout(request.getReadTimeout());
+            redirected.setProxy(request.getProxy());
+            return redirected;
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoInfos;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check a single client can be shared by many threads while it is reconfigured.
+ */
+public class ThreadSafetyTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    private static final String INFO = "{\"photo\":{\"id\":\"1\",\"dateuploaded\":\"1100897479\","
+            + "\"dates\":{\"posted\":\"1100897479\",\"taken\":\"2004-11-19 12:51:19\",\"takengranularity\":0,"
+            + "\"lastupdate\":\"1093022469\"}},\"stat\":\"ok\"}";
+    private static final int THREADS = 16;
+    private static final int CALLS = 200;
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        server.respond("flickr.photos.getInfo", INFO);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        if (flickr != null) {
+            flickr.shutdown();
+        }
+        server.stop();
+    }
+
+    @Test
+    public void testConcurrentCalls() throws Exception {
+        PooledTransport transport = new PooledTransport();
+        transport.setMaxConnections(THREADS);
+        transport.setMaxConnectionsPerRoute(THREADS);
+        flickr = new Flickr(server.configure(transport)
+                .timeouts(5, 10, TimeUnit.SECONDS)
+                .concurrencyLimiter(new ConcurrencyLimiter(THREADS, 1, THREADS))
+                .build());
+        final Date taken = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2004-11-19 12:51:19");
+        final Queue<Throwable> errors = new ConcurrentLinkedQueue<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            final UserSession session = flickr.forUser(new UserToken("user-" + i, "secret-" + i));
+            workers.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < CALLS; j++) {
+                            if (j % 2 == 0) {
+                                // The dates are parsed by all the threads at the same time
+                                PhotoInfos infos = flickr.getPhotosService().getInfos(photo);
+                                assertEquals(taken, infos.getDates().getTakenDate());
+                                assertEquals(new Date(1100897479000L), infos.getDates().getPostedDate());
+                            } else {
+                                List<PhotoSize> sizes = session.getPhotosService().getSizes(photo);
+                                assertEquals(75, sizes.get(0).getWidth());
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        errors.add(ex);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        // Reconfigure the client while it is used
+        boolean toggle = false;
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            toggle = !toggle;
+            flickr.setProxy(toggle ? Proxy.NO_PROXY : null);
+            flickr.setTimeouts(5, toggle ? 20 : 10, TimeUnit.SECONDS);
+            flickr.setResponseCache(toggle ? new ResponseCache(10, 1, TimeUnit.MINUTES) : null);
+            flickr.setCoalescingEnabled(toggle);
+        }
+        workers.shutdown();
+
+        assertTrue("Calls failed: " + errors, errors.isEmpty());
+        assertTrue(server.getRequestCount() > 0);
+        assertEquals(0, flickr.getConcurrencyLimiter().getInFlightCount());
+    }
+
+    @Test
+    public void testProxySharedWithSessions() throws Exception {
+        flickr = new Flickr(server.configure(new PooledTransport()).build());
+        UserSession session = flickr.forUser(new UserToken("alice-token", "alice-secret"));
+        session.getPhotosService().getSizes(photo);
+
+        // The session created before sees the new proxy
+        ServerSocket socket = new ServerSocket(0);
+        int closedPort = socket.getLocalPort();
+        socket.close();
+        flickr.setProxy(new Proxy(Proxy.Type.HTTP, new InetSocketAddress("127.0.0.1", closedPort)));
+        try {
+            session.getPhotosService().getSizes(photo);
+            fail("The requests go through the proxy");
+        } catch (FlickrException ex) {
+            // Expected
+        }
+        assertEquals(1, server.getRequestCount());
+
+        flickr.setProxy(null);
+        session.getPhotosService().getSizes(photo);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testImmutableConfig() throws Exception {
+        Bulkheads bulkheads = new Bulkheads();
+        FlickrConfig.Builder builder = server.configure(new PooledTransport())
+                .callTimeout(2, TimeUnit.SECONDS)
+                .bulkheads(bulkheads);
+        FlickrConfig config = builder.build();
+
+        // The later changes of the builder and of the bulkheads are ignored
+        bulkheads.setDefault(1, 1);
+        builder.callTimeout(1, TimeUnit.SECONDS);
+        assertEquals(2, config.getCallTimeout(TimeUnit.SECONDS));
+        assertEquals("read", config.getPermission());
+
+        flickr = new Flickr(config);
+        assertNull(flickr.getBulkhead(GroupsService.class));
+        Flickr bounded = new Flickr(builder.build());
+        assertNotNull(bounded.getBulkhead(GroupsService.class));
+        bounded.shutdown();
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the read timeouts of the requests and the deadlines of the calls.
+ */
+public class TimeoutTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        flickr = server.createFlickr();
+        flickr.setCoalescingEnabled(false);
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testReadTimeout() throws Exception {
+        flickr.setTimeouts("flickr.photos.getSizes", 1000, 200, TimeUnit.MILLISECONDS);
+        server.delayNext(1, 2000);
+        long start = System.nanoTime();
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The response is later than the read timeout");
+        } catch (FlickrException ex) {
+            assertFalse(ex instanceof DeadlineExceededException);
+            assertTrue(ex.getCause() instanceof SocketTimeoutException);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1500));
+
+        // The other methods keep the default timeouts
+        assertEquals(1, flickr.getPhotosService().getSizes(photo).size());
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        server.delayNext(1, 2000);
+        long start = System.nanoTime();
+        try (Deadline.Scope scope = Deadline.after(200, TimeUnit.MILLISECONDS).apply()) {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The response is later than the deadline");
+        } catch (DeadlineExceededException ex) {
+            // Expected
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1500));
+        assertNull(Deadline.current());
+
+        // Out of the scope, no deadline
+        server.delayNext(1, 300);
+        assertEquals(1, flickr.getPhotosService().getSizes(photo).size());
+    }
+
+    @Test
+    public void testCallTimeout() throws Exception {
+        flickr.setCallTimeout(200, TimeUnit.MILLISECONDS);
+        server.delayNext(1, 2000);
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The response is later than the call timeout");
+        } catch (DeadlineExceededException ex) {
+            // Expected
+        }
+        assertEquals(1, flickr.getPhotosService().getSizes(photo).size());
+    }
+
+    @Test
+    public void testNoRetryPastDeadline() throws Exception {
+        RetryPolicy policy = new RetryPolicy(5, 1, 1, TimeUnit.HOURS);
+        flickr.setRetryPolicy(policy);
+        flickr.setCallTimeout(2, TimeUnit.SECONDS);
+        server.failNext(5, 503);
+        long start = System.nanoTime();
+        try {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The backoff is longer than the deadline");
+        } catch (FlickrException ex) {
+            // The error of the attempt, without waiting for the deadline
+            assertEquals(FlickrErrorCode.service_currently_unavailable, ex.getErrorCode());
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, policy.getRetryCount());
+    }
+
+    @Test
+    public void testRateLimiterWaitPastDeadline() throws Exception {
+        RateLimiter limiter = new RateLimiter(0.5, 1, RateLimiter.Policy.BLOCK);
+        flickr.setRateLimiter(limiter);
+        flickr.getPhotosService().getSizes(photo);
+
+        long start = System.nanoTime();
+        try (Deadline.Scope scope = Deadline.after(500, TimeUnit.MILLISECONDS).apply()) {
+            flickr.getPhotosService().getSizes(photo);
+            fail("The next token comes after the deadline");
+        } catch (DeadlineExceededException ex) {
+            // Expected
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(400));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+}
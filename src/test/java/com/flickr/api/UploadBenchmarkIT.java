@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Compare the throughput of the uploads sent from the file to the socket with zero copy, and copied through the
+ * connection stream, against a local stub server.
+ */
+public class UploadBenchmarkIT {
+
+    private static final long FILE_SIZE = 256L * 1024 * 1024;
+    private static final int UPLOADS = 5;
+    private static final String UPLOADED = "<?xml version=\"1.0\" encoding=\"utf-8\" ?>"
+            + "<rsp stat=\"ok\"><photoid>1234</photoid></rsp>";
+    //
+    private StubServer server;
+    private PooledTransport transport;
+    private Flickr flickr;
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("upload", UPLOADED);
+        transport = new PooledTransport();
+        flickr = server.createFlickr(transport);
+        // Sent to a plain HTTP upload endpoint, as to a local proxy forwarding the uploads to Flickr
+        flickr.setTransport(transport);
+        flickr.setUploadEndpoint(server.getBaseUrl() + "/services/upload");
+        // The uploads run in this thread, so their CPU time is measured
+        flickr.setExecutor(Runnable::run);
+        file = UploadTest.createFile(FILE_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+        file.delete();
+    }
+
+    @Test
+    public void testThroughput() throws Exception {
+        run(1);
+        long[] zeroCopy = run(UPLOADS);
+        assertEquals((UPLOADS + 1) * FILE_SIZE, transport.getTransferredBytes());
+
+        transport.setZeroCopyEnabled(false);
+        run(1);
+        long[] copy = run(UPLOADS);
+        assertEquals((UPLOADS + 1) * FILE_SIZE, transport.getTransferredBytes());
+
+        System.out.println(String.format("%d uploads of %d MB: zero copy %.0f MB/s %d ms CPU, copy %.0f MB/s %d ms CPU",
+                UPLOADS, FILE_SIZE >> 20, throughput(zeroCopy[0]), zeroCopy[1] / 1000000,
+                throughput(copy[0]), copy[1] / 1000000));
+        assertTrue("The zero copy uploads should take less CPU time", zeroCopy[1] < copy[1]);
+    }
+
+    private long[] run(int uploads) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = System.nanoTime();
+        long cpu = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < uploads; i++) {
+            assertEquals("1234", flickr.getUploadService().uploadPhoto(file, "title", null));
+        }
+        return new long[]{System.nanoTime() - start, threads.getCurrentThreadCpuTime() - cpu};
+    }
+
+    private double throughput(long nanos) {
+        return UPLOADS * (FILE_SIZE / 1048576.0) / (nanos / 1e9);
+    }
+
+}
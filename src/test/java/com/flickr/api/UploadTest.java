@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the uploads stream the files to the connection.
+ */
+public class UploadTest {
+
+    private static final String UPLOADED = "<?xml version=\"1.0\" encoding=\"utf-8\" ?>"
+            + "<rsp stat=\"ok\"><photoid>1234</photoid></rsp>";
+    private static final int FILE_SIZE = 32 * 1024 * 1024;
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("upload", UPLOADED);
+        flickr = server.createFlickr();
+        file = createFile(FILE_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+        file.delete();
+    }
+
+    @Test
+    public void testStreamedFile() throws Exception {
+        // The whole upload runs in this thread, so its allocations are measured
+        flickr.setExecutor(Runnable::run);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(thread);
+
+        assertEquals("1234", flickr.getUploadService().uploadPhoto(file, "title", null));
+
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+        assertTrue("Allocated " + allocated + " bytes", allocated < FILE_SIZE / 8);
+        // Sent with its length, not chunked
+        assertTrue(server.getReceivedBytes() > FILE_SIZE);
+        assertEquals(String.valueOf(server.getReceivedBytes()), server.getLastHeader("Content-Length"));
+        assertNull(server.getLastHeader("Transfer-Encoding"));
+    }
+
+    @Test
+    public void testRetriedUpload() throws Exception {
+        RetryPolicy policy = new RetryPolicy(2, 10, 10, TimeUnit.MILLISECONDS);
+        policy.setRetryPosts(true);
+        flickr.setRetryPolicy(policy);
+        server.failNext(1, 503);
+
+        // The file is read again for the second attempt, signed again
+        assertEquals("1234", flickr.getUploadService().uploadPhoto(file, "title", "description"));
+        assertEquals(2, server.getRequestCount());
+        assertTrue(server.getReceivedBytes() > 2L * FILE_SIZE);
+    }
+
+    @Test
+    public void testZeroCopy() throws Exception {
+        byte[] content = new byte[1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+        File photo = File.createTempFile("photo", ".jpg");
+        photo.deleteOnExit();
+        OutputStream out = new FileOutputStream(photo);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        server.recordBodies();
+        PooledTransport transport = new PooledTransport();
+        Flickr client = server.createFlickr(transport);
+        try {
+            // Sent from the file to the socket, between the multipart headers written by the stream
+            assertEquals("1234", client.getUploadService().uploadPhoto(photo, "title", null));
+            assertEquals(content.length, transport.getTransferredBytes());
+            assertFilePart(server.getLastBody(), content);
+
+            // Copied through the stream
+            transport.setZeroCopyEnabled(false);
+            assertEquals("1234", client.getUploadService().uploadPhoto(photo, "title", null));
+            assertEquals(content.length, transport.getTransferredBytes());
+            assertFilePart(server.getLastBody(), content);
+        } finally {
+            client.shutdown();
+            photo.delete();
+        }
+    }
+
+    @Test
+    public void testUploadEndpoint() throws Exception {
+        PooledTransport transport = new PooledTransport();
+        Flickr client = server.createFlickr(transport);
+        // Sent to the URLs of the requests, the stub server does not redirect them
+        client.setTransport(transport);
+        try {
+            try {
+                client.setUploadEndpoint("ftp://localhost/upload");
+                fail("Only the HTTP endpoints are supported");
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+            client.setUploadEndpoint(server.getBaseUrl() + "/services/upload");
+            assertEquals("1234", client.getUploadService().uploadPhoto(file, "title", null));
+            // A plain HTTP endpoint, forwarding the request to Flickr
+            assertEquals(FILE_SIZE, transport.getTransferredBytes());
+            assertEquals("up.flickr.com", server.getLastHeader("Host"));
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void testMemorySources() throws Exception {
+        byte[] content = new byte[256 * 1024 + 3];
+        new Random(7).nextBytes(content);
+        server.recordBodies();
+        PooledTransport transport = new PooledTransport();
+        Flickr client = server.createFlickr(transport);
+        try {
+            UploadService service = client.getUploadService();
+            assertEquals("1234", service.uploadPhoto(content, "title", null));
+            assertFilePart(server.getLastBody(), content);
+            assertEquals(0, transport.getTransferredBytes());
+
+            // Only the remaining bytes are sent, the position is kept
+            ByteBuffer heap = ByteBuffer.wrap(new byte[content.length + 10], 5, content.length).slice();
+            heap.put(content).flip();
+            assertEquals("1234", service.uploadPhoto(heap, "title", null));
+            assertFilePart(server.getLastBody(), content);
+            assertEquals(0, heap.position());
+
+            // Written straight to the socket channel
+            ByteBuffer direct = ByteBuffer.allocateDirect(content.length);
+            direct.put(content).flip();
+            assertEquals("1234", service.uploadPhoto(direct, "title", null));
+            assertFilePart(server.getLastBody(), content);
+            assertEquals(content.length, transport.getTransferredBytes());
+
+            // Copied through the stream
+            transport.setZeroCopyEnabled(false);
+            assertEquals("1234", service.uploadPhoto(direct, "title", null));
+            assertFilePart(server.getLastBody(), content);
+            assertEquals(content.length, transport.getTransferredBytes());
+
+            assertEquals("1234", service.uploadPhoto(new ByteArrayInputStream(content), content.length, "title", null));
+            assertFilePart(server.getLastBody(), content);
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void testStreamNotRetried() throws Exception {
+        RetryPolicy policy = new RetryPolicy(2, 10, 10, TimeUnit.MILLISECONDS);
+        policy.setRetryPosts(true);
+        flickr.setRetryPolicy(policy);
+        server.failNext(1, 503);
+        byte[] content = new byte[1024];
+
+        try {
+            flickr.getUploadService().uploadPhoto(new ByteArrayInputStream(content), content.length, "title", null);
+            fail("The stream cannot be sent again");
+        } catch (FlickrException ex) {
+            // Expected
+        }
+        assertEquals(1, server.getRequestCount());
+
+        // The other sources are sent again
+        server.failNext(1, 503);
+        assertEquals("1234", flickr.getUploadService().uploadPhoto(content, "title", null));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void testShortStream() throws Exception {
+        try {
+            flickr.getUploadService().uploadPhoto(new ByteArrayInputStream(new byte[100]), 200, "title", null);
+            fail("The stream is shorter than its length");
+        } catch (FlickrException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testFileChangedBeforeSent() throws Exception {
+        File changed = createFile(1000);
+        try {
+            for (boolean direct : new boolean[]{false, true}) {
+                // Grown: the declared length is sent, then the upload fails
+                setLength(changed, 1000);
+                FileTransferBody body = new FileTransferBody(changed);
+                setLength(changed, 1500);
+                assertEquals(1000, body.getContentLength());
+                assertEquals(1000, writeFailed(body, direct, IOException.class));
+
+                // Truncated: the upload fails before the end of the declared length
+                setLength(changed, 1000);
+                body = new FileTransferBody(changed);
+                setLength(changed, 400);
+                assertEquals(400, writeFailed(body, direct, EOFException.class));
+            }
+        } finally {
+            changed.delete();
+        }
+    }
+
+    private static int writeFailed(FileTransferBody body, boolean direct, Class<? extends IOException> expected) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (direct) {
+            DirectTransfer.begin(Channels.newChannel(out));
+        }
+        try {
+            body.writeTo(out);
+            fail("The file size changed");
+        } catch (IOException ex) {
+            assertEquals(expected, ex.getClass());
+        } finally {
+            if (direct) {
+                DirectTransfer.end();
+            }
+        }
+        return out.size();
+    }
+
+    private static void setLength(File file, long length) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private void assertFilePart(byte[] body, byte[] content) {
+        assertEquals(String.valueOf(body.length), server.getLastHeader("Content-Length"));
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        String boundary = text.substring(0, text.indexOf("\r\n"));
+        int start = text.indexOf("\r\n\r\n", text.indexOf("filename=")) + 4;
+        String file = text.substring(start, start + content.length);
+        assertEquals(new String(content, StandardCharsets.ISO_8859_1), file);
+        assertTrue(text.startsWith("\r\n" + boundary, start + content.length));
+        assertTrue(text.endsWith(boundary + "--\r\n"));
+    }
+
+    static File createFile(long size) throws IOException {
+        File file = File.createTempFile("photo", ".jpg");
+        file.deleteOnExit();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(size);
+        } finally {
+            raf.close();
+        }
+        return file;
+    }
+
+}
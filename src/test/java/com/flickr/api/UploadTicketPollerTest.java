@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the asynchronous uploads, and the batched checks of their tickets.
+ */
+public class UploadTicketPollerTest {
+
+    private static final String TICKET = "<?xml version=\"1.0\" encoding=\"utf-8\" ?>"
+            + "<rsp stat=\"ok\"><ticketid>42</ticketid></rsp>";
+    private static final String PENDING =
+            "{\"uploader\":{\"ticket\":[{\"id\":\"42\",\"complete\":0}]},\"stat\":\"ok\"}";
+    private static final String COMPLETE = "{\"uploader\":{\"ticket\":[{\"id\":\"42\",\"complete\":1,"
+            + "\"photoid\":\"1234\",\"imported\":\"1148381082\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private UploadTicketPoller poller;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        flickr = server.createFlickr();
+        poller = new UploadTicketPoller(flickr.getUploadService(), 20, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        poller.close();
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testUpload() throws Exception {
+        // The tickets are never cached
+        flickr.setResponseCache(new ResponseCache(100, 5, TimeUnit.MINUTES));
+        server.respond("upload", TICKET);
+        server.respond("flickr.photos.upload.checkTickets", PENDING);
+        File file = UploadTest.createFile(1024);
+
+        assertEquals("42", flickr.getUploadService().startUpload(file, "title", null));
+        assertTrue(server.getLastQuery().contains("async=1"));
+
+        CompletableFuture<String> photoId = poller.await("42");
+        awaitChecks(2);
+        assertFalse(photoId.isDone());
+
+        server.respond("flickr.photos.upload.checkTickets", COMPLETE);
+        assertEquals("1234", photoId.get(5, TimeUnit.SECONDS));
+        assertEquals(0, poller.getPendingCount());
+
+        // No more requests once no ticket is pending
+        Thread.sleep(100);
+        long checks = poller.getCheckCount();
+        Thread.sleep(100);
+        assertEquals(checks, poller.getCheckCount());
+        file.delete();
+    }
+
+    @Test
+    public void testBatches() throws Exception {
+        // All the tickets are registered long before the first check
+        poller.close();
+        poller = new UploadTicketPoller(flickr.getUploadService(), 1, TimeUnit.SECONDS);
+        StringBuilder tickets = new StringBuilder();
+        for (int i = 0; i < 150; i++) {
+            tickets.append(i == 0 ? "" : ",").append("{\"id\":\"").append(i).append("\",\"complete\":1,\"photoid\":\"")
+                    .append(1000 + i).append("\"}");
+        }
+        server.respond("flickr.photos.upload.checkTickets",
+                "{\"uploader\":{\"ticket\":[" + tickets + "]},\"stat\":\"ok\"}");
+        List<CompletableFuture<String>> futures = new ArrayList<CompletableFuture<String>>();
+        for (int i = 0; i < 150; i++) {
+            futures.add(poller.await(String.valueOf(i)));
+        }
+
+        for (int i = 0; i < 150; i++) {
+            assertEquals(String.valueOf(1000 + i), futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        // A single round of two calls, the first response completes all the tickets while the second call may still run
+        assertEquals(2, poller.getCheckCount());
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getRequestCount() < 2 && System.nanoTime() < end) {
+            Thread.sleep(5);
+        }
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testFailedTickets() throws Exception {
+        server.respond("flickr.photos.upload.checkTickets", "{\"uploader\":{\"ticket\":["
+                + "{\"id\":\"1\",\"complete\":2},{\"id\":\"2\",\"invalid\":1}]},\"stat\":\"ok\"}");
+        assertFailed(poller.await("1"));
+        assertFailed(poller.await("2"));
+    }
+
+    @Test
+    public void testMaxWait() throws Exception {
+        server.respond("flickr.photos.upload.checkTickets", PENDING);
+        poller.setMaxWait(100, TimeUnit.MILLISECONDS);
+        assertFailed(poller.await("42"));
+        assertEquals(0, poller.getPendingCount());
+    }
+
+    private static void assertFailed(CompletableFuture<String> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("The ticket should fail");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof FlickrException);
+        }
+    }
+
+    private void awaitChecks(long count) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (poller.getCheckCount() < count && System.nanoTime() < end) {
+            Thread.sleep(5);
+        }
+        assertTrue(poller.getCheckCount() >= count);
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the sessions of several users share a single client.
+ */
+public class UserSessionTest {
+
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private UserSession alice;
+    private UserSession bob;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        flickr = server.createFlickr();
+        alice = flickr.forUser(new UserToken("alice-token", "alice-secret"));
+        bob = flickr.forUser(new UserToken("bob-token", "bob-secret"));
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        flickr.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void testSigning() throws Exception {
+        alice.getPhotosService().getSizes(photo);
+        bob.getPhotosService().getSizes(photo);
+        flickr.getPhotosService().getSizes(photo);
+
+        assertEquals(3, server.getAuthorizations().size());
+        assertTrue(server.getAuthorizations().get(0).contains("oauth_token=\"alice-token\""));
+        assertTrue(server.getAuthorizations().get(1).contains("oauth_token=\"bob-token\""));
+        // The instance keeps its own token
+        assertTrue(server.getAuthorizations().get(2).contains("oauth_token=\"token\""));
+        assertEquals(new UserToken("token", "secret"), flickr.getUserToken());
+    }
+
+    @Test
+    public void testCacheNotShared() throws Exception {
+        flickr.setResponseCache(new ResponseCache(100, 1, TimeUnit.MINUTES));
+
+        alice.getPhotosService().getSizes(photo);
+        bob.getPhotosService().getSizes(photo);
+        assertEquals(2, server.getRequestCount());
+
+        // Each user gets its own cached response
+        alice.getPhotosService().getSizes(photo);
+        bob.getPhotosService().getSizes(photo);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testWriteInvalidatesOtherSessions() throws Exception {
+        flickr.setResponseCache(new ResponseCache(100, 1, TimeUnit.MINUTES));
+        server.respond("flickr.photos.licenses.getInfo", "{\"licenses\":{\"license\":[]},\"stat\":\"ok\"}");
+        server.respond("flickr.photos.setTag", "{\"stat\":\"ok\"}");
+        UserSession aliceAgain = flickr.forUser(new UserToken("alice-token", "alice-secret"));
+
+        alice.getPhotosService().getLicenses();
+        bob.getPhotosService().getLicenses();
+        assertEquals(2, server.getRequestCount());
+
+        // The write of alice, from another session, removes the responses of her photos service
+        aliceAgain.getPhotosService().setTags(photo, "tag");
+        alice.getPhotosService().getLicenses();
+        assertEquals(4, server.getRequestCount());
+        bob.getPhotosService().getLicenses();
+        assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void testSharedRateLimiter() throws Exception {
+        flickr.setRateLimiter(new RateLimiter(0.1, 2, RateLimiter.Policy.FAIL_FAST));
+
+        alice.getPhotosService().getSizes(photo);
+        bob.getPhotosService().getSizes(photo);
+        try {
+            flickr.forUser(new UserToken("carol-token", "carol-secret")).getPhotosService().getSizes(photo);
+            fail("The bucket is shared by all the users");
+        } catch (RateLimitExceededException ex) {
+            // Expected
+        }
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void testLazyServices() throws Exception {
+        assertSame(alice.getPhotosService(), alice.getPhotosService());
+        assertNotSame(alice.getPhotosService(), bob.getPhotosService());
+        assertEquals("UserToken[alice-token]", alice.getToken().toString());
+    }
+
+}
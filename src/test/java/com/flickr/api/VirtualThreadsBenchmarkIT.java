@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2013 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoSize;
+import com.flickr.api.json.StreamingJSONReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Compare the throughput of concurrent calls run on a fixed pool of platform threads and on virtual threads, against
+ * a local stub server with a fixed latency. Run with "mvn verify" on Java 21, as the virtual threads support is only
+ * visible from the multi-release jar.
+ */
+public class VirtualThreadsBenchmarkIT {
+
+    private static final int CALLS = 1000;
+    private static final int PLATFORM_THREADS = 50;
+    private static final long LATENCY = 20;
+    private static final String SIZES = "{\"sizes\":{\"size\":[{\"label\":\"Square\",\"width\":75,\"height\":75,"
+            + "\"source\":\"https://farm1.staticflickr.com/1/1_s.jpg\"}]},\"stat\":\"ok\"}";
+    //
+    private StubServer server;
+    private Flickr flickr;
+    private Photo photo;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue(Flickr.isVirtualThreadsSupported());
+
+        server = new StubServer();
+        server.respond("flickr.photos.getSizes", SIZES);
+        server.setLatency(LATENCY);
+
+        flickr = server.createFlickr();
+        // The calls are identical, each one must send its own request
+        flickr.setCoalescingEnabled(false);
+        flickr.setMaxConnections(CALLS);
+        flickr.setMaxConnectionsPerRoute(CALLS);
+
+        photo = new Photo(new StreamingJSONReader(new StringReader("{\"id\":\"1\",\"title\":\"photo\",\"secret\":\"s\",\"server\":\"1\",\"farm\":1}")));
+    }
+
+    @After
+    public void tearDown() {
+        if (flickr != null) {
+            flickr.shutdown();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testThroughput() throws Exception {
+        ExecutorService platformExecutor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        try {
+            flickr.setExecutor(platformExecutor);
+            run(CALLS / 10);
+            double platform = run(CALLS);
+
+            flickr.setVirtualThreadsEnabled(true);
+            run(CALLS / 10);
+            double virtual = run(CALLS);
+
+            System.out.println(String.format("%d calls, %d ms latency: %d platform threads %.0f calls/s, virtual threads %.0f calls/s",
+                    CALLS, LATENCY, PLATFORM_THREADS, platform, virtual));
+
+        } finally {
+            platformExecutor.shutdown();
+        }
+    }
+
+    private double run(int calls) throws Exception {
+        long start = System.nanoTime();
+
+        List<CompletableFuture<List<PhotoSize>>> futures = new ArrayList<CompletableFuture<List<PhotoSize>>>();
+        for (int i = 0; i < calls; i++) {
+            futures.add(flickr.getPhotosService().getSizesAsync(photo));
+        }
+        for (CompletableFuture<List<PhotoSize>> future : futures) {
+            assertEquals(1, future.get().size());
+        }
+
+        return calls / ((System.nanoTime() - start) / 1e9);
+    }
+
+}
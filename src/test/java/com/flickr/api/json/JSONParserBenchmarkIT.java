@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.json;
+
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotosResponse;
+import java.lang.management.ManagementFactory;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Compare the memory allocated to read a page of photos with the streaming backend and with the org.json backend.
+ * The allocated bytes are measured with the HotSpot per thread allocation counter.
+ */
+public class JSONParserBenchmarkIT {
+
+    private static final int PHOTOS = 500;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 200;
+    //
+    private com.sun.management.ThreadMXBean threads;
+    private String page;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        StringBuilder builder = new StringBuilder("{\"photos\":{\"page\":1,\"pages\":20,\"perpage\":");
+        builder.append(PHOTOS).append(",\"total\":\"").append(PHOTOS * 20).append("\",\"photo\":[");
+        for (int i = 0; i < PHOTOS; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":\"").append(12000000000L + i).append("\",\"owner\":\"12345678@N0").append(i % 10)
+                    .append("\",\"secret\":\"a1b2c3d4e5\",\"server\":\"").append(1000 + i % 7000)
+                    .append("\",\"farm\":").append(1 + i % 9)
+                    .append(",\"title\":\"Photo number ").append(i)
+                    .append("\",\"ispublic\":1,\"isfriend\":0,\"isfamily\":0}");
+        }
+        page = builder.append("]},\"stat\":\"ok\"}").toString();
+    }
+
+    @After
+    public void tearDown() {
+        JSONParser.setDefault(JSONParser.STREAMING);
+    }
+
+    @Test
+    public void testAllocations() throws Exception {
+        double orgJson = measure(JSONParser.ORG_JSON);
+        double streaming = measure(JSONParser.STREAMING);
+
+        System.out.println(String.format("%d photos per page: org.json %.0f bytes per photo, streaming %.0f bytes per photo",
+                PHOTOS, orgJson, streaming));
+        assertTrue("The streaming backend should allocate less than half of the org.json backend",
+                streaming * 2 < orgJson);
+    }
+
+    private double measure(JSONParser parser) throws Exception {
+        JSONParser.setDefault(parser);
+        for (int i = 0; i < WARMUP; i++) {
+            read();
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            read();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        System.out.println(String.format("%s: %.2f ms per page", parser, elapsed / 1e6 / ITERATIONS));
+        return (double) allocated / ITERATIONS / PHOTOS;
+    }
+
+    private void read() throws Exception {
+        PhotosResponse response = new PhotosResponse();
+        response.read(page, "flickr.photos.search");
+        Photo last = response.getPaginated().get(PHOTOS - 1);
+        assertEquals(String.valueOf(12000000000L + PHOTOS - 1), last.getId());
+    }
+
+}
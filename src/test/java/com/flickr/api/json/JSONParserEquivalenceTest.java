@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.json;
+
+import com.flickr.api.entities.Image;
+import com.flickr.api.entities.Photo;
+import com.flickr.api.entities.PhotoInfos;
+import com.flickr.api.entities.PhotoInfosResponse;
+import com.flickr.api.entities.PhotoTag;
+import com.flickr.api.entities.PhotosResponse;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the streaming backend and the org.json backend read the same entities.
+ */
+public class JSONParserEquivalenceTest {
+
+    private static final String PHOTOS = "{\"photos\":{\"page\":2,\"pages\":\"20\",\"perpage\":3,\"total\":\"60\","
+            + "\"photo\":[{\"id\":\"12000000001\",\"owner\":\"12345678@N01\",\"secret\":\"a1b2c3d4e5\","
+            + "\"server\":\"1234\",\"farm\":1,\"title\":\"Caf\\u00e9 \\\"Le Zinc\\\"\",\"ispublic\":1,"
+            + "\"isfriend\":0,\"isfamily\":\"1\",\"extra\":{\"nested\":[1,[2,{\"x\":null}]]}},"
+            + "{\"id\":\"12000000002\",\"owner\":\"12345678@N02\",\"secret\":\"f6e5d4c3b2\",\"server\":\"5678\","
+            + "\"farm\":\"9\",\"title\":\"\",\"ispublic\":0,\"isfriend\":1,\"isfamily\":0},"
+            + "{\"id\":\"12000000003\",\"owner\":\"12345678@N03\",\"secret\":\"0a0b0c0d0e\",\"server\":\"42\","
+            + "\"farm\":3,\"title\":\"Line\\nbreak \\/ slash\",\"ispublic\":\"0\",\"isfriend\":\"0\","
+            + "\"isfamily\":1}]},\"stat\":\"ok\"}";
+    private static final String INFOS = "{\"photo\":{\"id\":\"12000000001\",\"secret\":\"a1b2c3d4e5\","
+            + "\"dateuploaded\":\"1400000000\",\"isfavorite\":1,\"license\":\"4\",\"views\":\"321\","
+            + "\"owner\":{\"nsid\":\"12345678@N01\",\"username\":\"fabien\",\"realname\":\"Fabien B\","
+            + "\"location\":\"Paris, France\",\"iconserver\":\"1234\",\"iconfarm\":2},"
+            + "\"title\":{\"_content\":\"Caf\\u00e9\"},\"description\":{\"_content\":\"<b>bold<\\/b>\\ttab\"},"
+            + "\"visibility\":{\"ispublic\":1,\"isfriend\":0,\"isfamily\":0},"
+            + "\"dates\":{\"posted\":\"1400000000\",\"taken\":\"2014-05-13 18:53:20\",\"takengranularity\":\"0\"},"
+            + "\"comments\":{\"_content\":\"7\"},\"notes\":{\"note\":[]},\"people\":{\"haspeople\":0},"
+            + "\"tags\":{\"tag\":[{\"id\":\"1-2-3\",\"author\":\"12345678@N01\",\"raw\":\"Tour Eiffel\","
+            + "\"_content\":\"toureiffel\",\"machine_tag\":0},{\"id\":\"1-2-4\",\"author\":\"12345678@N01\","
+            + "\"raw\":\"\\u00e9t\\u00e9\",\"_content\":\"\\u00e9t\\u00e9\",\"machine_tag\":0}]},"
+            + "\"location\":{\"latitude\":48.858222,\"longitude\":\"2.2945\",\"accuracy\":\"16\",\"context\":0,"
+            + "\"locality\":{\"_content\":\"Paris\"},\"country\":{\"_content\":\"France\"}},"
+            + "\"urls\":{\"url\":[{\"type\":\"photopage\",\"_content\":\"https:\\/\\/www.flickr.com\\/photos\\/1\"}]},"
+            + "\"media\":\"photo\"},\"stat\":\"ok\"}";
+
+    @After
+    public void tearDown() {
+        JSONParser.setDefault(JSONParser.STREAMING);
+    }
+
+    @Test
+    public void testPhotos() throws Exception {
+        List<Photo> streaming = readPhotos(JSONParser.STREAMING);
+        List<Photo> tree = readPhotos(JSONParser.ORG_JSON);
+
+        assertEquals(3, streaming.size());
+        assertEquals(streaming.size(), tree.size());
+        assertEquals("Caf\u00e9 \"Le Zinc\"", streaming.get(0).getTitle());
+        assertEquals("Line\nbreak / slash", streaming.get(2).getTitle());
+        for (int i = 0; i < streaming.size(); i++) {
+            Photo expected = streaming.get(i);
+            Photo actual = tree.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getOwner(), actual.getOwner());
+            assertEquals(expected.isPublic(), actual.isPublic());
+            assertEquals(expected.isFriend(), actual.isFriend());
+            assertEquals(expected.isFamily(), actual.isFamily());
+            assertEquals(expected.getImage().getURL(Image.MEDIUM_640), actual.getImage().getURL(Image.MEDIUM_640));
+        }
+    }
+
+    @Test
+    public void testPhotoInfos() throws Exception {
+        PhotoInfos streaming = readInfos(JSONParser.STREAMING);
+        PhotoInfos tree = readInfos(JSONParser.ORG_JSON);
+
+        assertEquals("Caf\u00e9", streaming.getTitle());
+        assertEquals("<b>bold</b>\ttab", streaming.getDescription());
+        assertEquals(321, streaming.getViews());
+        assertEquals(7, streaming.getCommentsCount());
+        assertEquals(2, streaming.getTags().size());
+
+        assertEquals(streaming.getTitle(), tree.getTitle());
+        assertEquals(streaming.getDescription(), tree.getDescription());
+        assertEquals(streaming.getViews(), tree.getViews());
+        assertEquals(streaming.getCommentsCount(), tree.getCommentsCount());
+        assertEquals(streaming.isFavorite(), tree.isFavorite());
+        assertEquals(streaming.getLicense(), tree.getLicense());
+        assertEquals(streaming.getUploadedDate(), tree.getUploadedDate());
+        assertEquals(streaming.getOwner().getId(), tree.getOwner().getId());
+        assertEquals(streaming.getOwner().getUserName(), tree.getOwner().getUserName());
+        assertEquals(streaming.getOwner().getRealName(), tree.getOwner().getRealName());
+        assertEquals(streaming.getOwner().getLocation(), tree.getOwner().getLocation());
+        assertEquals(streaming.getLocation().getLatitude(), tree.getLocation().getLatitude(), 0);
+        assertEquals(streaming.getLocation().getLongitude(), tree.getLocation().getLongitude(), 0);
+        assertEquals(streaming.getLocation().getLocality(), tree.getLocation().getLocality());
+        assertEquals(streaming.getLocation().getCountry(), tree.getLocation().getCountry());
+        assertEquals(streaming.getTags().size(), tree.getTags().size());
+        for (int i = 0; i < streaming.getTags().size(); i++) {
+            PhotoTag expected = streaming.getTags().get(i);
+            PhotoTag actual = tree.getTags().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getAuthorId(), actual.getAuthorId());
+            assertEquals(expected.getRaw(), actual.getRaw());
+            assertEquals(expected.getTag(), actual.getTag());
+        }
+    }
+
+    private List<Photo> readPhotos(JSONParser parser) throws Exception {
+        JSONParser.setDefault(parser);
+        PhotosResponse response = new PhotosResponse();
+        response.read(PHOTOS, "flickr.photos.search");
+        assertEquals(2, response.getPaginated().getPageIndex());
+        assertEquals(20, response.getPaginated().getPagesCount());
+        assertEquals(60, response.getPaginated().getTotalCount());
+        return response.getPaginated().asList();
+    }
+
+    private PhotoInfos readInfos(JSONParser parser) throws Exception {
+        JSONParser.setDefault(parser);
+        PhotoInfosResponse response = new PhotoInfosResponse();
+        response.read(INFOS, "flickr.photos.getInfo");
+        return response.getInfos();
+    }
+
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.json;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Behaviour shared by the JSON backends, the subclasses give the backend to check.
+ */
+public abstract class JSONReaderTestBase {
+
+    protected abstract JSONParser parser();
+
+    protected JSONReader reader(String json) throws IOException {
+        return parser().newReader(new StringReader(json));
+    }
+
+    /**
+     * Read the whole document, the members are skipped.
+     */
+    protected void readFully(String json) throws IOException {
+        JSONReader reader = reader(json);
+        reader.skipValue();
+        assertEquals(JSONToken.END_DOCUMENT, reader.peek());
+    }
+
+    protected void assertMalformed(String json) throws IOException {
+        try {
+            readFully(json);
+            fail("The document should be rejected: " + json);
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testEscapes() throws Exception {
+        JSONReader reader = reader("{\"value\":\"a\\\"b\\\\c\\/d\\n\\t\\b\\f\\r\"}");
+        reader.beginObject();
+        assertEquals("value", reader.nextName());
+        assertEquals("a\"b\\c/d\n\t\b\f\r", reader.nextString());
+        reader.endObject();
+    }
+
+    @Test
+    public void testUnicodeEscapes() throws Exception {
+        JSONReader reader = reader("{\"caf\\u00e9\":\"\\u20AC \\u00E9t\\u00e9 \\uD83D\\uDCF7\"}");
+        reader.beginObject();
+        assertEquals("caf\u00e9", reader.nextName());
+        assertEquals("\u20ac \u00e9t\u00e9 \ud83d\udcf7", reader.nextString());
+        reader.endObject();
+    }
+
+    @Test
+    public void testNesting() throws Exception {
+        JSONReader reader = reader("{\"a\":[[{\"b\":[1,[2]]}],[]]}");
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        reader.beginArray();
+        reader.beginArray();
+        reader.beginObject();
+        assertEquals("b", reader.nextName());
+        reader.beginArray();
+        assertEquals(1, reader.nextInt());
+        reader.beginArray();
+        assertEquals(2, reader.nextInt());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        reader.endArray();
+        reader.endObject();
+        reader.endArray();
+        assertEquals(JSONToken.BEGIN_ARRAY, reader.peek());
+        reader.beginArray();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        reader.endArray();
+        reader.endObject();
+        assertEquals(JSONToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testNumbers() throws Exception {
+        JSONReader reader = reader("{\"values\":[42,\"42\",-7,\"-7\",12000000000,\"12000000000\","
+                + "-1.25e2,\"0.5\",4.0]}");
+        reader.beginObject();
+        reader.nextName();
+        reader.beginArray();
+        assertEquals(JSONToken.NUMBER, reader.peek());
+        assertEquals(42, reader.nextInt());
+        assertEquals(JSONToken.STRING, reader.peek());
+        assertEquals(42, reader.nextInt());
+        assertEquals(-7L, reader.nextLong());
+        assertEquals(-7L, reader.nextLong());
+        assertEquals(12000000000L, reader.nextLong());
+        assertEquals(12000000000L, reader.nextLong());
+        assertEquals(-125.0, reader.nextDouble(), 0);
+        assertEquals(0.5, reader.nextDouble(), 0);
+        assertEquals(4, reader.nextInt());
+        reader.endArray();
+        reader.endObject();
+    }
+
+    @Test
+    public void testLenientStrings() throws Exception {
+        JSONReader reader = reader("{\"values\":[42,true,null,\"text\"]}");
+        reader.beginObject();
+        reader.nextName();
+        reader.beginArray();
+        assertEquals("42", reader.nextString());
+        assertEquals("true", reader.nextString());
+        assertNull(reader.nextString());
+        assertEquals("text", reader.nextString());
+        reader.endArray();
+        reader.endObject();
+    }
+
+    @Test
+    public void testNumberErrors() throws Exception {
+        JSONReader reader = reader("{\"values\":[\"abc\",1.5,3000000000,{}]}");
+        reader.beginObject();
+        reader.nextName();
+        reader.beginArray();
+        try {
+            reader.nextLong();
+            fail("Not a number");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+        try {
+            reader.nextLong();
+            fail("Not an integer");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+        try {
+            reader.nextInt();
+            fail("Out of the int range");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+        try {
+            reader.nextInt();
+            fail("Not a number");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testSkipNestedValues() throws Exception {
+        JSONReader reader = reader("{\"skipped\":{\"a\":[1,{\"b\":[true,null,\"]}\"]}],\"c\":{}},"
+                + "\"kept\":\"x\",\"array\":[[[]],{\"d\":[{}]}],\"scalar\":12}");
+        String kept = null;
+        int skipped = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("kept".equals(reader.nextName())) {
+                kept = reader.nextString();
+            } else {
+                reader.skipValue();
+                skipped++;
+            }
+        }
+        reader.endObject();
+        assertEquals("x", kept);
+        assertEquals(3, skipped);
+        assertEquals(JSONToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testPeekAtEndOfDocument() throws Exception {
+        JSONReader reader = reader("{\"a\":1} \n");
+        reader.beginObject();
+        // The name is skipped with its value
+        reader.skipValue();
+        assertFalse(reader.hasNext());
+        try {
+            reader.skipValue();
+            fail("Nothing left to skip in the object");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+        reader.endObject();
+        assertEquals(JSONToken.END_DOCUMENT, reader.peek());
+        assertEquals(JSONToken.END_DOCUMENT, reader.peek());
+        assertFalse(reader.hasNext());
+        try {
+            reader.skipValue();
+            fail("Nothing left to skip");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+        try {
+            reader.beginObject();
+            fail("Nothing left to read");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testUnexpectedToken() throws Exception {
+        JSONReader reader = reader("{\"a\":[1]}");
+        reader.beginObject();
+        try {
+            reader.beginArray();
+            fail("The next token is a name");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+        reader.nextName();
+        try {
+            reader.beginObject();
+            fail("The next token is an array");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+        try {
+            reader.nextBoolean();
+            fail("The next token is an array");
+        } catch (JSONParseException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testMalformed() throws Exception {
+        assertMalformed("");
+        assertMalformed("{\"a\":}");
+        assertMalformed("{\"a\" 1}");
+        assertMalformed("{\"a\":[1,2}");
+        assertMalformed("{\"a\":1,,\"b\":2}");
+        assertMalformed("{\"a\":\"\\u00zz\"}");
+    }
+
+    @Test
+    public void testTruncated() throws Exception {
+        assertMalformed("{");
+        assertMalformed("{\"a\"");
+        assertMalformed("{\"a\":");
+        assertMalformed("{\"a\":\"abc");
+        assertMalformed("{\"a\":[1,");
+        assertMalformed("{\"a\":{\"b\":[{}]");
+        assertMalformed("{\"a\":\"\\u00");
+        assertMalformed("{\"a\":\"\\");
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the streaming backend.
+ */
+public class StreamingJSONReaderTest extends JSONReaderTestBase {
+
+    @Override
+    protected JSONParser parser() {
+        return JSONParser.STREAMING;
+    }
+
+    @Test
+    public void testStrictSyntax() throws Exception {
+        assertMalformed("{\"a\":tru}");
+        assertMalformed("{\"a\":1} x");
+        assertMalformed("{\"a\":1}{}");
+        assertMalformed("{a:1}");
+    }
+
+    @Test
+    public void testTokensAcrossReads() throws Exception {
+        // The document is given one character at a time, so every token is split between two reads
+        final String json = "{\"name\":\"caf\\u00e9\",\"values\":[12000000000,true,null]}";
+        Reader slow = new Reader() {
+            private final StringReader delegate = new StringReader(json);
+
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return delegate.read(cbuf, off, Math.min(len, 1));
+            }
+
+            @Override
+            public void close() {
+                delegate.close();
+            }
+        };
+        JSONReader reader = new StreamingJSONReader(slow);
+        reader.beginObject();
+        assertEquals("name", reader.nextName());
+        assertEquals("caf\u00e9", reader.nextString());
+        assertEquals("values", reader.nextName());
+        reader.beginArray();
+        assertEquals(12000000000L, reader.nextLong());
+        assertTrue(reader.nextBoolean());
+        assertEquals(JSONToken.NULL, reader.peek());
+        reader.skipValue();
+        reader.endArray();
+        reader.endObject();
+        assertEquals(JSONToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testLongDocument() throws Exception {
+        // Longer than the read buffer, with names and values longer than the initial scratch buffer
+        StringBuilder builder = new StringBuilder("{\"items\":[");
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"").append(value).append("\":\"").append(value).append(i).append("\"}");
+        }
+        JSONReader reader = reader(builder.append("]}").toString());
+        reader.beginObject();
+        reader.nextName();
+        reader.beginArray();
+        int count = 0;
+        while (reader.hasNext()) {
+            reader.beginObject();
+            assertEquals(value.toString(), reader.nextName());
+            assertEquals(value.toString() + count, reader.nextString());
+            reader.endObject();
+            count++;
+        }
+        reader.endArray();
+        reader.endObject();
+        assertEquals(100, count);
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014 Fabien Barbero
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.flickr.api.json;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the org.json backend.
+ */
+public class TreeJSONReaderTest extends JSONReaderTestBase {
+
+    @Override
+    protected JSONParser parser() {
+        return JSONParser.ORG_JSON;
+    }
+
+    @Test
+    public void testExistingTree() throws Exception {
+        JSONObject root = new JSONObject().put("photo", new JSONObject().put("id", "1").put("farm", 2));
+        JSONReader reader = new TreeJSONReader(root);
+        reader.beginObject();
+        assertEquals("photo", reader.nextName());
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("id".equals(name)) {
+                assertEquals(1, reader.nextInt());
+            } else {
+                assertEquals("2", reader.nextString());
+            }
+        }
+        reader.endObject();
+        reader.endObject();
+        assertEquals(JSONToken.END_DOCUMENT, reader.peek());
+    }
+
+}